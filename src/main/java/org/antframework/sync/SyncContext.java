@@ -8,30 +8,84 @@
  */
 package org.antframework.sync;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.antframework.sync.common.SyncExecutor;
+import org.antframework.sync.common.SyncThreads;
 import org.antframework.sync.extension.Server;
 import org.antframework.sync.lock.LockContext;
+import org.antframework.sync.metrics.SyncMetrics;
+import org.antframework.sync.metrics.support.NoopSyncMetrics;
 import org.antframework.sync.semaphore.SemaphoreContext;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
 
 /**
  * Sync上下文
  */
 @Getter
-public class SyncContext {
+public class SyncContext implements AutoCloseable {
     // 锁上下文
     private final LockContext lockContext;
     // 信号量上下文
     private final SemaphoreContext semaphoreContext;
+    // Sync执行器
+    @Getter(AccessLevel.NONE)
+    private final SyncExecutor syncExecutor;
+    // 由本上下文创建的线程池（关闭时需关闭；null表示没有）
+    @Getter(AccessLevel.NONE)
+    private final ExecutorService ownedExecutor;
 
     public SyncContext(Function<Object, String> keyConverter, Server server, long maxWaitTime) {
-        if (server == null || maxWaitTime < 0) {
-            throw new IllegalArgumentException("server不能为null且maxWaitTime不能小于0");
+        this(keyConverter, server, maxWaitTime, NoopSyncMetrics.INSTANCE);
+    }
+
+    public SyncContext(Function<Object, String> keyConverter, Server server, long maxWaitTime, SyncMetrics metrics) {
+        this(keyConverter, server, toOptions(maxWaitTime), metrics);
+    }
+
+    public SyncContext(Function<Object, String> keyConverter, Server server, SyncOptions options, SyncMetrics metrics) {
+        if (server == null || options == null || metrics == null) {
+            throw new IllegalArgumentException("server、options、metrics不能为null");
+        }
+        if (options.getIdGenerator() == null) {
+            throw new IllegalArgumentException("idGenerator不能为null");
+        }
+        if (options.getMaxWaitTime() < 0 || options.getMaxWaiters() < 0 || options.getMaxClusterWaiters() < 0 || options.getCohortHandoffBudget() < 0 || options.getBiasedGracePeriod() < 0 || options.getSemaphoreLeaseBlockSize() < 0) {
+            throw new IllegalArgumentException("maxWaitTime、maxWaiters、maxClusterWaiters、cohortHandoffBudget、biasedGracePeriod、semaphoreLeaseBlockSize不能小于0");
+        }
+        if (options.getSemaphoreLeaseIdleTime() <= 0 || options.getHandleTableSize() <= 0) {
+            throw new IllegalArgumentException("semaphoreLeaseIdleTime、handleTableSize必须大于0");
         }
-        SyncExecutor syncExecutor = new SyncExecutor();
-        this.lockContext = new LockContext(keyConverter, syncExecutor, server, maxWaitTime);
-        this.semaphoreContext = new SemaphoreContext(keyConverter, syncExecutor, server, maxWaitTime);
+        Executor executor = options.getExecutor();
+        ExecutorService ownedExecutor = null;
+        if (executor == null && options.isVirtualThreads()) {
+            ownedExecutor = SyncThreads.newVirtualThreadExecutor("SyncExecutor-");
+            executor = ownedExecutor;
+        }
+        this.ownedExecutor = ownedExecutor;
+        this.syncExecutor = new SyncExecutor(executor, options.getScheduler(), metrics);
+        this.lockContext = new LockContext(keyConverter, syncExecutor, server, options, metrics);
+        this.semaphoreContext = new SemaphoreContext(keyConverter, syncExecutor, server, options, metrics);
+    }
+
+    /**
+     * 关闭（关闭由本上下文创建的线程池，之后不能再异步等待；服务端由创建者负责关闭，关闭服务端时会释放仍持有的锁、信号量许可）
+     */
+    @Override
+    public void close() {
+        syncExecutor.close();
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    // 转换为选项
+    private static SyncOptions toOptions(long maxWaitTime) {
+        SyncOptions options = new SyncOptions();
+        options.setMaxWaitTime(maxWaitTime);
+        return options;
     }
 }
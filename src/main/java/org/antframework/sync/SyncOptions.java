@@ -0,0 +1,85 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 16:10 创建
+ */
+package org.antframework.sync;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.antframework.sync.common.DefaultIdGenerator;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Sync选项
+ */
+@Getter
+@Setter
+public class SyncOptions {
+    /**
+     * 等待同步消息的最长时间（毫秒，不能小于0；默认为10秒）
+     */
+    private long maxWaitTime = 10 * 1000;
+    /**
+     * 每个key本地最多的等待者数量（加锁、获取许可失败需等待时，如果等待同一个key的线程已达到该数量则立即抛出WaitersExceededException，而不是排队直到超时；
+     * 0表示不限制；注解可通过maxWaiters覆盖；默认为0）
+     */
+    private int maxWaiters = 0;
+    /**
+     * 按key指定本地最多的等待者数量（参数为转换后的key，返回null表示使用maxWaiters；注解指定的maxWaiters优先；null表示不按key指定；默认为null）
+     */
+    private Function<String, Integer> maxWaitersResolver = null;
+    /**
+     * 每个key最多有等待者的节点数量（节点内的等待者在服务端只算一个：本节点的等待者从无到有时在服务端登记本节点，从有到无时注销，
+     * 节点内的等待者数量由maxWaiters限制；本节点还没有等待者时需等待，如果等待同一个key的节点已达到该数量则立即抛出WaitersExceededException；
+     * 由服务端统计，redis服务端支持互斥锁和信号量，不支持的服务端不做限制；0表示不限制；默认为0）
+     */
+    private int maxClusterWaiters = 0;
+    /**
+     * 按key指定所有节点最多的等待者数量（参数为转换后的key，返回null表示使用maxClusterWaiters；null表示不按key指定；默认为null）
+     */
+    private Function<String, Integer> maxClusterWaitersResolver = null;
+    /**
+     * 互斥锁、写锁在本地移交的预算（解锁时如果有本地线程在等待，则服务端的锁不释放而直接移交给本地线程，最多连续移交的次数；0表示不移交；默认为0）
+     */
+    private int cohortHandoffBudget = 0;
+    /**
+     * 互斥锁、写锁偏向的宽限期（毫秒；本地最后一个线程解锁后服务端的锁在宽限期内仍由本节点持有，本地再加锁时无需访问服务端，其他节点加锁时会请求撤销；0表示不偏向；默认为0）
+     */
+    private long biasedGracePeriod = 0;
+    /**
+     * 信号量租约的最大块大小（本节点在服务端成块地获取许可，本地获取、释放许可时无需访问服务端；块大小随本地需求自适应，该值为扩租时最多多获取的许可数；0表示不租约；默认为0）
+     */
+    private int semaphoreLeaseBlockSize = 0;
+    /**
+     * 信号量租约的空闲时间（毫秒；租约内的许可空闲超过该时间后归还未使用的许可，必须大于0；默认为1秒）
+     */
+    private long semaphoreLeaseIdleTime = 1000;
+    /**
+     * Sync执行器的线程池（异步获取、撤销请求等任务在其中执行；null表示使用默认线程池；默认为null）
+     */
+    private Executor executor = null;
+    /**
+     * Sync执行器的定时任务线程池（null表示使用默认线程池；默认为null）
+     */
+    private ScheduledExecutorService scheduler = null;
+    /**
+     * 未指定线程池时是否使用虚拟线程（每个任务一个虚拟线程，需JDK21及以上；默认为false）
+     */
+    private boolean virtualThreads = false;
+    /**
+     * id生成器（生成加锁者id、获取信号量许可者id；id会作为redis中hash的字段和脚本参数，必须全局唯一，且不能与脚本中的保留字段（比如owner、readers、allPermits）相同；默认为DefaultIdGenerator）
+     */
+    private Supplier<String> idGenerator = new DefaultIdGenerator();
+    /**
+     * 每个线程缓存的锁、信号量凭证的最大数量（LockContext、SemaphoreContext为每个线程分别缓存获取过的锁、信号量，超过该数量时淘汰未持有的锁、信号量；必须大于0；默认为1024）
+     */
+    private int handleTableSize = 1024;
+}
@@ -0,0 +1,206 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 16:47 创建
+ */
+package org.antframework.sync;
+
+import org.antframework.sync.lock.LockContext;
+import org.antframework.sync.semaphore.Semaphore;
+import org.antframework.sync.semaphore.SemaphoreContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Sync模版
+ * <p>
+ * 以编程的方式在持有锁、许可期间执行动作，无需经过AOP代理和SpEL计算。锁、信号量与直接使用LockContext、SemaphoreContext一样归属于线程（可重入、复用线程缓存的凭证），
+ * 指标由锁、信号量统一收集。超时时间的含义与注解一致：负数表示永远等待；0表示只尝试一次；正数表示最长等待时间（毫秒）。
+ * 等待锁、许可期间被中断时抛出InterruptedException（线程的中断状态已被清除），不会执行动作。
+ * <p>
+ * 带param参数的方法会把param传给动作，动作可以不捕获外部变量（比如静态方法引用），避免每次调用都分配lambda对象。
+ */
+public class SyncTemplate {
+    // 锁上下文
+    private final LockContext lockContext;
+    // 信号量上下文
+    private final SemaphoreContext semaphoreContext;
+
+    public SyncTemplate(SyncContext syncContext) {
+        this.lockContext = syncContext.getLockContext();
+        this.semaphoreContext = syncContext.getSemaphoreContext();
+    }
+
+    /**
+     * 在持有互斥锁期间执行动作
+     *
+     * @param key     锁标识
+     * @param timeout 超时时间（毫秒）
+     * @param action  动作
+     * @param <T>     结果类型
+     * @return 动作的结果
+     * @throws TimeoutException     加锁超时
+     * @throws InterruptedException 等待锁时被中断
+     */
+    public <T> T executeWithLock(Object key, long timeout, Supplier<T> action) throws TimeoutException, InterruptedException {
+        return executeWithLock(key, timeout, action, Supplier::get);
+    }
+
+    /**
+     * 在持有互斥锁期间执行动作
+     *
+     * @param key     锁标识
+     * @param timeout 超时时间（毫秒）
+     * @param param   传给动作的参数
+     * @param action  动作
+     * @param <P>     参数类型
+     * @param <T>     结果类型
+     * @return 动作的结果
+     * @throws TimeoutException     加锁超时
+     * @throws InterruptedException 等待锁时被中断
+     */
+    public <P, T> T executeWithLock(Object key, long timeout, P param, Function<? super P, T> action) throws TimeoutException, InterruptedException {
+        return execute(lockContext.getLock(key), "加锁失败", key, timeout, param, action);
+    }
+
+    /**
+     * 在持有读锁期间执行动作
+     *
+     * @param key     锁标识
+     * @param timeout 超时时间（毫秒）
+     * @param action  动作
+     * @param <T>     结果类型
+     * @return 动作的结果
+     * @throws TimeoutException     加锁超时
+     * @throws InterruptedException 等待锁时被中断
+     */
+    public <T> T executeWithReadLock(Object key, long timeout, Supplier<T> action) throws TimeoutException, InterruptedException {
+        return executeWithReadLock(key, timeout, action, Supplier::get);
+    }
+
+    /**
+     * 在持有读锁期间执行动作
+     *
+     * @param key     锁标识
+     * @param timeout 超时时间（毫秒）
+     * @param param   传给动作的参数
+     * @param action  动作
+     * @param <P>     参数类型
+     * @param <T>     结果类型
+     * @return 动作的结果
+     * @throws TimeoutException     加锁超时
+     * @throws InterruptedException 等待锁时被中断
+     */
+    public <P, T> T executeWithReadLock(Object key, long timeout, P param, Function<? super P, T> action) throws TimeoutException, InterruptedException {
+        return execute(lockContext.getRWLock(key).readLock(), "加读锁失败", key, timeout, param, action);
+    }
+
+    /**
+     * 在持有写锁期间执行动作
+     *
+     * @param key     锁标识
+     * @param timeout 超时时间（毫秒）
+     * @param action  动作
+     * @param <T>     结果类型
+     * @return 动作的结果
+     * @throws TimeoutException     加锁超时
+     * @throws InterruptedException 等待锁时被中断
+     */
+    public <T> T executeWithWriteLock(Object key, long timeout, Supplier<T> action) throws TimeoutException, InterruptedException {
+        return executeWithWriteLock(key, timeout, action, Supplier::get);
+    }
+
+    /**
+     * 在持有写锁期间执行动作
+     *
+     * @param key     锁标识
+     * @param timeout 超时时间（毫秒）
+     * @param param   传给动作的参数
+     * @param action  动作
+     * @param <P>     参数类型
+     * @param <T>     结果类型
+     * @return 动作的结果
+     * @throws TimeoutException     加锁超时
+     * @throws InterruptedException 等待锁时被中断
+     */
+    public <P, T> T executeWithWriteLock(Object key, long timeout, P param, Function<? super P, T> action) throws TimeoutException, InterruptedException {
+        return execute(lockContext.getRWLock(key).writeLock(), "加写锁失败", key, timeout, param, action);
+    }
+
+    /**
+     * 在持有信号量许可期间执行动作
+     *
+     * @param key          信号量标识
+     * @param totalPermits 许可总数
+     * @param permits      获取的许可数
+     * @param timeout      超时时间（毫秒）
+     * @param action       动作
+     * @param <T>          结果类型
+     * @return 动作的结果
+     * @throws TimeoutException     获取许可超时
+     * @throws InterruptedException 等待许可时被中断
+     */
+    public <T> T executeWithPermits(Object key, int totalPermits, int permits, long timeout, Supplier<T> action) throws TimeoutException, InterruptedException {
+        return executeWithPermits(key, totalPermits, permits, timeout, action, Supplier::get);
+    }
+
+    /**
+     * 在持有信号量许可期间执行动作
+     *
+     * @param key          信号量标识
+     * @param totalPermits 许可总数
+     * @param permits      获取的许可数
+     * @param timeout      超时时间（毫秒）
+     * @param param        传给动作的参数
+     * @param action       动作
+     * @param <P>          参数类型
+     * @param <T>          结果类型
+     * @return 动作的结果
+     * @throws TimeoutException     获取许可超时
+     * @throws InterruptedException 等待许可时被中断
+     */
+    public <P, T> T executeWithPermits(Object key,
+                                       int totalPermits,
+                                       int permits,
+                                       long timeout,
+                                       P param,
+                                       Function<? super P, T> action) throws TimeoutException, InterruptedException {
+        Semaphore semaphore = semaphoreContext.getThreadSemaphore(key, totalPermits);
+        if (timeout < 0) {
+            semaphore.acquire(permits);
+        } else if (!semaphore.tryAcquire(permits, timeout, TimeUnit.MILLISECONDS)) {
+            throw new TimeoutException(String.format("获取许可失败：key=%s,permits=%d", key, permits));
+        }
+        try {
+            return action.apply(param);
+        } finally {
+            semaphore.release(permits);
+        }
+    }
+
+    // 在持有锁期间执行动作
+    private <P, T> T execute(Lock lock,
+                             String failMessage,
+                             Object key,
+                             long timeout,
+                             P param,
+                             Function<? super P, T> action) throws TimeoutException, InterruptedException {
+        if (timeout < 0) {
+            lock.lockInterruptibly();
+        } else if (!lock.tryLock(timeout, TimeUnit.MILLISECONDS)) {
+            throw new TimeoutException(String.format("%s：key=%s", failMessage, key));
+        }
+        try {
+            return action.apply(param);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 17:21 创建
+ */
+package org.antframework.sync;
+
+/**
+ * 等待者超过上限异常
+ * <p>
+ * 加锁、获取许可失败需等待时，如果本地等待同一个key的线程（包括异步等待者）已达到上限，则立即抛出该异常，而不是继续排队直到超时，调用方可据此快速降级。
+ * 本地还没有等待者时，如果等待同一个key的节点已达到maxClusterWaiters，也抛出该异常。
+ */
+public class WaitersExceededException extends RuntimeException {
+
+    public WaitersExceededException(String message) {
+        super(message);
+    }
+}
@@ -8,18 +8,32 @@
  */
 package org.antframework.sync.boot;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import org.antframework.sync.SyncContext;
+import org.antframework.sync.SyncOptions;
+import org.antframework.sync.SyncTemplate;
+import org.antframework.sync.common.DefaultIdGenerator;
 import org.antframework.sync.common.DefaultKeyConverter;
 import org.antframework.sync.common.DefaultKeyGenerator;
+import org.antframework.sync.common.SyncThreads;
 import org.antframework.sync.extension.Server;
 import org.antframework.sync.extension.local.LocalServer;
 import org.antframework.sync.extension.redis.RedisServer;
+import org.antframework.sync.extension.redis.RedisServerOptions;
 import org.antframework.sync.extension.redis.extension.RedisExecutor;
+import org.antframework.sync.extension.redis.extension.lettuce.LettuceRedisExecutor;
 import org.antframework.sync.extension.redis.extension.springdataredis.SpringDataRedisExecutor;
 import org.antframework.sync.lock.annotation.support.LockAop;
+import org.antframework.sync.metrics.SyncMetrics;
+import org.antframework.sync.metrics.micrometer.MicrometerSyncMetrics;
+import org.antframework.sync.metrics.support.NoopSyncMetrics;
+import org.antframework.sync.reactive.ReactiveSync;
 import org.antframework.sync.semaphore.annotation.support.SemaphoreAop;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -27,10 +41,15 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
 import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Sync自动配置
@@ -59,18 +78,77 @@ public class SyncAutoConfiguration {
         return new SemaphoreAop(syncContext.getSemaphoreContext(), totalPermitsFunction, properties.getAopOrder());
     }
 
+    // Sync模版
+    @Bean(name = "org.antframework.sync.SyncTemplate")
+    @ConditionalOnMissingBean(SyncTemplate.class)
+    public SyncTemplate syncTemplate(SyncContext syncContext) {
+        return new SyncTemplate(syncContext);
+    }
+
+    /**
+     * 响应式Sync配置
+     */
+    @Configuration
+    @ConditionalOnClass(name = "reactor.core.publisher.Mono")
+    public static class ReactiveSyncConfiguration {
+        // 响应式Sync
+        @Bean(name = "org.antframework.sync.reactive.ReactiveSync")
+        @ConditionalOnMissingBean(ReactiveSync.class)
+        public ReactiveSync reactiveSync(SyncContext syncContext) {
+            return new ReactiveSync(syncContext);
+        }
+    }
+
+    /**
+     * 指标配置
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    @ConditionalOnProperty(name = "ant.sync.metrics.enable", havingValue = "true", matchIfMissing = true)
+    @ConditionalOnMissingBean(SyncMetrics.class)
+    public static class MetricsConfiguration {
+        // 指标收集器（未配置MeterRegistry时使用全局注册中心）
+        @Bean(name = "org.antframework.sync.metrics.SyncMetrics")
+        public MicrometerSyncMetrics syncMetrics(ObjectProvider<MeterRegistry> registry) {
+            return new MicrometerSyncMetrics(registry.getIfAvailable(() -> Metrics.globalRegistry));
+        }
+    }
+
     /**
      * Sync上下文配置
      */
     @Configuration
     @ConditionalOnMissingBean(SyncContext.class)
     public static class SyncContextConfiguration {
-        // Sync上下文
-        @Bean(name = "org.antframework.sync.SyncContext")
+        // Sync上下文（依赖服务端，容器关闭时先于服务端关闭）
+        @Bean(name = "org.antframework.sync.SyncContext", destroyMethod = "close")
         public SyncContext syncContext(@Qualifier(SyncProperties.KEY_CONVERTER_BEAN_NAME) Function<Object, String> keyConverter,
+                                       @Qualifier(SyncProperties.ID_GENERATOR_BEAN_NAME) Supplier<String> idGenerator,
                                        Server server,
+                                       @Qualifier(SyncProperties.EXECUTOR_BEAN_NAME) ObjectProvider<Executor> executor,
+                                       @Qualifier(SyncProperties.SCHEDULER_BEAN_NAME) ObjectProvider<ScheduledExecutorService> scheduler,
+                                       ObjectProvider<SyncMetrics> metrics,
                                        SyncProperties properties) {
-            return new SyncContext(keyConverter, server, properties.getMaxWaitTime());
+            SyncOptions options = new SyncOptions();
+            options.setMaxWaitTime(properties.getMaxWaitTime());
+            options.setMaxWaiters(properties.getMaxWaiters());
+            options.setMaxWaitersResolver(properties.getKeyMaxWaiters()::get);
+            options.setMaxClusterWaiters(properties.getMaxClusterWaiters());
+            options.setMaxClusterWaitersResolver(properties.getKeyMaxClusterWaiters()::get);
+            options.setCohortHandoffBudget(properties.getLock().getCohortHandoffBudget());
+            options.setBiasedGracePeriod(properties.getLock().getBiasedGracePeriod());
+            options.setSemaphoreLeaseBlockSize(properties.getSemaphore().getLeaseBlockSize());
+            options.setSemaphoreLeaseIdleTime(properties.getSemaphore().getLeaseIdleTime());
+            options.setExecutor(executor.getIfAvailable());
+            options.setScheduler(scheduler.getIfAvailable());
+            options.setVirtualThreads(properties.isVirtualThreads());
+            options.setIdGenerator(idGenerator);
+            options.setHandleTableSize(properties.getHandleTableSize());
+            return new SyncContext(
+                    keyConverter,
+                    server,
+                    options,
+                    metrics.getIfAvailable(() -> NoopSyncMetrics.INSTANCE));
         }
 
         // key转换器
@@ -80,6 +158,13 @@ public class SyncAutoConfiguration {
             return new DefaultKeyConverter();
         }
 
+        // id生成器
+        @Bean(name = SyncProperties.ID_GENERATOR_BEAN_NAME)
+        @ConditionalOnMissingBean(name = SyncProperties.ID_GENERATOR_BEAN_NAME)
+        public DefaultIdGenerator idGenerator() {
+            return new DefaultIdGenerator();
+        }
+
         /**
          * server配置
          */
@@ -93,7 +178,7 @@ public class SyncAutoConfiguration {
             @ConditionalOnProperty(name = "ant.sync.server-type", havingValue = "local")
             public static class LocalServerConfiguration {
                 // server
-                @Bean(name = "org.antframework.sync.extension.Server")
+                @Bean(name = "org.antframework.sync.extension.Server", destroyMethod = "close")
                 public LocalServer server() {
                     return new LocalServer();
                 }
@@ -106,14 +191,25 @@ public class SyncAutoConfiguration {
             @ConditionalOnProperty(name = "ant.sync.server-type", havingValue = "redis", matchIfMissing = true)
             public static class RedisServerConfiguration {
                 // server
-                @Bean(name = "org.antframework.sync.extension.Server")
+                @Bean(name = "org.antframework.sync.extension.Server", destroyMethod = "close")
                 public RedisServer server(@Qualifier(SyncProperties.KEY_GENERATOR_BEAN_NAME) BiFunction<Server.SyncType, String, String> keyGenerator,
                                           RedisExecutor redisExecutor,
+                                          @Qualifier(SyncProperties.REDIS_MAINTAIN_EXECUTOR_BEAN_NAME) ObjectProvider<Executor> maintainExecutor,
+                                          ObjectProvider<SyncMetrics> metrics,
                                           SyncProperties properties) {
+                    RedisServerOptions options = new RedisServerOptions();
+                    options.setLiveTime(properties.getRedis().getLiveTime());
+                    options.setSyncChannelAmount(properties.getRedis().getSyncChannelAmount());
+                    options.setSessionTime(properties.getRedis().getSessionTime());
+                    options.setQueued(properties.getRedis().isQueued());
+                    options.setQueueTicketTime(properties.getRedis().getQueueTicketTime());
+                    options.setMaintainExecutor(maintainExecutor.getIfAvailable());
+                    options.setVirtualThreads(properties.isVirtualThreads());
                     return new RedisServer(
                             keyGenerator,
                             redisExecutor,
-                            properties.getRedis().getLiveTime());
+                            options,
+                            metrics.getIfAvailable(() -> NoopSyncMetrics.INSTANCE));
                 }
 
                 // key生成器
@@ -141,10 +237,62 @@ public class SyncAutoConfiguration {
                 @Configuration
                 @ConditionalOnMissingBean(RedisExecutor.class)
                 public static class RedisExecutorConfiguration {
-                    // redis执行器（默认使用spring-data-redis）
-                    @Bean(name = "org.antframework.sync.extension.redis.extension.RedisExecutor")
-                    public SpringDataRedisExecutor redisExecutor(RedisConnectionFactory redisConnectionFactory) {
-                        return new SpringDataRedisExecutor(redisConnectionFactory);
+                    /**
+                     * spring-data-redis版redis执行器配置
+                     */
+                    @Configuration
+                    @ConditionalOnProperty(name = "ant.sync.redis.executor-type", havingValue = "spring-data-redis", matchIfMissing = true)
+                    public static class SpringDataRedisExecutorConfiguration {
+                        // redis执行器
+                        @Bean(name = "org.antframework.sync.extension.redis.extension.RedisExecutor")
+                        public SpringDataRedisExecutor redisExecutor(RedisConnectionFactory redisConnectionFactory,
+                                                                     @Qualifier(SyncProperties.REDIS_LISTENER_EXECUTOR_BEAN_NAME) ObjectProvider<Executor> listenerExecutor,
+                                                                     @Qualifier(SyncProperties.REDIS_SUBSCRIPTION_EXECUTOR_BEAN_NAME) ObjectProvider<Executor> subscriptionExecutor,
+                                                                     ObjectProvider<SyncMetrics> metrics,
+                                                                     SyncProperties properties) {
+                            return new SpringDataRedisExecutor(
+                                    redisConnectionFactory,
+                                    listenerExecutor.getIfAvailable(() -> newListenerExecutor(properties)),
+                                    subscriptionExecutor.getIfAvailable(() -> newSubscriptionExecutor(properties)),
+                                    metrics.getIfAvailable(() -> NoopSyncMetrics.INSTANCE));
+                        }
+
+                        // 创建订阅线程池（null表示使用默认线程池）
+                        private Executor newSubscriptionExecutor(SyncProperties properties) {
+                            if (!properties.isVirtualThreads()) {
+                                return null;
+                            }
+                            SimpleAsyncTaskExecutor subscriptionExecutor = new SimpleAsyncTaskExecutor();
+                            subscriptionExecutor.setThreadFactory(SyncThreads.newThreadFactory("RedisListenerContainer-subscription-", true));
+                            return subscriptionExecutor;
+                        }
+                    }
+
+                    /**
+                     * lettuce版redis执行器配置
+                     */
+                    @Configuration
+                    @ConditionalOnProperty(name = "ant.sync.redis.executor-type", havingValue = "lettuce")
+                    public static class LettuceRedisExecutorConfiguration {
+                        // redis执行器（复用LettuceConnectionFactory中的RedisClient）
+                        @Bean(name = "org.antframework.sync.extension.redis.extension.RedisExecutor")
+                        public LettuceRedisExecutor redisExecutor(RedisConnectionFactory redisConnectionFactory,
+                                                                  @Qualifier(SyncProperties.REDIS_LISTENER_EXECUTOR_BEAN_NAME) ObjectProvider<Executor> listenerExecutor,
+                                                                  ObjectProvider<SyncMetrics> metrics,
+                                                                  SyncProperties properties) {
+                            if (!(redisConnectionFactory instanceof LettuceConnectionFactory)) {
+                                throw new IllegalArgumentException("使用lettuce版redis执行器时RedisConnectionFactory必须是LettuceConnectionFactory");
+                            }
+                            return new LettuceRedisExecutor(
+                                    ((LettuceConnectionFactory) redisConnectionFactory).getRequiredNativeClient(),
+                                    listenerExecutor.getIfAvailable(() -> newListenerExecutor(properties)),
+                                    metrics.getIfAvailable(() -> NoopSyncMetrics.INSTANCE));
+                        }
+                    }
+
+                    // 创建消息处理线程池（null表示使用默认线程池）
+                    private static Executor newListenerExecutor(SyncProperties properties) {
+                        return properties.isVirtualThreads() ? SyncThreads.newVirtualThreadExecutor("RedisExecutor-listener-") : null;
                     }
                 }
             }
@@ -40,6 +40,30 @@ public class SyncProperties {
      * key生成器的bean名称
      */
     public static final String KEY_GENERATOR_BEAN_NAME = "org.antframework.sync.keyGenerator";
+    /**
+     * id生成器的bean名称
+     */
+    public static final String ID_GENERATOR_BEAN_NAME = "org.antframework.sync.idGenerator";
+    /**
+     * Sync执行器线程池（Executor）的bean名称（存在该bean时使用，否则使用默认线程池）
+     */
+    public static final String EXECUTOR_BEAN_NAME = "org.antframework.sync.executor";
+    /**
+     * Sync执行器定时任务线程池（ScheduledExecutorService）的bean名称（存在该bean时使用，否则使用默认线程池）
+     */
+    public static final String SCHEDULER_BEAN_NAME = "org.antframework.sync.scheduler";
+    /**
+     * redis服务端维护线程池（Executor）的bean名称（存在该bean时使用，否则使用默认线程池）
+     */
+    public static final String REDIS_MAINTAIN_EXECUTOR_BEAN_NAME = "org.antframework.sync.redis.maintainExecutor";
+    /**
+     * redis消息处理线程池（Executor）的bean名称（存在该bean时使用，否则使用默认线程池）
+     */
+    public static final String REDIS_LISTENER_EXECUTOR_BEAN_NAME = "org.antframework.sync.redis.listenerExecutor";
+    /**
+     * redis订阅线程池（Executor，只用于spring-data-redis版redis执行器）的bean名称（存在该bean时使用，否则使用默认线程池）
+     */
+    public static final String REDIS_SUBSCRIPTION_EXECUTOR_BEAN_NAME = "org.antframework.sync.redis.subscriptionExecutor";
 
     /**
      * 选填：是否启用Sync（true为启用，false为不启用；默认启用）
@@ -54,11 +78,47 @@ public class SyncProperties {
      */
     @Min(0)
     private long maxWaitTime = 10 * 1000;
+    /**
+     * 选填：每个key本地最多的等待者数量（已达到该数量时新的等待者立即抛出WaitersExceededException；注解可通过maxWaiters覆盖；默认为0，表示不限制）
+     */
+    @Min(0)
+    private int maxWaiters = 0;
+    /**
+     * 选填：key对应的本地最多的等待者数量（未配置的key使用maxWaiters；注解指定的maxWaiters优先）
+     */
+    @NotNull
+    private Map<String, Integer> keyMaxWaiters = new HashMap<>();
+    /**
+     * 选填：每个key最多有等待者的节点数量（节点内的等待者在服务端只算一个，节点内的数量由max-waiters限制；由服务端统计，redis服务端支持互斥锁和信号量；
+     * 已达到该数量时没有等待者的节点的新等待者立即抛出WaitersExceededException；默认为0，表示不限制）
+     */
+    @Min(0)
+    private int maxClusterWaiters = 0;
+    /**
+     * 选填：key对应的最多有等待者的节点数量（未配置的key使用maxClusterWaiters）
+     */
+    @NotNull
+    private Map<String, Integer> keyMaxClusterWaiters = new HashMap<>();
+    /**
+     * 选填：未通过bean指定的线程池是否使用虚拟线程（每个任务一个虚拟线程，需JDK21及以上；默认为false）
+     */
+    private boolean virtualThreads = false;
+    /**
+     * 选填：每个线程缓存的锁、信号量凭证的最大数量（超过该数量时淘汰未持有的锁、信号量；默认为1024）
+     */
+    @Min(1)
+    private int handleTableSize = 1024;
     /**
      * 选填：服务端类型（默认为redis）
      */
     @NotNull
     private ServerType serverType = ServerType.REDIS;
+    /**
+     * 锁配置
+     */
+    @NotNull
+    @Valid
+    private Lock lock = new Lock();
     /**
      * Redis配置
      */
@@ -71,6 +131,12 @@ public class SyncProperties {
     @NotNull
     @Valid
     private Semaphore semaphore = new Semaphore();
+    /**
+     * 指标配置
+     */
+    @NotNull
+    @Valid
+    private Metrics metrics = new Metrics();
     /**
      * 选填：@Lock、@ReadLock、@WriteLock、@Semaphore的AOP执行的优先级（默认为Ordered.LOWEST_PRECEDENCE - 10，默认比@Transactional先执行）
      */
@@ -101,6 +167,74 @@ public class SyncProperties {
          */
         @Min(1)
         private long liveTime = 10 * 60 * 1000;
+        /**
+         * 选填：每种同步类型的同步通道数量（0表示每个key一个通道；大于0表示所有key多路复用固定数量的通道，可避免频繁地订阅和退订通道；默认为0）
+         */
+        @Min(0)
+        private int syncChannelAmount = 0;
+        /**
+         * 选填：会话有效期（毫秒；大于0表示使用会话模式，节点宕机后其持有的锁、信号量在会话过期后即可被其他节点获取，live-time可设置得很长以降低续期流量；所有节点需同时使用；默认为0，表示不使用）
+         */
+        @Min(0)
+        private long sessionTime = 0;
+        /**
+         * 选填：是否使用排队模式（加锁、获取许可失败的节点按到达顺序排队，释放时只通知队首节点；读写锁不排队；所有节点需同时使用；默认为false）
+         */
+        private boolean queued = false;
+        /**
+         * 选填：排队票据的有效期（毫秒；排队的节点宕机后最多阻塞队列这么长时间；默认为5秒）
+         */
+        @Min(1)
+        private long queueTicketTime = 5 * 1000;
+        /**
+         * 选填：redis执行器类型（默认为spring-data-redis）
+         */
+        @NotNull
+        private RedisExecutorType executorType = RedisExecutorType.SPRING_DATA_REDIS;
+
+        /**
+         * redis执行器类型
+         */
+        enum RedisExecutorType {
+            /**
+             * 基于spring-data-redis
+             */
+            SPRING_DATA_REDIS,
+            /**
+             * 基于lettuce（需使用LettuceConnectionFactory）
+             */
+            LETTUCE
+        }
+    }
+
+    /**
+     * 锁配置
+     */
+    @Getter
+    @Setter
+    public static class Lock {
+        /**
+         * 选填：互斥锁、写锁在本地移交的预算（解锁时如果有本地线程在等待，则服务端的锁不释放而直接移交给本地线程，最多连续移交的次数，用完后释放给其他节点；0表示不移交；默认为0）
+         */
+        @Min(0)
+        private int cohortHandoffBudget = 0;
+        /**
+         * 选填：互斥锁、写锁偏向的宽限期（毫秒；本地最后一个线程解锁后服务端的锁在宽限期内仍由本节点持有，本地再加锁时无需访问服务端，其他节点加锁时会请求撤销；0表示不偏向；默认为0）
+         */
+        @Min(0)
+        private long biasedGracePeriod = 0;
+    }
+
+    /**
+     * 指标配置
+     */
+    @Getter
+    @Setter
+    public static class Metrics {
+        /**
+         * 选填：存在micrometer时是否收集指标（true为收集，false为不收集；默认收集）
+         */
+        private boolean enable = true;
     }
 
     /**
@@ -114,5 +248,15 @@ public class SyncProperties {
          */
         @NotNull
         private Map<String, Integer> keyTotalPermits = new HashMap<>();
+        /**
+         * 选填：租约的最大块大小（本节点在服务端成块地获取许可，本地获取、释放许可时无需访问服务端；块大小随本地需求自适应，该值为扩租时最多多获取的许可数；0表示不租约；默认为0）
+         */
+        @Min(0)
+        private int leaseBlockSize = 0;
+        /**
+         * 选填：租约的空闲时间（毫秒；租约内的许可空闲超过该时间后归还未使用的许可；默认为1秒）
+         */
+        @Min(1)
+        private long leaseIdleTime = 1000;
     }
 }
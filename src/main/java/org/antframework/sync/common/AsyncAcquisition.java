@@ -0,0 +1,137 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 16:26 创建
+ */
+package org.antframework.sync.common;
+
+import lombok.extern.slf4j.Slf4j;
+import org.antframework.sync.metrics.SyncMetrics;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+/**
+ * 异步获取（锁、信号量许可）
+ * <p>
+ * 获取失败时不阻塞线程，而是异步等待同步消息（或超时），之后在Sync执行器中重试，直到获取成功或超过截止时间。
+ * 获取成功时以持有凭证完成future，超过截止时间时以null完成future。
+ * 如果future在获取成功前已被取消，获取成功后立即释放。
+ *
+ * @param <T> 持有凭证类型
+ */
+@Slf4j
+public class AsyncAcquisition<T> {
+    // future
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+    // Sync执行器
+    private final SyncExecutor syncExecutor;
+    // 获取器（入参为截止时间；返回null表示获取成功，否则返回等待器）
+    private final LongFunction<SyncWaiter> acquirer;
+    // 结束器（获取结束时执行，比如删除等待者）
+    private final Runnable finisher;
+    // 持有凭证工厂
+    private final Supplier<T> handleFactory;
+    // 释放器（future已完成时释放获取到的凭证）
+    private final Consumer<T> releaser;
+    // 截止时间
+    private final long deadline;
+    // 指标类型
+    private final String metricsType;
+    // 标识
+    private final String key;
+    // 指标收集器
+    private final SyncMetrics metrics;
+    // 开始时间（纳秒）
+    private final long startTime = System.nanoTime();
+    // 重试次数
+    private volatile int retries = 0;
+
+    public AsyncAcquisition(SyncExecutor syncExecutor,
+                            LongFunction<SyncWaiter> acquirer,
+                            Runnable finisher,
+                            Supplier<T> handleFactory,
+                            Consumer<T> releaser,
+                            long deadline,
+                            String metricsType,
+                            String key,
+                            SyncMetrics metrics) {
+        this.syncExecutor = syncExecutor;
+        this.acquirer = acquirer;
+        this.finisher = finisher;
+        this.handleFactory = handleFactory;
+        this.releaser = releaser;
+        this.deadline = deadline;
+        this.metricsType = metricsType;
+        this.key = key;
+        this.metrics = metrics;
+    }
+
+    /**
+     * 开始获取
+     *
+     * @return 获取成功时完成为持有凭证；超过截止时间时完成为null
+     */
+    public CompletableFuture<T> start() {
+        submit();
+        return future;
+    }
+
+    // 提交获取任务
+    private void submit() {
+        try {
+            syncExecutor.execute(this::attempt);
+        } catch (RejectedExecutionException e) {
+            attempt();
+        }
+    }
+
+    // 尝试获取
+    private void attempt() {
+        try {
+            if (future.isDone()) {
+                finish(false);
+                return;
+            }
+            SyncWaiter waiter = acquirer.apply(deadline);
+            if (waiter == null) {
+                finish(true);
+                T handle = handleFactory.get();
+                if (!future.complete(handle)) {
+                    // future已被取消
+                    releaser.accept(handle);
+                }
+                return;
+            }
+            long timeout = deadline - System.currentTimeMillis();
+            if (timeout <= 0) {
+                finish(false);
+                future.complete(null);
+                return;
+            }
+            waiter.waitAsync(timeout, notified -> {
+                retries++;
+                submit();
+            });
+        } catch (Throwable e) {
+            try {
+                finish(false);
+            } catch (Throwable t) {
+                log.error("结束异步获取出错：key={}", key, t);
+            }
+            future.completeExceptionally(e);
+        }
+    }
+
+    // 结束获取
+    private void finish(boolean success) {
+        finisher.run();
+        metrics.onAcquired(metricsType, key, System.nanoTime() - startTime, retries, success);
+    }
+}
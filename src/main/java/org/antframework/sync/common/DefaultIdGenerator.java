@@ -0,0 +1,69 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 16:38 创建
+ */
+package org.antframework.sync.common;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 默认的id生成器
+ * <p>
+ * id由随机前缀和计数器组成（base62编码）：前缀在创建生成器时随机生成一次（固定11个字符），计数器由各线程从全局计数器中成块地预留，
+ * 生成id时无需访问SecureRandom，也没有线程间的竞争。生成的id一般只有12~16个字符（UUID为32个字符），可减少redis中的存储和传输。
+ */
+public class DefaultIdGenerator implements Supplier<String> {
+    // base62字符
+    private static final char[] BASE62_CHARS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+    // 64位数值的base62编码的最大长度
+    private static final int MAX_BASE62_LENGTH = 11;
+    // 每个线程每次预留的计数器数量
+    private static final long COUNTER_BLOCK_SIZE = 1024;
+
+    // 随机前缀
+    private final String prefix;
+    // 全局计数器（已被预留的计数器上限）
+    private final AtomicLong reservedCounter = new AtomicLong(0);
+    // 线程的计数器块（[0]为下一个计数器，[1]为计数器上限）
+    private final ThreadLocal<long[]> counterBlocks = ThreadLocal.withInitial(() -> new long[]{0, 0});
+
+    public DefaultIdGenerator() {
+        this.prefix = toBase62(new SecureRandom().nextLong(), true);
+    }
+
+    @Override
+    public String get() {
+        long[] counterBlock = counterBlocks.get();
+        if (counterBlock[0] >= counterBlock[1]) {
+            counterBlock[1] = reservedCounter.addAndGet(COUNTER_BLOCK_SIZE);
+            counterBlock[0] = counterBlock[1] - COUNTER_BLOCK_SIZE;
+        }
+        return prefix + toBase62(counterBlock[0]++, false);
+    }
+
+    // 转换为base62编码（fixedLength：是否补齐为固定长度）
+    private static String toBase62(long value, boolean fixedLength) {
+        char[] chars = new char[MAX_BASE62_LENGTH];
+        int index = chars.length;
+        // 按无符号数编码
+        long quotient = Long.divideUnsigned(value, BASE62_CHARS.length);
+        chars[--index] = BASE62_CHARS[(int) (value - quotient * BASE62_CHARS.length)];
+        value = quotient;
+        while (value > 0) {
+            chars[--index] = BASE62_CHARS[(int) (value % BASE62_CHARS.length)];
+            value /= BASE62_CHARS.length;
+        }
+        if (fixedLength) {
+            while (index > 0) {
+                chars[--index] = BASE62_CHARS[0];
+            }
+        }
+        return new String(chars, index, chars.length - index);
+    }
+}
@@ -10,22 +10,39 @@ package org.antframework.sync.common;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.framework.AopProxyUtils;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.context.expression.AnnotatedElementKey;
 import org.springframework.context.expression.CachedExpressionEvaluator;
 import org.springframework.context.expression.MethodBasedEvaluationContext;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
 
 import java.lang.reflect.Method;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * 表达式计算器
+ * <p>
+ * 表达式以SpEL的混合编译模式（SpelCompilerMode.MIXED）解析，多次计算后编译为字节码。
  */
 public class ExpressionEvaluator extends CachedExpressionEvaluator {
+    // 参数路径表达式（#参数名或#参数名.属性.属性...）
+    private static final Pattern ARG_PATH_PATTERN = Pattern.compile("#(\\w+)((?:\\.\\w+)*)");
+
+    // 调用计划缓存（方法-目标对象的类-调用计划）
+    private final Map<Method, Map<Class<?>, InvocationPlan>> planCache = new ConcurrentHashMap<>(64);
     // 目标方法缓存
     private final Map<AnnotatedElementKey, Method> targetMethodCache = new ConcurrentHashMap<AnnotatedElementKey, Method>(64);
     // 条件表达式缓存
@@ -33,6 +50,44 @@ public class ExpressionEvaluator extends CachedExpressionEvaluator {
     // key表达式缓存
     private final Map<ExpressionKey, Expression> keyCache = new ConcurrentHashMap<>(64);
 
+    public ExpressionEvaluator() {
+        super(new SpelExpressionParser(new SpelParserConfiguration(SpelCompilerMode.MIXED, null)));
+    }
+
+    /**
+     * 获取调用计划（按方法和目标对象的类缓存；同一个计算器只能用于同一种注解）
+     *
+     * @param pjp                 切面
+     * @param annotation          注解
+     * @param conditionExpression 条件表达式（空表示无条件）
+     * @param keyExpression       key表达式
+     * @return 调用计划
+     */
+    public InvocationPlan getPlan(ProceedingJoinPoint pjp, Object annotation, String conditionExpression, String keyExpression) {
+        Method method = getMethod(pjp, annotation);
+        Object target = pjp.getTarget();
+        Class<?> targetType = target == null ? method.getDeclaringClass() : target.getClass();
+        Map<Class<?>, InvocationPlan> plans = planCache.get(method);
+        if (plans == null) {
+            plans = planCache.computeIfAbsent(method, k -> new ConcurrentHashMap<>(4));
+        }
+        InvocationPlan plan = plans.get(targetType);
+        if (plan == null) {
+            Class<?> targetClass = AopProxyUtils.ultimateTargetClass(pjp.getThis());
+            plan = plans.computeIfAbsent(targetType, k -> new InvocationPlan(targetClass, method, annotation, conditionExpression, keyExpression));
+        }
+        return plan;
+    }
+
+    // 获取方法
+    private static Method getMethod(ProceedingJoinPoint pjp, Object annotation) {
+        Signature signature = pjp.getSignature();
+        if (!(signature instanceof MethodSignature)) {
+            throw new UnsupportedOperationException(String.format("注解[%s]只能在方法上使用", annotation));
+        }
+        return ((MethodSignature) signature).getMethod();
+    }
+
     /**
      * 获取计算上下文
      *
@@ -97,6 +152,130 @@ public class ExpressionEvaluator extends CachedExpressionEvaluator {
         return getExpression(keyCache, methodKey, expression).getValue(evalContext);
     }
 
+    /**
+     * 调用计划
+     * <p>
+     * 缓存了方法、注解和解析好的表达式。形如#参数名或#参数名.属性的key表达式直接从参数中取值（属性以编译的表达式计算），无需创建计算上下文。
+     */
+    @Getter
+    public class InvocationPlan {
+        // 目标类
+        private final Class<?> targetClass;
+        // 方法
+        private final Method method;
+        // 目标方法
+        private final Method targetMethod;
+        // 注解
+        private final Object annotation;
+        // 条件表达式（null表示无条件）
+        private final Expression condition;
+        // key表达式（null表示直接从参数中取值）
+        private final Expression key;
+        // key对应的参数下标（key表达式为null时有效）
+        private final int keyArgIndex;
+        // key对应的参数中的属性表达式（null表示参数本身就是key）
+        private final Expression keyArgProperty;
+
+        InvocationPlan(Class<?> targetClass, Method method, Object annotation, String conditionExpression, String keyExpression) {
+            this.targetClass = targetClass;
+            this.method = method;
+            this.targetMethod = ExpressionEvaluator.this.getTargetMethod(targetClass, method);
+            this.annotation = annotation;
+            this.condition = StringUtils.hasLength(conditionExpression) ? getParser().parseExpression(conditionExpression) : null;
+            int argIndex = resolveArgIndex(keyExpression);
+            if (argIndex < 0) {
+                this.key = getParser().parseExpression(keyExpression);
+                this.keyArgIndex = -1;
+                this.keyArgProperty = null;
+            } else {
+                Matcher matcher = ARG_PATH_PATTERN.matcher(keyExpression.trim());
+                matcher.matches();
+                String property = matcher.group(2);
+                this.key = null;
+                this.keyArgIndex = argIndex;
+                this.keyArgProperty = property.isEmpty() ? null : getParser().parseExpression(property.substring(1));
+            }
+        }
+
+        /**
+         * 是否需要计算上下文
+         */
+        public boolean isEvalContextRequired() {
+            return condition != null || key != null;
+        }
+
+        /**
+         * 创建计算上下文
+         *
+         * @param target 目标对象
+         * @param args   方法参数
+         * @return 计算上下文
+         */
+        public EvaluationContext newEvalContext(Object target, Object[] args) {
+            Object[] extractedArgs = extractArgs(method, args);
+            ExpressionRoot root = new ExpressionRoot(targetClass, target, method, extractedArgs);
+            return new MethodBasedEvaluationContext(root, targetMethod, extractedArgs, getParameterNameDiscoverer());
+        }
+
+        /**
+         * 计算条件
+         *
+         * @param evalContext 计算上下文（不需要时可以为null）
+         * @return true：通过；false：驳回
+         */
+        public boolean evalCondition(EvaluationContext evalContext) {
+            return condition == null || condition.getValue(evalContext, boolean.class);
+        }
+
+        /**
+         * 计算key
+         *
+         * @param evalContext 计算上下文（不需要时可以为null）
+         * @param args        方法参数
+         * @return key
+         */
+        public Object evalKey(EvaluationContext evalContext, Object[] args) {
+            if (key != null) {
+                return key.getValue(evalContext);
+            }
+            Object arg = args[keyArgIndex];
+            return keyArgProperty == null ? arg : keyArgProperty.getValue(arg);
+        }
+
+        // 解析key表达式直接对应的参数下标（-1表示需通过计算上下文计算）
+        private int resolveArgIndex(String keyExpression) {
+            Matcher matcher = ARG_PATH_PATTERN.matcher(keyExpression.trim());
+            if (!matcher.matches() || method.isVarArgs()) {
+                return -1;
+            }
+            String name = matcher.group(1);
+            if ("root".equals(name) || "this".equals(name)) {
+                return -1;
+            }
+            int count = method.getParameterCount();
+            // 与MethodBasedEvaluationContext一致：参数名优先于#p0、#a0
+            String[] paramNames = getParameterNameDiscoverer().getParameterNames(targetMethod);
+            if (paramNames != null) {
+                for (int i = 0; i < paramNames.length && i < count; i++) {
+                    if (name.equals(paramNames[i])) {
+                        return i;
+                    }
+                }
+            }
+            if (name.length() > 1 && (name.charAt(0) == 'p' || name.charAt(0) == 'a') && name.substring(1).chars().allMatch(Character::isDigit)) {
+                try {
+                    int index = Integer.parseInt(name.substring(1));
+                    if (index < count) {
+                        return index;
+                    }
+                } catch (NumberFormatException e) {
+                    return -1;
+                }
+            }
+            return -1;
+        }
+    }
+
     /**
      * 表达式根节点
      */
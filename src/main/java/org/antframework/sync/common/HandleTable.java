@@ -0,0 +1,189 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 16:40 创建
+ */
+package org.antframework.sync.common;
+
+import java.lang.ref.WeakReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 凭证表（非线程安全，由单个线程使用）
+ * <p>
+ * 开放寻址（线性探测）的哈希表，查找已有的凭证时不分配对象。表中的凭证数量有上限：达到上限后淘汰未持有的凭证，
+ * 最近被访问过的凭证有第二次机会（只清除访问标记），如果这样淘汰的凭证太少则淘汰所有未持有的凭证。持有中的凭证永远不会被淘汰。
+ * <p>
+ * 表只弱引用凭证：使用者不再引用的凭证可被回收（已被回收的凭证视为不存在，淘汰时优先清理），
+ * 这样持有中就被弃用的锁、信号量不会被表钉住，泄漏检测器才能发现并强制释放。因此持有者在释放前需一直引用凭证。
+ *
+ * @param <H> 凭证类型
+ */
+public class HandleTable<H> {
+    // 初始容量
+    private static final int INITIAL_CAPACITY = 16;
+
+    // 最大凭证数量
+    private final int maxSize;
+    // 持有检查器（返回true表示凭证持有中，不能被淘汰）
+    private final Predicate<H> holdingChecker;
+    // 标识
+    private String[] keys = new String[INITIAL_CAPACITY];
+    // 凭证（弱引用）
+    private WeakReference<?>[] handles = new WeakReference<?>[INITIAL_CAPACITY];
+    // 访问标记
+    private boolean[] accessed = new boolean[INITIAL_CAPACITY];
+    // 凭证数量（包括已被回收但还未清理的）
+    private int size = 0;
+
+    public HandleTable(int maxSize, Predicate<H> holdingChecker) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize必须大于0");
+        }
+        this.maxSize = maxSize;
+        this.holdingChecker = holdingChecker;
+    }
+
+    /**
+     * 获取凭证
+     *
+     * @param key 标识
+     * @return null 不存在；否则返回凭证
+     */
+    public H get(String key) {
+        int index = indexOf(key);
+        if (keys[index] == null) {
+            return null;
+        }
+        H handle = handleAt(index);
+        if (handle != null) {
+            accessed[index] = true;
+        }
+        return handle;
+    }
+
+    /**
+     * 获取凭证，不存在时创建
+     *
+     * @param key     标识
+     * @param factory 凭证工厂（入参为标识）
+     * @return 凭证
+     */
+    public H computeIfAbsent(String key, Function<String, H> factory) {
+        H handle = get(key);
+        if (handle == null) {
+            handle = factory.apply(key);
+            put(key, handle);
+        }
+        return handle;
+    }
+
+    /**
+     * 放入凭证（已存在时替换）
+     *
+     * @param key    标识
+     * @param handle 凭证
+     */
+    public void put(String key, H handle) {
+        int index = indexOf(key);
+        if (keys[index] == null) {
+            if (size >= maxSize) {
+                evict();
+            }
+            if ((size + 1) * 2 > keys.length) {
+                rehash(keys.length * 2);
+            }
+            index = indexOf(key);
+            keys[index] = key;
+            size++;
+        }
+        handles[index] = new WeakReference<>(handle);
+        accessed[index] = true;
+    }
+
+    /**
+     * 获取凭证数量（包括已被回收但还未清理的）
+     */
+    public int size() {
+        return size;
+    }
+
+    // 查找标识所在的位置（不存在时返回应插入的空位置）
+    private int indexOf(String key) {
+        int mask = keys.length - 1;
+        int hash = key.hashCode();
+        int index = (hash ^ (hash >>> 16)) & mask;
+        while (keys[index] != null && !keys[index].equals(key)) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    // 获取指定位置的凭证（handles中只会放入H类型的凭证；已被回收时返回null）
+    @SuppressWarnings("unchecked")
+    private H handleAt(int index) {
+        return (H) handles[index].get();
+    }
+
+    // 淘汰未持有的凭证
+    private void evict() {
+        int evicted = evict(false);
+        if (evicted < maxSize / 4) {
+            evict(true);
+        }
+    }
+
+    // 淘汰未持有的凭证（all：是否淘汰所有未持有的凭证，否则最近被访问过的凭证只清除访问标记；已被回收的凭证总是被清理；返回淘汰的数量）
+    private int evict(boolean all) {
+        int evicted = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == null) {
+                continue;
+            }
+            H handle = handleAt(i);
+            if (handle != null && holdingChecker.test(handle)) {
+                continue;
+            }
+            if (handle != null && !all && accessed[i]) {
+                accessed[i] = false;
+                continue;
+            }
+            keys[i] = null;
+            handles[i] = null;
+            accessed[i] = false;
+            evicted++;
+        }
+        if (evicted > 0) {
+            size -= evicted;
+            // 删除后探测链可能断开，重新插入剩下的凭证
+            int capacity = INITIAL_CAPACITY;
+            while (size * 2 >= capacity) {
+                capacity *= 2;
+            }
+            rehash(Math.min(capacity, keys.length));
+        }
+        return evicted;
+    }
+
+    // 按新的容量重新插入所有凭证
+    private void rehash(int capacity) {
+        String[] oldKeys = keys;
+        WeakReference<?>[] oldHandles = handles;
+        boolean[] oldAccessed = accessed;
+        keys = new String[capacity];
+        handles = new WeakReference<?>[capacity];
+        accessed = new boolean[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int index = indexOf(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                handles[index] = oldHandles[i];
+                accessed[index] = oldAccessed[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 16:36 创建
+ */
+package org.antframework.sync.common;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 泄漏检测器
+ * <p>
+ * 锁、信号量在持有期间登记一个虚引用，解除持有时注销。如果对象在持有期间就被回收（未解锁、未释放就被弃用），虚引用会进入引用队列，
+ * 检测器定期从队列中成批取出并在Sync执行器中执行对应的销毁器。虚引用只持有销毁所需的状态，不持有对象本身，对象也无需实现finalize。
+ * 同一批中批次标识相同的{@link BatchDestroyer}会一起执行（比如一次调用服务端批量解锁）。
+ */
+@Slf4j
+public class LeakDetector {
+    // 检查引用队列的间隔（毫秒）
+    private static final long DRAIN_INTERVAL = 1000;
+    // 每批最多处理的泄漏数
+    private static final int BATCH_SIZE = 128;
+
+    // 引用队列
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+    // 持有中的跟踪器（保证持有期间虚引用本身不被回收）
+    private final Set<Tracker> holdingTrackers = ConcurrentHashMap.newKeySet();
+    // 是否已开始检查
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    // Sync执行器
+    private final SyncExecutor syncExecutor;
+
+    public LeakDetector(SyncExecutor syncExecutor) {
+        this.syncExecutor = syncExecutor;
+    }
+
+    /**
+     * 创建跟踪器
+     *
+     * @param referent  被跟踪的对象
+     * @param destroyer 销毁器（对象在持有期间被回收时执行；不能引用被跟踪的对象）
+     * @return 跟踪器（由被跟踪的对象持有）
+     */
+    public Tracker newTracker(Object referent, Runnable destroyer) {
+        if (started.compareAndSet(false, true)) {
+            scheduleDrain();
+        }
+        return new Tracker(referent, queue, destroyer);
+    }
+
+    // 安排检查引用队列
+    private void scheduleDrain() {
+        syncExecutor.schedule(() -> {
+            try {
+                drain();
+            } catch (Throwable e) {
+                log.error("检查泄漏的锁、信号量出错", e);
+            } finally {
+                scheduleDrain();
+            }
+        }, DRAIN_INTERVAL);
+    }
+
+    // 成批取出泄漏的跟踪器并执行销毁器
+    private void drain() {
+        while (true) {
+            List<Tracker> batch = new ArrayList<>();
+            Reference<?> reference;
+            while (batch.size() < BATCH_SIZE && (reference = queue.poll()) != null) {
+                Tracker tracker = (Tracker) reference;
+                if (holdingTrackers.remove(tracker)) {
+                    batch.add(tracker);
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            Runnable task = () -> destroy(batch);
+            try {
+                syncExecutor.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.run();
+            }
+            if (batch.size() < BATCH_SIZE) {
+                return;
+            }
+        }
+    }
+
+    // 执行销毁器（批次标识相同的批量销毁器一起执行）
+    private static void destroy(List<Tracker> trackers) {
+        Map<Object, List<BatchDestroyer>> batchDestroyers = new LinkedHashMap<>();
+        for (Tracker tracker : trackers) {
+            if (tracker.destroyer instanceof BatchDestroyer) {
+                BatchDestroyer destroyer = (BatchDestroyer) tracker.destroyer;
+                batchDestroyers.computeIfAbsent(destroyer.getBatchKey(), k -> new ArrayList<>()).add(destroyer);
+            } else {
+                tracker.destroy();
+            }
+        }
+        for (List<BatchDestroyer> destroyers : batchDestroyers.values()) {
+            try {
+                destroyers.get(0).destroyAll(destroyers);
+            } catch (Throwable e) {
+                log.error("批量执行{}个销毁器出错", destroyers.size(), e);
+            }
+        }
+    }
+
+    /**
+     * 批量销毁器
+     */
+    public interface BatchDestroyer extends Runnable {
+        /**
+         * 获取批次标识（批次标识相同的销毁器可以一起执行）
+         */
+        Object getBatchKey();
+
+        /**
+         * 一起执行同一批次的销毁器
+         *
+         * @param destroyers 批次标识相同的销毁器（包括自己）
+         */
+        void destroyAll(List<BatchDestroyer> destroyers);
+
+        @Override
+        default void run() {
+            destroyAll(Collections.singletonList(this));
+        }
+    }
+
+    /**
+     * 跟踪器
+     */
+    public class Tracker extends PhantomReference<Object> {
+        // 销毁器
+        private final Runnable destroyer;
+
+        private Tracker(Object referent, ReferenceQueue<Object> queue, Runnable destroyer) {
+            super(referent, queue);
+            this.destroyer = destroyer;
+        }
+
+        /**
+         * 开始持有（被跟踪的对象在持有期间被回收时会执行销毁器）
+         */
+        public void hold() {
+            holdingTrackers.add(this);
+        }
+
+        /**
+         * 解除持有
+         */
+        public void unhold() {
+            holdingTrackers.remove(this);
+        }
+
+        // 销毁
+        private void destroy() {
+            try {
+                destroyer.run();
+            } catch (Throwable e) {
+                log.error("执行销毁器出错：{}", destroyer, e);
+            }
+        }
+    }
+}
@@ -8,20 +8,28 @@
  */
 package org.antframework.sync.common;
 
-import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.antframework.sync.SyncOptions;
+import org.antframework.sync.WaitersExceededException;
 import org.antframework.sync.extension.Server;
+import org.antframework.sync.metrics.SyncMetrics;
 
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * 基于服务端的同步管理者
  */
-@AllArgsConstructor
+@Slf4j
 public class ServerSyncManager {
     // 所有同步监听器
     private final Map<String, SyncListener> syncListeners = new ConcurrentHashMap<>();
@@ -29,6 +37,29 @@ public class ServerSyncManager {
     private final Server.SyncType syncType;
     // 服务端
     private final Server server;
+    // Sync执行器
+    private final SyncExecutor syncExecutor;
+    // 指标收集器
+    private final SyncMetrics metrics;
+    // 每个key本地最多的等待者数量（0表示不限制；当前线程通过WaiterLimit指定时以指定的为准）
+    private final int maxWaiters;
+    // 按key指定本地最多的等待者数量的解析器（null表示不按key指定）
+    private final Function<String, Integer> maxWaitersResolver;
+    // 每个key最多有等待者的节点数量（节点内的等待者在服务端只算一个；0表示不限制）
+    private final int maxClusterWaiters;
+    // 按key指定最多有等待者的节点数量的解析器（null表示不按key指定）
+    private final Function<String, Integer> maxClusterWaitersResolver;
+
+    public ServerSyncManager(Server.SyncType syncType, Server server, SyncExecutor syncExecutor, SyncMetrics metrics, SyncOptions options) {
+        this.syncType = syncType;
+        this.server = server;
+        this.syncExecutor = syncExecutor;
+        this.metrics = metrics;
+        this.maxWaiters = options.getMaxWaiters();
+        this.maxWaitersResolver = options.getMaxWaitersResolver();
+        this.maxClusterWaiters = options.getMaxClusterWaiters();
+        this.maxClusterWaitersResolver = options.getMaxClusterWaitersResolver();
+    }
 
     /**
      * 等待同步
@@ -39,21 +70,47 @@ public class ServerSyncManager {
      * @param timeout 超时时间（毫秒）
      * @return true 等到通知; false 等待超时
      * @throws InterruptedException
+     * @throws WaitersExceededException 等待者数量已达上限
      */
     public boolean waitSync(String key, String type, String waiter, long timeout) throws InterruptedException {
-        SyncListener syncListener = syncListeners.compute(key, (k, v) -> {
-            if (v == null) {
-                v = new SyncListener();
-                server.addSyncListener(syncType, k, v);
-            }
-            v.addWaiter(type, waiter);
-            return v;
+        SyncListener syncListener = addWaiter(key, type, waiter, false);
+        boolean notified = syncListener.waitSync(type, timeout);
+        metrics.onWaited(syncType, key, notified);
+        return notified;
+    }
+
+    /**
+     * 异步等待同步（不阻塞线程，等到通知或超时后执行回调）
+     *
+     * @param key      目标标识
+     * @param type     类型
+     * @param waiter   等待者
+     * @param timeout  超时时间（毫秒）
+     * @param callback 回调（参数为true表示等到通知，false表示等待超时）
+     * @throws WaitersExceededException 等待者数量已达上限
+     */
+    public void waitAsync(String key, String type, String waiter, long timeout, Consumer<Boolean> callback) {
+        AsyncWaiter asyncWaiter = new AsyncWaiter(notified -> {
+            metrics.onWaited(syncType, key, notified);
+            callback.accept(notified);
         });
-        return syncListener.waitSync(type, timeout);
+        SyncListener syncListener = addWaiter(key, type, waiter, true);
+        // 先登记再安排超时，避免超时任务在登记前执行
+        syncListener.waitAsync(type, asyncWaiter);
+        if (!asyncWaiter.isAwoken()) {
+            asyncWaiter.timeoutTask = syncExecutor.schedule(() -> {
+                syncListener.removeAsyncWaiter(type, asyncWaiter);
+                asyncWaiter.awake(false);
+            }, timeout);
+            if (asyncWaiter.isAwoken()) {
+                // 安排超时期间已被唤醒
+                asyncWaiter.timeoutTask.cancel(false);
+            }
+        }
     }
 
     /**
-     * 删除等待者
+     * 删除等待者（本地的最后一个等待者删除时同时从服务端注销本节点）
      *
      * @param key    目标标识
      * @param type   类型
@@ -63,22 +120,160 @@ public class ServerSyncManager {
         syncListeners.computeIfPresent(key, (k, v) -> {
             v.removeWaiter(type, waiter);
             if (v.isEmpty()) {
+                // 本地的最后一个等待者删除时（1→0）停止监听同步消息
                 server.removeSyncListener(syncType, k, v);
+                if (computeMaxClusterWaiters(k) > 0) {
+                    removeServerWaiter(k);
+                }
                 v = null;
             }
             return v;
         });
     }
 
+    /**
+     * 是否有本地等待者
+     *
+     * @param key  目标标识
+     * @param type 类型
+     * @return true 有；false 没有
+     */
+    public boolean hasWaiters(String key, String type) {
+        SyncListener syncListener = syncListeners.get(key);
+        return syncListener != null && syncListener.hasWaiters(type);
+    }
+
+    /**
+     * 是否有指定的本地等待者
+     *
+     * @param key    目标标识
+     * @param type   类型
+     * @param waiter 等待者
+     * @return true 有；false 没有
+     */
+    public boolean hasWaiter(String key, String type, String waiter) {
+        SyncListener syncListener = syncListeners.get(key);
+        return syncListener != null && syncListener.hasWaiter(type, waiter);
+    }
+
+    /**
+     * 通知本地等待者（不经过服务端）
+     *
+     * @param key 目标标识
+     */
+    public void notifyLocal(String key) {
+        SyncListener syncListener = syncListeners.get(key);
+        if (syncListener != null) {
+            syncListener.run();
+        }
+    }
+
+    // 添加等待者（新的等待者超过本地的上限或有等待者的节点数量的上限时抛出异常；已在等待的等待者重试时不受限制）
+    // 本地的第一个等待者（0→1）与监听同步消息一起在服务端登记本节点，之后的本地等待者不再访问服务端
+    private SyncListener addWaiter(String key, String type, String waiter, boolean async) {
+        int max = computeMaxWaiters(key);
+        return syncListeners.compute(key, (k, v) -> {
+            if (v != null && v.hasWaiter(type, waiter)) {
+                return v;
+            }
+            if (max > 0 && v != null && v.countWaiters() >= max) {
+                throw new WaitersExceededException(String.format("等待者数量已达上限：syncType=%s,key=%s,maxWaiters=%d", syncType, k, max));
+            }
+            if (v == null) {
+                v = newSyncListener(k);
+            }
+            v.addWaiter(type, waiter, async);
+            return v;
+        });
+    }
+
+    // 新建同步监听器（限制有等待者的节点数量时先在服务端登记本节点，再监听同步消息）
+    private SyncListener newSyncListener(String key) {
+        int maxCluster = computeMaxClusterWaiters(key);
+        if (maxCluster > 0 && !server.addWaiter(syncType, key, maxCluster)) {
+            throw new WaitersExceededException(String.format("有等待者的节点数量已达上限：syncType=%s,key=%s,maxClusterWaiters=%d", syncType, key, maxCluster));
+        }
+        SyncListener syncListener = new SyncListener();
+        try {
+            server.addSyncListener(syncType, key, syncListener);
+        } catch (Throwable e) {
+            if (maxCluster > 0) {
+                removeServerWaiter(key);
+            }
+            throw e;
+        }
+        return syncListener;
+    }
+
+    // 从服务端注销本节点
+    private void removeServerWaiter(String key) {
+        try {
+            server.removeWaiter(syncType, key);
+        } catch (Throwable e) {
+            log.error("从服务端注销等待节点出错（登记在服务端过期后不再被统计）：syncType={},key={}", syncType, key, e);
+        }
+    }
+
+    // 计算本地最多的等待者数量（当前线程通过WaiterLimit指定的优先，其次是按key指定的）
+    private int computeMaxWaiters(String key) {
+        Integer max = WaiterLimit.get();
+        if (max == null && maxWaitersResolver != null) {
+            max = maxWaitersResolver.apply(key);
+        }
+        return max != null ? max : maxWaiters;
+    }
+
+    // 计算最多有等待者的节点数量（解析器对同一个key需返回相同的值，以便登记、注销本节点时一致）
+    private int computeMaxClusterWaiters(String key) {
+        Integer max = maxClusterWaitersResolver != null ? maxClusterWaitersResolver.apply(key) : null;
+        return max != null ? max : maxClusterWaiters;
+    }
+
+    // 异步等待者
+    private static class AsyncWaiter {
+        // 是否已被唤醒
+        private final AtomicBoolean awoken = new AtomicBoolean(false);
+        // 回调
+        private final Consumer<Boolean> callback;
+        // 超时任务
+        private volatile ScheduledFuture<?> timeoutTask;
+
+        AsyncWaiter(Consumer<Boolean> callback) {
+            this.callback = callback;
+        }
+
+        // 是否已被唤醒
+        boolean isAwoken() {
+            return awoken.get();
+        }
+
+        // 唤醒（只有第一次生效）
+        void awake(boolean notified) {
+            if (awoken.compareAndSet(false, true)) {
+                if (notified && timeoutTask != null) {
+                    timeoutTask.cancel(false);
+                }
+                callback.accept(notified);
+            }
+        }
+    }
+
     // 同步监听器
     private static class SyncListener implements Runnable {
         // 所有等待点
         private final Map<String, WaitPoint> waitPoints = new ConcurrentHashMap<>();
+        // 监视锁（不使用synchronized以免钉住虚拟线程的载体线程）
+        private final ReentrantLock monitor = new ReentrantLock();
 
         @Override
-        public synchronized void run() {
-            // 唤醒所有等待者
-            waitPoints.forEach((k, v) -> v.awakeWaiters());
+        public void run() {
+            monitor.lock();
+            try {
+                // 唤醒所有等待者
+                waitPoints.forEach((k, v) -> v.awakeWaiters());
+            } finally {
+                monitor.unlock();
+            }
         }
 
         // 等待同步
@@ -86,26 +281,61 @@ public class ServerSyncManager {
             return waitPoints.get(type).waitSync(timeout);
         }
 
-        // 添加等待者
-        void addWaiter(String type, String waiter) {
+        // 异步等待同步
+        void waitAsync(String type, AsyncWaiter asyncWaiter) {
+            waitPoints.get(type).waitAsync(asyncWaiter);
+        }
+
+        // 删除异步等待者
+        void removeAsyncWaiter(String type, AsyncWaiter asyncWaiter) {
+            WaitPoint waitPoint = waitPoints.get(type);
+            if (waitPoint != null) {
+                waitPoint.removeAsyncWaiter(asyncWaiter);
+            }
+        }
+
+        // 添加等待者（async：是否异步等待者）
+        void addWaiter(String type, String waiter, boolean async) {
             waitPoints.compute(type, (k, v) -> {
                 if (v == null) {
                     v = new WaitPoint();
                 }
-                v.addWaiter(waiter);
+                v.addWaiter(waiter, async);
                 return v;
             });
         }
 
         // 删除等待者
-        void removeWaiter(String type, String waiter) {
+        boolean removeWaiter(String type, String waiter) {
+            boolean[] removed = {false};
             waitPoints.computeIfPresent(type, (k, v) -> {
-                v.removeWaiter(waiter);
+                removed[0] = v.removeWaiter(waiter);
                 if (v.isEmpty()) {
                     v = null;
                 }
                 return v;
             });
+            return removed[0];
+        }
+
+        // 是否有等待者
+        boolean hasWaiters(String type) {
+            return waitPoints.containsKey(type);
+        }
+
+        // 是否有指定的等待者
+        boolean hasWaiter(String type, String waiter) {
+            WaitPoint waitPoint = waitPoints.get(type);
+            return waitPoint != null && waitPoint.hasWaiter(waiter);
+        }
+
+        // 统计等待者数量
+        int countWaiters() {
+            int count = 0;
+            for (WaitPoint waitPoint : waitPoints.values()) {
+                count += waitPoint.countWaiters();
+            }
+            return count;
         }
 
         // 是否为空
@@ -117,16 +347,26 @@ public class ServerSyncManager {
         private static class WaitPoint {
             // 信号量（初始化为1的原因：缓解因监听消息前同步消息已经发出所导致的无意义的等待）
             private final Semaphore semaphore = new Semaphore(1);
-            // 所有等待者
+            // 所有等待者（包括异步等待者）
             private final Set<String> waiters = new HashSet<>();
+            // 异步等待者的id（异步等待者不占用信号量，唤醒时不为其释放许可）
+            private final Set<String> asyncWaiterIds = new HashSet<>();
+            // 所有异步等待者
+            private final Set<AsyncWaiter> asyncWaiters = ConcurrentHashMap.newKeySet();
 
             // 唤醒所有等待者
             void awakeWaiters() {
-                // 唤醒所有等待者
-                int permits = waiters.size() - semaphore.availablePermits();
+                // 唤醒所有同步等待者
+                int permits = waiters.size() - asyncWaiterIds.size() - semaphore.availablePermits();
                 if (permits > 0) {
                     semaphore.release(permits);
                 }
+                // 唤醒所有异步等待者
+                for (AsyncWaiter asyncWaiter : asyncWaiters) {
+                    if (asyncWaiters.remove(asyncWaiter)) {
+                        asyncWaiter.awake(true);
+                    }
+                }
             }
 
             // 等待同步
@@ -134,14 +374,48 @@ public class ServerSyncManager {
                 return semaphore.tryAcquire(timeout, TimeUnit.MILLISECONDS);
             }
 
+            // 异步等待同步（先加入再检查信号量，保证不会错过通知；只有本次删除了异步等待者才占用许可）
+            void waitAsync(AsyncWaiter asyncWaiter) {
+                asyncWaiters.add(asyncWaiter);
+                if (semaphore.tryAcquire()) {
+                    if (asyncWaiters.remove(asyncWaiter)) {
+                        asyncWaiter.awake(true);
+                    } else {
+                        // 已被其他通知唤醒，归还许可
+                        semaphore.release();
+                    }
+                }
+            }
+
+            // 删除异步等待者
+            void removeAsyncWaiter(AsyncWaiter asyncWaiter) {
+                asyncWaiters.remove(asyncWaiter);
+            }
+
             // 添加等待者
-            void addWaiter(String waiter) {
+            void addWaiter(String waiter, boolean async) {
                 waiters.add(waiter);
+                if (async) {
+                    asyncWaiterIds.add(waiter);
+                } else {
+                    asyncWaiterIds.remove(waiter);
+                }
             }
 
             // 删除等待者
-            void removeWaiter(String waiter) {
-                waiters.remove(waiter);
+            boolean removeWaiter(String waiter) {
+                asyncWaiterIds.remove(waiter);
+                return waiters.remove(waiter);
+            }
+
+            // 是否有指定的等待者
+            boolean hasWaiter(String waiter) {
+                return waiters.contains(waiter);
+            }
+
+            // 统计等待者数量
+            int countWaiters() {
+                return waiters.size();
             }
 
             // 是否为空
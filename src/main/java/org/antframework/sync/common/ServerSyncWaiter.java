@@ -10,6 +10,8 @@ package org.antframework.sync.common;
 
 import lombok.AllArgsConstructor;
 
+import java.util.function.Consumer;
+
 /**
  * 基于服务端的同步等待器
  */
@@ -32,6 +34,12 @@ public class ServerSyncWaiter implements SyncWaiter {
         return syncManager.waitSync(key, type, waiter, time);
     }
 
+    @Override
+    public void waitAsync(long timeout, Consumer<Boolean> callback) {
+        long time = Math.min(timeout, maxWaitTime);
+        syncManager.waitAsync(key, type, waiter, time, callback);
+    }
+
     @Override
     public String toString() {
         return String.format("ServerSyncWaiter{key=%s,type=%s,waiter=%s,maxWaitTime=%d}", key, type, waiter, maxWaitTime);
@@ -8,8 +8,17 @@
  */
 package org.antframework.sync.common;
 
+import lombok.Getter;
+import org.antframework.sync.metrics.SyncMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -18,13 +27,54 @@ import java.util.concurrent.TimeUnit;
  */
 public class SyncExecutor {
     // 线程池
-    private final Executor executor = new ThreadPoolExecutor(
-            0,
-            10,
-            5,
-            TimeUnit.SECONDS,
-            new ArrayBlockingQueue<>(1024),
-            new ThreadPoolExecutor.AbortPolicy());
+    private final Executor executor;
+    // 定时任务线程池
+    private final ScheduledExecutorService scheduler;
+    // 由本执行器创建的线程池（关闭时需关闭）
+    private final List<ExecutorService> ownedExecutors = new ArrayList<>();
+    // 泄漏检测器
+    @Getter
+    private final LeakDetector leakDetector = new LeakDetector(this);
+
+    public SyncExecutor(SyncMetrics metrics) {
+        this(null, null, metrics);
+    }
+
+    /**
+     * 创建Sync执行器
+     *
+     * @param executor  线程池（null表示使用默认线程池）
+     * @param scheduler 定时任务线程池（null表示使用默认线程池；定时任务只用于触发超时、空闲检查等轻量任务）
+     * @param metrics   指标收集器
+     */
+    public SyncExecutor(Executor executor, ScheduledExecutorService scheduler, SyncMetrics metrics) {
+        if (executor == null) {
+            ThreadPoolExecutor defaultExecutor = new ThreadPoolExecutor(
+                    0,
+                    10,
+                    5,
+                    TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(1024),
+                    new ThreadPoolExecutor.AbortPolicy());
+            metrics.onExecutorCreated("sync-executor", defaultExecutor);
+            ownedExecutors.add(defaultExecutor);
+            executor = defaultExecutor;
+        }
+        if (scheduler == null) {
+            ScheduledThreadPoolExecutor defaultScheduler = new ScheduledThreadPoolExecutor(1, task -> {
+                Thread thread = new Thread(task, "SyncExecutor-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // 被取消的定时任务（比如已等到通知的异步等待的超时任务）立即从队列中删除
+            defaultScheduler.setRemoveOnCancelPolicy(true);
+            metrics.onExecutorCreated("sync-scheduler", defaultScheduler);
+            ownedExecutors.add(defaultScheduler);
+            scheduler = defaultScheduler;
+        }
+        this.executor = executor;
+        this.scheduler = scheduler;
+    }
 
     /**
      * 执行
@@ -34,4 +84,22 @@ public class SyncExecutor {
     public void execute(Runnable task) {
         executor.execute(task);
     }
+
+    /**
+     * 延迟执行
+     *
+     * @param task  任务
+     * @param delay 延迟时间（毫秒）
+     * @return 定时任务
+     */
+    public ScheduledFuture<?> schedule(Runnable task, long delay) {
+        return scheduler.schedule(task, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 关闭（关闭由本执行器创建的默认线程池；外部提供的线程池由外部负责关闭）
+     */
+    public void close() {
+        ownedExecutors.forEach(ExecutorService::shutdown);
+    }
 }
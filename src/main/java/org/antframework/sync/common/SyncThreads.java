@@ -0,0 +1,97 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 16:33 创建
+ */
+package org.antframework.sync.common;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 线程工具
+ * <p>
+ * 虚拟线程（JDK21及以上）通过反射创建，在低版本JDK中也能编译和运行（只是不支持虚拟线程）。
+ */
+public final class SyncThreads {
+    // 虚拟线程工厂的构建器方法（Thread.ofVirtual()；null表示不支持虚拟线程）
+    private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+    // 每个任务一个线程的线程池的创建方法（Executors.newThreadPerTaskExecutor(ThreadFactory)）
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR = findMethod(Executors.class, "newThreadPerTaskExecutor", ThreadFactory.class);
+
+    private SyncThreads() {
+    }
+
+    /**
+     * 是否支持虚拟线程
+     *
+     * @return true 支持；false 不支持
+     */
+    public static boolean isVirtualThreadSupported() {
+        return OF_VIRTUAL != null && NEW_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * 创建线程工厂
+     *
+     * @param namePrefix 线程名称前缀
+     * @param virtual    是否创建虚拟线程（否则创建守护线程）
+     * @return 线程工厂
+     */
+    public static ThreadFactory newThreadFactory(String namePrefix, boolean virtual) {
+        if (virtual) {
+            checkVirtualThreadSupported();
+            try {
+                Object builder = OF_VIRTUAL.invoke(null);
+                Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+                builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+                return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("创建虚拟线程工厂失败", e);
+            }
+        }
+        AtomicLong counter = new AtomicLong(0);
+        return task -> {
+            Thread thread = new Thread(task, namePrefix + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 创建每个任务一个虚拟线程的线程池
+     *
+     * @param namePrefix 线程名称前缀
+     * @return 线程池
+     */
+    public static ExecutorService newVirtualThreadExecutor(String namePrefix) {
+        ThreadFactory threadFactory = newThreadFactory(namePrefix, true);
+        try {
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("创建虚拟线程池失败", e);
+        }
+    }
+
+    // 校验是否支持虚拟线程
+    private static void checkVirtualThreadSupported() {
+        if (!isVirtualThreadSupported()) {
+            throw new IllegalArgumentException(String.format("当前JDK[%s]不支持虚拟线程（需JDK21及以上）", System.getProperty("java.version")));
+        }
+    }
+
+    // 查找方法（不存在时返回null）
+    private static Method findMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+        try {
+            return type.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
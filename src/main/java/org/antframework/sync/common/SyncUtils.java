@@ -15,12 +15,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
-import java.util.UUID;
 
 /**
  * Sync工具类
  */
 public class SyncUtils {
+    // id生成器
+    private static final DefaultIdGenerator ID_GENERATOR = new DefaultIdGenerator();
+
     /**
      * 获取脚本
      */
@@ -46,8 +48,6 @@ public class SyncUtils {
      * 获取新id
      */
     public static String newId() {
-        String id = UUID.randomUUID().toString();
-        id = id.replace("-", "");
-        return id;
+        return ID_GENERATOR.get();
     }
 }
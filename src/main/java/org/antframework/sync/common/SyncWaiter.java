@@ -8,6 +8,8 @@
  */
 package org.antframework.sync.common;
 
+import java.util.function.Consumer;
+
 /**
  * 同步等待器
  */
@@ -19,4 +21,12 @@ public interface SyncWaiter {
      * @return true 等到同步; false 等待超时
      */
     boolean waitSync(long timeout) throws InterruptedException;
+
+    /**
+     * 异步等待同步（不阻塞线程）
+     *
+     * @param timeout  等待超时时间（毫秒）
+     * @param callback 等到同步或等待超时后执行的回调（参数为true表示等到同步，false表示等待超时）
+     */
+    void waitAsync(long timeout, Consumer<Boolean> callback);
 }
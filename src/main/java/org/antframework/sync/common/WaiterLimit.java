@@ -0,0 +1,57 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 17:21 创建
+ */
+package org.antframework.sync.common;
+
+/**
+ * 等待者上限
+ * <p>
+ * 为当前线程临时指定每个key本地最多的等待者数量（覆盖SyncOptions.maxWaiters），由注解切面在同步加锁、获取许可期间设置。
+ * 只对当前线程的同步等待生效，异步等待仍使用SyncOptions.maxWaiters。
+ */
+public final class WaiterLimit {
+    // 当前线程指定的等待者上限（null表示未指定）
+    private static final ThreadLocal<Integer> MAX_WAITERS = new ThreadLocal<>();
+
+    private WaiterLimit() {
+    }
+
+    /**
+     * 获取当前线程指定的等待者上限
+     *
+     * @return 等待者上限（0表示不限制；null表示未指定）
+     */
+    public static Integer get() {
+        return MAX_WAITERS.get();
+    }
+
+    /**
+     * 为当前线程指定等待者上限
+     *
+     * @param maxWaiters 等待者上限（0表示不限制）
+     * @return 之前指定的等待者上限（用于恢复；null表示未指定）
+     */
+    public static Integer set(int maxWaiters) {
+        Integer previous = MAX_WAITERS.get();
+        MAX_WAITERS.set(maxWaiters);
+        return previous;
+    }
+
+    /**
+     * 恢复当前线程之前指定的等待者上限
+     *
+     * @param previous 之前指定的等待者上限（null表示未指定）
+     */
+    public static void restore(Integer previous) {
+        if (previous == null) {
+            MAX_WAITERS.remove();
+        } else {
+            MAX_WAITERS.set(previous);
+        }
+    }
+}
@@ -8,10 +8,12 @@
  */
 package org.antframework.sync.extension;
 
+import java.util.List;
+
 /**
  * 服务端
  */
-public interface Server {
+public interface Server extends AutoCloseable {
     /**
      * 加互斥锁
      *
@@ -22,6 +24,31 @@ public interface Server {
      */
     Long lockForMutex(String key, String lockerId, long deadline);
 
+    /**
+     * 以租期模式加互斥锁（服务端不维护持有关系，租期到了自动解锁；默认不支持租期，持有关系不会过期，直接加锁）
+     *
+     * @param key       锁标识
+     * @param lockerId  加锁者id
+     * @param deadline  截止时间
+     * @param leaseTime 租期（毫秒）
+     * @return null 加锁成功；否则返回需等待的时间（毫秒）
+     */
+    default Long lockForMutex(String key, String lockerId, long deadline, long leaseTime) {
+        return lockForMutex(key, lockerId, deadline);
+    }
+
+    /**
+     * 延长互斥锁的租期（从现在开始重新计算；默认不支持租期，直接返回true）
+     *
+     * @param key       锁标识
+     * @param lockerId  加锁者id
+     * @param leaseTime 租期（毫秒）
+     * @return true 延长成功；false 延长失败（锁不存在或已经易主）
+     */
+    default boolean extendLeaseForMutex(String key, String lockerId, long leaseTime) {
+        return true;
+    }
+
     /**
      * 解互斥锁
      *
@@ -30,6 +57,18 @@ public interface Server {
      */
     void unlockForMutex(String key, String lockerId);
 
+    /**
+     * 批量解互斥锁（用于强制解锁泄漏的锁；默认逐个解锁）
+     *
+     * @param keys      锁标识
+     * @param lockerIds 加锁者id（与锁标识一一对应）
+     */
+    default void unlockAllForMutex(List<String> keys, List<String> lockerIds) {
+        for (int i = 0; i < keys.size(); i++) {
+            unlockForMutex(keys.get(i), lockerIds.get(i));
+        }
+    }
+
     /**
      * 加读锁
      *
@@ -40,6 +79,31 @@ public interface Server {
      */
     Long lockForRead(String key, String lockerId, long deadline);
 
+    /**
+     * 以租期模式加读锁（服务端不维护持有关系，租期到了自动解锁；默认不支持租期，持有关系不会过期，直接加锁）
+     *
+     * @param key       锁标识
+     * @param lockerId  加锁者id
+     * @param deadline  截止时间
+     * @param leaseTime 租期（毫秒）
+     * @return null 加锁成功；否则返回需等待的时间（毫秒）
+     */
+    default Long lockForRead(String key, String lockerId, long deadline, long leaseTime) {
+        return lockForRead(key, lockerId, deadline);
+    }
+
+    /**
+     * 延长读锁的租期（从现在开始重新计算；默认不支持租期，直接返回true）
+     *
+     * @param key       锁标识
+     * @param lockerId  加锁者id
+     * @param leaseTime 租期（毫秒）
+     * @return true 延长成功；false 延长失败（锁不存在或已经易主）
+     */
+    default boolean extendLeaseForRead(String key, String lockerId, long leaseTime) {
+        return true;
+    }
+
     /**
      * 解读锁
      *
@@ -58,6 +122,31 @@ public interface Server {
      */
     Long lockForWrite(String key, String lockerId, long deadline);
 
+    /**
+     * 以租期模式加写锁（服务端不维护持有关系，租期到了自动解锁；默认不支持租期，持有关系不会过期，直接加锁）
+     *
+     * @param key       锁标识
+     * @param lockerId  加锁者id
+     * @param deadline  截止时间
+     * @param leaseTime 租期（毫秒）
+     * @return null 加锁成功；否则返回需等待的时间（毫秒）
+     */
+    default Long lockForWrite(String key, String lockerId, long deadline, long leaseTime) {
+        return lockForWrite(key, lockerId, deadline);
+    }
+
+    /**
+     * 延长写锁的租期（从现在开始重新计算；默认不支持租期，直接返回true）
+     *
+     * @param key       锁标识
+     * @param lockerId  加锁者id
+     * @param leaseTime 租期（毫秒）
+     * @return true 延长成功；false 延长失败（锁不存在或已经易主）
+     */
+    default boolean extendLeaseForWrite(String key, String lockerId, long leaseTime) {
+        return true;
+    }
+
     /**
      * 解写锁
      *
@@ -66,6 +155,18 @@ public interface Server {
      */
     void unlockForWrite(String key, String lockerId);
 
+    /**
+     * 批量解写锁（用于强制解锁泄漏的锁；默认逐个解锁）
+     *
+     * @param keys      锁标识
+     * @param lockerIds 加锁者id（与锁标识一一对应）
+     */
+    default void unlockAllForWrite(List<String> keys, List<String> lockerIds) {
+        for (int i = 0; i < keys.size(); i++) {
+            unlockForWrite(keys.get(i), lockerIds.get(i));
+        }
+    }
+
     /**
      * 获取信号量许可
      *
@@ -78,6 +179,21 @@ public interface Server {
      */
     Long acquireForSemaphore(String key, String semaphorerId, int newPermits, int totalPermits, long deadline);
 
+    /**
+     * 以租期模式获取信号量许可（服务端不维护持有关系，租期到了自动释放；默认不支持租期，持有关系不会过期，直接获取）
+     *
+     * @param key          信号量标识
+     * @param semaphorerId 获取信号量许可者id
+     * @param newPermits   新许可数
+     * @param totalPermits 许可总数
+     * @param deadline     截止时间
+     * @param leaseTime    租期（毫秒）
+     * @return null 获取成功；否则返回需等待的时间（毫秒）
+     */
+    default Long acquireForSemaphore(String key, String semaphorerId, int newPermits, int totalPermits, long deadline, long leaseTime) {
+        return acquireForSemaphore(key, semaphorerId, newPermits, totalPermits, deadline);
+    }
+
     /**
      * 释放信号量许可
      *
@@ -88,6 +204,44 @@ public interface Server {
      */
     void releaseForSemaphore(String key, String semaphorerId, int newPermits, int totalPermits);
 
+    /**
+     * 以租期模式释放信号量许可（剩余的许可从现在开始重新计算租期；默认不支持租期，直接释放）
+     *
+     * @param key          信号量标识
+     * @param semaphorerId 获取信号量许可者id
+     * @param newPermits   新许可数
+     * @param totalPermits 许可总数
+     * @param leaseTime    租期（毫秒）
+     */
+    default void releaseForSemaphore(String key, String semaphorerId, int newPermits, int totalPermits, long leaseTime) {
+        releaseForSemaphore(key, semaphorerId, newPermits, totalPermits);
+    }
+
+    /**
+     * 批量释放获取者持有的所有信号量许可（用于强制释放泄漏的许可；默认逐个释放）
+     *
+     * @param keys          信号量标识
+     * @param semaphorerIds 获取信号量许可者id（与信号量标识一一对应）
+     * @param totalPermits  许可总数（与信号量标识一一对应）
+     */
+    default void releaseAllForSemaphore(List<String> keys, List<String> semaphorerIds, List<Integer> totalPermits) {
+        for (int i = 0; i < keys.size(); i++) {
+            releaseForSemaphore(keys.get(i), semaphorerIds.get(i), 0, totalPermits.get(i));
+        }
+    }
+
+    /**
+     * 延长信号量许可的租期（从现在开始重新计算；默认不支持租期，直接返回true）
+     *
+     * @param key          信号量标识
+     * @param semaphorerId 获取信号量许可者id
+     * @param leaseTime    租期（毫秒）
+     * @return true 延长成功；false 延长失败（信号量不存在或已经不持有许可）
+     */
+    default boolean extendLeaseForSemaphore(String key, String semaphorerId, long leaseTime) {
+        return true;
+    }
+
     /**
      * 新增同步监听器
      *
@@ -106,6 +260,63 @@ public interface Server {
      */
     void removeSyncListener(SyncType syncType, String key, Runnable listener);
 
+    /**
+     * 请求撤销偏向（通知以偏向方式持有锁的节点尽快在服务端解锁；默认不支持跨节点撤销，不做任何处理）
+     *
+     * @param syncType 同步类型
+     * @param key      目标标识
+     */
+    default void requestRevoke(SyncType syncType, String key) {
+    }
+
+    /**
+     * 新增撤销监听器（以偏向方式持有锁时监听其他节点的撤销请求）
+     *
+     * @param syncType 同步类型
+     * @param key      目标标识
+     * @param listener 监听器
+     */
+    default void addRevokeListener(SyncType syncType, String key, Runnable listener) {
+    }
+
+    /**
+     * 删除撤销监听器
+     *
+     * @param syncType 同步类型
+     * @param key      目标标识
+     * @param listener 监听器
+     */
+    default void removeRevokeListener(SyncType syncType, String key, Runnable listener) {
+    }
+
+    /**
+     * 新增等待节点（用于限制有等待者的节点数量；节点内的key从无等待者变为有等待者时调用，节点内的所有等待者只算一个；默认不支持，不做任何限制）
+     *
+     * @param syncType   同步类型
+     * @param key        目标标识
+     * @param maxWaiters 最多有等待者的节点数量
+     * @return true 新增成功；false 有等待者的节点数量已达上限
+     */
+    default boolean addWaiter(SyncType syncType, String key, int maxWaiters) {
+        return true;
+    }
+
+    /**
+     * 删除等待节点（节点内的key从有等待者变为无等待者时调用，与新增成功的等待节点一一对应；默认不做任何处理）
+     *
+     * @param syncType 同步类型
+     * @param key      目标标识
+     */
+    default void removeWaiter(SyncType syncType, String key) {
+    }
+
+    /**
+     * 关闭（释放本服务端仍持有的锁、信号量许可，停止维护线程，退订同步通道；之后不能再加锁、获取许可；默认不做任何处理）
+     */
+    @Override
+    default void close() {
+    }
+
     /**
      * 同步类型
      */
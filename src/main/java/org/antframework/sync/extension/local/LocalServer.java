@@ -13,6 +13,10 @@ import org.antframework.sync.extension.local.support.LocalMutexLockServer;
 import org.antframework.sync.extension.local.support.LocalRWLockServer;
 import org.antframework.sync.extension.local.support.LocalSemaphoreServer;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * 本地服务端
  */
@@ -23,44 +27,68 @@ public class LocalServer implements Server {
     private final LocalRWLockServer rwLockServer = new LocalRWLockServer();
     // 信号量服务端
     private final LocalSemaphoreServer semaphoreServer = new LocalSemaphoreServer();
+    // 有等待者的节点数量（同步类型和key-数量；每个Sync上下文是一个节点，使用本服务端的所有Sync上下文共同统计）
+    private final Map<String, Integer> waiters = new ConcurrentHashMap<>();
+    // 是否已关闭
+    private final AtomicBoolean closed = new AtomicBoolean(false);
 
     @Override
     public Long lockForMutex(String key, String lockerId, long deadline) {
+        checkOpen();
         return mutexLockServer.lock(key, lockerId);
     }
 
     @Override
     public void unlockForMutex(String key, String lockerId) {
+        if (closed.get()) {
+            // 持有关系已随服务端关闭而丢弃
+            return;
+        }
         mutexLockServer.unlock(key, lockerId);
     }
 
     @Override
     public Long lockForRead(String key, String lockerId, long deadline) {
+        checkOpen();
         return rwLockServer.lockForRead(key, lockerId);
     }
 
     @Override
     public void unlockForRead(String key, String lockerId) {
+        if (closed.get()) {
+            // 持有关系已随服务端关闭而丢弃
+            return;
+        }
         rwLockServer.unlockForRead(key, lockerId);
     }
 
     @Override
     public Long lockForWrite(String key, String lockerId, long deadline) {
+        checkOpen();
         return rwLockServer.lockForWrite(key, lockerId, deadline);
     }
 
     @Override
     public void unlockForWrite(String key, String lockerId) {
+        if (closed.get()) {
+            // 持有关系已随服务端关闭而丢弃
+            return;
+        }
         rwLockServer.unlockForWrite(key, lockerId);
     }
 
     @Override
     public Long acquireForSemaphore(String key, String semaphorerId, int newPermits, int totalPermits, long deadline) {
+        checkOpen();
         return semaphoreServer.acquire(key, semaphorerId, newPermits, totalPermits);
     }
 
     @Override
     public void releaseForSemaphore(String key, String semaphorerId, int newPermits, int totalPermits) {
+        if (closed.get()) {
+            // 持有关系已随服务端关闭而丢弃
+            return;
+        }
         semaphoreServer.release(key, semaphorerId, newPermits);
     }
 
@@ -97,4 +125,44 @@ public class LocalServer implements Server {
                 throw new IllegalArgumentException("无法识别的Sync类型：" + syncType);
         }
     }
+
+    @Override
+    public boolean addWaiter(SyncType syncType, String key, int maxWaiters) {
+        boolean[] added = {false};
+        waiters.compute(syncType + "::" + key, (k, v) -> {
+            int amount = v == null ? 0 : v;
+            if (amount < maxWaiters) {
+                amount++;
+                added[0] = true;
+            }
+            return amount > 0 ? amount : null;
+        });
+        return added[0];
+    }
+
+    @Override
+    public void removeWaiter(SyncType syncType, String key) {
+        waiters.computeIfPresent(syncType + "::" + key, (k, v) -> v > 1 ? v - 1 : null);
+    }
+
+    /**
+     * 关闭（唤醒所有等待者，等待者重新加锁、获取许可时失败；持有关系只存在于本进程的内存中，随服务端一起丢弃）。
+     * 关闭后不能再加锁、获取许可，解锁、释放许可不做任何处理。
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        mutexLockServer.close();
+        rwLockServer.close();
+        semaphoreServer.close();
+    }
+
+    // 校验未关闭
+    private void checkOpen() {
+        if (closed.get()) {
+            throw new IllegalStateException("本地服务端已关闭");
+        }
+    }
 }
@@ -72,4 +72,11 @@ public class ListenerManager {
             return v;
         });
     }
+
+    /**
+     * 向所有标识发布事件（比如关闭时唤醒所有等待者）
+     */
+    public void publishAll() {
+        new HashSet<>(keyListeners.keySet()).forEach(this::publish);
+    }
 }
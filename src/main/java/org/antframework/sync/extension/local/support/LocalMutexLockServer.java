@@ -67,4 +67,11 @@ public class LocalMutexLockServer {
     public void removeSyncListener(String key, Runnable listener) {
         listenerManager.remove(key, listener);
     }
+
+    /**
+     * 关闭（唤醒所有等待者）
+     */
+    public void close() {
+        listenerManager.publishAll();
+    }
 }
@@ -120,6 +120,14 @@ public class LocalRWLockServer {
         listenerManager.remove(key, listener);
     }
 
+    /**
+     * 关闭（停止定时清理，唤醒所有等待者）
+     */
+    public void close() {
+        timer.cancel();
+        listenerManager.publishAll();
+    }
+
     // 锁持有者
     enum LockOwner {
         // 无
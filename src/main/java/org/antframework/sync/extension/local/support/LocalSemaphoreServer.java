@@ -70,4 +70,11 @@ public class LocalSemaphoreServer {
     public void removeSyncListener(String key, Runnable listener) {
         listenerManager.remove(key, listener);
     }
+
+    /**
+     * 关闭（唤醒所有等待者）
+     */
+    public void close() {
+        listenerManager.publishAll();
+    }
 }
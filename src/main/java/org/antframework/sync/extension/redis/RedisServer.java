@@ -9,29 +9,55 @@
 package org.antframework.sync.extension.redis;
 
 import lombok.extern.slf4j.Slf4j;
+import org.antframework.sync.common.SyncThreads;
 import org.antframework.sync.extension.Server;
 import org.antframework.sync.extension.redis.extension.RedisExecutor;
+import org.antframework.sync.extension.redis.support.MetricsRedisExecutor;
 import org.antframework.sync.extension.redis.support.RedisMutexLockServer;
 import org.antframework.sync.extension.redis.support.RedisRWLockServer;
 import org.antframework.sync.extension.redis.support.RedisSemaphoreServer;
+import org.antframework.sync.extension.redis.support.SyncChannelManager;
+import org.antframework.sync.extension.redis.support.SyncQueueManager;
+import org.antframework.sync.extension.redis.support.SyncSessionManager;
+import org.antframework.sync.extension.redis.support.SyncWaiterManager;
+import org.antframework.sync.metrics.SyncMetrics;
+import org.antframework.sync.metrics.support.NoopSyncMetrics;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 
 /**
  * redis服务端
  */
 @Slf4j
 public class RedisServer implements Server {
-    // 定时触发器
-    private final Timer timer = new Timer("RedisServer-sync-maintainer", true);
-    // redis执行器
-    private final RedisExecutor redisExecutor;
+    // 维护调度线程
+    private final Thread maintainThread;
+    // 维护执行器
+    private final Executor maintainExecutor;
+    // 由本服务端创建的维护线程池（关闭时需关闭；null表示维护线程池由外部提供）
+    private final ExecutorService ownedMaintainExecutor;
+    // 是否已关闭
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    // 最长的维护检查间隔（毫秒）
+    private final long maxMaintainInterval;
+    // key生成器
+    private final BiFunction<SyncType, String, String> keyGenerator;
+    // 同步通道管理器
+    private final SyncChannelManager syncChannelManager;
+    // 会话管理器
+    private final SyncSessionManager sessionManager;
+    // 排队管理器
+    private final SyncQueueManager queueManager;
+    // 等待者管理器
+    private final SyncWaiterManager waiterManager;
     // 互斥锁服务端
     private final RedisMutexLockServer mutexLockServer;
     // 读写锁服务端
@@ -40,104 +66,319 @@ public class RedisServer implements Server {
     private final RedisSemaphoreServer semaphoreServer;
 
     public RedisServer(BiFunction<SyncType, String, String> keyGenerator, RedisExecutor redisExecutor, long liveTime) {
-        if (redisExecutor == null || liveTime <= 0) {
-            throw new IllegalArgumentException("redisExecutor不能为null且liveTime必须大于0");
+        this(keyGenerator, redisExecutor, liveTime, NoopSyncMetrics.INSTANCE);
+    }
+
+    public RedisServer(BiFunction<SyncType, String, String> keyGenerator, RedisExecutor redisExecutor, long liveTime, SyncMetrics metrics) {
+        this(keyGenerator, redisExecutor, toOptions(liveTime), metrics);
+    }
+
+    public RedisServer(BiFunction<SyncType, String, String> keyGenerator, RedisExecutor redisExecutor, RedisServerOptions options, SyncMetrics metrics) {
+        if (redisExecutor == null || options == null || metrics == null) {
+            throw new IllegalArgumentException("redisExecutor、options、metrics不能为null");
+        }
+        if (options.getLiveTime() <= 0 || options.getSyncChannelAmount() < 0) {
+            throw new IllegalArgumentException("liveTime必须大于0且syncChannelAmount不能小于0");
+        }
+        if (options.getSessionTime() < 0) {
+            throw new IllegalArgumentException("sessionTime不能小于0");
         }
-        Executor maintainExecutor = new ThreadPoolExecutor(
-                1,
-                10,
-                5,
-                TimeUnit.SECONDS,
-                new ArrayBlockingQueue<>(1024),
-                new ThreadPoolExecutor.CallerRunsPolicy());
-        this.redisExecutor = redisExecutor;
-        this.mutexLockServer = new RedisMutexLockServer(keyGenerator, redisExecutor, liveTime, maintainExecutor);
-        this.rwLockServer = new RedisRWLockServer(keyGenerator, redisExecutor, liveTime, maintainExecutor);
-        this.semaphoreServer = new RedisSemaphoreServer(keyGenerator, redisExecutor, liveTime, maintainExecutor);
-        this.timer.schedule(new MaintainTask(), liveTime / 10, liveTime / 10);
+        if (options.isQueued() && options.getQueueTicketTime() <= 0) {
+            throw new IllegalArgumentException("排队模式下queueTicketTime必须大于0");
+        }
+        long liveTime = options.getLiveTime();
+        redisExecutor = new MetricsRedisExecutor(redisExecutor, metrics);
+        Executor maintainExecutor = options.getMaintainExecutor();
+        ExecutorService ownedMaintainExecutor = null;
+        if (maintainExecutor == null) {
+            if (options.isVirtualThreads()) {
+                ownedMaintainExecutor = SyncThreads.newVirtualThreadExecutor("RedisServer-maintainer-");
+            } else {
+                ThreadPoolExecutor defaultMaintainExecutor = new ThreadPoolExecutor(
+                        1,
+                        10,
+                        5,
+                        TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(1024),
+                        new ThreadPoolExecutor.AbortPolicy());
+                metrics.onExecutorCreated("redis-maintain-executor", defaultMaintainExecutor);
+                ownedMaintainExecutor = defaultMaintainExecutor;
+            }
+            maintainExecutor = ownedMaintainExecutor;
+        }
+        this.maintainExecutor = maintainExecutor;
+        this.ownedMaintainExecutor = ownedMaintainExecutor;
+        this.keyGenerator = keyGenerator;
+        this.queueManager = new SyncQueueManager(options.isQueued(), options.getQueueTicketTime());
+        this.syncChannelManager = new SyncChannelManager(keyGenerator, redisExecutor, options.getSyncChannelAmount(), queueManager.getNodeId());
+        this.sessionManager = new SyncSessionManager(redisExecutor, options.getSessionTime());
+        this.waiterManager = new SyncWaiterManager(redisExecutor, queueManager.getNodeId(), liveTime);
+        this.mutexLockServer = new RedisMutexLockServer(keyGenerator, redisExecutor, liveTime, maintainExecutor, syncChannelManager, sessionManager, queueManager);
+        this.rwLockServer = new RedisRWLockServer(keyGenerator, redisExecutor, liveTime, maintainExecutor, syncChannelManager, sessionManager);
+        this.semaphoreServer = new RedisSemaphoreServer(keyGenerator, redisExecutor, liveTime, maintainExecutor, syncChannelManager, sessionManager, queueManager);
+        // 会话模式下会话的有效期一般远小于存活时间，维护检查间隔需按会话有效期计算
+        long maintainBaseTime = options.getSessionTime() > 0 ? Math.min(liveTime, options.getSessionTime()) : liveTime;
+        this.maxMaintainInterval = Math.max(maintainBaseTime / 10, 1);
+        this.maintainThread = SyncThreads.newThreadFactory("RedisServer-sync-maintainer-", options.isVirtualThreads()).newThread(new MaintainTask());
+        this.maintainThread.start();
     }
 
     @Override
     public Long lockForMutex(String key, String lockerId, long deadline) {
-        return mutexLockServer.lock(key, lockerId);
+        checkOpen();
+        return mutexLockServer.lock(key, sessionManager.toHolderId(lockerId));
+    }
+
+    @Override
+    public Long lockForMutex(String key, String lockerId, long deadline, long leaseTime) {
+        checkOpen();
+        return mutexLockServer.lock(key, sessionManager.toHolderId(lockerId), leaseTime);
+    }
+
+    @Override
+    public boolean extendLeaseForMutex(String key, String lockerId, long leaseTime) {
+        checkOpen();
+        return mutexLockServer.extendLease(key, sessionManager.toHolderId(lockerId), leaseTime);
     }
 
     @Override
     public void unlockForMutex(String key, String lockerId) {
-        mutexLockServer.unlock(key, lockerId);
+        if (closed.get()) {
+            // 关闭时已释放
+            return;
+        }
+        mutexLockServer.unlock(key, sessionManager.toHolderId(lockerId));
+    }
+
+    @Override
+    public void unlockAllForMutex(List<String> keys, List<String> lockerIds) {
+        if (closed.get()) {
+            // 关闭时已释放
+            return;
+        }
+        mutexLockServer.unlock(keys, toHolderIds(lockerIds));
     }
 
     @Override
     public Long lockForRead(String key, String lockerId, long deadline) {
-        return rwLockServer.lockForRead(key, lockerId);
+        checkOpen();
+        return rwLockServer.lockForRead(key, sessionManager.toHolderId(lockerId));
+    }
+
+    @Override
+    public Long lockForRead(String key, String lockerId, long deadline, long leaseTime) {
+        checkOpen();
+        return rwLockServer.lockForRead(key, sessionManager.toHolderId(lockerId), leaseTime);
+    }
+
+    @Override
+    public boolean extendLeaseForRead(String key, String lockerId, long leaseTime) {
+        checkOpen();
+        return rwLockServer.extendLeaseForRead(key, sessionManager.toHolderId(lockerId), leaseTime);
     }
 
     @Override
     public void unlockForRead(String key, String lockerId) {
-        rwLockServer.unlockForRead(key, lockerId);
+        if (closed.get()) {
+            // 关闭时已释放
+            return;
+        }
+        rwLockServer.unlockForRead(key, sessionManager.toHolderId(lockerId));
     }
 
     @Override
     public Long lockForWrite(String key, String lockerId, long deadline) {
-        return rwLockServer.lockForWrite(key, lockerId, deadline);
+        checkOpen();
+        return rwLockServer.lockForWrite(key, sessionManager.toHolderId(lockerId), deadline);
+    }
+
+    @Override
+    public Long lockForWrite(String key, String lockerId, long deadline, long leaseTime) {
+        checkOpen();
+        return rwLockServer.lockForWrite(key, sessionManager.toHolderId(lockerId), deadline, leaseTime);
+    }
+
+    @Override
+    public boolean extendLeaseForWrite(String key, String lockerId, long leaseTime) {
+        checkOpen();
+        return rwLockServer.extendLeaseForWrite(key, sessionManager.toHolderId(lockerId), leaseTime);
     }
 
     @Override
     public void unlockForWrite(String key, String lockerId) {
-        rwLockServer.unlockForWrite(key, lockerId);
+        if (closed.get()) {
+            // 关闭时已释放
+            return;
+        }
+        rwLockServer.unlockForWrite(key, sessionManager.toHolderId(lockerId));
+    }
+
+    @Override
+    public void unlockAllForWrite(List<String> keys, List<String> lockerIds) {
+        if (closed.get()) {
+            // 关闭时已释放
+            return;
+        }
+        rwLockServer.unlockForWrite(keys, toHolderIds(lockerIds));
     }
 
     @Override
     public Long acquireForSemaphore(String key, String semaphorerId, int newPermits, int totalPermits, long deadline) {
-        return semaphoreServer.acquire(key, semaphorerId, newPermits, totalPermits);
+        checkOpen();
+        return semaphoreServer.acquire(key, sessionManager.toHolderId(semaphorerId), newPermits, totalPermits);
+    }
+
+    @Override
+    public Long acquireForSemaphore(String key, String semaphorerId, int newPermits, int totalPermits, long deadline, long leaseTime) {
+        checkOpen();
+        return semaphoreServer.acquire(key, sessionManager.toHolderId(semaphorerId), newPermits, totalPermits, leaseTime);
     }
 
     @Override
     public void releaseForSemaphore(String key, String semaphorerId, int newPermits, int totalPermits) {
-        semaphoreServer.release(key, semaphorerId, newPermits, totalPermits);
+        if (closed.get()) {
+            // 关闭时已释放
+            return;
+        }
+        semaphoreServer.release(key, sessionManager.toHolderId(semaphorerId), newPermits, totalPermits);
+    }
+
+    @Override
+    public void releaseForSemaphore(String key, String semaphorerId, int newPermits, int totalPermits, long leaseTime) {
+        if (closed.get()) {
+            // 关闭时已释放
+            return;
+        }
+        semaphoreServer.release(key, sessionManager.toHolderId(semaphorerId), newPermits, totalPermits, leaseTime);
+    }
+
+    @Override
+    public void releaseAllForSemaphore(List<String> keys, List<String> semaphorerIds, List<Integer> totalPermits) {
+        if (closed.get()) {
+            // 关闭时已释放
+            return;
+        }
+        semaphoreServer.releaseAll(keys, toHolderIds(semaphorerIds));
+    }
+
+    @Override
+    public boolean extendLeaseForSemaphore(String key, String semaphorerId, long leaseTime) {
+        checkOpen();
+        return semaphoreServer.extendLease(key, sessionManager.toHolderId(semaphorerId), leaseTime);
     }
 
     @Override
     public void addSyncListener(SyncType syncType, String key, Runnable listener) {
-        String channel = computeSyncChannel(syncType, key);
-        redisExecutor.addMessageListener(channel, listener);
+        syncChannelManager.addSyncListener(syncType, keyGenerator.apply(syncType, key), listener);
     }
 
     @Override
     public void removeSyncListener(SyncType syncType, String key, Runnable listener) {
-        String channel = computeSyncChannel(syncType, key);
-        redisExecutor.removeMessageListener(channel, listener);
-    }
-
-    // 计算同步通道
-    private String computeSyncChannel(SyncType syncType, String key) {
-        String channel;
-        switch (syncType) {
-            case MUTEX_LOCK:
-                channel = mutexLockServer.computeSyncChannel(key);
-                break;
-            case RW_LOCK:
-                channel = rwLockServer.computeSyncChannel(key);
-                break;
-            case SEMAPHORE:
-                channel = semaphoreServer.computeSyncChannel(key);
-                break;
-            default:
-                throw new IllegalArgumentException("无法识别的Sync类型：" + syncType);
-        }
-        return channel;
-    }
-
-    // 维护任务
-    private class MaintainTask extends TimerTask {
+        syncChannelManager.removeSyncListener(syncType, keyGenerator.apply(syncType, key), listener);
+    }
+
+    @Override
+    public void requestRevoke(SyncType syncType, String key) {
+        syncChannelManager.publishRevoke(syncType, keyGenerator.apply(syncType, key));
+    }
+
+    @Override
+    public void addRevokeListener(SyncType syncType, String key, Runnable listener) {
+        syncChannelManager.addRevokeListener(syncType, keyGenerator.apply(syncType, key), listener);
+    }
+
+    @Override
+    public void removeRevokeListener(SyncType syncType, String key, Runnable listener) {
+        syncChannelManager.removeRevokeListener(syncType, keyGenerator.apply(syncType, key), listener);
+    }
+
+    /**
+     * 新增等待节点（互斥锁、信号量在其hash中统计有等待者的节点数量；读写锁不支持，不做任何限制）
+     */
+    @Override
+    public boolean addWaiter(SyncType syncType, String key, int maxWaiters) {
+        if (syncType == SyncType.RW_LOCK) {
+            return true;
+        }
+        checkOpen();
+        return waiterManager.addWaiter(keyGenerator.apply(syncType, key), maxWaiters);
+    }
+
+    @Override
+    public void removeWaiter(SyncType syncType, String key) {
+        if (syncType == SyncType.RW_LOCK || closed.get()) {
+            return;
+        }
+        waiterManager.removeWaiter(keyGenerator.apply(syncType, key));
+    }
+
+    /**
+     * 关闭（停止维护线程；成批地释放所有持有的锁、许可（包括租期未到期的租期模式的持有）并发送同步消息，其他节点无需等到它们在redis中过期；
+     * 删除会话；退订所有同步通道并唤醒本节点被阻塞的等待者（重试时失败）；关闭由本服务端创建的维护线程池）。关闭后的解锁、释放许可不再访问redis。
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        maintainThread.interrupt();
+        mutexLockServer.unlockAll();
+        rwLockServer.unlockAll();
+        semaphoreServer.releaseAll();
+        sessionManager.close();
+        syncChannelManager.close();
+        if (ownedMaintainExecutor != null) {
+            ownedMaintainExecutor.shutdown();
+        }
+    }
+
+    // 校验未关闭
+    private void checkOpen() {
+        if (closed.get()) {
+            throw new IllegalStateException("redis服务端已关闭");
+        }
+    }
+
+    // 转换为在redis中的持有者id
+    private List<String> toHolderIds(List<String> ids) {
+        return ids.stream().map(sessionManager::toHolderId).collect(Collectors.toList());
+    }
+
+    // 转换为选项
+    private static RedisServerOptions toOptions(long liveTime) {
+        RedisServerOptions options = new RedisServerOptions();
+        options.setLiveTime(liveTime);
+        return options;
+    }
+
+    // 维护任务（按租约的到期顺序调度续期，续期和会话刷新都在维护执行器中执行，执行器繁忙时稍后重试）
+    private class MaintainTask implements Runnable {
         @Override
         public void run() {
-            try {
-                mutexLockServer.maintain();
-                rwLockServer.maintain();
-                semaphoreServer.maintain();
-            } catch (Throwable e) {
-                log.error("定时维护互斥锁、读写锁、信号量在redis中的有效期出错：", e);
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    sessionManager.refresh(maintainExecutor);
+                } catch (Throwable e) {
+                    log.error("定时刷新会话出错：", e);
+                }
+                try {
+                    mutexLockServer.maintain();
+                    rwLockServer.maintain();
+                    semaphoreServer.maintain();
+                } catch (Throwable e) {
+                    log.error("定时维护互斥锁、读写锁、信号量在redis中的有效期出错：", e);
+                }
+                long nextTime = Math.min(mutexLockServer.getNextMaintainTime(), rwLockServer.getNextMaintainTime());
+                nextTime = Math.min(nextTime, semaphoreServer.getNextMaintainTime());
+                nextTime = Math.min(nextTime, sessionManager.getNextRefreshTime());
+                long sleepTime = Math.min(nextTime - System.currentTimeMillis(), maxMaintainInterval);
+                if (sleepTime > 0) {
+                    try {
+                        Thread.sleep(sleepTime);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
             }
         }
     }
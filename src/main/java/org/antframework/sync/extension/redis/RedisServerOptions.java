@@ -0,0 +1,52 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 16:04 创建
+ */
+package org.antframework.sync.extension.redis;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.concurrent.Executor;
+
+/**
+ * redis服务端选项
+ */
+@Getter
+@Setter
+public class RedisServerOptions {
+    /**
+     * 发生异常时redis中数据的存活时长（毫秒，必须大于0；默认为10分钟）
+     */
+    private long liveTime = 10 * 60 * 1000;
+    /**
+     * 每种同步类型的同步通道数量（0表示每个key一个通道；大于0表示所有key多路复用固定数量的通道，同步消息的内容为key；默认为0）
+     */
+    private int syncChannelAmount = 0;
+    /**
+     * 维护线程池（续期、删除等维护任务在其中执行；null表示使用默认线程池；默认为null）
+     */
+    private Executor maintainExecutor = null;
+    /**
+     * 维护调度线程以及未指定维护线程池时是否使用虚拟线程（需JDK21及以上；默认为false）
+     */
+    private boolean virtualThreads = false;
+    /**
+     * 会话有效期（毫秒；大于0表示使用会话模式：节点通过心跳刷新一个会话，持有者的会话失效后其他节点即可获取锁、信号量，
+     * 节点宕机后的恢复时间由会话有效期决定，liveTime可以设置得很长以降低续期流量；所有节点需同时使用会话模式；0表示不使用；默认为0）
+     */
+    private long sessionTime = 0;
+    /**
+     * 是否使用排队模式（加锁、获取许可失败的节点按到达顺序排队，解锁、释放许可时只通知队首节点，不会唤醒所有等待的节点；
+     * 读写锁不排队；所有节点需同时使用排队模式；默认为false）
+     */
+    private boolean queued = false;
+    /**
+     * 排队票据的有效期（毫秒，必须大于0；排队的节点宕机后最多阻塞队列这么长时间；默认为5秒）
+     */
+    private long queueTicketTime = 5 * 1000;
+}
@@ -0,0 +1,82 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 17:34 创建
+ */
+package org.antframework.sync.extension.redis.extension;
+
+import java.util.function.Consumer;
+
+/**
+ * 消息监听器适配器
+ * <p>
+ * 在不关心消息内容的监听器（Runnable）与需要消息内容的监听器（Consumer）之间适配。相等性由被适配的监听器决定，
+ * 所以删除监听器时新建的适配器与新增时的适配器相等，redis执行器可以按通常的方式删除监听器。
+ */
+public final class MessageListenerAdapter implements Runnable, Consumer<String> {
+    // 被适配的不关心消息内容的监听器（与consumer有且只有一个不为null）
+    private final Runnable runnable;
+    // 被适配的需要消息内容的监听器
+    private final Consumer<String> consumer;
+
+    private MessageListenerAdapter(Runnable runnable, Consumer<String> consumer) {
+        this.runnable = runnable;
+        this.consumer = consumer;
+    }
+
+    /**
+     * 将不关心消息内容的监听器适配为需要消息内容的监听器
+     *
+     * @param listener 监听器
+     * @return 适配后的监听器
+     */
+    public static Consumer<String> toConsumer(Runnable listener) {
+        return new MessageListenerAdapter(listener, null);
+    }
+
+    /**
+     * 将需要消息内容的监听器适配为不关心消息内容的监听器（收到消息时消息内容为null）
+     *
+     * @param listener 监听器
+     * @return 适配后的监听器
+     */
+    public static Runnable toRunnable(Consumer<String> listener) {
+        return new MessageListenerAdapter(null, listener);
+    }
+
+    @Override
+    public void run() {
+        if (runnable != null) {
+            runnable.run();
+        } else {
+            consumer.accept(null);
+        }
+    }
+
+    @Override
+    public void accept(String message) {
+        if (consumer != null) {
+            consumer.accept(message);
+        } else {
+            runnable.run();
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return getTarget().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof MessageListenerAdapter && getTarget().equals(((MessageListenerAdapter) obj).getTarget());
+    }
+
+    // 获取被适配的监听器
+    private Object getTarget() {
+        return runnable != null ? runnable : consumer;
+    }
+}
@@ -9,6 +9,7 @@
 package org.antframework.sync.extension.redis.extension;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * redis执行器
@@ -23,6 +24,18 @@ public interface RedisExecutor {
      */
     Object encodeScript(String script, Class<?> resultType);
 
+    /**
+     * 编码带名称的脚本（名称用于指标等；默认忽略名称）
+     *
+     * @param name       脚本名称
+     * @param script     脚本文本
+     * @param resultType 返回值类型
+     * @return 编码后的脚本
+     */
+    default Object encodeScript(String name, String script, Class<?> resultType) {
+        return encodeScript(script, resultType);
+    }
+
     /**
      * 执行脚本
      *
@@ -34,6 +47,16 @@ public interface RedisExecutor {
      */
     <T> T eval(Object encodedScript, List<String> keys, List<Object> args);
 
+    /**
+     * 计算key所在的槽（只有同一个槽中的key才能在同一个脚本中执行）
+     *
+     * @param key key
+     * @return 集群模式下返回key所在的槽；非集群模式下所有key都在同一个槽中（默认返回0）
+     */
+    default int computeSlot(String key) {
+        return 0;
+    }
+
     /**
      * 新增消息监听器
      *
@@ -49,4 +72,25 @@ public interface RedisExecutor {
      * @param listener 监听器
      */
     void removeMessageListener(String channel, Runnable listener);
+
+    /**
+     * 新增需要消息内容的消息监听器（默认适配为不关心消息内容的监听器，收到消息时消息内容为null；
+     * 能获取消息内容的执行器应覆盖该方法，否则多路复用的通道、撤销消息、排队消息只能退化为通知通道上的所有等待者）
+     *
+     * @param channel  通道
+     * @param listener 监听器（入参为消息内容）
+     */
+    default void addMessageListener(String channel, Consumer<String> listener) {
+        addMessageListener(channel, MessageListenerAdapter.toRunnable(listener));
+    }
+
+    /**
+     * 删除需要消息内容的消息监听器
+     *
+     * @param channel  通道
+     * @param listener 监听器（入参为消息内容）
+     */
+    default void removeMessageListener(String channel, Consumer<String> listener) {
+        removeMessageListener(channel, MessageListenerAdapter.toRunnable(listener));
+    }
 }
@@ -0,0 +1,263 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 15:57 创建
+ */
+package org.antframework.sync.extension.redis.extension.lettuce;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisScriptingAsyncCommands;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.SlotHash;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.antframework.sync.extension.redis.extension.MessageListenerAdapter;
+import org.antframework.sync.extension.redis.extension.RedisExecutor;
+import org.antframework.sync.extension.redis.extension.lettuce.support.DiscardOldestMessagePolicy;
+import org.antframework.sync.extension.redis.extension.lettuce.support.EvalArgsCodec;
+import org.antframework.sync.metrics.SyncMetrics;
+import org.antframework.sync.metrics.support.NoopSyncMetrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 基于lettuce的redis执行器
+ * <p>
+ * 直接使用lettuce的异步命令（多个线程共享同一个连接，命令自动以pipeline方式发送），编码脚本时通过SCRIPT LOAD将脚本加载到redis，
+ * 执行时使用EVALSHA；如果redis中的脚本丢失（redis重启、执行了SCRIPT FLUSH等），则重新加载脚本后再执行。
+ * 支持单机（RedisClient）和集群（RedisClusterClient）。
+ * <p>
+ * 订阅、退订使用异步命令：在更新监听器关系的同时（同一个通道的订阅、退订按顺序）发出命令但不等待结果，不在持有map的锁期间等待网络往返。
+ */
+@Slf4j
+public class LettuceRedisExecutor implements RedisExecutor, AutoCloseable {
+    // 通道与监听器的对应关系
+    private final Map<String, Set<Consumer<String>>> channelListeners = new ConcurrentHashMap<>();
+    // 连接
+    private final StatefulConnection<String, Object> connection;
+    // 脚本命令
+    private final RedisScriptingAsyncCommands<String, Object> commands;
+    // 订阅连接
+    private final StatefulRedisPubSubConnection<String, Object> pubSubConnection;
+    // 消息处理线程池
+    private final Executor listenerExecutor;
+    // 消息处理线程池是否由本执行器创建（关闭时只关闭自己创建的线程池）
+    private final boolean ownedListenerExecutor;
+    // 是否是集群
+    private final boolean cluster;
+
+    public LettuceRedisExecutor(AbstractRedisClient redisClient) {
+        this(redisClient, NoopSyncMetrics.INSTANCE);
+    }
+
+    public LettuceRedisExecutor(AbstractRedisClient redisClient, SyncMetrics metrics) {
+        this(redisClient, null, metrics);
+    }
+
+    /**
+     * 创建基于lettuce的redis执行器
+     *
+     * @param redisClient      redis客户端
+     * @param listenerExecutor 消息处理线程池（null表示使用默认线程池）
+     * @param metrics          指标收集器
+     */
+    public LettuceRedisExecutor(AbstractRedisClient redisClient, Executor listenerExecutor, SyncMetrics metrics) {
+        if (redisClient == null || metrics == null) {
+            throw new IllegalArgumentException("redisClient、metrics不能为null");
+        }
+        this.cluster = redisClient instanceof RedisClusterClient;
+        if (redisClient instanceof RedisClusterClient) {
+            StatefulRedisClusterConnection<String, Object> clusterConnection = ((RedisClusterClient) redisClient).connect(EvalArgsCodec.INSTANCE);
+            this.connection = clusterConnection;
+            this.commands = clusterConnection.async();
+            this.pubSubConnection = ((RedisClusterClient) redisClient).connectPubSub(EvalArgsCodec.INSTANCE);
+        } else if (redisClient instanceof RedisClient) {
+            StatefulRedisConnection<String, Object> standaloneConnection = ((RedisClient) redisClient).connect(EvalArgsCodec.INSTANCE);
+            this.connection = standaloneConnection;
+            this.commands = standaloneConnection.async();
+            this.pubSubConnection = ((RedisClient) redisClient).connectPubSub(EvalArgsCodec.INSTANCE);
+        } else {
+            throw new IllegalArgumentException("无法识别的redisClient类型：" + redisClient.getClass());
+        }
+        this.ownedListenerExecutor = listenerExecutor == null;
+        if (listenerExecutor == null) {
+            ThreadPoolExecutor defaultListenerExecutor = new ThreadPoolExecutor(
+                    Runtime.getRuntime().availableProcessors() * 2,
+                    Runtime.getRuntime().availableProcessors() * 2,
+                    5,
+                    TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(8192),
+                    new DiscardOldestMessagePolicy("redis-listener-executor", metrics));
+            metrics.onExecutorCreated("redis-listener-executor", defaultListenerExecutor);
+            listenerExecutor = defaultListenerExecutor;
+        }
+        this.listenerExecutor = listenerExecutor;
+        this.pubSubConnection.addListener(new RedisPubSubAdapter<String, Object>() {
+            @Override
+            public void message(String channel, Object message) {
+                onMessage(channel, message == null ? null : message.toString());
+            }
+        });
+    }
+
+    @Override
+    public Object encodeScript(String script, Class<?> resultType) {
+        String sha1 = await(commands.scriptLoad(script));
+        return new EncodedScript(script, sha1, computeOutputType(resultType), resultType);
+    }
+
+    @Override
+    public <T> T eval(Object encodedScript, List<String> keys, List<Object> args) {
+        EncodedScript script = (EncodedScript) encodedScript;
+        String[] keyArray = keys.toArray(new String[0]);
+        Object[] argArray = args.toArray();
+        Object result;
+        try {
+            result = await(commands.evalsha(script.sha1, script.outputType, keyArray, argArray));
+        } catch (RedisNoScriptException e) {
+            log.warn("redis中的脚本[{}]已丢失，重新加载脚本", script.sha1);
+            await(commands.scriptLoad(script.source));
+            result = await(commands.evalsha(script.sha1, script.outputType, keyArray, argArray));
+        }
+        if (result == null && script.resultType == Boolean.class) {
+            // 脚本返回false时redis返回的是nil
+            result = Boolean.FALSE;
+        }
+        return cast(result);
+    }
+
+    @Override
+    public int computeSlot(String key) {
+        return cluster ? SlotHash.getSlot(key) : 0;
+    }
+
+    @Override
+    public void addMessageListener(String channel, Consumer<String> listener) {
+        channelListeners.compute(channel, (k, v) -> {
+            if (v == null) {
+                v = ConcurrentHashMap.newKeySet();
+                logFailure(pubSubConnection.async().subscribe(k), "订阅", k);
+            }
+            v.add(listener);
+            return v;
+        });
+    }
+
+    @Override
+    public void removeMessageListener(String channel, Consumer<String> listener) {
+        channelListeners.computeIfPresent(channel, (k, v) -> {
+            v.remove(listener);
+            if (v.isEmpty()) {
+                logFailure(pubSubConnection.async().unsubscribe(k), "退订", k);
+                v = null;
+            }
+            return v;
+        });
+    }
+
+    @Override
+    public void addMessageListener(String channel, Runnable listener) {
+        addMessageListener(channel, MessageListenerAdapter.toConsumer(listener));
+    }
+
+    @Override
+    public void removeMessageListener(String channel, Runnable listener) {
+        removeMessageListener(channel, MessageListenerAdapter.toConsumer(listener));
+    }
+
+    @Override
+    public void close() {
+        pubSubConnection.close();
+        connection.close();
+        if (ownedListenerExecutor) {
+            ((ThreadPoolExecutor) listenerExecutor).shutdown();
+        }
+    }
+
+    // 处理消息
+    private void onMessage(String channel, String message) {
+        Set<Consumer<String>> listeners = channelListeners.get(channel);
+        if (listeners == null) {
+            return;
+        }
+        listenerExecutor.execute(() -> {
+            for (Consumer<String> listener : listeners) {
+                try {
+                    listener.accept(message);
+                } catch (Throwable e) {
+                    log.error("处理Redis消息失败", e);
+                }
+            }
+        });
+    }
+
+    // 记录异步订阅、退订的失败
+    private static void logFailure(RedisFuture<?> future, String action, String channel) {
+        future.whenComplete((result, e) -> {
+            if (e != null) {
+                log.error("{}redis通道出错：channel={}", action, channel, e);
+            }
+        });
+    }
+
+    // 等待命令执行结束
+    private <T> T await(RedisFuture<T> future) {
+        return LettuceFutures.awaitOrCancel(future, connection.getTimeout().toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    // 转换为调用方期望的返回值类型（由编码脚本时的resultType保证）
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object result) {
+        return (T) result;
+    }
+
+    // 计算脚本的输出类型
+    private static ScriptOutputType computeOutputType(Class<?> resultType) {
+        if (resultType == Boolean.class) {
+            return ScriptOutputType.BOOLEAN;
+        }
+        if (resultType == Long.class) {
+            return ScriptOutputType.INTEGER;
+        }
+        if (List.class.isAssignableFrom(resultType)) {
+            return ScriptOutputType.MULTI;
+        }
+        return ScriptOutputType.VALUE;
+    }
+
+    /**
+     * 编码后的脚本
+     */
+    @AllArgsConstructor
+    private static class EncodedScript {
+        // 脚本文本
+        private final String source;
+        // 脚本的sha1
+        private final String sha1;
+        // 输出类型
+        private final ScriptOutputType outputType;
+        // 返回值类型
+        private final Class<?> resultType;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 18:09 创建
+ */
+package org.antframework.sync.extension.redis.extension.lettuce.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.antframework.sync.metrics.SyncMetrics;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 丢弃最早消息的拒绝策略
+ * <p>
+ * 和ThreadPoolExecutor.DiscardOldestPolicy一样丢弃队列中最早的消息后重新提交，但每次丢弃都会记录日志和指标：
+ * 被丢弃的是解锁、释放许可的通知，等待者只能等到超时后再重试。
+ */
+@Slf4j
+public class DiscardOldestMessagePolicy implements RejectedExecutionHandler {
+    // 线程池名称
+    private final String executorName;
+    // 指标收集器
+    private final SyncMetrics metrics;
+    // 已丢弃的消息数量
+    private final AtomicLong droppedAmount = new AtomicLong(0);
+
+    public DiscardOldestMessagePolicy(String executorName, SyncMetrics metrics) {
+        this.executorName = executorName;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            return;
+        }
+        if (executor.getQueue().poll() != null) {
+            long amount = droppedAmount.incrementAndGet();
+            log.warn("线程池[{}]已满，丢弃最早的redis消息（已累计丢弃{}条），等待者将在超时后重试", executorName, amount);
+            metrics.onMessageDropped(executorName);
+        }
+        executor.execute(r);
+    }
+
+    /**
+     * 获取已丢弃的消息数量
+     */
+    public long getDroppedAmount() {
+        return droppedAmount.get();
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 15:57 创建
+ */
+package org.antframework.sync.extension.redis.extension.lettuce.support;
+
+import io.lettuce.core.codec.RedisCodec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 执行脚本的参数编解码器（key为字符串，value按toString进行编码、解码为字符串）
+ */
+public final class EvalArgsCodec implements RedisCodec<String, Object> {
+    /**
+     * 实例
+     */
+    public static final EvalArgsCodec INSTANCE = new EvalArgsCodec();
+
+    private EvalArgsCodec() {
+    }
+
+    @Override
+    public String decodeKey(ByteBuffer bytes) {
+        return decode(bytes);
+    }
+
+    @Override
+    public Object decodeValue(ByteBuffer bytes) {
+        return decode(bytes);
+    }
+
+    @Override
+    public ByteBuffer encodeKey(String key) {
+        return encode(key);
+    }
+
+    @Override
+    public ByteBuffer encodeValue(Object value) {
+        if (value instanceof byte[]) {
+            return ByteBuffer.wrap((byte[]) value);
+        }
+        return encode(value);
+    }
+
+    // 解码
+    private static String decode(ByteBuffer bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        return StandardCharsets.UTF_8.decode(bytes).toString();
+    }
+
+    // 编码
+    private static ByteBuffer encode(Object o) {
+        if (o == null) {
+            return ByteBuffer.wrap(new byte[0]);
+        }
+        return ByteBuffer.wrap(o.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -10,20 +10,29 @@ package org.antframework.sync.extension.redis.extension.springdataredis;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.antframework.sync.extension.redis.extension.MessageListenerAdapter;
 import org.antframework.sync.extension.redis.extension.RedisExecutor;
 import org.antframework.sync.extension.redis.extension.springdataredis.support.EvalArgsRedisSerializer;
 import org.antframework.sync.extension.redis.extension.springdataredis.support.RedisListenerContainer;
+import org.antframework.sync.metrics.SyncMetrics;
+import org.antframework.sync.metrics.support.NoopSyncMetrics;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
 import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.data.redis.serializer.RedisSerializer;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 /**
  * 基于spring-data-redis的redis执行器
@@ -36,10 +45,31 @@ public class SpringDataRedisExecutor implements RedisExecutor {
     private final RedisTemplate<String, byte[]> redisTemplate;
     // redis监听器容器
     private final RedisListenerContainer listenerContainer;
+    // 是否是集群（null表示还未确定）
+    private volatile Boolean cluster = null;
 
     public SpringDataRedisExecutor(RedisConnectionFactory redisConnectionFactory) {
-        if (redisConnectionFactory == null) {
-            throw new IllegalArgumentException("redisConnectionFactory不能为null");
+        this(redisConnectionFactory, NoopSyncMetrics.INSTANCE);
+    }
+
+    public SpringDataRedisExecutor(RedisConnectionFactory redisConnectionFactory, SyncMetrics metrics) {
+        this(redisConnectionFactory, null, null, metrics);
+    }
+
+    /**
+     * 创建基于spring-data-redis的redis执行器
+     *
+     * @param redisConnectionFactory redis连接工厂
+     * @param listenerExecutor       消息处理线程池（null表示使用默认线程池）
+     * @param subscriptionExecutor   订阅线程池（null表示每次订阅创建新线程）
+     * @param metrics                指标收集器
+     */
+    public SpringDataRedisExecutor(RedisConnectionFactory redisConnectionFactory,
+                                   Executor listenerExecutor,
+                                   Executor subscriptionExecutor,
+                                   SyncMetrics metrics) {
+        if (redisConnectionFactory == null || metrics == null) {
+            throw new IllegalArgumentException("redisConnectionFactory、metrics不能为null");
         }
         this.redisTemplate = new RedisTemplate<>();
         this.redisTemplate.setConnectionFactory(redisConnectionFactory);
@@ -48,7 +78,7 @@ public class SpringDataRedisExecutor implements RedisExecutor {
         this.redisTemplate.setHashKeySerializer(RedisSerializer.string());
         this.redisTemplate.setHashValueSerializer(RedisSerializer.byteArray());
         this.redisTemplate.afterPropertiesSet();
-        this.listenerContainer = new RedisListenerContainer(redisConnectionFactory);
+        this.listenerContainer = new RedisListenerContainer(redisConnectionFactory, listenerExecutor, subscriptionExecutor, metrics);
     }
 
     @Override
@@ -67,12 +97,17 @@ public class SpringDataRedisExecutor implements RedisExecutor {
     }
 
     @Override
-    public void addMessageListener(String channel, Runnable listener) {
+    public int computeSlot(String key) {
+        return isCluster() ? ClusterSlotHashUtil.calculateSlot(key) : 0;
+    }
+
+    @Override
+    public void addMessageListener(String channel, Consumer<String> listener) {
         MessageListenerKey key = new MessageListenerKey(channel, listener);
         listeners.computeIfAbsent(key, k -> {
             MessageListener messageListener = (message, pattern) -> {
                 try {
-                    listener.run();
+                    listener.accept(new String(message.getBody(), StandardCharsets.UTF_8));
                 } catch (Throwable e) {
                     log.error("处理Redis消息失败", e);
                 }
@@ -83,7 +118,7 @@ public class SpringDataRedisExecutor implements RedisExecutor {
     }
 
     @Override
-    public void removeMessageListener(String channel, Runnable listener) {
+    public void removeMessageListener(String channel, Consumer<String> listener) {
         MessageListenerKey key = new MessageListenerKey(channel, listener);
         listeners.computeIfPresent(key, (k, v) -> {
             listenerContainer.removeMessageListener(v, new ChannelTopic(channel));
@@ -91,6 +126,31 @@ public class SpringDataRedisExecutor implements RedisExecutor {
         });
     }
 
+    @Override
+    public void addMessageListener(String channel, Runnable listener) {
+        addMessageListener(channel, MessageListenerAdapter.toConsumer(listener));
+    }
+
+    @Override
+    public void removeMessageListener(String channel, Runnable listener) {
+        removeMessageListener(channel, MessageListenerAdapter.toConsumer(listener));
+    }
+
+    // 是否是集群
+    private boolean isCluster() {
+        Boolean isCluster = cluster;
+        if (isCluster == null) {
+            RedisConnection connection = redisTemplate.getRequiredConnectionFactory().getConnection();
+            try {
+                isCluster = connection instanceof RedisClusterConnection;
+            } finally {
+                connection.close();
+            }
+            cluster = isCluster;
+        }
+        return isCluster;
+    }
+
     /**
      * 消息监听器key
      */
@@ -99,7 +159,7 @@ public class SpringDataRedisExecutor implements RedisExecutor {
         // 通道
         private final String channel;
         // 监听器
-        private final Runnable listener;
+        private final Consumer<String> listener;
 
         @Override
         public int hashCode() {
@@ -8,6 +8,7 @@
  */
 package org.antframework.sync.extension.redis.extension.springdataredis.support;
 
+import org.antframework.sync.metrics.SyncMetrics;
 import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
@@ -16,6 +17,7 @@ import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.listener.Topic;
 
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -26,17 +28,40 @@ public class RedisListenerContainer {
     // 容器
     private final RedisMessageListenerContainer container;
 
-    public RedisListenerContainer(RedisConnectionFactory connectionFactory) {
+    public RedisListenerContainer(RedisConnectionFactory connectionFactory, SyncMetrics metrics) {
+        this(connectionFactory, null, null, metrics);
+    }
+
+    /**
+     * 创建redis监听器容器
+     *
+     * @param connectionFactory    redis连接工厂
+     * @param taskExecutor         消息处理线程池（null表示使用默认线程池）
+     * @param subscriptionExecutor 订阅线程池（null表示每次订阅创建新线程）
+     * @param metrics              指标收集器
+     */
+    public RedisListenerContainer(RedisConnectionFactory connectionFactory,
+                                  Executor taskExecutor,
+                                  Executor subscriptionExecutor,
+                                  SyncMetrics metrics) {
+        if (taskExecutor == null) {
+            ThreadPoolExecutor defaultTaskExecutor = new ThreadPoolExecutor(
+                    Runtime.getRuntime().availableProcessors() * 2,
+                    Runtime.getRuntime().availableProcessors() * 2,
+                    5,
+                    TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(8192),
+                    new ThreadPoolExecutor.DiscardOldestPolicy());
+            metrics.onExecutorCreated("redis-listener-executor", defaultTaskExecutor);
+            taskExecutor = defaultTaskExecutor;
+        }
+        if (subscriptionExecutor == null) {
+            subscriptionExecutor = new SimpleAsyncTaskExecutor();
+        }
         this.container = new RedisMessageListenerContainer();
         this.container.setConnectionFactory(connectionFactory);
-        this.container.setSubscriptionExecutor(new SimpleAsyncTaskExecutor());
-        this.container.setTaskExecutor(new ThreadPoolExecutor(
-                Runtime.getRuntime().availableProcessors() * 2,
-                Runtime.getRuntime().availableProcessors() * 2,
-                5,
-                TimeUnit.SECONDS,
-                new ArrayBlockingQueue<>(8192),
-                new ThreadPoolExecutor.DiscardOldestPolicy()));
+        this.container.setSubscriptionExecutor(subscriptionExecutor);
+        this.container.setTaskExecutor(taskExecutor);
         this.container.afterPropertiesSet();
         this.container.start();
         // 添加空监听器，防止容器报错
@@ -0,0 +1,88 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 15:54 创建
+ */
+package org.antframework.sync.extension.redis.support;
+
+import lombok.AllArgsConstructor;
+import org.antframework.sync.extension.redis.extension.RedisExecutor;
+import org.antframework.sync.metrics.SyncMetrics;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 收集脚本执行指标的redis执行器
+ */
+@AllArgsConstructor
+public class MetricsRedisExecutor implements RedisExecutor {
+    // 未知的脚本名称
+    private static final String UNKNOWN_SCRIPT_NAME = "unknown";
+
+    // 目标redis执行器
+    private final RedisExecutor target;
+    // 指标收集器
+    private final SyncMetrics metrics;
+
+    @Override
+    public Object encodeScript(String script, Class<?> resultType) {
+        return encodeScript(UNKNOWN_SCRIPT_NAME, script, resultType);
+    }
+
+    @Override
+    public Object encodeScript(String name, String script, Class<?> resultType) {
+        return new MeteredScript(name, target.encodeScript(name, script, resultType));
+    }
+
+    @Override
+    public <T> T eval(Object encodedScript, List<String> keys, List<Object> args) {
+        MeteredScript script = (MeteredScript) encodedScript;
+        long startTime = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = target.eval(script.encodedScript, keys, args);
+            success = true;
+            return result;
+        } finally {
+            metrics.onScriptEvaluated(script.name, System.nanoTime() - startTime, success);
+        }
+    }
+
+    @Override
+    public int computeSlot(String key) {
+        return target.computeSlot(key);
+    }
+
+    @Override
+    public void addMessageListener(String channel, Runnable listener) {
+        target.addMessageListener(channel, listener);
+    }
+
+    @Override
+    public void removeMessageListener(String channel, Runnable listener) {
+        target.removeMessageListener(channel, listener);
+    }
+
+    @Override
+    public void addMessageListener(String channel, Consumer<String> listener) {
+        target.addMessageListener(channel, listener);
+    }
+
+    @Override
+    public void removeMessageListener(String channel, Consumer<String> listener) {
+        target.removeMessageListener(channel, listener);
+    }
+
+    // 收集指标的脚本
+    @AllArgsConstructor
+    private static class MeteredScript {
+        // 脚本名称
+        private final String name;
+        // 编码后的脚本
+        private final Object encodedScript;
+    }
+}
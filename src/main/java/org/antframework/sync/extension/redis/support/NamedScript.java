@@ -0,0 +1,40 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 17:32 创建
+ */
+package org.antframework.sync.extension.redis.support;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.antframework.sync.common.SyncUtils;
+
+/**
+ * 带名称的脚本（名称随脚本一起传给redis执行器，用于指标等）
+ */
+@AllArgsConstructor
+@Getter
+public class NamedScript {
+    // 名称
+    private final String name;
+    // 脚本文本
+    private final String source;
+
+    /**
+     * 加载脚本
+     *
+     * @param path 脚本路径
+     * @return 带名称的脚本（名称为脚本文件名去掉扩展名）
+     */
+    public static NamedScript load(String path) {
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        int index = name.lastIndexOf('.');
+        if (index > 0) {
+            name = name.substring(0, index);
+        }
+        return new NamedScript(name, SyncUtils.getScript(path));
+    }
+}
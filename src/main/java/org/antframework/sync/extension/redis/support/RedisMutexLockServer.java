@@ -9,15 +9,16 @@
 package org.antframework.sync.extension.redis.support;
 
 import lombok.extern.slf4j.Slf4j;
-import org.antframework.sync.common.SyncUtils;
 import org.antframework.sync.extension.Server;
 import org.antframework.sync.extension.redis.extension.RedisExecutor;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Set;
+import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 
 /**
  * 基于redis的互斥锁服务端
@@ -25,14 +26,14 @@ import java.util.function.BiFunction;
 @Slf4j
 public class RedisMutexLockServer {
     // 源加锁脚本
-    private static final String LOCK_SCRIPT_SOURCE = SyncUtils.getScript("META-INF/server/redis/mutex-lock/MutexLock-lock.lua");
+    private static final NamedScript LOCK_SCRIPT_SOURCE = NamedScript.load("META-INF/server/redis/mutex-lock/MutexLock-lock.lua");
     // 源解锁脚本
-    private static final String UNLOCK_SCRIPT_SOURCE = SyncUtils.getScript("META-INF/server/redis/mutex-lock/MutexLock-unlock.lua");
+    private static final NamedScript UNLOCK_SCRIPT_SOURCE = NamedScript.load("META-INF/server/redis/mutex-lock/MutexLock-unlock.lua");
     // 源维护脚本
-    private static final String MAINTAIN_SCRIPT_SOURCE = SyncUtils.getScript("META-INF/server/redis/mutex-lock/MutexLock-maintain.lua");
+    private static final NamedScript MAINTAIN_SCRIPT_SOURCE = NamedScript.load("META-INF/server/redis/mutex-lock/MutexLock-maintain.lua");
 
     // 维护器
-    private final SyncMaintainer maintainer = new SyncMaintainer();
+    private final SyncMaintainer maintainer;
     // key生成器
     private final BiFunction<Server.SyncType, String, String> keyGenerator;
     // redis执行器
@@ -41,6 +42,12 @@ public class RedisMutexLockServer {
     private final long liveTime;
     // 维护执行器
     private final Executor maintainExecutor;
+    // 同步通道管理器
+    private final SyncChannelManager syncChannelManager;
+    // 会话管理器
+    private final SyncSessionManager sessionManager;
+    // 排队管理器
+    private final SyncQueueManager queueManager;
 
     // 加锁脚本
     private final Object lockScript;
@@ -52,15 +59,22 @@ public class RedisMutexLockServer {
     public RedisMutexLockServer(BiFunction<Server.SyncType, String, String> keyGenerator,
                                 RedisExecutor redisExecutor,
                                 long liveTime,
-                                Executor maintainExecutor) {
+                                Executor maintainExecutor,
+                                SyncChannelManager syncChannelManager,
+                                SyncSessionManager sessionManager,
+                                SyncQueueManager queueManager) {
         this.keyGenerator = keyGenerator;
         this.redisExecutor = redisExecutor;
         this.liveTime = liveTime;
         this.maintainExecutor = maintainExecutor;
+        this.syncChannelManager = syncChannelManager;
+        this.sessionManager = sessionManager;
+        this.queueManager = queueManager;
+        this.maintainer = new SyncMaintainer(liveTime);
 
-        lockScript = redisExecutor.encodeScript(LOCK_SCRIPT_SOURCE, Long.class);
-        unlockScript = redisExecutor.encodeScript(UNLOCK_SCRIPT_SOURCE, Boolean.class);
-        maintainScript = redisExecutor.encodeScript(MAINTAIN_SCRIPT_SOURCE, Boolean.class);
+        lockScript = redisExecutor.encodeScript(LOCK_SCRIPT_SOURCE.getName(), LOCK_SCRIPT_SOURCE.getSource(), Long.class);
+        unlockScript = redisExecutor.encodeScript(UNLOCK_SCRIPT_SOURCE.getName(), UNLOCK_SCRIPT_SOURCE.getSource(), List.class);
+        maintainScript = redisExecutor.encodeScript(MAINTAIN_SCRIPT_SOURCE.getName(), MAINTAIN_SCRIPT_SOURCE.getSource(), List.class);
     }
 
     /**
@@ -71,17 +85,61 @@ public class RedisMutexLockServer {
      * @return null 加锁成功；否则返回需等待的时间（毫秒）
      */
     public Long lock(String key, String lockerId) {
-        String redisKey = computeRedisKey(key);
-        Long waitTime = redisExecutor.eval(
-                lockScript,
-                Collections.singletonList(redisKey),
-                Arrays.asList(lockerId, liveTime));
+        Long waitTime = doLock(key, lockerId, liveTime);
         if (waitTime == null) {
             maintainer.add(key, lockerId);
         }
         return waitTime;
     }
 
+    /**
+     * 以租期模式加锁（不由维护器续期）
+     *
+     * @param key       锁标识
+     * @param lockerId  加锁者id
+     * @param leaseTime 租期（毫秒）
+     * @return null 加锁成功；否则返回需等待的时间（毫秒）
+     */
+    public Long lock(String key, String lockerId, long leaseTime) {
+        Long waitTime = doLock(key, lockerId, leaseTime);
+        if (waitTime == null) {
+            maintainer.addLeased(key, lockerId, leaseTime);
+        }
+        return waitTime;
+    }
+
+    // 执行加锁（holdTime：加锁成功后锁在redis中的有效期）
+    private Long doLock(String key, String lockerId, long holdTime) {
+        String redisKey = computeRedisKey(key);
+        Long waitTime = redisExecutor.eval(
+                lockScript,
+                Collections.singletonList(redisKey),
+                Arrays.asList(
+                        lockerId,
+                        holdTime,
+                        sessionManager.getSessionKeyPrefix(redisKey),
+                        queueManager.getQueueNodeId(),
+                        System.currentTimeMillis(),
+                        queueManager.getTicketTime()));
+        return queueManager.limitWaitTime(sessionManager.limitWaitTime(waitTime));
+    }
+
+    /**
+     * 延长租期
+     *
+     * @param key       锁标识
+     * @param lockerId  加锁者id
+     * @param leaseTime 租期（毫秒）
+     * @return true 延长成功；false 延长失败（锁不存在或已经易主）
+     */
+    public boolean extendLease(String key, String lockerId, long leaseTime) {
+        List<Long> results = redisExecutor.eval(
+                maintainScript,
+                Collections.singletonList(computeRedisKey(key)),
+                Arrays.asList(leaseTime, lockerId));
+        return maintainer.onLeaseExtended(key, lockerId, leaseTime, results.get(0) == 1);
+    }
+
     /**
      * 解锁
      *
@@ -90,15 +148,49 @@ public class RedisMutexLockServer {
      */
     public void unlock(String key, String lockerId) {
         maintainer.remove(key, lockerId);
-        String redisKey = computeRedisKey(key);
-        String syncChannel = computeSyncChannel(key);
+        doUnlock(Collections.singletonList(key), Collections.singletonList(lockerId));
+    }
+
+    /**
+     * 批量解锁（强制解锁泄漏的锁时调用；同一批次的锁只需调用一次redis）
+     *
+     * @param keys      锁标识
+     * @param lockerIds 加锁者id（与锁标识一一对应）
+     */
+    public void unlock(List<String> keys, List<String> lockerIds) {
+        maintainer.removeAll(keys, lockerIds, key -> redisExecutor.computeSlot(computeRedisKey(key)), this::doUnlock);
+    }
+
+    /**
+     * 解除所有持有的锁（关闭时调用，包括租期未到期的租期模式的锁；同一批次的锁只需调用一次redis）
+     */
+    public void unlockAll() {
+        maintainer.removeAll(key -> redisExecutor.computeSlot(computeRedisKey(key)), this::doUnlock);
+    }
+
+    // 执行批量解锁
+    private void doUnlock(List<SyncMaintainer.Lease> leases) {
+        doUnlock(
+                leases.stream().map(SyncMaintainer.Lease::getKey).collect(Collectors.toList()),
+                leases.stream().map(SyncMaintainer.Lease::getOwner).collect(Collectors.toList()));
+    }
+
+    // 执行批量解锁
+    private void doUnlock(List<String> keys, List<String> lockerIds) {
+        List<String> redisKeys = new ArrayList<>(keys.size());
+        List<Object> args = new ArrayList<>(keys.size() * 2 + 1);
+        args.add(System.currentTimeMillis());
+        for (int i = 0; i < keys.size(); i++) {
+            redisKeys.add(computeRedisKey(keys.get(i)));
+            args.add(lockerIds.get(i));
+            args.add(computeSyncChannel(keys.get(i)));
+        }
         try {
-            boolean success = redisExecutor.eval(
-                    unlockScript,
-                    Collections.singletonList(redisKey),
-                    Arrays.asList(lockerId, syncChannel));
-            if (!success) {
-                log.error("调用redis解互斥锁失败（锁不存在或已经易主），可能已经发生并发问题：key={},lockerId={}", key, lockerId);
+            List<Long> results = redisExecutor.eval(unlockScript, redisKeys, args);
+            for (int i = 0; i < keys.size(); i++) {
+                if (results.get(i) != 1) {
+                    log.error("调用redis解互斥锁失败（锁不存在或已经易主），可能已经发生并发问题：key={},lockerId={}", keys.get(i), lockerIds.get(i));
+                }
             }
         } catch (Throwable e) {
             log.error("调用redis解互斥锁出错：", e);
@@ -106,30 +198,51 @@ public class RedisMutexLockServer {
     }
 
     /**
-     * 维护
+     * 获取下次需要维护的时间
+     *
+     * @return 下次需要维护的时间（无需维护时返回Long.MAX_VALUE）
+     */
+    public long getNextMaintainTime() {
+        return maintainer.getNextMaintainTime();
+    }
+
+    /**
+     * 维护（续期已到期的租约）
      */
     public void maintain() {
-        Set<String> keys = maintainer.getKeys();
-        for (String key : keys) {
-            maintainExecutor.execute(() -> maintainer.maintain(key, (k, lockerId) -> {
-                String redisKey = computeRedisKey(k);
-                boolean alive = true;
-                try {
-                    alive = redisExecutor.eval(
-                            maintainScript,
-                            Collections.singletonList(redisKey),
-                            Arrays.asList(lockerId, liveTime));
-                    if (alive) {
-                        log.debug("调用redis维护互斥锁成功：key={},lockerId={}", k, lockerId);
-                    } else {
-                        log.error("调用redis维护互斥锁失败（锁不存在或已经易主），可能已经发生并发问题：key={},lockerId={}", k, lockerId);
-                    }
-                } catch (Throwable e) {
-                    log.error("调用redis维护互斥锁出错：", e);
+        maintainer.maintain(
+                key -> redisExecutor.computeSlot(computeRedisKey(key)),
+                maintainExecutor,
+                this::doMaintain);
+    }
+
+    // 执行批量维护
+    private List<Boolean> doMaintain(List<SyncMaintainer.Lease> leases) {
+        List<String> keys = new ArrayList<>(leases.size());
+        List<Object> args = new ArrayList<>(leases.size() + 1);
+        args.add(liveTime);
+        for (SyncMaintainer.Lease lease : leases) {
+            keys.add(computeRedisKey(lease.getKey()));
+            args.add(lease.getOwner());
+        }
+        List<Boolean> alives = new ArrayList<>(leases.size());
+        try {
+            List<Long> results = redisExecutor.eval(maintainScript, keys, args);
+            for (int i = 0; i < leases.size(); i++) {
+                SyncMaintainer.Lease lease = leases.get(i);
+                boolean alive = results.get(i) == 1;
+                if (alive) {
+                    log.debug("调用redis维护互斥锁成功：key={},lockerId={}", lease.getKey(), lease.getOwner());
+                } else if (maintainer.isValid(lease)) {
+                    log.error("调用redis维护互斥锁失败（锁不存在或已经易主），可能已经发生并发问题：key={},lockerId={}", lease.getKey(), lease.getOwner());
                 }
-                return alive;
-            }));
+                alives.add(alive);
+            }
+        } catch (Throwable e) {
+            log.error("调用redis维护互斥锁出错：", e);
+            return null;
         }
+        return alives;
     }
 
     /**
@@ -139,7 +252,7 @@ public class RedisMutexLockServer {
      * @return 同步通道
      */
     public String computeSyncChannel(String key) {
-        return computeRedisKey(key);
+        return syncChannelManager.computeSyncChannel(Server.SyncType.MUTEX_LOCK, computeRedisKey(key));
     }
 
     // 计算在redis中key
@@ -9,16 +9,16 @@
 package org.antframework.sync.extension.redis.support;
 
 import lombok.extern.slf4j.Slf4j;
-import org.antframework.sync.common.SyncUtils;
 import org.antframework.sync.extension.Server;
 import org.antframework.sync.extension.redis.extension.RedisExecutor;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 
 /**
  * 基于redis的读写锁服务端
@@ -26,22 +26,22 @@ import java.util.function.BiFunction;
 @Slf4j
 public class RedisRWLockServer {
     // 源加读锁脚本
-    private static final String LOCK_FOR_READ_SCRIPT_SOURCE = SyncUtils.getScript("META-INF/server/redis/rw-lock/RWLock-lockForRead.lua");
+    private static final NamedScript LOCK_FOR_READ_SCRIPT_SOURCE = NamedScript.load("META-INF/server/redis/rw-lock/RWLock-lockForRead.lua");
     // 源解读锁脚本
-    private static final String UNLOCK_FOR_READ_SCRIPT_SOURCE = SyncUtils.getScript("META-INF/server/redis/rw-lock/RWLock-unlockForRead.lua");
+    private static final NamedScript UNLOCK_FOR_READ_SCRIPT_SOURCE = NamedScript.load("META-INF/server/redis/rw-lock/RWLock-unlockForRead.lua");
     // 源维护读锁脚本
-    private static final String MAINTAIN_FOR_READ_SCRIPT_SOURCE = SyncUtils.getScript("META-INF/server/redis/rw-lock/RWLock-maintainForRead.lua");
+    private static final NamedScript MAINTAIN_FOR_READ_SCRIPT_SOURCE = NamedScript.load("META-INF/server/redis/rw-lock/RWLock-maintainForRead.lua");
     // 源加写锁脚本
-    private static final String LOCK_FOR_WRITE_SCRIPT_SOURCE = SyncUtils.getScript("META-INF/server/redis/rw-lock/RWLock-lockForWrite.lua");
+    private static final NamedScript LOCK_FOR_WRITE_SCRIPT_SOURCE = NamedScript.load("META-INF/server/redis/rw-lock/RWLock-lockForWrite.lua");
     // 源解写锁脚本
-    private static final String UNLOCK_FOR_WRITE_SCRIPT_SOURCE = SyncUtils.getScript("META-INF/server/redis/rw-lock/RWLock-unlockForWrite.lua");
+    private static final NamedScript UNLOCK_FOR_WRITE_SCRIPT_SOURCE = NamedScript.load("META-INF/server/redis/rw-lock/RWLock-unlockForWrite.lua");
     // 源维护写锁脚本
-    private static final String MAINTAIN_FOR_WRITE_SCRIPT_SOURCE = SyncUtils.getScript("META-INF/server/redis/rw-lock/RWLock-maintainForWrite.lua");
+    private static final NamedScript MAINTAIN_FOR_WRITE_SCRIPT_SOURCE = NamedScript.load("META-INF/server/redis/rw-lock/RWLock-maintainForWrite.lua");
 
     // 读锁维护器
-    private final SyncMaintainer readLockMaintainer = new SyncMaintainer();
+    private final SyncMaintainer readLockMaintainer;
     // 写锁维护器
-    private final SyncMaintainer writeLockMaintainer = new SyncMaintainer();
+    private final SyncMaintainer writeLockMaintainer;
     // key生成器
     private final BiFunction<Server.SyncType, String, String> keyGenerator;
     // redis执行器
@@ -50,6 +50,10 @@ public class RedisRWLockServer {
     private final long liveTime;
     // 维护执行器
     private final Executor maintainExecutor;
+    // 同步通道管理器
+    private final SyncChannelManager syncChannelManager;
+    // 会话管理器
+    private final SyncSessionManager sessionManager;
 
     // 加读锁脚本
     private final Object lockForReadScript;
@@ -67,19 +71,25 @@ public class RedisRWLockServer {
     public RedisRWLockServer(BiFunction<Server.SyncType, String, String> keyGenerator,
                              RedisExecutor redisExecutor,
                              long liveTime,
-                             Executor maintainExecutor) {
+                             Executor maintainExecutor,
+                             SyncChannelManager syncChannelManager,
+                             SyncSessionManager sessionManager) {
 
         this.keyGenerator = keyGenerator;
         this.redisExecutor = redisExecutor;
         this.liveTime = liveTime;
         this.maintainExecutor = maintainExecutor;
+        this.syncChannelManager = syncChannelManager;
+        this.sessionManager = sessionManager;
+        this.readLockMaintainer = new SyncMaintainer(liveTime);
+        this.writeLockMaintainer = new SyncMaintainer(liveTime);
 
-        lockForReadScript = redisExecutor.encodeScript(LOCK_FOR_READ_SCRIPT_SOURCE, Long.class);
-        unlockForReadScript = redisExecutor.encodeScript(UNLOCK_FOR_READ_SCRIPT_SOURCE, Boolean.class);
-        maintainForReadScript = redisExecutor.encodeScript(MAINTAIN_FOR_READ_SCRIPT_SOURCE, Boolean.class);
-        lockForWriteScript = redisExecutor.encodeScript(LOCK_FOR_WRITE_SCRIPT_SOURCE, Long.class);
-        unlockForWriteScript = redisExecutor.encodeScript(UNLOCK_FOR_WRITE_SCRIPT_SOURCE, Boolean.class);
-        maintainForWriteScript = redisExecutor.encodeScript(MAINTAIN_FOR_WRITE_SCRIPT_SOURCE, Boolean.class);
+        lockForReadScript = redisExecutor.encodeScript(LOCK_FOR_READ_SCRIPT_SOURCE.getName(), LOCK_FOR_READ_SCRIPT_SOURCE.getSource(), Long.class);
+        unlockForReadScript = redisExecutor.encodeScript(UNLOCK_FOR_READ_SCRIPT_SOURCE.getName(), UNLOCK_FOR_READ_SCRIPT_SOURCE.getSource(), List.class);
+        maintainForReadScript = redisExecutor.encodeScript(MAINTAIN_FOR_READ_SCRIPT_SOURCE.getName(), MAINTAIN_FOR_READ_SCRIPT_SOURCE.getSource(), List.class);
+        lockForWriteScript = redisExecutor.encodeScript(LOCK_FOR_WRITE_SCRIPT_SOURCE.getName(), LOCK_FOR_WRITE_SCRIPT_SOURCE.getSource(), Long.class);
+        unlockForWriteScript = redisExecutor.encodeScript(UNLOCK_FOR_WRITE_SCRIPT_SOURCE.getName(), UNLOCK_FOR_WRITE_SCRIPT_SOURCE.getSource(), List.class);
+        maintainForWriteScript = redisExecutor.encodeScript(MAINTAIN_FOR_WRITE_SCRIPT_SOURCE.getName(), MAINTAIN_FOR_WRITE_SCRIPT_SOURCE.getSource(), List.class);
     }
 
     /**
@@ -90,16 +100,54 @@ public class RedisRWLockServer {
      * @return null 加锁成功；否则返回需等待的时间（毫秒）
      */
     public Long lockForRead(String key, String lockerId) {
+        Long waitTime = doLockForRead(key, lockerId, liveTime);
+        if (waitTime == null) {
+            readLockMaintainer.add(key, lockerId);
+        }
+        return waitTime;
+    }
+
+    /**
+     * 以租期模式加读锁（不由维护器续期）
+     *
+     * @param key       锁标识
+     * @param lockerId  加锁者id
+     * @param leaseTime 租期（毫秒）
+     * @return null 加锁成功；否则返回需等待的时间（毫秒）
+     */
+    public Long lockForRead(String key, String lockerId, long leaseTime) {
+        Long waitTime = doLockForRead(key, lockerId, leaseTime);
+        if (waitTime == null) {
+            readLockMaintainer.addLeased(key, lockerId, leaseTime);
+        }
+        return waitTime;
+    }
+
+    // 执行加读锁（holdTime：加锁成功后读者的有效期）
+    private Long doLockForRead(String key, String lockerId, long holdTime) {
         String redisKey = computeRedisKey(key);
         long currentTime = System.currentTimeMillis();
         Long waitTime = redisExecutor.eval(
                 lockForReadScript,
                 Collections.singletonList(redisKey),
-                Arrays.asList(lockerId, currentTime, liveTime));
-        if (waitTime == null) {
-            readLockMaintainer.add(key, lockerId);
-        }
-        return waitTime;
+                Arrays.asList(lockerId, currentTime, holdTime, sessionManager.getSessionKeyPrefix(redisKey), sessionManager.getSessionTime()));
+        return sessionManager.limitWaitTime(waitTime);
+    }
+
+    /**
+     * 延长读锁的租期
+     *
+     * @param key       锁标识
+     * @param lockerId  加锁者id
+     * @param leaseTime 租期（毫秒）
+     * @return true 延长成功；false 延长失败（锁不存在或已经易主）
+     */
+    public boolean extendLeaseForRead(String key, String lockerId, long leaseTime) {
+        List<Long> results = redisExecutor.eval(
+                maintainForReadScript,
+                Collections.singletonList(computeRedisKey(key)),
+                Arrays.asList(System.currentTimeMillis(), leaseTime, lockerId));
+        return readLockMaintainer.onLeaseExtended(key, lockerId, leaseTime, results.get(0) == 1);
     }
 
     /**
@@ -110,20 +158,7 @@ public class RedisRWLockServer {
      */
     public void unlockForRead(String key, String lockerId) {
         readLockMaintainer.remove(key, lockerId);
-        String redisKey = computeRedisKey(key);
-        long currentTime = System.currentTimeMillis();
-        String syncChannel = computeSyncChannel(key);
-        try {
-            boolean success = redisExecutor.eval(
-                    unlockForReadScript,
-                    Collections.singletonList(redisKey),
-                    Arrays.asList(lockerId, currentTime, syncChannel));
-            if (!success) {
-                log.error("调用redis解读锁失败（锁不存在或已经易主），可能已经发生并发问题：key={},lockerId={}", key, lockerId);
-            }
-        } catch (Throwable e) {
-            log.error("调用redis解读锁出错：", e);
-        }
+        doUnlock(unlockForReadScript, Collections.singletonList(System.currentTimeMillis()), Collections.singletonList(key), Collections.singletonList(lockerId), "读锁");
     }
 
     /**
@@ -135,16 +170,55 @@ public class RedisRWLockServer {
      * @return null 加锁成功；否则返回需等待的时间（毫秒）
      */
     public Long lockForWrite(String key, String lockerId, long deadline) {
+        Long waitTime = doLockForWrite(key, lockerId, deadline, liveTime);
+        if (waitTime == null) {
+            writeLockMaintainer.add(key, lockerId);
+        }
+        return waitTime;
+    }
+
+    /**
+     * 以租期模式加写锁（不由维护器续期）
+     *
+     * @param key       锁标识
+     * @param lockerId  加锁者id
+     * @param deadline  截止时间
+     * @param leaseTime 租期（毫秒）
+     * @return null 加锁成功；否则返回需等待的时间（毫秒）
+     */
+    public Long lockForWrite(String key, String lockerId, long deadline, long leaseTime) {
+        Long waitTime = doLockForWrite(key, lockerId, deadline, leaseTime);
+        if (waitTime == null) {
+            writeLockMaintainer.addLeased(key, lockerId, leaseTime);
+        }
+        return waitTime;
+    }
+
+    // 执行加写锁（holdTime：加锁成功后锁在redis中的有效期）
+    private Long doLockForWrite(String key, String lockerId, long deadline, long holdTime) {
         String redisKey = computeRedisKey(key);
         long currentTime = System.currentTimeMillis();
         Long waitTime = redisExecutor.eval(
                 lockForWriteScript,
                 Collections.singletonList(redisKey),
-                Arrays.asList(lockerId, deadline, currentTime, liveTime));
-        if (waitTime == null) {
-            writeLockMaintainer.add(key, lockerId);
-        }
-        return waitTime;
+                Arrays.asList(lockerId, deadline, currentTime, holdTime, sessionManager.getSessionKeyPrefix(redisKey), sessionManager.getSessionTime()));
+        return sessionManager.limitWaitTime(waitTime);
+    }
+
+    /**
+     * 延长写锁的租期
+     *
+     * @param key       锁标识
+     * @param lockerId  加锁者id
+     * @param leaseTime 租期（毫秒）
+     * @return true 延长成功；false 延长失败（锁不存在或已经易主）
+     */
+    public boolean extendLeaseForWrite(String key, String lockerId, long leaseTime) {
+        List<Long> results = redisExecutor.eval(
+                maintainForWriteScript,
+                Collections.singletonList(computeRedisKey(key)),
+                Arrays.asList(leaseTime, lockerId));
+        return writeLockMaintainer.onLeaseExtended(key, lockerId, leaseTime, results.get(0) == 1);
     }
 
     /**
@@ -155,53 +229,117 @@ public class RedisRWLockServer {
      */
     public void unlockForWrite(String key, String lockerId) {
         writeLockMaintainer.remove(key, lockerId);
-        String redisKey = computeRedisKey(key);
-        String syncChannel = computeSyncChannel(key);
+        doUnlock(unlockForWriteScript, Collections.emptyList(), Collections.singletonList(key), Collections.singletonList(lockerId), "写锁");
+    }
+
+    /**
+     * 批量解写锁（强制解锁泄漏的锁时调用；同一批次的锁只需调用一次redis）
+     *
+     * @param keys      锁标识
+     * @param lockerIds 加锁者id（与锁标识一一对应）
+     */
+    public void unlockForWrite(List<String> keys, List<String> lockerIds) {
+        writeLockMaintainer.removeAll(
+                keys,
+                lockerIds,
+                key -> redisExecutor.computeSlot(computeRedisKey(key)),
+                leases -> doUnlock(unlockForWriteScript, Collections.emptyList(), leases, "写锁"));
+    }
+
+    /**
+     * 解除所有持有的读锁、写锁（关闭时调用，包括租期未到期的租期模式的锁；同一批次的锁只需调用一次redis）
+     */
+    public void unlockAll() {
+        writeLockMaintainer.removeAll(
+                key -> redisExecutor.computeSlot(computeRedisKey(key)),
+                leases -> doUnlock(unlockForWriteScript, Collections.emptyList(), leases, "写锁"));
+        readLockMaintainer.removeAll(
+                key -> redisExecutor.computeSlot(computeRedisKey(key)),
+                leases -> doUnlock(unlockForReadScript, Collections.singletonList(System.currentTimeMillis()), leases, "读锁"));
+    }
+
+    // 执行批量解锁
+    private void doUnlock(Object script, List<Object> headArgs, List<SyncMaintainer.Lease> leases, String lockName) {
+        doUnlock(
+                script,
+                headArgs,
+                leases.stream().map(SyncMaintainer.Lease::getKey).collect(Collectors.toList()),
+                leases.stream().map(SyncMaintainer.Lease::getOwner).collect(Collectors.toList()),
+                lockName);
+    }
+
+    // 执行批量解锁（lockName：读锁或写锁）
+    private void doUnlock(Object script, List<Object> headArgs, List<String> keys, List<String> lockerIds, String lockName) {
+        List<String> redisKeys = new ArrayList<>(keys.size());
+        List<Object> args = new ArrayList<>(keys.size() * 2 + headArgs.size());
+        args.addAll(headArgs);
+        for (int i = 0; i < keys.size(); i++) {
+            redisKeys.add(computeRedisKey(keys.get(i)));
+            args.add(lockerIds.get(i));
+            args.add(computeSyncChannel(keys.get(i)));
+        }
         try {
-            boolean success = redisExecutor.eval(
-                    unlockForWriteScript,
-                    Collections.singletonList(redisKey),
-                    Arrays.asList(lockerId, syncChannel));
-            if (!success) {
-                log.error("调用redis解写锁失败（锁不存在或已经易主），可能已经发生并发问题：key={},lockerId={}", key, lockerId);
+            List<Long> results = redisExecutor.eval(script, redisKeys, args);
+            for (int i = 0; i < keys.size(); i++) {
+                if (results.get(i) != 1) {
+                    log.error("调用redis解{}失败（锁不存在或已经易主），可能已经发生并发问题：key={},lockerId={}", lockName, keys.get(i), lockerIds.get(i));
+                }
             }
         } catch (Throwable e) {
-            log.error("调用redis解写锁出错：", e);
+            log.error("调用redis解{}出错：", lockName, e);
         }
     }
 
     /**
-     * 维护
+     * 获取下次需要维护的时间
+     *
+     * @return 下次需要维护的时间（无需维护时返回Long.MAX_VALUE）
+     */
+    public long getNextMaintainTime() {
+        return Math.min(readLockMaintainer.getNextMaintainTime(), writeLockMaintainer.getNextMaintainTime());
+    }
+
+    /**
+     * 维护（续期已到期的租约）
      */
     public void maintain() {
-        Set<String> keys = readLockMaintainer.getKeys();
-        for (String key : keys) {
-            maintainExecutor.execute(() -> readLockMaintainer.maintain(key, (k, lockerId) -> doMaintain(k, lockerId, maintainForReadScript, Arrays.asList(lockerId, System.currentTimeMillis(), liveTime))));
-        }
-        keys = writeLockMaintainer.getKeys();
-        for (String key : keys) {
-            maintainExecutor.execute(() -> writeLockMaintainer.maintain(key, (k, lockerId) -> doMaintain(k, lockerId, maintainForWriteScript, Arrays.asList(lockerId, liveTime))));
-        }
+        readLockMaintainer.maintain(
+                key -> redisExecutor.computeSlot(computeRedisKey(key)),
+                maintainExecutor,
+                leases -> doMaintain(readLockMaintainer, leases, maintainForReadScript, Arrays.asList(System.currentTimeMillis(), liveTime)));
+        writeLockMaintainer.maintain(
+                key -> redisExecutor.computeSlot(computeRedisKey(key)),
+                maintainExecutor,
+                leases -> doMaintain(writeLockMaintainer, leases, maintainForWriteScript, Collections.singletonList(liveTime)));
     }
 
-    // 执行维护
-    private boolean doMaintain(String key, String lockerId, Object script, List<Object> args) {
-        String redisKey = computeRedisKey(key);
-        boolean alive = true;
+    // 执行批量维护
+    private List<Boolean> doMaintain(SyncMaintainer maintainer, List<SyncMaintainer.Lease> leases, Object script, List<Object> headArgs) {
+        List<String> keys = new ArrayList<>(leases.size());
+        List<Object> args = new ArrayList<>(leases.size() + headArgs.size());
+        args.addAll(headArgs);
+        for (SyncMaintainer.Lease lease : leases) {
+            keys.add(computeRedisKey(lease.getKey()));
+            args.add(lease.getOwner());
+        }
+        List<Boolean> alives = new ArrayList<>(leases.size());
         try {
-            alive = redisExecutor.eval(
-                    script,
-                    Collections.singletonList(redisKey),
-                    args);
-            if (alive) {
-                log.debug("调用redis维护读写锁成功：key={},lockerId={}", key, lockerId);
-            } else {
-                log.error("调用redis维护读写锁失败（锁不存在或已经易主），可能已经发生并发问题：key={},lockerId={}", key, lockerId);
+            List<Long> results = redisExecutor.eval(script, keys, args);
+            for (int i = 0; i < leases.size(); i++) {
+                SyncMaintainer.Lease lease = leases.get(i);
+                boolean alive = results.get(i) == 1;
+                if (alive) {
+                    log.debug("调用redis维护读写锁成功：key={},lockerId={}", lease.getKey(), lease.getOwner());
+                } else if (maintainer.isValid(lease)) {
+                    log.error("调用redis维护读写锁失败（锁不存在或已经易主），可能已经发生并发问题：key={},lockerId={}", lease.getKey(), lease.getOwner());
+                }
+                alives.add(alive);
             }
         } catch (Throwable e) {
             log.error("调用redis维护读写锁出错：", e);
+            return null;
         }
-        return alive;
+        return alives;
     }
 
     /**
@@ -211,7 +349,7 @@ public class RedisRWLockServer {
      * @return 同步通道
      */
     public String computeSyncChannel(String key) {
-        return computeRedisKey(key);
+        return syncChannelManager.computeSyncChannel(Server.SyncType.RW_LOCK, computeRedisKey(key));
     }
 
     // 计算在redis中key
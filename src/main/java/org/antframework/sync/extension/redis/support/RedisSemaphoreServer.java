@@ -9,13 +9,13 @@
 package org.antframework.sync.extension.redis.support;
 
 import lombok.extern.slf4j.Slf4j;
-import org.antframework.sync.common.SyncUtils;
 import org.antframework.sync.extension.Server;
 import org.antframework.sync.extension.redis.extension.RedisExecutor;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Set;
+import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
 
@@ -25,12 +25,14 @@ import java.util.function.BiFunction;
 @Slf4j
 public class RedisSemaphoreServer {
     // 源更新许可数脚本
-    private static final String UPDATE_PERMITS_SCRIPT_SOURCE = SyncUtils.getScript("META-INF/server/redis/semaphore/Semaphore-updatePermits.lua");
+    private static final NamedScript UPDATE_PERMITS_SCRIPT_SOURCE = NamedScript.load("META-INF/server/redis/semaphore/Semaphore-updatePermits.lua");
     // 源维护脚本
-    private static final String MAINTAIN_SCRIPT_SOURCE = SyncUtils.getScript("META-INF/server/redis/semaphore/Semaphore-maintain.lua");
+    private static final NamedScript MAINTAIN_SCRIPT_SOURCE = NamedScript.load("META-INF/server/redis/semaphore/Semaphore-maintain.lua");
+    // 源释放所有许可脚本
+    private static final NamedScript RELEASE_ALL_SCRIPT_SOURCE = NamedScript.load("META-INF/server/redis/semaphore/Semaphore-releaseAll.lua");
 
     // 维护器
-    private final SyncMaintainer maintainer = new SyncMaintainer();
+    private final SyncMaintainer maintainer;
     // key生成器
     private final BiFunction<Server.SyncType, String, String> keyGenerator;
     // redis执行器
@@ -39,23 +41,39 @@ public class RedisSemaphoreServer {
     private final long liveTime;
     // 维护执行器
     private final Executor maintainExecutor;
+    // 同步通道管理器
+    private final SyncChannelManager syncChannelManager;
+    // 会话管理器
+    private final SyncSessionManager sessionManager;
+    // 排队管理器
+    private final SyncQueueManager queueManager;
 
     // 更新许可数脚本
     private final Object updatePermitsScript;
     // 维护脚本
     private final Object maintainScript;
+    // 释放所有许可脚本
+    private final Object releaseAllScript;
 
     public RedisSemaphoreServer(BiFunction<Server.SyncType, String, String> keyGenerator,
                                 RedisExecutor redisExecutor,
                                 long liveTime,
-                                Executor maintainExecutor) {
+                                Executor maintainExecutor,
+                                SyncChannelManager syncChannelManager,
+                                SyncSessionManager sessionManager,
+                                SyncQueueManager queueManager) {
         this.keyGenerator = keyGenerator;
         this.redisExecutor = redisExecutor;
         this.liveTime = liveTime;
         this.maintainExecutor = maintainExecutor;
+        this.syncChannelManager = syncChannelManager;
+        this.sessionManager = sessionManager;
+        this.queueManager = queueManager;
+        this.maintainer = new SyncMaintainer(liveTime);
 
-        updatePermitsScript = redisExecutor.encodeScript(UPDATE_PERMITS_SCRIPT_SOURCE, Long.class);
-        maintainScript = redisExecutor.encodeScript(MAINTAIN_SCRIPT_SOURCE, Boolean.class);
+        updatePermitsScript = redisExecutor.encodeScript(UPDATE_PERMITS_SCRIPT_SOURCE.getName(), UPDATE_PERMITS_SCRIPT_SOURCE.getSource(), Long.class);
+        maintainScript = redisExecutor.encodeScript(MAINTAIN_SCRIPT_SOURCE.getName(), MAINTAIN_SCRIPT_SOURCE.getSource(), List.class);
+        releaseAllScript = redisExecutor.encodeScript(RELEASE_ALL_SCRIPT_SOURCE.getName(), RELEASE_ALL_SCRIPT_SOURCE.getSource(), List.class);
     }
 
     /**
@@ -68,26 +86,31 @@ public class RedisSemaphoreServer {
      * @return null 获取成功；否则返回需等待的时间（毫秒）
      */
     public Long acquire(String key, String semaphorerId, int newPermits, int totalPermits) {
-        String redisKey = computeRedisKey(key);
-        long currentTime = System.currentTimeMillis();
-        String syncChannel = computeSyncChannel(key);
-        Long waitTime = redisExecutor.eval(
-                updatePermitsScript,
-                Collections.singletonList(redisKey),
-                Arrays.asList(
-                        semaphorerId,
-                        newPermits,
-                        totalPermits,
-                        currentTime,
-                        syncChannel,
-                        liveTime,
-                        false));
+        Long waitTime = updatePermits(key, semaphorerId, newPermits, totalPermits, liveTime, false);
         if (waitTime == null && newPermits > 0) {
             maintainer.add(key, semaphorerId);
         }
         return waitTime;
     }
 
+    /**
+     * 以租期模式获取许可（不由维护器续期）
+     *
+     * @param key          信号量标识
+     * @param semaphorerId 获取信号量许可者id
+     * @param newPermits   新许可数
+     * @param totalPermits 许可总数
+     * @param leaseTime    租期（毫秒）
+     * @return null 获取成功；否则返回需等待的时间（毫秒）
+     */
+    public Long acquire(String key, String semaphorerId, int newPermits, int totalPermits, long leaseTime) {
+        Long waitTime = updatePermits(key, semaphorerId, newPermits, totalPermits, leaseTime, false);
+        if (waitTime == null && newPermits > 0) {
+            maintainer.addLeased(key, semaphorerId, leaseTime);
+        }
+        return waitTime;
+    }
+
     /**
      * 释放许可
      *
@@ -100,55 +123,164 @@ public class RedisSemaphoreServer {
         if (newPermits <= 0) {
             maintainer.remove(key, semaphorerId);
         }
-        String redisKey = computeRedisKey(key);
-        long currentTime = System.currentTimeMillis();
-        String syncChannel = computeSyncChannel(key);
+        doRelease(key, semaphorerId, newPermits, totalPermits, liveTime);
+    }
+
+    /**
+     * 以租期模式释放许可
+     *
+     * @param key          信号量标识
+     * @param semaphorerId 获取信号量许可者id
+     * @param newPermits   新许可数
+     * @param totalPermits 许可总数
+     * @param leaseTime    租期（毫秒；剩余的许可从现在开始重新计算租期）
+     */
+    public void release(String key, String semaphorerId, int newPermits, int totalPermits, long leaseTime) {
+        if (newPermits <= 0) {
+            maintainer.remove(key, semaphorerId);
+        } else {
+            maintainer.addLeased(key, semaphorerId, leaseTime);
+        }
+        doRelease(key, semaphorerId, newPermits, totalPermits, leaseTime);
+    }
+
+    // 执行释放许可（holdTime：剩余的许可的有效期）
+    private void doRelease(String key, String semaphorerId, int newPermits, int totalPermits, long holdTime) {
+        try {
+            updatePermits(key, semaphorerId, newPermits, totalPermits, holdTime, true);
+        } catch (Throwable e) {
+            log.error("调用redis释放信号量许可出错：", e);
+        }
+    }
+
+    /**
+     * 批量释放获取者持有的所有许可（强制释放泄漏的许可时调用；同一批次的信号量只需调用一次redis）
+     *
+     * @param keys          信号量标识
+     * @param semaphorerIds 获取信号量许可者id（与信号量标识一一对应）
+     */
+    public void releaseAll(List<String> keys, List<String> semaphorerIds) {
+        maintainer.removeAll(keys, semaphorerIds, key -> redisExecutor.computeSlot(computeRedisKey(key)), this::doReleaseAll);
+    }
+
+    /**
+     * 释放所有持有的许可（关闭时调用，包括租期未到期的租期模式的许可；同一批次的信号量只需调用一次redis）
+     */
+    public void releaseAll() {
+        maintainer.removeAll(
+                key -> redisExecutor.computeSlot(computeRedisKey(key)),
+                this::doReleaseAll);
+    }
+
+    // 执行批量释放所有许可
+    private void doReleaseAll(List<SyncMaintainer.Lease> leases) {
+        List<String> keys = new ArrayList<>(leases.size());
+        List<Object> args = new ArrayList<>(leases.size() * 2 + 1);
+        args.add(System.currentTimeMillis());
+        for (SyncMaintainer.Lease lease : leases) {
+            keys.add(computeRedisKey(lease.getKey()));
+            args.add(lease.getOwner());
+            args.add(computeSyncChannel(lease.getKey()));
+        }
         try {
-            redisExecutor.eval(
-                    updatePermitsScript,
-                    Collections.singletonList(redisKey),
-                    Arrays.asList(
-                            semaphorerId,
-                            newPermits,
-                            totalPermits,
-                            currentTime,
-                            syncChannel,
-                            liveTime,
-                            true));
+            List<Long> results = redisExecutor.eval(releaseAllScript, keys, args);
+            for (int i = 0; i < leases.size(); i++) {
+                if (results.get(i) != 1) {
+                    SyncMaintainer.Lease lease = leases.get(i);
+                    log.error("调用redis释放信号量许可失败（信号量不存在或已经不持有许可），可能已经发生并发问题：key={},semaphorerId={}", lease.getKey(), lease.getOwner());
+                }
+            }
         } catch (Throwable e) {
             log.error("调用redis释放信号量许可出错：", e);
         }
     }
 
     /**
-     * 维护
+     * 延长租期
+     *
+     * @param key          信号量标识
+     * @param semaphorerId 获取信号量许可者id
+     * @param leaseTime    租期（毫秒）
+     * @return true 延长成功；false 延长失败（信号量不存在或已经不持有许可）
+     */
+    public boolean extendLease(String key, String semaphorerId, long leaseTime) {
+        List<Long> results = redisExecutor.eval(
+                maintainScript,
+                Collections.singletonList(computeRedisKey(key)),
+                Arrays.asList(System.currentTimeMillis(), leaseTime, semaphorerId));
+        return maintainer.onLeaseExtended(key, semaphorerId, leaseTime, results.get(0) == 1);
+    }
+
+    // 更新许可数（holdTime：持有的许可的有效期；force：是否强制更新）
+    private Long updatePermits(String key, String semaphorerId, int newPermits, int totalPermits, long holdTime, boolean force) {
+        String redisKey = computeRedisKey(key);
+        long currentTime = System.currentTimeMillis();
+        String syncChannel = computeSyncChannel(key);
+        Long waitTime = redisExecutor.eval(
+                updatePermitsScript,
+                Collections.singletonList(redisKey),
+                Arrays.asList(
+                        semaphorerId,
+                        newPermits,
+                        totalPermits,
+                        currentTime,
+                        syncChannel,
+                        holdTime,
+                        force,
+                        sessionManager.getSessionKeyPrefix(redisKey),
+                        sessionManager.getSessionTime(),
+                        queueManager.getQueueNodeId(),
+                        queueManager.getTicketTime()));
+        return queueManager.limitWaitTime(sessionManager.limitWaitTime(waitTime));
+    }
+
+    /**
+     * 获取下次需要维护的时间
+     *
+     * @return 下次需要维护的时间（无需维护时返回Long.MAX_VALUE）
+     */
+    public long getNextMaintainTime() {
+        return maintainer.getNextMaintainTime();
+    }
+
+    /**
+     * 维护（续期已到期的租约）
      */
     public void maintain() {
-        Set<String> keys = maintainer.getKeys();
-        for (String key : keys) {
-            maintainExecutor.execute(() -> maintainer.maintain(key, (k, semaphorerId) -> {
-                String redisKey = computeRedisKey(k);
-                long currentTime = System.currentTimeMillis();
-                boolean alive = true;
-                try {
-                    alive = redisExecutor.eval(
-                            maintainScript,
-                            Collections.singletonList(redisKey),
-                            Arrays.asList(
-                                    semaphorerId,
-                                    currentTime,
-                                    liveTime));
-                    if (alive) {
-                        log.debug("调用redis维护信号量成功：key={},semaphorerId={}", k, semaphorerId);
-                    } else {
-                        log.error("调用redis维护信号量失败（信号量不存在或已经不持有许可），可能已经发生并发问题：key={},semaphorerId={}", k, semaphorerId);
-                    }
-                } catch (Throwable e) {
-                    log.error("调用redis维护信号量出错：", e);
+        maintainer.maintain(
+                key -> redisExecutor.computeSlot(computeRedisKey(key)),
+                maintainExecutor,
+                this::doMaintain);
+    }
+
+    // 执行批量维护
+    private List<Boolean> doMaintain(List<SyncMaintainer.Lease> leases) {
+        List<String> keys = new ArrayList<>(leases.size());
+        List<Object> args = new ArrayList<>(leases.size() + 2);
+        args.add(System.currentTimeMillis());
+        args.add(liveTime);
+        for (SyncMaintainer.Lease lease : leases) {
+            keys.add(computeRedisKey(lease.getKey()));
+            args.add(lease.getOwner());
+        }
+        List<Boolean> alives = new ArrayList<>(leases.size());
+        try {
+            List<Long> results = redisExecutor.eval(maintainScript, keys, args);
+            for (int i = 0; i < leases.size(); i++) {
+                SyncMaintainer.Lease lease = leases.get(i);
+                boolean alive = results.get(i) == 1;
+                if (alive) {
+                    log.debug("调用redis维护信号量成功：key={},semaphorerId={}", lease.getKey(), lease.getOwner());
+                } else if (maintainer.isValid(lease)) {
+                    log.error("调用redis维护信号量失败（信号量不存在或已经不持有许可），可能已经发生并发问题：key={},semaphorerId={}", lease.getKey(), lease.getOwner());
                 }
-                return alive;
-            }));
+                alives.add(alive);
+            }
+        } catch (Throwable e) {
+            log.error("调用redis维护信号量出错：", e);
+            return null;
         }
+        return alives;
     }
 
     /**
@@ -158,7 +290,7 @@ public class RedisSemaphoreServer {
      * @return 同步通道
      */
     public String computeSyncChannel(String key) {
-        return computeRedisKey(key);
+        return syncChannelManager.computeSyncChannel(Server.SyncType.SEMAPHORE, computeRedisKey(key));
     }
 
     // 计算在redis中key
@@ -0,0 +1,261 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 16:04 创建
+ */
+package org.antframework.sync.extension.redis.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.antframework.sync.extension.Server;
+import org.antframework.sync.extension.redis.extension.RedisExecutor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * 同步通道管理器
+ * <p>
+ * 支持两种模式：
+ * <ul>
+ * <li>每个key一个通道（通道数量为0时）：通道名称为key在redis中的名称，有多少个被等待的key就需要订阅多少个通道</li>
+ * <li>多路复用（通道数量大于0时）：同一类型的所有key按hash共享固定数量的通道，同步消息的内容为key在redis中的名称，
+ * 收到消息后在本地分发给对应key的监听器，订阅的通道数量不会超过通道数量</li>
+ * </ul>
+ * <p>
+ * 撤销消息（请求以偏向方式持有锁的节点尽快解锁）与同步消息使用同一个通道，消息内容为撤销前缀加上key在redis中的名称。
+ * <p>
+ * 排队模式下只通知队首节点的同步消息也使用同一个通道，消息内容为#queue#${nodeId}#${redisKey}，节点id不是本节点的消息直接忽略。
+ */
+@Slf4j
+public class SyncChannelManager {
+    // 多路复用通道的名称前缀
+    private static final String MULTIPLEXED_CHANNEL_PREFIX = "#sync-channel-";
+    // 撤销消息的前缀
+    private static final String REVOKE_MESSAGE_PREFIX = "#revoke#";
+    // 排队消息的前缀（由脚本发布）
+    private static final String QUEUE_MESSAGE_PREFIX = "#queue#";
+    // 源撤销脚本
+    private static final NamedScript REVOKE_SCRIPT_SOURCE = NamedScript.load("META-INF/server/redis/sync-channel/SyncChannel-revoke.lua");
+
+    // 通道与通道监听器的对应关系
+    private final Map<String, ChannelListener> channelListeners = new ConcurrentHashMap<>();
+    // key生成器
+    private final BiFunction<Server.SyncType, String, String> keyGenerator;
+    // redis执行器
+    private final RedisExecutor redisExecutor;
+    // 每种类型的通道数量（0表示每个key一个通道）
+    private final int channelAmount;
+    // 本节点id（用于过滤排队消息）
+    private final String nodeId;
+    // 撤销脚本
+    private final Object revokeScript;
+
+    public SyncChannelManager(BiFunction<Server.SyncType, String, String> keyGenerator,
+                              RedisExecutor redisExecutor,
+                              int channelAmount,
+                              String nodeId) {
+        this.keyGenerator = keyGenerator;
+        this.redisExecutor = redisExecutor;
+        this.channelAmount = channelAmount;
+        this.nodeId = nodeId;
+        this.revokeScript = redisExecutor.encodeScript(REVOKE_SCRIPT_SOURCE.getName(), REVOKE_SCRIPT_SOURCE.getSource(), Long.class);
+    }
+
+    /**
+     * 计算同步通道
+     *
+     * @param syncType 同步类型
+     * @param redisKey key在redis中的名称
+     * @return 同步通道
+     */
+    public String computeSyncChannel(Server.SyncType syncType, String redisKey) {
+        if (channelAmount <= 0) {
+            return redisKey;
+        }
+        int index = Math.floorMod(redisKey.hashCode(), channelAmount);
+        return keyGenerator.apply(syncType, MULTIPLEXED_CHANNEL_PREFIX + index);
+    }
+
+    /**
+     * 新增同步监听器
+     *
+     * @param syncType 同步类型
+     * @param redisKey key在redis中的名称
+     * @param listener 监听器
+     */
+    public void addSyncListener(Server.SyncType syncType, String redisKey, Runnable listener) {
+        addListener(syncType, redisKey, listener, false);
+    }
+
+    /**
+     * 删除同步监听器
+     *
+     * @param syncType 同步类型
+     * @param redisKey key在redis中的名称
+     * @param listener 监听器
+     */
+    public void removeSyncListener(Server.SyncType syncType, String redisKey, Runnable listener) {
+        removeListener(syncType, redisKey, listener, false);
+    }
+
+    /**
+     * 新增撤销监听器
+     *
+     * @param syncType 同步类型
+     * @param redisKey key在redis中的名称
+     * @param listener 监听器
+     */
+    public void addRevokeListener(Server.SyncType syncType, String redisKey, Runnable listener) {
+        addListener(syncType, redisKey, listener, true);
+    }
+
+    /**
+     * 删除撤销监听器
+     *
+     * @param syncType 同步类型
+     * @param redisKey key在redis中的名称
+     * @param listener 监听器
+     */
+    public void removeRevokeListener(Server.SyncType syncType, String redisKey, Runnable listener) {
+        removeListener(syncType, redisKey, listener, true);
+    }
+
+    /**
+     * 发布撤销消息
+     *
+     * @param syncType 同步类型
+     * @param redisKey key在redis中的名称
+     */
+    public void publishRevoke(Server.SyncType syncType, String redisKey) {
+        try {
+            redisExecutor.eval(
+                    revokeScript,
+                    Collections.singletonList(redisKey),
+                    Arrays.asList(computeSyncChannel(syncType, redisKey), REVOKE_MESSAGE_PREFIX + redisKey));
+        } catch (Throwable e) {
+            log.error("调用redis发布撤销消息出错：", e);
+        }
+    }
+
+    /**
+     * 关闭（退订所有通道，并唤醒本节点的所有等待者，等待者重试时由服务端报告已关闭）
+     */
+    public void close() {
+        for (String channel : channelListeners.keySet()) {
+            channelListeners.computeIfPresent(channel, (k, v) -> {
+                try {
+                    redisExecutor.removeMessageListener(k, v);
+                } catch (Throwable e) {
+                    log.error("退订redis通道出错：channel={}", k, e);
+                }
+                v.wakeAll();
+                return null;
+            });
+        }
+    }
+
+    // 新增监听器
+    private void addListener(Server.SyncType syncType, String redisKey, Runnable listener, boolean revoke) {
+        String channel = computeSyncChannel(syncType, redisKey);
+        channelListeners.compute(channel, (k, v) -> {
+            if (v == null) {
+                v = new ChannelListener(channelAmount > 0, nodeId);
+                redisExecutor.addMessageListener(k, v);
+            }
+            v.addListener(redisKey, listener, revoke);
+            return v;
+        });
+    }
+
+    // 删除监听器
+    private void removeListener(Server.SyncType syncType, String redisKey, Runnable listener, boolean revoke) {
+        String channel = computeSyncChannel(syncType, redisKey);
+        channelListeners.computeIfPresent(channel, (k, v) -> {
+            v.removeListener(redisKey, listener, revoke);
+            if (v.isEmpty()) {
+                redisExecutor.removeMessageListener(k, v);
+                v = null;
+            }
+            return v;
+        });
+    }
+
+    // 通道监听器
+    private static class ChannelListener implements Consumer<String> {
+        // 排队消息中本节点的前缀
+        private final String queuePrefix;
+        // key与同步监听器的对应关系
+        private final Map<String, Set<Runnable>> keyListeners = new ConcurrentHashMap<>();
+        // key与撤销监听器的对应关系
+        private final Map<String, Set<Runnable>> keyRevokeListeners = new ConcurrentHashMap<>();
+        // 是否多路复用
+        private final boolean multiplexed;
+
+        ChannelListener(boolean multiplexed, String nodeId) {
+            this.multiplexed = multiplexed;
+            this.queuePrefix = QUEUE_MESSAGE_PREFIX + nodeId + '#';
+        }
+
+        @Override
+        public void accept(String message) {
+            if (message != null && message.startsWith(REVOKE_MESSAGE_PREFIX)) {
+                Set<Runnable> listeners = keyRevokeListeners.get(message.substring(REVOKE_MESSAGE_PREFIX.length()));
+                if (listeners != null) {
+                    listeners.forEach(Runnable::run);
+                }
+            } else if (message != null && message.startsWith(QUEUE_MESSAGE_PREFIX)) {
+                // 只处理通知本节点的排队消息
+                if (message.startsWith(queuePrefix)) {
+                    Set<Runnable> listeners = keyListeners.get(message.substring(queuePrefix.length()));
+                    if (listeners != null) {
+                        listeners.forEach(Runnable::run);
+                    }
+                }
+            } else if (multiplexed && message != null) {
+                Set<Runnable> listeners = keyListeners.get(message);
+                if (listeners != null) {
+                    listeners.forEach(Runnable::run);
+                }
+            } else {
+                // 每个key一个通道时不依赖消息内容（兼容消息内容不是key的旧版本）；redis执行器获取不到消息内容时通知通道上的所有等待者
+                wakeAll();
+            }
+        }
+
+        // 新增监听器
+        void addListener(String redisKey, Runnable listener, boolean revoke) {
+            Map<String, Set<Runnable>> listeners = revoke ? keyRevokeListeners : keyListeners;
+            listeners.computeIfAbsent(redisKey, k -> ConcurrentHashMap.newKeySet()).add(listener);
+        }
+
+        // 删除监听器
+        void removeListener(String redisKey, Runnable listener, boolean revoke) {
+            Map<String, Set<Runnable>> listeners = revoke ? keyRevokeListeners : keyListeners;
+            listeners.computeIfPresent(redisKey, (k, v) -> {
+                v.remove(listener);
+                if (v.isEmpty()) {
+                    v = null;
+                }
+                return v;
+            });
+        }
+
+        // 唤醒通道上的所有同步监听器
+        void wakeAll() {
+            keyListeners.forEach((key, listeners) -> listeners.forEach(Runnable::run));
+        }
+
+        // 是否为空
+        boolean isEmpty() {
+            return keyListeners.isEmpty() && keyRevokeListeners.isEmpty();
+        }
+    }
+}
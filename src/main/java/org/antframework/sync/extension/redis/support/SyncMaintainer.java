@@ -1,4 +1,4 @@
-/* 
+/*
  * 作者：钟勋 (email:zhongxunking@163.com)
  */
 
@@ -8,19 +8,53 @@
  */
 package org.antframework.sync.extension.redis.support;
 
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.Set;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.BiFunction;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 /**
  * Sync维护器
+ * <p>
+ * 每个持有关系都有一个租约，租约按续期时间排序，维护时只续期已到期的租约（越接近过期的越先续期）。
+ * 到期的租约按分组（比如redis集群中key所在的slot）划分成批次，每个批次只需调用一次redis。
+ * 续期在任何锁之外执行，每次新增持有关系都会分配新的代次，续期结果只对同一代次的持有关系生效。
+ * 租期模式的持有关系也记录在维护器中但不续期，只用于关闭时释放（租期已到期的不再释放）。
  */
+@Slf4j
 public class SyncMaintainer {
-    // Sync持有关系
-    private final Map<String, Set<String>> relations = new ConcurrentHashMap<>();
+    /**
+     * 每批次最多的租约数量（防止单次执行的脚本过大而阻塞redis）
+     */
+    public static final int MAX_BATCH_SIZE = 100;
+
+    // 代次生成器
+    private static final AtomicLong GENERATION_GENERATOR = new AtomicLong(0);
+    // 租约比较器（先按续期时间，再按代次）
+    private static final Comparator<Lease> LEASE_COMPARATOR = Comparator.comparingLong(Lease::getRenewTime).thenComparingLong(Lease::getGeneration);
+
+    // Sync持有关系（Sync标识-持有者-租约）
+    private final Map<String, Map<String, Lease>> relations = new ConcurrentHashMap<>();
+    // 按续期时间排序的租约
+    private final ConcurrentSkipListSet<Lease> leases = new ConcurrentSkipListSet<>(LEASE_COMPARATOR);
+    // 续期间隔（毫秒；与按固定周期续期时一样为存活时间的1/10，续期失败或维护线程池拒绝时在过期前还有多次重试机会）
+    private final long renewInterval;
+    // 续期失败后的重试间隔（毫秒）
+    private final long retryInterval;
+
+    public SyncMaintainer(long liveTime) {
+        this.renewInterval = Math.max(liveTime / 10, 1);
+        this.retryInterval = renewInterval;
+    }
 
     /**
      * 新增持有关系
@@ -29,11 +63,51 @@ public class SyncMaintainer {
      * @param owner 持有者
      */
     public void add(String key, String owner) {
-        relations.compute(key, (k, v) -> {
+        put(new Lease(key, owner, GENERATION_GENERATOR.incrementAndGet(), System.currentTimeMillis() + renewInterval, false));
+    }
+
+    /**
+     * 新增或更新租期模式的持有关系（不续期，只记录持有关系以便关闭时释放）
+     *
+     * @param key       Sync标识
+     * @param owner     持有者
+     * @param leaseTime 租期（毫秒；从现在开始计算）
+     */
+    public void addLeased(String key, String owner, long leaseTime) {
+        put(new Lease(key, owner, GENERATION_GENERATOR.incrementAndGet(), System.currentTimeMillis() + leaseTime, true));
+    }
+
+    /**
+     * 处理租期模式的持有关系的延长租期结果（延长成功时更新租期；失败时持有已丢失，删除持有关系）
+     *
+     * @param key       Sync标识
+     * @param owner     持有者
+     * @param leaseTime 租期（毫秒；从现在开始计算）
+     * @param extended  是否延长成功
+     * @return 是否延长成功
+     */
+    public boolean onLeaseExtended(String key, String owner, long leaseTime, boolean extended) {
+        if (extended) {
+            addLeased(key, owner, leaseTime);
+        } else {
+            remove(key, owner);
+        }
+        return extended;
+    }
+
+    // 放入租约（租期模式的租约不参与续期排序）
+    private void put(Lease lease) {
+        relations.compute(lease.getKey(), (k, v) -> {
             if (v == null) {
-                v = new HashSet<>();
+                v = new ConcurrentHashMap<>();
+            }
+            Lease old = v.put(lease.getOwner(), lease);
+            if (old != null) {
+                leases.remove(old);
+            }
+            if (!lease.isLeased()) {
+                leases.add(lease);
             }
-            v.add(owner);
             return v;
         });
     }
@@ -46,7 +120,10 @@ public class SyncMaintainer {
      */
     public void remove(String key, String owner) {
         relations.computeIfPresent(key, (k, v) -> {
-            v.remove(owner);
+            Lease old = v.remove(owner);
+            if (old != null) {
+                leases.remove(old);
+            }
             if (v.isEmpty()) {
                 v = null;
             }
@@ -55,34 +132,170 @@ public class SyncMaintainer {
     }
 
     /**
-     * 获取所有Sync标识
+     * 删除所有持有关系（比如关闭时需释放所有持有；租期已到期的租期模式持有关系已在redis中自动释放，直接删除；其余的按分组划分成批次，在当前线程中依次交给批量删除者）
      *
-     * @return 所有Sync标识
+     * @param grouper      分组器（计算Sync标识所属的分组，同一分组的租约才能在同一批次中删除）
+     * @param batchRemover 批量删除者
      */
-    public Set<String> getKeys() {
-        return new HashSet<>(relations.keySet());
+    public void removeAll(ToIntFunction<String> grouper, Consumer<List<Lease>> batchRemover) {
+        long now = System.currentTimeMillis();
+        Map<Integer, List<Lease>> groups = new LinkedHashMap<>();
+        for (String key : relations.keySet()) {
+            relations.computeIfPresent(key, (k, v) -> {
+                for (Lease lease : v.values()) {
+                    leases.remove(lease);
+                    if (lease.isLeased() && lease.getRenewTime() <= now) {
+                        continue;
+                    }
+                    groups.computeIfAbsent(grouper.applyAsInt(k), g -> new ArrayList<>()).add(lease);
+                }
+                return null;
+            });
+        }
+        removeInBatches(groups, batchRemover);
     }
 
     /**
-     * 维护
+     * 删除指定的持有关系（比如强制释放泄漏的持有；不论是否由维护器续期，都按分组划分成批次，在当前线程中依次交给批量删除者）
      *
-     * @param key        Sync标识
-     * @param maintainer 维护者
+     * @param keys         Sync标识
+     * @param owners       持有者（与Sync标识一一对应）
+     * @param grouper      分组器（计算Sync标识所属的分组，同一分组的租约才能在同一批次中删除）
+     * @param batchRemover 批量删除者
      */
-    public void maintain(String key, BiFunction<String, String, Boolean> maintainer) {
-        relations.computeIfPresent(key, (k, v) -> {
-            Iterator<String> iterator = v.iterator();
-            while (iterator.hasNext()) {
-                String owner = iterator.next();
-                boolean alive = maintainer.apply(k, owner);
-                if (!alive) {
-                    iterator.remove();
+    public void removeAll(List<String> keys, List<String> owners, ToIntFunction<String> grouper, Consumer<List<Lease>> batchRemover) {
+        Map<Integer, List<Lease>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            String key = keys.get(i);
+            String owner = owners.get(i);
+            remove(key, owner);
+            groups.computeIfAbsent(grouper.applyAsInt(key), g -> new ArrayList<>()).add(new Lease(key, owner, 0, 0, false));
+        }
+        removeInBatches(groups, batchRemover);
+    }
+
+    // 按分组划分成批次，依次交给批量删除者
+    private static void removeInBatches(Map<Integer, List<Lease>> groups, Consumer<List<Lease>> batchRemover) {
+        for (List<Lease> group : groups.values()) {
+            for (int i = 0; i < group.size(); i += MAX_BATCH_SIZE) {
+                batchRemover.accept(group.subList(i, Math.min(i + MAX_BATCH_SIZE, group.size())));
+            }
+        }
+    }
+
+    /**
+     * 租约是否还有效（持有关系未被删除且未被重新持有）
+     *
+     * @param lease 租约
+     * @return true 有效；false 无效
+     */
+    public boolean isValid(Lease lease) {
+        Map<String, Lease> owners = relations.get(lease.getKey());
+        if (owners == null) {
+            return false;
+        }
+        Lease current = owners.get(lease.getOwner());
+        return current != null && current.getGeneration() == lease.getGeneration();
+    }
+
+    /**
+     * 获取下次需要维护的时间
+     *
+     * @return 最早到期的租约的续期时间（无租约时返回Long.MAX_VALUE）
+     */
+    public long getNextMaintainTime() {
+        Lease first = leases.ceiling(new Lease(null, null, Long.MIN_VALUE, Long.MIN_VALUE, false));
+        return first == null ? Long.MAX_VALUE : first.getRenewTime();
+    }
+
+    /**
+     * 维护（续期已到期的租约）
+     *
+     * @param grouper         分组器（计算Sync标识所属的分组，同一分组的租约才能在同一批次中续期）
+     * @param executor        执行器（每个批次提交一个任务，如果被拒绝则稍后重试）
+     * @param batchMaintainer 批量维护者（返回每个租约是否还存活，与入参的顺序一一对应；返回null或抛出异常表示维护出错，稍后重试）
+     */
+    public void maintain(ToIntFunction<String> grouper, Executor executor, Function<List<Lease>, List<Boolean>> batchMaintainer) {
+        long now = System.currentTimeMillis();
+        Map<Integer, List<Lease>> groups = new LinkedHashMap<>();
+        for (Lease lease : leases.headSet(new Lease(null, null, Long.MAX_VALUE, now, false), true)) {
+            if (leases.remove(lease)) {
+                groups.computeIfAbsent(grouper.applyAsInt(lease.getKey()), k -> new ArrayList<>()).add(lease);
+            }
+        }
+        for (List<Lease> group : groups.values()) {
+            for (int i = 0; i < group.size(); i += MAX_BATCH_SIZE) {
+                List<Lease> batch = group.subList(i, Math.min(i + MAX_BATCH_SIZE, group.size()));
+                try {
+                    executor.execute(() -> {
+                        List<Boolean> alives = null;
+                        try {
+                            alives = batchMaintainer.apply(batch);
+                        } catch (Throwable e) {
+                            log.error("批量续期{}个租约出错，稍后重试", batch.size(), e);
+                        }
+                        for (int j = 0; j < batch.size(); j++) {
+                            Boolean alive = alives == null ? null : alives.get(j);
+                            onMaintained(batch.get(j), alive, now);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    log.warn("维护执行器繁忙，{}个租约将稍后重试续期", batch.size());
+                    batch.forEach(lease -> reschedule(lease, now + retryInterval));
                 }
             }
-            if (v.isEmpty()) {
-                v = null;
+        }
+    }
+
+    // 处理维护结果
+    private void onMaintained(Lease lease, Boolean alive, long maintainTime) {
+        if (alive == null) {
+            reschedule(lease, System.currentTimeMillis() + retryInterval);
+        } else if (alive) {
+            reschedule(lease, maintainTime + renewInterval);
+        } else {
+            relations.computeIfPresent(lease.getKey(), (k, v) -> {
+                Lease current = v.get(lease.getOwner());
+                if (current != null && current.getGeneration() == lease.getGeneration()) {
+                    v.remove(lease.getOwner());
+                }
+                if (v.isEmpty()) {
+                    v = null;
+                }
+                return v;
+            });
+        }
+    }
+
+    // 重新安排租约的续期时间（只对同一代次的持有关系生效）
+    private void reschedule(Lease lease, long renewTime) {
+        relations.computeIfPresent(lease.getKey(), (k, v) -> {
+            Lease current = v.get(lease.getOwner());
+            if (current != null && current.getGeneration() == lease.getGeneration()) {
+                Lease next = new Lease(lease.getKey(), lease.getOwner(), lease.getGeneration(), renewTime, false);
+                v.put(lease.getOwner(), next);
+                leases.remove(current);
+                leases.add(next);
             }
             return v;
         });
     }
+
+    /**
+     * 租约
+     */
+    @AllArgsConstructor
+    @Getter
+    public static class Lease {
+        // Sync标识
+        private final String key;
+        // 持有者
+        private final String owner;
+        // 代次
+        private final long generation;
+        // 续期时间（租期模式时为租期的到期时间）
+        private final long renewTime;
+        // 是否是租期模式（不续期）
+        private final boolean leased;
+    }
 }
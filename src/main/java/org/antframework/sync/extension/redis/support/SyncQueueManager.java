@@ -0,0 +1,81 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 17:14 创建
+ */
+package org.antframework.sync.extension.redis.support;
+
+import org.antframework.sync.common.DefaultIdGenerator;
+
+/**
+ * Sync排队管理器
+ * <p>
+ * 排队模式下加锁、获取许可失败的节点在锁、信号量的hash中登记一张排队票据（序号按到达顺序分配，票据带有有效期，等待期间每次重试时刷新），
+ * 只有队首节点（或者无人排队时）才能加锁、获取许可。解锁、释放许可时如果有节点在排队，同步消息只通知队首节点（消息内容为#queue#${nodeId}#${redisKey}），
+ * 其他节点收到后直接忽略，每次释放只唤醒一个节点，不会所有等待的节点同时冲向redis。
+ * <p>
+ * 本地同一个key同一时间只有一个线程访问redis，所以排队以节点为单位。所有节点需使用相同的模式；弃用的票据最多阻塞队列一个票据有效期。
+ */
+public class SyncQueueManager {
+    // 队列节点id
+    private final String nodeId;
+    // 是否使用排队模式
+    private final boolean enabled;
+    // 票据有效期（毫秒）
+    private final long ticketTime;
+
+    public SyncQueueManager(boolean enabled, long ticketTime) {
+        this.nodeId = new DefaultIdGenerator().get();
+        this.enabled = enabled;
+        this.ticketTime = ticketTime;
+    }
+
+    /**
+     * 是否使用排队模式
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 获取节点id（不使用排队模式时也有，用于过滤发给其他节点的排队消息）
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 获取传给脚本的排队节点id
+     *
+     * @return 排队节点id（不使用排队模式时返回空字符串）
+     */
+    public String getQueueNodeId() {
+        return enabled ? nodeId : "";
+    }
+
+    /**
+     * 获取票据有效期
+     *
+     * @return 票据有效期（毫秒）
+     */
+    public long getTicketTime() {
+        return ticketTime;
+    }
+
+    /**
+     * 限制需等待的时间（排队模式下等待期间需在票据过期前重试以刷新票据，所以最多等待半个票据有效期）
+     *
+     * @param waitTime 需等待的时间（毫秒；null表示无需等待）
+     * @return 限制后的需等待的时间
+     */
+    public Long limitWaitTime(Long waitTime) {
+        long maxWaitTime = Math.max(ticketTime / 2, 1);
+        if (waitTime == null || !enabled || waitTime <= maxWaitTime) {
+            return waitTime;
+        }
+        return maxWaitTime;
+    }
+}
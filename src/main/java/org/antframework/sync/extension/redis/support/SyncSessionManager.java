@@ -0,0 +1,232 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 17:04 创建
+ */
+package org.antframework.sync.extension.redis.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.antframework.sync.common.DefaultIdGenerator;
+import org.antframework.sync.extension.redis.extension.RedisExecutor;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sync会话管理器
+ * <p>
+ * 会话模式下每个redis服务端有一个会话，会话在redis中对应一个有效期很短的会话key，由心跳定期刷新。持有者id带上会话id（格式为@${sessionId}@${id}），
+ * 加锁、获取许可的脚本遇到其他持有者时检查其会话key是否存在，不存在（节点已宕机）则视为已释放，无需等到锁、信号量在redis中过期。
+ * 节点宕机后的恢复时间由会话的有效期决定，锁、信号量本身的存活时间可以设置得很长，续期流量随之大幅降低，心跳只刷新会话key。
+ * <p>
+ * 脚本只能访问与锁、信号量在同一个槽中的key，所以会话key通过hash标签放在用到的每个槽中（非集群时只有一个会话key），心跳只刷新用到的槽的会话key。
+ */
+@Slf4j
+public class SyncSessionManager {
+    // 会话key的前缀
+    private static final String SESSION_KEY_PREFIX = "#sync-session-";
+    // 持有者id中会话id的分隔符
+    private static final String SESSION_SEPARATOR = "@";
+    // 源刷新脚本
+    private static final NamedScript REFRESH_SCRIPT_SOURCE = NamedScript.load("META-INF/server/redis/session/Session-refresh.lua");
+    // 源关闭脚本
+    private static final NamedScript CLOSE_SCRIPT_SOURCE = NamedScript.load("META-INF/server/redis/session/Session-close.lua");
+
+    // redis执行器
+    private final RedisExecutor redisExecutor;
+    // 会话有效期（毫秒；0表示不使用会话模式）
+    private final long sessionTime;
+    // 会话id
+    private final String sessionId;
+    // 持有者id的前缀
+    private final String holderIdPrefix;
+    // 刷新间隔（毫秒）
+    private final long refreshInterval;
+    // 刷新失败后的重试间隔（毫秒）
+    private final long retryInterval;
+    // 槽与会话key前缀的对应关系（会话key前缀带有落在该槽的hash标签）
+    private final Map<Integer, String> slotSessionKeyPrefixes = new ConcurrentHashMap<>();
+    // 下次刷新时间
+    private volatile long nextRefreshTime = Long.MAX_VALUE;
+    // 是否正在刷新
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    // 是否已关闭
+    private volatile boolean closed = false;
+    // 刷新脚本
+    private final Object refreshScript;
+    // 关闭脚本
+    private final Object closeScript;
+
+    public SyncSessionManager(RedisExecutor redisExecutor, long sessionTime) {
+        this.redisExecutor = redisExecutor;
+        this.sessionTime = sessionTime;
+        this.sessionId = new DefaultIdGenerator().get();
+        this.holderIdPrefix = SESSION_SEPARATOR + sessionId + SESSION_SEPARATOR;
+        this.refreshInterval = Math.max(sessionTime / 3, 1);
+        this.retryInterval = Math.max(sessionTime / 10, 1);
+        this.refreshScript = redisExecutor.encodeScript(REFRESH_SCRIPT_SOURCE.getName(), REFRESH_SCRIPT_SOURCE.getSource(), Long.class);
+        this.closeScript = redisExecutor.encodeScript(CLOSE_SCRIPT_SOURCE.getName(), CLOSE_SCRIPT_SOURCE.getSource(), Long.class);
+    }
+
+    /**
+     * 是否使用会话模式
+     */
+    public boolean isEnabled() {
+        return sessionTime > 0;
+    }
+
+    /**
+     * 获取会话有效期
+     *
+     * @return 会话有效期（毫秒；0表示不使用会话模式）
+     */
+    public long getSessionTime() {
+        return sessionTime;
+    }
+
+    /**
+     * 转换为在redis中的持有者id
+     *
+     * @param id 持有者id
+     * @return 在redis中的持有者id（会话模式下带上会话id）
+     */
+    public String toHolderId(String id) {
+        if (!isEnabled()) {
+            return id;
+        }
+        return holderIdPrefix + id;
+    }
+
+    /**
+     * 获取会话key前缀（会话key为前缀加上会话id；会话模式下同时保证本会话在redis的key所在槽中的会话key已存在）
+     *
+     * @param redisKey 锁、信号量在redis中的key
+     * @return 会话key前缀（不使用会话模式时返回空字符串）
+     */
+    public String getSessionKeyPrefix(String redisKey) {
+        if (!isEnabled()) {
+            return "";
+        }
+        int slot = redisExecutor.computeSlot(redisKey);
+        String sessionKeyPrefix = slotSessionKeyPrefixes.get(slot);
+        if (sessionKeyPrefix == null) {
+            sessionKeyPrefix = slotSessionKeyPrefixes.computeIfAbsent(slot, k -> {
+                String prefix = SESSION_KEY_PREFIX + '{' + computeSlotTag(k) + '}' + SESSION_SEPARATOR;
+                redisExecutor.eval(refreshScript, Collections.singletonList(prefix + sessionId), Collections.singletonList(sessionTime));
+                return prefix;
+            });
+            if (nextRefreshTime == Long.MAX_VALUE) {
+                nextRefreshTime = System.currentTimeMillis() + refreshInterval;
+            }
+        }
+        return sessionKeyPrefix;
+    }
+
+    /**
+     * 限制需等待的时间（会话模式下持有者可能因会话失效而被视为已释放，且不会发送同步消息，所以最多等待一个会话有效期就需重试）
+     *
+     * @param waitTime 需等待的时间（毫秒；null表示无需等待）
+     * @return 限制后的需等待的时间
+     */
+    public Long limitWaitTime(Long waitTime) {
+        if (waitTime == null || !isEnabled() || waitTime <= sessionTime) {
+            return waitTime;
+        }
+        return sessionTime;
+    }
+
+    /**
+     * 获取下次需要刷新的时间
+     *
+     * @return 下次需要刷新的时间（无需刷新时返回Long.MAX_VALUE）
+     */
+    public long getNextRefreshTime() {
+        return nextRefreshTime;
+    }
+
+    /**
+     * 刷新（已到刷新时间时向执行器提交一个任务刷新所有用到的槽的会话key，不在调用线程中访问redis，以免耽误租约的续期；
+     * 上一次刷新还未结束时不重复提交，执行器拒绝时稍后重试）
+     *
+     * @param executor 执行器
+     */
+    public void refresh(Executor executor) {
+        long currentTime = System.currentTimeMillis();
+        if (nextRefreshTime > currentTime || !refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        // 刷新结束前按重试间隔检查，刷新结束后再按刷新结果安排下次刷新时间
+        nextRefreshTime = currentTime + retryInterval;
+        try {
+            executor.execute(() -> {
+                try {
+                    doRefresh(currentTime);
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.set(false);
+            log.warn("维护执行器繁忙，会话将稍后重试刷新");
+        }
+    }
+
+    // 刷新所有用到的槽的会话key
+    private void doRefresh(long refreshTime) {
+        boolean success = true;
+        for (String sessionKeyPrefix : slotSessionKeyPrefixes.values()) {
+            if (closed) {
+                return;
+            }
+            String sessionKey = sessionKeyPrefix + sessionId;
+            try {
+                long alive = redisExecutor.eval(refreshScript, Collections.singletonList(sessionKey), Collections.singletonList(sessionTime));
+                if (alive == 1) {
+                    log.debug("调用redis刷新会话成功：sessionKey={}", sessionKey);
+                } else {
+                    log.error("调用redis刷新会话时会话已过期（已重新创建），本节点持有的锁、信号量可能已被其他节点获取，可能已经发生并发问题：sessionKey={}", sessionKey);
+                }
+            } catch (Throwable e) {
+                log.error("调用redis刷新会话出错：sessionKey={}", sessionKey, e);
+                success = false;
+            }
+        }
+        if (!closed) {
+            nextRefreshTime = refreshTime + (success ? refreshInterval : retryInterval);
+        }
+    }
+
+    /**
+     * 关闭（删除所有槽的会话key，未释放的持有立即被其他节点视为已释放；之后不再刷新）
+     */
+    public void close() {
+        closed = true;
+        nextRefreshTime = Long.MAX_VALUE;
+        for (String sessionKeyPrefix : slotSessionKeyPrefixes.values()) {
+            String sessionKey = sessionKeyPrefix + sessionId;
+            try {
+                redisExecutor.eval(closeScript, Collections.singletonList(sessionKey), Collections.emptyList());
+            } catch (Throwable e) {
+                log.error("调用redis关闭会话出错：sessionKey={}", sessionKey, e);
+            }
+        }
+        slotSessionKeyPrefixes.clear();
+    }
+
+    // 计算落在指定槽的hash标签（非集群时所有key都在槽0，第一个标签即可）
+    private String computeSlotTag(int slot) {
+        for (int i = 0; ; i++) {
+            String tag = Integer.toString(i, Character.MAX_RADIX);
+            if (redisExecutor.computeSlot('{' + tag + '}') == slot) {
+                return tag;
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 17:57 创建
+ */
+package org.antframework.sync.extension.redis.support;
+
+import org.antframework.sync.extension.redis.extension.RedisExecutor;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Sync等待者管理器
+ * <p>
+ * 在互斥锁、信号量的hash中统计有等待者的节点数量：节点内的key从无等待者变为有等待者时登记，从有变为无时注销，
+ * 节点内的所有等待者只算一个。每个节点一项（waiter-${nodeId}: ${登记次数}|${有效期}；共用一个服务端的多个Sync上下文多次登记只增加登记次数），
+ * 节点数量缓存在waiters中，和readerAmount一样带有存活时间（waitersDeadline），到期后重新统计并删除已过期的节点。
+ * 登记新节点时已达到上限则拒绝。节点的有效期只在登记、注销时刷新，宕机节点最多被统计一个存活时间；
+ * 持续有等待者超过存活时间的节点也会不再被统计，直到其下次登记。
+ */
+public class SyncWaiterManager {
+    // 源新增等待者脚本
+    private static final NamedScript ADD_SCRIPT_SOURCE = NamedScript.load("META-INF/server/redis/sync-waiter/SyncWaiter-add.lua");
+    // 源删除等待者脚本
+    private static final NamedScript REMOVE_SCRIPT_SOURCE = NamedScript.load("META-INF/server/redis/sync-waiter/SyncWaiter-remove.lua");
+
+    // redis执行器
+    private final RedisExecutor redisExecutor;
+    // 节点id
+    private final String nodeId;
+    // 等待者的有效期（毫秒）
+    private final long waiterTime;
+    // 新增等待者脚本
+    private final Object addScript;
+    // 删除等待者脚本
+    private final Object removeScript;
+
+    public SyncWaiterManager(RedisExecutor redisExecutor, String nodeId, long waiterTime) {
+        this.redisExecutor = redisExecutor;
+        this.nodeId = nodeId;
+        this.waiterTime = waiterTime;
+        this.addScript = redisExecutor.encodeScript(ADD_SCRIPT_SOURCE.getName(), ADD_SCRIPT_SOURCE.getSource(), Long.class);
+        this.removeScript = redisExecutor.encodeScript(REMOVE_SCRIPT_SOURCE.getName(), REMOVE_SCRIPT_SOURCE.getSource(), Long.class);
+    }
+
+    /**
+     * 登记本节点的等待者（节点内的key从无等待者变为有等待者时调用）
+     *
+     * @param redisKey   互斥锁、信号量在redis中的key
+     * @param maxWaiters 最多有等待者的节点数量
+     * @return true 登记成功；false 有等待者的节点数量已达上限
+     */
+    public boolean addWaiter(String redisKey, int maxWaiters) {
+        long result = redisExecutor.eval(
+                addScript,
+                Collections.singletonList(redisKey),
+                Arrays.asList(nodeId, maxWaiters, System.currentTimeMillis(), waiterTime));
+        return result == 1;
+    }
+
+    /**
+     * 注销本节点的等待者（节点内的key从有等待者变为无等待者时调用）
+     *
+     * @param redisKey 互斥锁、信号量在redis中的key
+     */
+    public void removeWaiter(String redisKey) {
+        redisExecutor.eval(
+                removeScript,
+                Collections.singletonList(redisKey),
+                Arrays.asList(nodeId, System.currentTimeMillis(), waiterTime));
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 16:26 创建
+ */
+package org.antframework.sync.lock;
+
+/**
+ * 异步获取的锁的持有凭证
+ * <p>
+ * 锁归属于凭证而不是线程，可以在任意线程中解锁；不可重入。
+ */
+public interface AsyncLockHandle {
+    /**
+     * 获取锁标识
+     *
+     * @return 锁标识
+     */
+    String getKey();
+
+    /**
+     * 解锁（重复解锁不做任何处理）
+     */
+    void unlock();
+}
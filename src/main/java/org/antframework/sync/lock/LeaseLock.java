@@ -0,0 +1,30 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 16:56 创建
+ */
+package org.antframework.sync.lock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * 可延长租期的锁
+ * <p>
+ * 以租期模式加锁时，锁在服务端只保持租期的时长，服务端不维护（不续期），到期自动解锁；持有时间可能超过租期时需调用extendLease延长租期。
+ * 租期只作用于服务端（防止持有者所在节点宕机或卡死时锁长时间不可用），本节点内的其他线程仍需等待持有者解锁。
+ * 以非租期模式加锁时，锁由服务端维护直到解锁，无需延长租期。
+ */
+public interface LeaseLock extends Lock {
+    /**
+     * 延长租期（从现在开始重新计算；非租期模式的锁由服务端维护，持有期间直接返回true）
+     *
+     * @param leaseTime 租期
+     * @param unit      时间单位
+     * @return true 延长成功；false 延长失败（未持有锁或锁已过期）
+     */
+    boolean extendLease(long leaseTime, TimeUnit unit);
+}
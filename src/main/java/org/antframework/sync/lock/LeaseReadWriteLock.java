@@ -0,0 +1,22 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 16:56 创建
+ */
+package org.antframework.sync.lock;
+
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * 可延长租期的读写锁
+ */
+public interface LeaseReadWriteLock extends ReadWriteLock {
+    @Override
+    LeaseLock readLock();
+
+    @Override
+    LeaseLock writeLock();
+}
@@ -8,32 +8,46 @@
  */
 package org.antframework.sync.lock;
 
+import org.antframework.sync.SyncOptions;
+import org.antframework.sync.common.AsyncAcquisition;
+import org.antframework.sync.common.HandleTable;
 import org.antframework.sync.common.SyncExecutor;
-import org.antframework.sync.common.SyncUtils;
+import org.antframework.sync.common.SyncWaiter;
 import org.antframework.sync.extension.Server;
+import org.antframework.sync.lock.core.ServerAsyncLockHandle;
 import org.antframework.sync.lock.core.ServerReentrantMutexLock;
 import org.antframework.sync.lock.core.ServerReentrantRWLock;
+import org.antframework.sync.lock.support.LockDestroyer;
 import org.antframework.sync.lock.support.MutexLockServer;
 import org.antframework.sync.lock.support.RWLockServer;
+import org.antframework.sync.metrics.SyncMetrics;
 
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * 锁上下文
  */
 public class LockContext {
-    // 锁持有器
-    private final ThreadLocal<Map<String, Lock>> mutexLocks = ThreadLocal.withInitial(WeakHashMap::new);
-    // 读写锁持有器
-    private final ThreadLocal<Map<String, ReadWriteLock>> rwLocks = ThreadLocal.withInitial(WeakHashMap::new);
+    // 锁持有器（每个线程一个弱引用锁的凭证表，未持有的锁在凭证表满时被淘汰）
+    private final ThreadLocal<HandleTable<ServerReentrantMutexLock>> mutexLocks;
+    // 读写锁持有器（每个线程一个弱引用读写锁的凭证表，未持有的读写锁在凭证表满时被淘汰）
+    private final ThreadLocal<HandleTable<ServerReentrantRWLock>> rwLocks;
     // key转换器
     private final Function<Object, String> keyConverter;
     // Sync执行器
     private final SyncExecutor syncExecutor;
+    // id生成器
+    private final Supplier<String> idGenerator;
+    // 指标收集器
+    private final SyncMetrics metrics;
     // 互斥锁服务端
     private final MutexLockServer mutexLockServer;
     // 读写锁服务端
@@ -42,31 +56,205 @@ public class LockContext {
     public LockContext(Function<Object, String> keyConverter,
                        SyncExecutor syncExecutor,
                        Server server,
-                       long maxWaitTime) {
+                       long maxWaitTime,
+                       SyncMetrics metrics) {
+        this(keyConverter, syncExecutor, server, toOptions(maxWaitTime), metrics);
+    }
+
+    public LockContext(Function<Object, String> keyConverter,
+                       SyncExecutor syncExecutor,
+                       Server server,
+                       SyncOptions options,
+                       SyncMetrics metrics) {
         this.keyConverter = keyConverter;
         this.syncExecutor = syncExecutor;
-        this.mutexLockServer = new MutexLockServer(server, maxWaitTime);
-        this.rwLockServer = new RWLockServer(server, maxWaitTime);
+        this.idGenerator = options.getIdGenerator();
+        this.metrics = metrics;
+        this.mutexLockServer = new MutexLockServer(server, syncExecutor, options, metrics);
+        this.rwLockServer = new RWLockServer(server, syncExecutor, options, metrics);
+        int handleTableSize = options.getHandleTableSize();
+        this.mutexLocks = ThreadLocal.withInitial(() -> new HandleTable<>(handleTableSize, lock -> lock.getLockedTimes() > 0));
+        this.rwLocks = ThreadLocal.withInitial(() -> new HandleTable<>(handleTableSize, ServerReentrantRWLock::isLocked));
     }
 
     /**
      * 获取可重入互斥锁
+     * <p>
+     * 加锁后需一直引用返回的锁直到解锁：持有中就不再被引用的锁会被当作泄漏，被回收后强制解锁。
      *
      * @param key 锁标识
      * @return 可重入互斥锁
      */
     public Lock getLock(Object key) {
-        return mutexLocks.get().computeIfAbsent(convertKey(key), k -> new ServerReentrantMutexLock(k, SyncUtils.newId(), syncExecutor, mutexLockServer));
+        return getMutexLock(convertKey(key), 0);
+    }
+
+    /**
+     * 获取租期模式的可重入互斥锁（锁在服务端只保持租期的时长，不自动续期，适用于很短的临界区）
+     * <p>
+     * 同一线程对同一锁标识获取到的是同一个锁：已持有锁时返回持有中的锁（租期模式以最外层的加锁为准）。
+     *
+     * @param key       锁标识
+     * @param leaseTime 租期
+     * @param unit      时间单位
+     * @return 可重入互斥锁
+     */
+    public LeaseLock getLock(Object key, long leaseTime, TimeUnit unit) {
+        return getMutexLock(convertKey(key), toLeaseTime(leaseTime, unit));
     }
 
     /**
      * 获取可重入读写锁
+     * <p>
+     * 加锁后需一直引用返回的读写锁直到解锁：持有中就不再被引用的读写锁会被当作泄漏，被回收后强制解锁。
      *
      * @param key 锁标识
      * @return 可重入读写锁
      */
     public ReadWriteLock getRWLock(Object key) {
-        return rwLocks.get().computeIfAbsent(convertKey(key), k -> new ServerReentrantRWLock(k, SyncUtils.newId(), syncExecutor, rwLockServer));
+        return getRWLock(convertKey(key), 0);
+    }
+
+    /**
+     * 获取租期模式的可重入读写锁（锁在服务端只保持租期的时长，不自动续期，适用于很短的临界区）
+     * <p>
+     * 同一线程对同一锁标识获取到的是同一个读写锁：已持有读锁或写锁时返回持有中的读写锁（租期模式以最外层的加锁为准）。
+     *
+     * @param key       锁标识
+     * @param leaseTime 租期
+     * @param unit      时间单位
+     * @return 可重入读写锁
+     */
+    public LeaseReadWriteLock getRWLock(Object key, long leaseTime, TimeUnit unit) {
+        return getRWLock(convertKey(key), toLeaseTime(leaseTime, unit));
+    }
+
+    // 获取可重入互斥锁（leaseTime：租期，0表示由服务端维护；未持有的锁的租期不同时替换）
+    private ServerReentrantMutexLock getMutexLock(String key, long leaseTime) {
+        HandleTable<ServerReentrantMutexLock> table = mutexLocks.get();
+        ServerReentrantMutexLock lock = table.get(key);
+        if (lock == null || (lock.getLeaseTime() != leaseTime && lock.getLockedTimes() <= 0)) {
+            lock = new ServerReentrantMutexLock(key, idGenerator.get(), leaseTime, syncExecutor, mutexLockServer, metrics);
+            table.put(key, lock);
+        }
+        return lock;
+    }
+
+    // 获取可重入读写锁（leaseTime：租期，0表示由服务端维护；未持有的读写锁的租期不同时替换）
+    private ServerReentrantRWLock getRWLock(String key, long leaseTime) {
+        HandleTable<ServerReentrantRWLock> table = rwLocks.get();
+        ServerReentrantRWLock rwLock = table.get(key);
+        if (rwLock == null || (rwLock.getLeaseTime() != leaseTime && !rwLock.isLocked())) {
+            rwLock = new ServerReentrantRWLock(key, idGenerator.get(), leaseTime, syncExecutor, rwLockServer, metrics);
+            table.put(key, rwLock);
+        }
+        return rwLock;
+    }
+
+    /**
+     * 异步加互斥锁（不阻塞线程；锁归属于返回的凭证而不是线程，不可重入）
+     *
+     * @param key     锁标识
+     * @param timeout 超时时间
+     * @param unit    时间单位
+     * @return 加锁成功时完成为锁的凭证；超时时完成为null
+     */
+    public CompletableFuture<AsyncLockHandle> tryLockAsync(Object key, long timeout, TimeUnit unit) {
+        return lockAsync(
+                convertKey(key),
+                timeout,
+                unit,
+                SyncMetrics.MUTEX_LOCK,
+                mutexLockServer::lock,
+                mutexLockServer::unlock,
+                mutexLockServer.getLeakedUnlocker(),
+                mutexLockServer::removeWaiter);
+    }
+
+    /**
+     * 异步加读锁（不阻塞线程；锁归属于返回的凭证而不是线程，不可重入）
+     *
+     * @param key     锁标识
+     * @param timeout 超时时间
+     * @param unit    时间单位
+     * @return 加锁成功时完成为锁的凭证；超时时完成为null
+     */
+    public CompletableFuture<AsyncLockHandle> tryReadLockAsync(Object key, long timeout, TimeUnit unit) {
+        return lockAsync(
+                convertKey(key),
+                timeout,
+                unit,
+                SyncMetrics.READ_LOCK,
+                rwLockServer::lockForRead,
+                rwLockServer::unlockForRead,
+                rwLockServer.getLeakedReadUnlocker(),
+                rwLockServer::removeReaderWaiter);
+    }
+
+    /**
+     * 异步加写锁（不阻塞线程；锁归属于返回的凭证而不是线程，不可重入）
+     *
+     * @param key     锁标识
+     * @param timeout 超时时间
+     * @param unit    时间单位
+     * @return 加锁成功时完成为锁的凭证；超时时完成为null
+     */
+    public CompletableFuture<AsyncLockHandle> tryWriteLockAsync(Object key, long timeout, TimeUnit unit) {
+        return lockAsync(
+                convertKey(key),
+                timeout,
+                unit,
+                SyncMetrics.WRITE_LOCK,
+                rwLockServer::lockForWrite,
+                rwLockServer::unlockForWrite,
+                rwLockServer.getLeakedWriteUnlocker(),
+                rwLockServer::removeWriterWaiter);
+    }
+
+    // 异步加锁
+    private CompletableFuture<AsyncLockHandle> lockAsync(String key,
+                                                         long timeout,
+                                                         TimeUnit unit,
+                                                         String metricsType,
+                                                         ServerLocker locker,
+                                                         BiConsumer<String, String> unlocker,
+                                                         Consumer<List<LockDestroyer>> leakedUnlocker,
+                                                         BiConsumer<String, String> waiterRemover) {
+        String lockerId = idGenerator.get();
+        long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+        return new AsyncAcquisition<AsyncLockHandle>(
+                syncExecutor,
+                d -> locker.lock(key, lockerId, d),
+                () -> waiterRemover.accept(key, lockerId),
+                () -> new ServerAsyncLockHandle(key, lockerId, unlocker, leakedUnlocker, metricsType, syncExecutor, metrics),
+                AsyncLockHandle::unlock,
+                deadline,
+                metricsType,
+                key,
+                metrics).start();
+    }
+
+    // 服务端加锁器
+    @FunctionalInterface
+    private interface ServerLocker {
+        // 加锁（返回null表示加锁成功；否则失败）
+        SyncWaiter lock(String key, String lockerId, long deadline);
+    }
+
+    // 转换为选项
+    private static SyncOptions toOptions(long maxWaitTime) {
+        SyncOptions options = new SyncOptions();
+        options.setMaxWaitTime(maxWaitTime);
+        return options;
+    }
+
+    // 转换租期（毫秒）
+    private static long toLeaseTime(long leaseTime, TimeUnit unit) {
+        long leaseMillis = unit.toMillis(leaseTime);
+        if (leaseMillis <= 0) {
+            throw new IllegalArgumentException(String.format("租期[%d %s]必须大于0毫秒", leaseTime, unit));
+        }
+        return leaseMillis;
     }
 
     // 转换key
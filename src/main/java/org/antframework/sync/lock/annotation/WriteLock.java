@@ -36,4 +36,17 @@ public @interface WriteLock {
      * 负数表示永远等待，直到加锁成功；0表示直接加锁，加锁失败则立即抛异常；正数表示加锁的最长等待时间，超过时间则抛异常。
      */
     long timeout() default -1;
+
+    /**
+     * 租期（毫秒）
+     * 负数表示由服务端维护，直到解锁；正数表示锁在服务端只保持租期的时长，服务端不维护（不续期），到期自动解锁，适用于很短的临界区。
+     * 持有时间可能超过租期时，可在方法内通过LockContext.getRWLock(key, leaseTime, unit)获取到持有中的锁并调用extendLease延长租期。响应式方法不支持租期模式。
+     */
+    long leaseTime() default -1;
+
+    /**
+     * 本地最多的等待者数量
+     * 负数表示使用SyncOptions.maxWaiters；0表示不限制；正数表示需等待时如果本地等待同一个key的线程已达到该数量，则立即抛出WaitersExceededException。响应式方法不支持指定该值。
+     */
+    int maxWaiters() default -1;
 }
@@ -10,34 +10,44 @@ package org.antframework.sync.lock.annotation.support;
 
 import lombok.AllArgsConstructor;
 import org.antframework.sync.common.ExpressionEvaluator;
+import org.antframework.sync.common.WaiterLimit;
+import org.antframework.sync.lock.AsyncLockHandle;
 import org.antframework.sync.lock.LockContext;
 import org.antframework.sync.lock.annotation.ReadLock;
 import org.antframework.sync.lock.annotation.WriteLock;
-import org.apache.commons.lang3.StringUtils;
+import org.antframework.sync.reactive.ReactiveSupport;
 import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.Signature;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.reflect.MethodSignature;
-import org.springframework.aop.framework.AopProxyUtils;
-import org.springframework.context.expression.AnnotatedElementKey;
 import org.springframework.core.Ordered;
 import org.springframework.expression.EvaluationContext;
+import org.springframework.util.ClassUtils;
 
 import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.Lock;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 
 /**
  * 锁切面
+ * <p>
+ * 方法的返回类型为Mono或Flux（存在reactor）时，不阻塞线程地异步加锁，在Mono或Flux完成、出错、被取消时解锁。
  */
 @Aspect
 @AllArgsConstructor
 public class LockAop implements Ordered {
-    // 锁表达式计算器
-    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+    // 是否存在reactor
+    private static final boolean REACTOR_PRESENT = ClassUtils.isPresent("reactor.core.publisher.Mono", LockAop.class.getClassLoader());
+
+    // @Lock表达式计算器
+    private final ExpressionEvaluator lockEvaluator = new ExpressionEvaluator();
+    // @ReadLock表达式计算器
+    private final ExpressionEvaluator readLockEvaluator = new ExpressionEvaluator();
+    // @WriteLock表达式计算器
+    private final ExpressionEvaluator writeLockEvaluator = new ExpressionEvaluator();
     // 锁上下文
     private final LockContext lockContext;
     // 优先级
@@ -48,10 +58,12 @@ public class LockAop implements Ordered {
     public Object lock(ProceedingJoinPoint pjp, org.antframework.sync.lock.annotation.Lock lockAnnotation) throws Throwable {
         return doAop(
                 pjp,
-                lockAnnotation.condition(),
-                lockAnnotation.key(),
+                lockEvaluator.getPlan(pjp, lockAnnotation, lockAnnotation.condition(), lockAnnotation.key()),
                 lockAnnotation.timeout(),
-                lockContext::getLock,
+                lockAnnotation.leaseTime(),
+                lockAnnotation.maxWaiters(),
+                lockAnnotation.leaseTime() < 0 ? lockContext::getLock : key -> lockContext.getLock(key, lockAnnotation.leaseTime(), TimeUnit.MILLISECONDS),
+                (key, timeout) -> lockContext.tryLockAsync(key, timeout, TimeUnit.MILLISECONDS),
                 lockAnnotation);
     }
 
@@ -60,10 +72,14 @@ public class LockAop implements Ordered {
     public Object readLock(ProceedingJoinPoint pjp, ReadLock readLockAnnotation) throws Throwable {
         return doAop(
                 pjp,
-                readLockAnnotation.condition(),
-                readLockAnnotation.key(),
+                readLockEvaluator.getPlan(pjp, readLockAnnotation, readLockAnnotation.condition(), readLockAnnotation.key()),
                 readLockAnnotation.timeout(),
-                key -> lockContext.getRWLock(key).readLock(),
+                readLockAnnotation.leaseTime(),
+                readLockAnnotation.maxWaiters(),
+                readLockAnnotation.leaseTime() < 0
+                        ? key -> lockContext.getRWLock(key).readLock()
+                        : key -> lockContext.getRWLock(key, readLockAnnotation.leaseTime(), TimeUnit.MILLISECONDS).readLock(),
+                (key, timeout) -> lockContext.tryReadLockAsync(key, timeout, TimeUnit.MILLISECONDS),
                 readLockAnnotation);
     }
 
@@ -72,48 +88,72 @@ public class LockAop implements Ordered {
     public Object writeLock(ProceedingJoinPoint pjp, WriteLock writeLockAnnotation) throws Throwable {
         return doAop(
                 pjp,
-                writeLockAnnotation.condition(),
-                writeLockAnnotation.key(),
+                writeLockEvaluator.getPlan(pjp, writeLockAnnotation, writeLockAnnotation.condition(), writeLockAnnotation.key()),
                 writeLockAnnotation.timeout(),
-                key -> lockContext.getRWLock(key).writeLock(),
+                writeLockAnnotation.leaseTime(),
+                writeLockAnnotation.maxWaiters(),
+                writeLockAnnotation.leaseTime() < 0
+                        ? key -> lockContext.getRWLock(key).writeLock()
+                        : key -> lockContext.getRWLock(key, writeLockAnnotation.leaseTime(), TimeUnit.MILLISECONDS).writeLock(),
+                (key, timeout) -> lockContext.tryWriteLockAsync(key, timeout, TimeUnit.MILLISECONDS),
                 writeLockAnnotation);
     }
 
     // 执行aop
     private Object doAop(ProceedingJoinPoint pjp,
-                         String conditionExpression,
-                         String keyExpression,
+                         ExpressionEvaluator.InvocationPlan plan,
                          long timeout,
+                         long leaseTime,
+                         int maxWaiters,
                          Function<Object, Lock> lockFunction,
+                         BiFunction<Object, Long, CompletableFuture<AsyncLockHandle>> asyncLockFunction,
                          Object annotation) throws Throwable {
         // 准备数据
-        Class<?> targetClass = AopProxyUtils.ultimateTargetClass(pjp.getThis());
-        Method method = getMethod(pjp, annotation);
-        EvaluationContext evalContext = evaluator.getEvalContext(
-                targetClass,
-                pjp.getThis(),
-                method,
-                pjp.getArgs());
-        AnnotatedElementKey methodKey = new AnnotatedElementKey(method, targetClass);
+        Method method = plan.getMethod();
+        Object[] args = pjp.getArgs();
+        EvaluationContext evalContext = plan.isEvalContextRequired() ? plan.newEvalContext(pjp.getThis(), args) : null;
         // 计算加锁条件
-        if (StringUtils.isNotEmpty(conditionExpression)) {
-            boolean condition = evaluator.evalCondition(conditionExpression, evalContext, methodKey);
-            if (!condition) {
-                return pjp.proceed();
-            }
+        if (!plan.evalCondition(evalContext)) {
+            return pjp.proceed();
         }
         // 计算key
-        Object key = evaluator.evalKey(keyExpression, evalContext, methodKey);
+        Object key = plan.evalKey(evalContext, args);
+        if (REACTOR_PRESENT && ReactiveSupport.isReactiveType(method.getReturnType())) {
+            if (leaseTime >= 0) {
+                throw new IllegalArgumentException(String.format("响应式方法不支持租期模式：method=%s,锁注解=%s", method, annotation));
+            }
+            if (maxWaiters >= 0) {
+                throw new IllegalArgumentException(String.format("响应式方法不支持指定maxWaiters：method=%s,锁注解=%s", method, annotation));
+            }
+            // 异步加锁
+            return ReactiveSupport.proceed(
+                    ReactiveSupport.acquire(
+                            t -> asyncLockFunction.apply(key, t),
+                            timeout,
+                            AsyncLockHandle::unlock,
+                            () -> new TimeoutException(String.format("加锁失败：method=%s,锁注解=%s,key=%s", method, annotation, key)),
+                            AsyncLockHandle.class),
+                    pjp,
+                    method.getReturnType(),
+                    AsyncLockHandle::unlock);
+        }
         // 获取锁
         Lock lock = lockFunction.apply(key);
-        if (timeout < 0) {
-            // 无限等待加锁
-            lock.lock();
-        } else {
-            // 指定超时时间加锁
-            boolean success = lock.tryLock(timeout, TimeUnit.MILLISECONDS);
-            if (!success) {
-                throw new TimeoutException(String.format("加锁失败：method=%s,锁注解=%s,key=%s", method, annotation, key));
+        Integer previousMaxWaiters = maxWaiters >= 0 ? WaiterLimit.set(maxWaiters) : null;
+        try {
+            if (timeout < 0) {
+                // 无限等待加锁
+                lock.lock();
+            } else {
+                // 指定超时时间加锁
+                boolean success = lock.tryLock(timeout, TimeUnit.MILLISECONDS);
+                if (!success) {
+                    throw new TimeoutException(String.format("加锁失败：method=%s,锁注解=%s,key=%s", method, annotation, key));
+                }
+            }
+        } finally {
+            if (maxWaiters >= 0) {
+                WaiterLimit.restore(previousMaxWaiters);
             }
         }
         try {
@@ -124,15 +164,6 @@ public class LockAop implements Ordered {
         }
     }
 
-    // 获取方法
-    private Method getMethod(ProceedingJoinPoint pjp, Object annotation) {
-        Signature signature = pjp.getSignature();
-        if (!(signature instanceof MethodSignature)) {
-            throw new UnsupportedOperationException(String.format("注解[%s]只能在方法上使用", annotation));
-        }
-        return ((MethodSignature) signature).getMethod();
-    }
-
     @Override
     public int getOrder() {
         return order;
@@ -8,12 +8,14 @@
  */
 package org.antframework.sync.lock.core;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.antframework.sync.common.SyncWaiter;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 抽象可重入锁
@@ -22,6 +24,9 @@ import java.util.concurrent.locks.Lock;
 public abstract class AbstractReentrantLock implements Lock {
     // 被加锁的次数
     private int lockedTimes = 0;
+    // 监视锁（加解锁时会访问服务端，不使用synchronized以免虚拟线程在网络I/O期间钉住载体线程）
+    @Getter(AccessLevel.NONE)
+    private final ReentrantLock monitor = new ReentrantLock();
 
     @Override
     public void lock() {
@@ -51,29 +56,53 @@ public abstract class AbstractReentrantLock implements Lock {
 
     @Override
     public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        long startTime = System.nanoTime();
         long deadline = System.currentTimeMillis() + unit.toMillis(time);
-        SyncWaiter waiter = acquireLock(deadline);
-        while (waiter != null) {
-            long timeout = deadline - System.currentTimeMillis();
-            if (timeout <= 0) {
-                return false;
+        int retries = 0;
+        boolean success = false;
+        try {
+            SyncWaiter waiter = acquireLock(deadline);
+            while (waiter != null) {
+                long timeout = deadline - System.currentTimeMillis();
+                if (timeout <= 0) {
+                    return false;
+                }
+                waiter.waitSync(timeout);
+                retries++;
+                waiter = acquireLock(deadline);
             }
-            waiter.waitSync(timeout);
-            waiter = acquireLock(deadline);
+            success = true;
+            return true;
+        } finally {
+            afterTryLock(success, System.nanoTime() - startTime, retries);
         }
-        return true;
+    }
+
+    /**
+     * 当tryLock方法执行结束后执行（默认不做任何处理）
+     *
+     * @param success 是否加锁成功
+     * @param time    耗时（纳秒）
+     * @param retries 重试次数
+     */
+    protected void afterTryLock(boolean success, long time, int retries) {
     }
 
     // 尝试获取锁（返回null表示加锁成功；否则失败）
-    private synchronized SyncWaiter acquireLock(long deadline) {
-        SyncWaiter waiter = null;
-        if (lockedTimes <= 0) {
-            waiter = doAcquireLock(deadline);
-        }
-        if (waiter == null) {
-            lockedTimes++;
+    private SyncWaiter acquireLock(long deadline) {
+        monitor.lock();
+        try {
+            SyncWaiter waiter = null;
+            if (lockedTimes <= 0) {
+                waiter = doAcquireLock(deadline);
+            }
+            if (waiter == null) {
+                lockedTimes++;
+            }
+            return waiter;
+        } finally {
+            monitor.unlock();
         }
-        return waiter;
     }
 
     /**
@@ -90,12 +119,17 @@ public abstract class AbstractReentrantLock implements Lock {
     }
 
     // 尝试释放锁
-    private synchronized void releaseLock() {
-        if (lockedTimes > 0) {
-            lockedTimes--;
-            if (lockedTimes <= 0) {
-                doReleaseLock();
+    private void releaseLock() {
+        monitor.lock();
+        try {
+            if (lockedTimes > 0) {
+                lockedTimes--;
+                if (lockedTimes <= 0) {
+                    doReleaseLock();
+                }
             }
+        } finally {
+            monitor.unlock();
         }
     }
 
@@ -8,30 +8,50 @@
  */
 package org.antframework.sync.lock.core;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.antframework.sync.common.LeakDetector;
 import org.antframework.sync.common.SyncExecutor;
 import org.antframework.sync.common.SyncWaiter;
+import org.antframework.sync.lock.LeaseLock;
 import org.antframework.sync.lock.support.LockDestroyer;
+import org.antframework.sync.metrics.SyncMetrics;
 
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * 抽象基于服务端的可重入锁
  */
-@AllArgsConstructor
+@RequiredArgsConstructor
 @Slf4j
-public abstract class AbstractServerReentrantLock extends AbstractReentrantLock {
+public abstract class AbstractServerReentrantLock extends AbstractReentrantLock implements LeaseLock {
     // 锁标识
     @Getter
     private final String key;
     // 加锁者id
     @Getter
     private final String lockerId;
+    // 租期（毫秒，大于0表示以租期模式加锁；否则由服务端维护）
+    @Getter
+    private final long leaseTime;
     // Sync执行器
     private final SyncExecutor syncExecutor;
+    // 指标类型
+    private final String metricsType;
+    // 指标收集器
+    private final SyncMetrics metrics;
+    // 服务端批量解锁器（锁未解锁就被回收时用于强制解锁；同一种锁共用一个，不能引用锁对象）
+    private final Consumer<List<LockDestroyer>> serverUnlocker;
+    // 加锁成功的时间（纳秒）
+    private long lockedTime;
+    // 销毁器
+    private LockDestroyer destroyer;
+    // 泄漏跟踪器
+    private LeakDetector.Tracker tracker;
 
     @Override
     public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
@@ -39,9 +59,25 @@ public abstract class AbstractServerReentrantLock extends AbstractReentrantLock
             return super.tryLock(time, unit);
         } finally {
             onTryLockEnd();
+            if (destroyer != null) {
+                destroyer.setLockedTimes(getLockedTimes());
+            }
         }
     }
 
+    @Override
+    public void unlock() {
+        super.unlock();
+        if (destroyer != null) {
+            destroyer.setLockedTimes(getLockedTimes());
+        }
+    }
+
+    @Override
+    protected void afterTryLock(boolean success, long time, int retries) {
+        metrics.onAcquired(metricsType, key, time, retries, success);
+    }
+
     /**
      * 当trayLock方法执行结束时执行
      */
@@ -52,6 +88,12 @@ public abstract class AbstractServerReentrantLock extends AbstractReentrantLock
         log.debug("调用server尝试加锁：lock={}", this);
         SyncWaiter waiter = lockInServer(deadline);
         if (waiter == null) {
+            lockedTime = System.nanoTime();
+            if (tracker == null) {
+                destroyer = new LockDestroyer(metricsType, key, lockerId, serverUnlocker);
+                tracker = syncExecutor.getLeakDetector().newTracker(this, destroyer);
+            }
+            tracker.hold();
             log.debug("调用server加锁成功：lock={}", this);
         } else {
             log.debug("调用server加锁失败，需等待：lock={},waiter={}", this, waiter);
@@ -71,6 +113,8 @@ public abstract class AbstractServerReentrantLock extends AbstractReentrantLock
     protected void doReleaseLock() {
         log.debug("调用server尝试解锁：lock={}", this);
         unlockInServer();
+        tracker.unhold();
+        metrics.onReleased(metricsType, key, System.nanoTime() - lockedTime);
         log.debug("调用server解锁成功：lock={}", this);
     }
 
@@ -80,18 +124,31 @@ public abstract class AbstractServerReentrantLock extends AbstractReentrantLock
     protected abstract void unlockInServer();
 
     @Override
-    public Condition newCondition() {
-        throw new UnsupportedOperationException();
+    public boolean extendLease(long leaseTime, TimeUnit unit) {
+        long leaseMillis = unit.toMillis(leaseTime);
+        if (leaseMillis <= 0) {
+            throw new IllegalArgumentException("leaseTime必须大于0");
+        }
+        if (getLockedTimes() <= 0) {
+            return false;
+        }
+        if (this.leaseTime <= 0) {
+            return true;
+        }
+        log.debug("调用server延长租期：lock={},leaseTime={}", this, leaseMillis);
+        return extendLeaseInServer(leaseMillis);
     }
 
+    /**
+     * 在服务端延长租期
+     *
+     * @param leaseTime 租期（毫秒）
+     * @return true 延长成功；false 延长失败
+     */
+    protected abstract boolean extendLeaseInServer(long leaseTime);
+
     @Override
-    protected void finalize() throws Throwable {
-        try {
-            if (getLockedTimes() > 0) {
-                syncExecutor.execute(new LockDestroyer(this));
-            }
-        } finally {
-            super.finalize();
-        }
+    public Condition newCondition() {
+        throw new UnsupportedOperationException();
     }
 }
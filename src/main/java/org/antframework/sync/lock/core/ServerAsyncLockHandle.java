@@ -0,0 +1,82 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 16:26 创建
+ */
+package org.antframework.sync.lock.core;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.antframework.sync.common.LeakDetector;
+import org.antframework.sync.common.SyncExecutor;
+import org.antframework.sync.lock.AsyncLockHandle;
+import org.antframework.sync.lock.support.LockDestroyer;
+import org.antframework.sync.metrics.SyncMetrics;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * 基于服务端的异步锁的持有凭证（和同步的锁一样在泄漏检测器中登记，凭证未解锁就被回收时强制解锁）
+ */
+@Slf4j
+public class ServerAsyncLockHandle implements AsyncLockHandle {
+    // 是否已解锁
+    private final AtomicBoolean unlocked = new AtomicBoolean(false);
+    // 锁标识
+    @Getter
+    private final String key;
+    // 加锁者id
+    @Getter
+    private final String lockerId;
+    // 服务端解锁器（入参：锁标识、加锁者id；不能引用凭证对象）
+    private final BiConsumer<String, String> serverUnlocker;
+    // 指标类型
+    private final String metricsType;
+    // 指标收集器
+    private final SyncMetrics metrics;
+    // 加锁成功的时间（纳秒）
+    private final long lockedTime = System.nanoTime();
+    // 泄漏跟踪器
+    private final LeakDetector.Tracker tracker;
+
+    public ServerAsyncLockHandle(String key,
+                                 String lockerId,
+                                 BiConsumer<String, String> serverUnlocker,
+                                 Consumer<List<LockDestroyer>> leakedUnlocker,
+                                 String metricsType,
+                                 SyncExecutor syncExecutor,
+                                 SyncMetrics metrics) {
+        this.key = key;
+        this.lockerId = lockerId;
+        this.serverUnlocker = serverUnlocker;
+        this.metricsType = metricsType;
+        this.metrics = metrics;
+        LockDestroyer destroyer = new LockDestroyer(metricsType, key, lockerId, leakedUnlocker);
+        destroyer.setLockedTimes(1);
+        this.tracker = syncExecutor.getLeakDetector().newTracker(this, destroyer);
+        this.tracker.hold();
+    }
+
+    @Override
+    public void unlock() {
+        if (!unlocked.compareAndSet(false, true)) {
+            return;
+        }
+        log.debug("调用server尝试解锁：lock={}", this);
+        serverUnlocker.accept(key, lockerId);
+        tracker.unhold();
+        metrics.onReleased(metricsType, key, System.nanoTime() - lockedTime);
+        log.debug("调用server解锁成功：lock={}", this);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ServerAsyncLockHandle{type=%s,key=%s,lockerId=%s,unlocked=%s}", metricsType, key, lockerId, unlocked.get());
+    }
+}
@@ -11,6 +11,7 @@ package org.antframework.sync.lock.core;
 import org.antframework.sync.common.SyncExecutor;
 import org.antframework.sync.common.SyncWaiter;
 import org.antframework.sync.lock.support.MutexLockServer;
+import org.antframework.sync.metrics.SyncMetrics;
 
 /**
  * 基于服务端的可重入互斥锁
@@ -19,8 +20,12 @@ public class ServerReentrantMutexLock extends AbstractServerReentrantLock {
     // 服务端
     private final MutexLockServer server;
 
-    public ServerReentrantMutexLock(String key, String lockerId, SyncExecutor syncExecutor, MutexLockServer server) {
-        super(key, lockerId, syncExecutor);
+    public ServerReentrantMutexLock(String key, String lockerId, SyncExecutor syncExecutor, MutexLockServer server, SyncMetrics metrics) {
+        this(key, lockerId, 0, syncExecutor, server, metrics);
+    }
+
+    public ServerReentrantMutexLock(String key, String lockerId, long leaseTime, SyncExecutor syncExecutor, MutexLockServer server, SyncMetrics metrics) {
+        super(key, lockerId, leaseTime, syncExecutor, SyncMetrics.MUTEX_LOCK, metrics, server.getLeakedUnlocker());
         this.server = server;
     }
 
@@ -31,6 +36,9 @@ public class ServerReentrantMutexLock extends AbstractServerReentrantLock {
 
     @Override
     protected SyncWaiter lockInServer(long deadline) {
+        if (getLeaseTime() > 0) {
+            return server.lock(getKey(), getLockerId(), deadline, getLeaseTime());
+        }
         return server.lock(getKey(), getLockerId(), deadline);
     }
 
@@ -39,8 +47,13 @@ public class ServerReentrantMutexLock extends AbstractServerReentrantLock {
         server.unlock(getKey(), getLockerId());
     }
 
+    @Override
+    protected boolean extendLeaseInServer(long leaseTime) {
+        return server.extendLease(getKey(), getLockerId(), leaseTime);
+    }
+
     @Override
     public String toString() {
-        return String.format("ServerReentrantMutexLock{lockedTimes=%d,key=%s,lockerId=%s}", getLockedTimes(), getKey(), getLockerId());
+        return String.format("ServerReentrantMutexLock{lockedTimes=%d,key=%s,lockerId=%s,leaseTime=%d}", getLockedTimes(), getKey(), getLockerId(), getLeaseTime());
     }
 }
@@ -10,43 +10,60 @@ package org.antframework.sync.lock.core;
 
 import lombok.Getter;
 import org.antframework.sync.common.SyncExecutor;
+import org.antframework.sync.lock.LeaseLock;
+import org.antframework.sync.lock.LeaseReadWriteLock;
 import org.antframework.sync.lock.support.RWLockServer;
-
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
+import org.antframework.sync.metrics.SyncMetrics;
 
 /**
  * 基于服务端的可重入读写锁
  */
-public class ServerReentrantRWLock implements ReadWriteLock {
+public class ServerReentrantRWLock implements LeaseReadWriteLock {
     // 锁标识
     @Getter
     private final String key;
     // 加锁者id
     @Getter
     private final String lockerId;
+    // 租期（毫秒，大于0表示以租期模式加锁；否则由服务端维护）
+    @Getter
+    private final long leaseTime;
     // 读锁
-    private final Lock readLock;
+    private final AbstractServerReentrantLock readLock;
     // 写锁
-    private final Lock writeLock;
+    private final AbstractServerReentrantLock writeLock;
+
+    public ServerReentrantRWLock(String key, String lockerId, SyncExecutor syncExecutor, RWLockServer server, SyncMetrics metrics) {
+        this(key, lockerId, 0, syncExecutor, server, metrics);
+    }
 
-    public ServerReentrantRWLock(String key, String lockerId, SyncExecutor syncExecutor, RWLockServer server) {
+    public ServerReentrantRWLock(String key, String lockerId, long leaseTime, SyncExecutor syncExecutor, RWLockServer server, SyncMetrics metrics) {
         this.key = key;
         this.lockerId = lockerId;
-        this.readLock = new ServerReentrantReadLock(key, lockerId, syncExecutor, server);
-        this.writeLock = new ServerReentrantWriteLock(key, lockerId, syncExecutor, server);
+        this.leaseTime = leaseTime;
+        this.readLock = new ServerReentrantReadLock(key, lockerId, leaseTime, syncExecutor, server, metrics);
+        this.writeLock = new ServerReentrantWriteLock(key, lockerId, leaseTime, syncExecutor, server, metrics);
     }
 
     @Override
-    public Lock readLock() {
+    public LeaseLock readLock() {
         return readLock;
     }
 
     @Override
-    public Lock writeLock() {
+    public LeaseLock writeLock() {
         return writeLock;
     }
 
+    /**
+     * 是否持有读锁或写锁
+     *
+     * @return true 持有；false 未持有
+     */
+    public boolean isLocked() {
+        return readLock.getLockedTimes() > 0 || writeLock.getLockedTimes() > 0;
+    }
+
     @Override
     public String toString() {
         return String.format("ServerReentrantRWLock{key=%s,lockerId=%s,readLock=%s,writeLock=%s}", key, lockerId, readLock, writeLock);
@@ -11,6 +11,7 @@ package org.antframework.sync.lock.core;
 import org.antframework.sync.common.SyncExecutor;
 import org.antframework.sync.common.SyncWaiter;
 import org.antframework.sync.lock.support.RWLockServer;
+import org.antframework.sync.metrics.SyncMetrics;
 
 /**
  * 基于服务端的可重入读锁
@@ -19,8 +20,12 @@ public class ServerReentrantReadLock extends AbstractServerReentrantLock {
     // 服务端
     private final RWLockServer server;
 
-    public ServerReentrantReadLock(String key, String lockerId, SyncExecutor syncExecutor, RWLockServer server) {
-        super(key, lockerId, syncExecutor);
+    public ServerReentrantReadLock(String key, String lockerId, SyncExecutor syncExecutor, RWLockServer server, SyncMetrics metrics) {
+        this(key, lockerId, 0, syncExecutor, server, metrics);
+    }
+
+    public ServerReentrantReadLock(String key, String lockerId, long leaseTime, SyncExecutor syncExecutor, RWLockServer server, SyncMetrics metrics) {
+        super(key, lockerId, leaseTime, syncExecutor, SyncMetrics.READ_LOCK, metrics, server.getLeakedReadUnlocker());
         this.server = server;
     }
 
@@ -31,6 +36,9 @@ public class ServerReentrantReadLock extends AbstractServerReentrantLock {
 
     @Override
     protected SyncWaiter lockInServer(long deadline) {
+        if (getLeaseTime() > 0) {
+            return server.lockForRead(getKey(), getLockerId(), deadline, getLeaseTime());
+        }
         return server.lockForRead(getKey(), getLockerId(), deadline);
     }
 
@@ -39,8 +47,13 @@ public class ServerReentrantReadLock extends AbstractServerReentrantLock {
         server.unlockForRead(getKey(), getLockerId());
     }
 
+    @Override
+    protected boolean extendLeaseInServer(long leaseTime) {
+        return server.extendLeaseForRead(getKey(), getLockerId(), leaseTime);
+    }
+
     @Override
     public String toString() {
-        return String.format("ServerReentrantReadLock{lockedTimes=%d,key=%s,lockerId=%s}", getLockedTimes(), getKey(), getLockerId());
+        return String.format("ServerReentrantReadLock{lockedTimes=%d,key=%s,lockerId=%s,leaseTime=%d}", getLockedTimes(), getKey(), getLockerId(), getLeaseTime());
     }
 }
@@ -11,6 +11,7 @@ package org.antframework.sync.lock.core;
 import org.antframework.sync.common.SyncExecutor;
 import org.antframework.sync.common.SyncWaiter;
 import org.antframework.sync.lock.support.RWLockServer;
+import org.antframework.sync.metrics.SyncMetrics;
 
 /**
  * 基于服务端的可重入写锁
@@ -19,8 +20,12 @@ public class ServerReentrantWriteLock extends AbstractServerReentrantLock {
     // 服务端
     private final RWLockServer server;
 
-    public ServerReentrantWriteLock(String key, String lockerId, SyncExecutor syncExecutor, RWLockServer server) {
-        super(key, lockerId, syncExecutor);
+    public ServerReentrantWriteLock(String key, String lockerId, SyncExecutor syncExecutor, RWLockServer server, SyncMetrics metrics) {
+        this(key, lockerId, 0, syncExecutor, server, metrics);
+    }
+
+    public ServerReentrantWriteLock(String key, String lockerId, long leaseTime, SyncExecutor syncExecutor, RWLockServer server, SyncMetrics metrics) {
+        super(key, lockerId, leaseTime, syncExecutor, SyncMetrics.WRITE_LOCK, metrics, server.getLeakedWriteUnlocker());
         this.server = server;
     }
 
@@ -31,6 +36,9 @@ public class ServerReentrantWriteLock extends AbstractServerReentrantLock {
 
     @Override
     protected SyncWaiter lockInServer(long deadline) {
+        if (getLeaseTime() > 0) {
+            return server.lockForWrite(getKey(), getLockerId(), deadline, getLeaseTime());
+        }
         return server.lockForWrite(getKey(), getLockerId(), deadline);
     }
 
@@ -39,8 +47,13 @@ public class ServerReentrantWriteLock extends AbstractServerReentrantLock {
         server.unlockForWrite(getKey(), getLockerId());
     }
 
+    @Override
+    protected boolean extendLeaseInServer(long leaseTime) {
+        return server.extendLeaseForWrite(getKey(), getLockerId(), leaseTime);
+    }
+
     @Override
     public String toString() {
-        return String.format("ServerReentrantWriteLock{lockedTimes=%d,key=%s,lockerId=%s}", getLockedTimes(), getKey(), getLockerId());
+        return String.format("ServerReentrantWriteLock{lockedTimes=%d,key=%s,lockerId=%s,leaseTime=%d}", getLockedTimes(), getKey(), getLockerId(), getLeaseTime());
     }
 }
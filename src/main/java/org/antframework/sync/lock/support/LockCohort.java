@@ -0,0 +1,343 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 16:10 创建
+ */
+package org.antframework.sync.lock.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.antframework.sync.common.MutexResource;
+import org.antframework.sync.common.ServerSyncManager;
+import org.antframework.sync.common.SyncExecutor;
+import org.antframework.sync.common.SyncUtils;
+import org.antframework.sync.extension.Server;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiConsumer;
+
+/**
+ * 本地锁队列（cohort）
+ * <p>
+ * 本地线程解锁时不一定释放服务端的锁，而是将锁停放在本地，由本地线程直接接手（省去解锁、发布同步消息、再加锁的开销）：
+ * <ul>
+ * <li>移交：解锁时有本地线程在等待，则停放在本地；连续移交的次数达到移交预算后必须释放服务端的锁，给其他节点获取锁的机会</li>
+ * <li>偏向：解锁时没有本地线程在等待，则在宽限期内停放在本地；其他节点加锁失败时会请求撤销，收到撤销请求或宽限期过后释放服务端的锁</li>
+ * </ul>
+ * 服务端的锁始终以第一个加锁者（服务端持有者）的名义持有，释放时也以服务端持有者的名义解锁。
+ * 调用方需保证：在本地互斥资源的保护下调用takeOver、onLocked、unlock、evict。
+ */
+@Slf4j
+public class LockCohort {
+    // 锁标识与队列的对应关系
+    private final Map<String, Cohort> cohorts = new ConcurrentHashMap<>();
+    // 同步类型
+    private final Server.SyncType syncType;
+    // 服务端
+    private final Server server;
+    // 互斥资源
+    private final MutexResource mutexResource;
+    // 同步管理者
+    private final ServerSyncManager syncManager;
+    // 等待者类型
+    private final String waiterType;
+    // 服务端解锁器（锁标识、服务端持有者）
+    private final BiConsumer<String, String> serverUnlocker;
+    // Sync执行器
+    private final SyncExecutor syncExecutor;
+    // 移交预算（服务端的锁连续移交给本地等待者的最大次数，0表示不移交）
+    private final int handoffBudget;
+    // 偏向的宽限期（毫秒，0表示不偏向）
+    private final long biasedGracePeriod;
+
+    public LockCohort(Server.SyncType syncType,
+                      Server server,
+                      MutexResource mutexResource,
+                      ServerSyncManager syncManager,
+                      String waiterType,
+                      BiConsumer<String, String> serverUnlocker,
+                      SyncExecutor syncExecutor,
+                      int handoffBudget,
+                      long biasedGracePeriod) {
+        if (handoffBudget < 0 || biasedGracePeriod < 0) {
+            throw new IllegalArgumentException("handoffBudget、biasedGracePeriod不能小于0");
+        }
+        this.syncType = syncType;
+        this.server = server;
+        this.mutexResource = mutexResource;
+        this.syncManager = syncManager;
+        this.waiterType = waiterType;
+        this.serverUnlocker = serverUnlocker;
+        this.syncExecutor = syncExecutor;
+        this.handoffBudget = handoffBudget;
+        this.biasedGracePeriod = biasedGracePeriod;
+    }
+
+    /**
+     * 是否启用
+     *
+     * @return true 启用；false 未启用（移交预算和偏向的宽限期都为0）
+     */
+    public boolean isEnabled() {
+        return handoffBudget > 0 || biasedGracePeriod > 0;
+    }
+
+    /**
+     * 接手停放在本地的锁
+     *
+     * @param key      锁标识
+     * @param lockerId 加锁者id
+     * @return true 接手成功（无需在服务端加锁）；false 没有停放在本地的锁
+     */
+    public boolean takeOver(String key, String lockerId) {
+        Cohort cohort = cohorts.get(key);
+        if (cohort == null || cohort.holder != null) {
+            return false;
+        }
+        cohort.holder = lockerId;
+        return true;
+    }
+
+    /**
+     * 在服务端加锁成功
+     *
+     * @param key      锁标识
+     * @param lockerId 加锁者id（服务端持有者）
+     */
+    public void onLocked(String key, String lockerId) {
+        if (!isEnabled()) {
+            return;
+        }
+        Cohort cohort = new Cohort(lockerId);
+        cohorts.put(key, cohort);
+        if (biasedGracePeriod > 0) {
+            cohort.revokeListener = () -> onRevoke(key, cohort);
+            server.addRevokeListener(syncType, key, cohort.revokeListener);
+            scheduleExpire(key, cohort, biasedGracePeriod);
+        }
+    }
+
+    /**
+     * 在服务端加锁失败（偏向时请求持有锁的节点撤销偏向；每轮等待只在第一次失败时请求，重试时加锁者已是本地等待者，不再重复请求）
+     *
+     * @param key        锁标识
+     * @param waiterType 加锁者的等待者类型
+     * @param lockerId   加锁者id
+     */
+    public void onLockFailed(String key, String waiterType, String lockerId) {
+        if (biasedGracePeriod > 0 && !syncManager.hasWaiter(key, waiterType, lockerId)) {
+            server.requestRevoke(syncType, key);
+        }
+    }
+
+    /**
+     * 是否是接手的锁（服务端的锁不是以加锁者的名义持有）
+     *
+     * @param key      锁标识
+     * @param lockerId 加锁者id
+     * @return true 是；false 否
+     */
+    public boolean isTakenOver(String key, String lockerId) {
+        Cohort cohort = cohorts.get(key);
+        return cohort != null && Objects.equals(cohort.holder, lockerId) && !Objects.equals(cohort.serverOwner, lockerId);
+    }
+
+    /**
+     * 解锁（能停放在本地则停放在本地，否则释放本地互斥资源并在服务端解锁）
+     *
+     * @param key      锁标识
+     * @param lockerId 加锁者id
+     * @param parkable 是否允许停放在本地
+     */
+    public void unlock(String key, String lockerId, boolean parkable) {
+        String serverOwner = release(key, lockerId, parkable);
+        if (serverOwner != null) {
+            serverUnlocker.accept(key, serverOwner);
+        }
+    }
+
+    /**
+     * 在本地解锁（能停放在本地则停放在本地，否则释放本地互斥资源，由调用方在服务端解锁；用于批量解锁）
+     *
+     * @param key      锁标识
+     * @param lockerId 加锁者id
+     * @param parkable 是否允许停放在本地
+     * @return null 已停放在本地；否则返回需在服务端解锁的服务端持有者
+     */
+    public String release(String key, String lockerId, boolean parkable) {
+        String serverOwner = lockerId;
+        Cohort cohort = cohorts.get(key);
+        if (cohort != null && Objects.equals(cohort.holder, lockerId)) {
+            if (parkable && park(key, lockerId, cohort)) {
+                return null;
+            }
+            cohorts.remove(key);
+            afterRemoved(key, cohort);
+            serverOwner = cohort.serverOwner;
+        }
+        // 本地互斥资源由加锁者持有，服务端的锁以服务端持有者的名义持有
+        mutexResource.release(key, lockerId);
+        return serverOwner;
+    }
+
+    /**
+     * 删除等待者之后执行（停放在本地的锁已没有本地等待者接手且不偏向时，收回锁）
+     *
+     * @param key 锁标识
+     */
+    public void afterWaiterRemoved(String key) {
+        if (biasedGracePeriod <= 0 && isParked(key) && !syncManager.hasWaiters(key, waiterType)) {
+            reclaim(key, false);
+        }
+    }
+
+    /**
+     * 收回停放在本地的锁（在服务端解锁）
+     *
+     * @param key 锁标识
+     */
+    public void reclaim(String key) {
+        if (isParked(key)) {
+            reclaim(key, false);
+        }
+    }
+
+    /**
+     * 释放停放在本地的锁（调用方已持有本地互斥资源，不会有本地线程同时接手；用于不接手停放的锁的加锁者，比如租期模式的加锁者）
+     *
+     * @param key 锁标识
+     */
+    public void evict(String key) {
+        Cohort cohort = cohorts.get(key);
+        if (cohort != null && cohort.holder == null) {
+            cohorts.remove(key);
+            afterRemoved(key, cohort);
+            serverUnlocker.accept(key, cohort.serverOwner);
+        }
+    }
+
+    // 停放在本地
+    private boolean park(String key, String lockerId, Cohort cohort) {
+        if (cohort.revoked) {
+            return false;
+        }
+        boolean waiting = syncManager.hasWaiters(key, waiterType);
+        if (waiting) {
+            if (cohort.handoffs >= handoffBudget) {
+                return false;
+            }
+            cohort.handoffs++;
+        } else {
+            if (biasedGracePeriod <= 0) {
+                return false;
+            }
+            cohort.handoffs = 0;
+        }
+        cohort.parkTime = System.currentTimeMillis();
+        cohort.holder = null;
+        mutexResource.release(key, lockerId);
+        if (waiting) {
+            syncManager.notifyLocal(key);
+        }
+        // 停放期间可能已收到撤销请求或等待者已离开
+        if (cohort.revoked || (biasedGracePeriod <= 0 && !syncManager.hasWaiters(key, waiterType))) {
+            reclaim(key, false);
+        }
+        return true;
+    }
+
+    // 是否有停放在本地的锁
+    private boolean isParked(String key) {
+        Cohort cohort = cohorts.get(key);
+        return cohort != null && cohort.holder == null;
+    }
+
+    // 收回停放在本地的锁
+    private void reclaim(String key, boolean onlyExpired) {
+        String reclaimerId = SyncUtils.newId();
+        if (!mutexResource.acquire(key, reclaimerId)) {
+            // 锁已被本地线程接手，由其解锁时处理
+            return;
+        }
+        try {
+            Cohort cohort = cohorts.get(key);
+            if (cohort == null || cohort.holder != null) {
+                return;
+            }
+            if (onlyExpired && !cohort.revoked && System.currentTimeMillis() - cohort.parkTime < biasedGracePeriod) {
+                return;
+            }
+            cohorts.remove(key);
+            afterRemoved(key, cohort);
+            serverUnlocker.accept(key, cohort.serverOwner);
+        } finally {
+            mutexResource.release(key, reclaimerId);
+        }
+    }
+
+    // 队列被删除后执行
+    private void afterRemoved(String key, Cohort cohort) {
+        if (cohort.revokeListener != null) {
+            server.removeRevokeListener(syncType, key, cohort.revokeListener);
+        }
+    }
+
+    // 收到撤销请求
+    private void onRevoke(String key, Cohort cohort) {
+        cohort.revoked = true;
+        if (cohort.holder == null) {
+            Runnable task = () -> reclaim(key, false);
+            try {
+                syncExecutor.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.run();
+            }
+        }
+    }
+
+    // 安排检查偏向是否过期
+    private void scheduleExpire(String key, Cohort cohort, long delay) {
+        syncExecutor.schedule(() -> {
+            try {
+                if (cohorts.get(key) != cohort) {
+                    return;
+                }
+                if (cohort.holder == null) {
+                    reclaim(key, true);
+                }
+                if (cohorts.get(key) == cohort) {
+                    long parkedTime = System.currentTimeMillis() - cohort.parkTime;
+                    scheduleExpire(key, cohort, cohort.holder == null ? Math.max(biasedGracePeriod - parkedTime, 1) : biasedGracePeriod);
+                }
+            } catch (Throwable e) {
+                log.error("检查偏向的锁是否过期出错：key={}", key, e);
+            }
+        }, delay);
+    }
+
+    // 队列
+    private static class Cohort {
+        // 服务端持有者
+        private final String serverOwner;
+        // 当前持有者（null表示锁停放在本地）
+        private volatile String holder;
+        // 连续移交给本地等待者的次数
+        private int handoffs = 0;
+        // 停放在本地的时间
+        private volatile long parkTime;
+        // 是否已收到撤销请求
+        private volatile boolean revoked = false;
+        // 撤销监听器
+        private Runnable revokeListener;
+
+        Cohort(String serverOwner) {
+            this.serverOwner = serverOwner;
+            this.holder = serverOwner;
+        }
+    }
+}
@@ -8,29 +8,64 @@
  */
 package org.antframework.sync.lock.support;
 
-import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
-import org.antframework.sync.lock.core.AbstractReentrantLock;
+import org.antframework.sync.common.LeakDetector;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * 锁销毁器
+ * <p>
+ * 只持有销毁所需的状态（不持有锁对象），锁未解锁就被回收时由泄漏检测器执行，强制在服务端解锁。
+ * 服务端批量解锁器相同的销毁器由泄漏检测器一起执行。
  */
-@AllArgsConstructor
 @Slf4j
-public class LockDestroyer implements Runnable {
-    // 锁
-    private final AbstractReentrantLock lock;
+public class LockDestroyer implements LeakDetector.BatchDestroyer {
+    // 锁类型
+    private final String lockType;
+    // 锁标识
+    @Getter
+    private final String key;
+    // 加锁者id
+    @Getter
+    private final String lockerId;
+    // 服务端批量解锁器（入参：需强制解锁的锁的销毁器；同一种锁共用一个）
+    private final Consumer<List<LockDestroyer>> serverUnlocker;
+    // 被加锁的次数
+    @Setter
+    private volatile int lockedTimes = 0;
+
+    public LockDestroyer(String lockType, String key, String lockerId, Consumer<List<LockDestroyer>> serverUnlocker) {
+        this.lockType = lockType;
+        this.key = key;
+        this.lockerId = lockerId;
+        this.serverUnlocker = serverUnlocker;
+    }
+
+    @Override
+    public Object getBatchKey() {
+        return serverUnlocker;
+    }
 
     @Override
-    public void run() {
-        log.error("存在未解锁就被弃用的锁（{}），请检查代码中是否有bug。现强制解锁！", lock);
+    public void destroyAll(List<LeakDetector.BatchDestroyer> destroyers) {
+        List<LockDestroyer> lockDestroyers = destroyers.stream().map(LockDestroyer.class::cast).collect(Collectors.toList());
+        for (LockDestroyer destroyer : lockDestroyers) {
+            log.error("存在未解锁就被弃用的锁（{}），请检查代码中是否有bug。现强制解锁！", destroyer);
+        }
         try {
-            int lockedTimes = lock.getLockedTimes();
-            for (int i = 0; i < lockedTimes; i++) {
-                lock.unlock();
-            }
+            serverUnlocker.accept(lockDestroyers);
         } catch (Throwable e) {
-            log.error("强制解锁出错（{}）", lock, e);
+            log.error("强制解锁出错（{}）", lockDestroyers, e);
         }
     }
+
+    @Override
+    public String toString() {
+        return String.format("LockDestroyer{lockType=%s,lockedTimes=%d,key=%s,lockerId=%s}", lockType, lockedTimes, key, lockerId);
+    }
 }
@@ -8,11 +8,19 @@
  */
 package org.antframework.sync.lock.support;
 
+import lombok.Getter;
+import org.antframework.sync.SyncOptions;
 import org.antframework.sync.common.MutexResource;
 import org.antframework.sync.common.ServerSyncManager;
 import org.antframework.sync.common.ServerSyncWaiter;
+import org.antframework.sync.common.SyncExecutor;
 import org.antframework.sync.common.SyncWaiter;
 import org.antframework.sync.extension.Server;
+import org.antframework.sync.metrics.SyncMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * 互斥锁服务端
@@ -29,11 +37,26 @@ public class MutexLockServer {
     private final long maxWaitTime;
     // 同步管理者
     private final ServerSyncManager syncManager;
+    // 本地锁队列
+    private final LockCohort cohort;
+    // 泄漏的锁的批量解锁器（本服务端的锁共用，泄漏检测器据此把它们合并成一批）
+    @Getter
+    private final Consumer<List<LockDestroyer>> leakedUnlocker = this::unlockLeaked;
 
-    public MutexLockServer(Server server, long maxWaitTime) {
+    public MutexLockServer(Server server, SyncExecutor syncExecutor, SyncOptions options, SyncMetrics metrics) {
         this.server = server;
-        this.maxWaitTime = maxWaitTime;
-        this.syncManager = new ServerSyncManager(Server.SyncType.MUTEX_LOCK, server);
+        this.maxWaitTime = options.getMaxWaitTime();
+        this.syncManager = new ServerSyncManager(Server.SyncType.MUTEX_LOCK, server, syncExecutor, metrics, options);
+        this.cohort = new LockCohort(
+                Server.SyncType.MUTEX_LOCK,
+                server,
+                mutexResource,
+                syncManager,
+                WAITER_TYPE,
+                server::unlockForMutex,
+                syncExecutor,
+                options.getCohortHandoffBudget(),
+                options.getBiasedGracePeriod());
     }
 
     /**
@@ -45,14 +68,42 @@ public class MutexLockServer {
      * @return null 加锁成功；否则失败
      */
     public SyncWaiter lock(String key, String lockerId, long deadline) {
+        return lock(key, lockerId, deadline, 0);
+    }
+
+    /**
+     * 加锁
+     *
+     * @param key       锁标识
+     * @param lockerId  加锁者id
+     * @param deadline  截止时间
+     * @param leaseTime 租期（毫秒；大于0表示以租期模式加锁：服务端不维护，到期自动解锁；否则由服务端维护）
+     * @return null 加锁成功；否则失败
+     */
+    public SyncWaiter lock(String key, String lockerId, long deadline, long leaseTime) {
         Long waitTime = maxWaitTime;
         boolean localSuccess = mutexResource.acquire(key, lockerId);
         if (localSuccess) {
-            try {
-                waitTime = server.lockForMutex(key, lockerId, deadline);
-            } finally {
-                if (waitTime != null) {
-                    mutexResource.release(key, lockerId);
+            if (leaseTime <= 0 && cohort.takeOver(key, lockerId)) {
+                waitTime = null;
+            } else {
+                try {
+                    if (leaseTime > 0) {
+                        // 停放在本地的锁由服务端维护，租期模式的加锁者不接手，先释放
+                        cohort.evict(key);
+                        waitTime = server.lockForMutex(key, lockerId, deadline, leaseTime);
+                    } else {
+                        waitTime = server.lockForMutex(key, lockerId, deadline);
+                    }
+                    if (waitTime != null) {
+                        cohort.onLockFailed(key, WAITER_TYPE, lockerId);
+                    } else if (leaseTime <= 0) {
+                        cohort.onLocked(key, lockerId);
+                    }
+                } finally {
+                    if (waitTime != null) {
+                        mutexResource.release(key, lockerId);
+                    }
                 }
             }
         }
@@ -64,6 +115,18 @@ public class MutexLockServer {
         return waiter;
     }
 
+    /**
+     * 延长租期
+     *
+     * @param key       锁标识
+     * @param lockerId  加锁者id
+     * @param leaseTime 租期（毫秒）
+     * @return true 延长成功；false 延长失败（锁已过期）
+     */
+    public boolean extendLease(String key, String lockerId, long leaseTime) {
+        return server.extendLeaseForMutex(key, lockerId, leaseTime);
+    }
+
     /**
      * 解锁
      *
@@ -71,8 +134,23 @@ public class MutexLockServer {
      * @param lockerId 加锁者id
      */
     public void unlock(String key, String lockerId) {
-        mutexResource.release(key, lockerId);
-        server.unlockForMutex(key, lockerId);
+        cohort.unlock(key, lockerId, true);
+    }
+
+    // 强制解锁泄漏的锁（逐个在本地解锁，再一次性在服务端批量解锁）
+    private void unlockLeaked(List<LockDestroyer> destroyers) {
+        List<String> keys = new ArrayList<>(destroyers.size());
+        List<String> serverOwners = new ArrayList<>(destroyers.size());
+        for (LockDestroyer destroyer : destroyers) {
+            String serverOwner = cohort.release(destroyer.getKey(), destroyer.getLockerId(), true);
+            if (serverOwner != null) {
+                keys.add(destroyer.getKey());
+                serverOwners.add(serverOwner);
+            }
+        }
+        if (!keys.isEmpty()) {
+            server.unlockAllForMutex(keys, serverOwners);
+        }
     }
 
     /**
@@ -83,5 +161,6 @@ public class MutexLockServer {
      */
     public void removeWaiter(String key, String lockerId) {
         syncManager.removeWaiter(key, WAITER_TYPE, lockerId);
+        cohort.afterWaiterRemoved(key);
     }
 }
@@ -1,4 +1,4 @@
-/* 
+/*
  * 作者：钟勋 (email:zhongxunking@163.com)
  */
 
@@ -8,19 +8,35 @@
  */
 package org.antframework.sync.lock.support;
 
-import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.antframework.sync.SyncOptions;
 import org.antframework.sync.common.MutexResource;
 import org.antframework.sync.common.ServerSyncManager;
 import org.antframework.sync.common.ServerSyncWaiter;
+import org.antframework.sync.common.SyncExecutor;
+import org.antframework.sync.common.SyncUtils;
 import org.antframework.sync.common.SyncWaiter;
 import org.antframework.sync.extension.Server;
+import org.antframework.sync.metrics.SyncMetrics;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 /**
  * 读写锁服务端
+ * <p>
+ * 本地的读者共用一个节点级别的读者（节点读者id）在服务端持有读锁：只有第一个本地读者加锁和最后一个本地读者解锁时才访问服务端。
+ * 有本地写者在等待时，新的本地读者不再加入读者组，读者组解散后写者即可加锁；其他节点的写者预订在读者组下次在服务端加锁时生效。
+ * 租期模式的读者不加入读者组，以自己的名义在服务端持有读锁；租期模式的写者不参与本地写锁队列的移交和偏向。
  */
-@AllArgsConstructor
 public class RWLockServer {
     // 读等待者类型
     private static final String READER_WAITER_TYPE = "reader";
@@ -29,17 +45,45 @@ public class RWLockServer {
 
     // 互斥资源
     private final MutexResource mutexResource = new MutexResource();
+    // 节点读者id
+    private final String nodeReaderId = SyncUtils.newId();
+    // 本地读者组（锁标识-读者组）
+    private final Map<String, ReaderGroup> readerGroups = new ConcurrentHashMap<>();
     // 服务端
     private final Server server;
     // 最大等待时间
     private final long maxWaitTime;
     // 同步管理者
     private final ServerSyncManager syncManager;
+    // 本地写锁队列
+    private final LockCohort cohort;
+    // 以自己的名义在服务端持有读锁的加锁者（锁标识-加锁者id；持有写锁的线程再加读锁时不加入读者组，持有这种读锁的写者解写锁时不能移交）
+    private final Map<String, Set<String>> serverReaders = new ConcurrentHashMap<>();
+    // 被接手的写锁覆盖的读锁（锁标识-读锁；接手写锁的线程再加读锁时只在本地加锁，写锁需等到读锁解锁后才能释放）
+    private final Map<String, CoveredReader> coveredReaders = new ConcurrentHashMap<>();
+    // 以节点读者id在服务端持有写锁的锁标识（读者组中唯一的读者升级为写者时使用）
+    private final Set<String> upgradedKeys = ConcurrentHashMap.newKeySet();
+    // 泄漏的读锁的批量解锁器（本服务端的读锁共用，泄漏检测器据此把它们合并成一批）
+    @Getter
+    private final Consumer<List<LockDestroyer>> leakedReadUnlocker = this::unlockLeakedForRead;
+    // 泄漏的写锁的批量解锁器（本服务端的写锁共用，泄漏检测器据此把它们合并成一批）
+    @Getter
+    private final Consumer<List<LockDestroyer>> leakedWriteUnlocker = this::unlockLeakedForWrite;
 
-    public RWLockServer(Server server, long maxWaitTime) {
+    public RWLockServer(Server server, SyncExecutor syncExecutor, SyncOptions options, SyncMetrics metrics) {
         this.server = server;
-        this.maxWaitTime = maxWaitTime;
-        this.syncManager = new ServerSyncManager(Server.SyncType.RW_LOCK, server);
+        this.maxWaitTime = options.getMaxWaitTime();
+        this.syncManager = new ServerSyncManager(Server.SyncType.RW_LOCK, server, syncExecutor, metrics, options);
+        this.cohort = new LockCohort(
+                Server.SyncType.RW_LOCK,
+                server,
+                mutexResource,
+                syncManager,
+                WRITER_WAITER_TYPE,
+                this::unlockForWriteInServer,
+                syncExecutor,
+                options.getCohortHandoffBudget(),
+                options.getBiasedGracePeriod());
     }
 
     /**
@@ -52,10 +96,58 @@ public class RWLockServer {
      */
     public SyncWaiter lockForRead(String key, String lockerId, long deadline) {
         Long waitTime = maxWaitTime;
+        // 停放在本地的写锁会阻塞本地读者，先收回
+        cohort.reclaim(key);
         String exitingLockerId = mutexResource.peek(key);
-        boolean localSuccess = exitingLockerId == null || Objects.equals(exitingLockerId, lockerId);
-        if (localSuccess) {
-            waitTime = server.lockForRead(key, lockerId, deadline);
+        if (exitingLockerId == null) {
+            waitTime = joinReaderGroup(key, lockerId, deadline, false);
+        } else if (Objects.equals(exitingLockerId, lockerId)) {
+            if (cohort.isTakenOver(key, lockerId)) {
+                // 服务端的写锁不是以加锁者的名义持有，只在本地加读锁（写锁已保证排他）
+                coveredReaders.put(key, new CoveredReader(lockerId));
+                waitTime = null;
+            } else if (upgradedKeys.contains(key)) {
+                // 服务端的写锁以节点读者id持有，加入读者组
+                waitTime = joinReaderGroup(key, lockerId, deadline, true);
+            } else {
+                // 持有写锁的线程以自己的名义加读锁
+                waitTime = server.lockForRead(key, lockerId, deadline);
+                if (waitTime == null) {
+                    serverReaders.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(lockerId);
+                } else {
+                    cohort.onLockFailed(key, READER_WAITER_TYPE, lockerId);
+                }
+            }
+        }
+        SyncWaiter waiter = null;
+        if (waitTime != null) {
+            waitTime = Math.min(waitTime, maxWaitTime);
+            waiter = new ServerSyncWaiter(syncManager, key, READER_WAITER_TYPE, lockerId, waitTime);
+        }
+        return waiter;
+    }
+
+    /**
+     * 以租期模式加读锁（不加入读者组，以加锁者自己的名义在服务端持有读锁，服务端不维护，到期自动解锁）
+     *
+     * @param key       锁标识
+     * @param lockerId  加锁者id
+     * @param deadline  截止时间
+     * @param leaseTime 租期（毫秒）
+     * @return null 加锁成功；否则失败
+     */
+    public SyncWaiter lockForRead(String key, String lockerId, long deadline, long leaseTime) {
+        Long waitTime = maxWaitTime;
+        // 停放在本地的写锁会阻塞本地读者，先收回
+        cohort.reclaim(key);
+        String exitingLockerId = mutexResource.peek(key);
+        if (exitingLockerId == null || Objects.equals(exitingLockerId, lockerId)) {
+            waitTime = server.lockForRead(key, lockerId, deadline, leaseTime);
+            if (waitTime == null) {
+                serverReaders.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(lockerId);
+            } else {
+                cohort.onLockFailed(key, READER_WAITER_TYPE, lockerId);
+            }
         }
         SyncWaiter waiter = null;
         if (waitTime != null) {
@@ -65,6 +157,18 @@ public class RWLockServer {
         return waiter;
     }
 
+    /**
+     * 延长读锁的租期
+     *
+     * @param key       锁标识
+     * @param lockerId  加锁者id
+     * @param leaseTime 租期（毫秒）
+     * @return true 延长成功；false 延长失败（锁已过期）
+     */
+    public boolean extendLeaseForRead(String key, String lockerId, long leaseTime) {
+        return server.extendLeaseForRead(key, lockerId, leaseTime);
+    }
+
     /**
      * 解读锁
      *
@@ -72,7 +176,24 @@ public class RWLockServer {
      * @param lockerId 加锁者id
      */
     public void unlockForRead(String key, String lockerId) {
-        server.unlockForRead(key, lockerId);
+        CoveredReader coveredReader = coveredReaders.get(key);
+        if (coveredReader != null && Objects.equals(coveredReader.lockerId, lockerId)) {
+            coveredReaders.remove(key);
+            if (coveredReader.writeReleased) {
+                releaseWrite(key, lockerId);
+            }
+            return;
+        }
+        boolean[] serverReading = {false};
+        serverReaders.computeIfPresent(key, (k, v) -> {
+            serverReading[0] = v.remove(lockerId);
+            return v.isEmpty() ? null : v;
+        });
+        if (serverReading[0]) {
+            server.unlockForRead(key, lockerId);
+        } else {
+            leaveReaderGroup(key, lockerId);
+        }
     }
 
     /**
@@ -84,11 +205,64 @@ public class RWLockServer {
      * @return null 加锁成功；否则失败
      */
     public SyncWaiter lockForWrite(String key, String lockerId, long deadline) {
+        Long waitTime = maxWaitTime;
+        boolean localSuccess = mutexResource.acquire(key, lockerId);
+        if (localSuccess) {
+            if (cohort.takeOver(key, lockerId)) {
+                waitTime = null;
+            } else {
+                try {
+                    ReaderGroupRole role = getReaderGroupRole(key, lockerId);
+                    if (role == ReaderGroupRole.NONE) {
+                        waitTime = server.lockForWrite(key, lockerId, deadline);
+                    } else if (role == ReaderGroupRole.SOLE_MEMBER) {
+                        // 读者组中唯一的读者升级为写者（以节点读者id在服务端加写锁）
+                        waitTime = server.lockForWrite(key, nodeReaderId, deadline);
+                        if (waitTime == null) {
+                            upgradedKeys.add(key);
+                        }
+                    }
+                    if (waitTime == null) {
+                        cohort.onLocked(key, lockerId);
+                    } else if (role != ReaderGroupRole.MEMBER) {
+                        // 读者组中还有其他读者时未访问服务端，无需请求撤销
+                        cohort.onLockFailed(key, WRITER_WAITER_TYPE, lockerId);
+                    }
+                } finally {
+                    if (waitTime != null) {
+                        mutexResource.release(key, lockerId);
+                    }
+                }
+            }
+        }
+        SyncWaiter waiter = null;
+        if (waitTime != null) {
+            waitTime = Math.min(waitTime, maxWaitTime);
+            waiter = new ServerSyncWaiter(syncManager, key, WRITER_WAITER_TYPE, lockerId, waitTime);
+        }
+        return waiter;
+    }
+
+    /**
+     * 以租期模式加写锁（不接手停放在本地的写锁、解锁时也不停放，服务端不维护，到期自动解锁）
+     *
+     * @param key       锁标识
+     * @param lockerId  加锁者id
+     * @param deadline  截止时间
+     * @param leaseTime 租期（毫秒）
+     * @return null 加锁成功；否则失败
+     */
+    public SyncWaiter lockForWrite(String key, String lockerId, long deadline, long leaseTime) {
         Long waitTime = maxWaitTime;
         boolean localSuccess = mutexResource.acquire(key, lockerId);
         if (localSuccess) {
             try {
-                waitTime = server.lockForWrite(key, lockerId, deadline);
+                // 停放在本地的写锁由服务端维护，先释放
+                cohort.evict(key);
+                waitTime = server.lockForWrite(key, lockerId, deadline, leaseTime);
+                if (waitTime != null) {
+                    cohort.onLockFailed(key, WRITER_WAITER_TYPE, lockerId);
+                }
             } finally {
                 if (waitTime != null) {
                     mutexResource.release(key, lockerId);
@@ -103,6 +277,18 @@ public class RWLockServer {
         return waiter;
     }
 
+    /**
+     * 延长写锁的租期
+     *
+     * @param key       锁标识
+     * @param lockerId  加锁者id
+     * @param leaseTime 租期（毫秒）
+     * @return true 延长成功；false 延长失败（锁已过期）
+     */
+    public boolean extendLeaseForWrite(String key, String lockerId, long leaseTime) {
+        return server.extendLeaseForWrite(key, lockerId, leaseTime);
+    }
+
     /**
      * 解写锁
      *
@@ -110,8 +296,13 @@ public class RWLockServer {
      * @param lockerId 加锁者id
      */
     public void unlockForWrite(String key, String lockerId) {
-        mutexResource.release(key, lockerId);
-        server.unlockForWrite(key, lockerId);
+        CoveredReader coveredReader = coveredReaders.get(key);
+        if (coveredReader != null && Objects.equals(coveredReader.lockerId, lockerId)) {
+            // 读锁只在本地持有，写锁需等到读锁解锁后再释放
+            coveredReader.writeReleased = true;
+            return;
+        }
+        releaseWrite(key, lockerId);
     }
 
     /**
@@ -132,5 +323,177 @@ public class RWLockServer {
      */
     public void removeWriterWaiter(String key, String lockerId) {
         syncManager.removeWaiter(key, WRITER_WAITER_TYPE, lockerId);
+        cohort.afterWaiterRemoved(key);
+        if (!syncManager.hasWaiters(key, WRITER_WAITER_TYPE) && syncManager.hasWaiters(key, READER_WAITER_TYPE)) {
+            // 本地读者可能在等待写者，写者都放弃后唤醒它们
+            syncManager.notifyLocal(key);
+        }
+    }
+
+    // 释放写锁（在服务端持有读锁的写者不能停放在本地）
+    private void releaseWrite(String key, String lockerId) {
+        cohort.unlock(key, lockerId, !isServerReading(key, lockerId));
+    }
+
+    // 加锁者是否在服务端持有读锁（直接持有或通过读者组持有；持有读锁的写锁不能停放在本地）
+    private boolean isServerReading(String key, String lockerId) {
+        return serverReaders.getOrDefault(key, Collections.emptySet()).contains(lockerId)
+                || getReaderGroupRole(key, lockerId) != ReaderGroupRole.NONE;
+    }
+
+    // 在服务端解写锁
+    private void unlockForWriteInServer(String key, String lockerId) {
+        server.unlockForWrite(key, toServerWriter(key, lockerId));
+    }
+
+    // 转换为服务端的写锁持有者（读者组中唯一的读者升级的写锁以节点读者id持有）
+    private String toServerWriter(String key, String lockerId) {
+        return upgradedKeys.remove(key) ? nodeReaderId : lockerId;
+    }
+
+    // 强制解锁泄漏的读锁（读者组的变化需在组内串行地访问服务端，只能逐个解锁）
+    private void unlockLeakedForRead(List<LockDestroyer> destroyers) {
+        for (LockDestroyer destroyer : destroyers) {
+            unlockForRead(destroyer.getKey(), destroyer.getLockerId());
+        }
+    }
+
+    // 强制解锁泄漏的写锁（逐个在本地解锁，再一次性在服务端批量解锁）
+    private void unlockLeakedForWrite(List<LockDestroyer> destroyers) {
+        List<String> keys = new ArrayList<>(destroyers.size());
+        List<String> serverWriters = new ArrayList<>(destroyers.size());
+        for (LockDestroyer destroyer : destroyers) {
+            String key = destroyer.getKey();
+            String lockerId = destroyer.getLockerId();
+            CoveredReader coveredReader = coveredReaders.get(key);
+            if (coveredReader != null && Objects.equals(coveredReader.lockerId, lockerId)) {
+                coveredReader.writeReleased = true;
+                continue;
+            }
+            String serverOwner = cohort.release(key, lockerId, !isServerReading(key, lockerId));
+            if (serverOwner != null) {
+                keys.add(key);
+                serverWriters.add(toServerWriter(key, serverOwner));
+            }
+        }
+        if (!keys.isEmpty()) {
+            server.unlockAllForWrite(keys, serverWriters);
+        }
+    }
+
+    // 加入读者组（writing：加锁者是否持有以节点读者id加的写锁；返回null表示加锁成功，否则返回需等待的时间）
+    private Long joinReaderGroup(String key, String lockerId, long deadline, boolean writing) {
+        while (true) {
+            ReaderGroup group = readerGroups.computeIfAbsent(key, k -> new ReaderGroup());
+            group.monitor.lock();
+            try {
+                if (group.removed) {
+                    continue;
+                }
+                if (!writing && mutexResource.peek(key) != null) {
+                    // 有本地写者
+                    removeIfEmpty(key, group);
+                    return maxWaitTime;
+                }
+                Long waitTime = null;
+                if (group.readers.isEmpty()) {
+                    // 第一个本地读者以节点读者id在服务端加读锁
+                    waitTime = server.lockForRead(key, nodeReaderId, deadline);
+                } else if (!writing && syncManager.hasWaiters(key, WRITER_WAITER_TYPE)) {
+                    // 有本地写者在等待，不再加入读者组（等待读者组解散）
+                    return maxWaitTime;
+                }
+                if (waitTime == null) {
+                    group.readers.add(lockerId);
+                } else {
+                    removeIfEmpty(key, group);
+                    cohort.onLockFailed(key, READER_WAITER_TYPE, lockerId);
+                }
+                return waitTime;
+            } finally {
+                group.monitor.unlock();
+            }
+        }
+    }
+
+    // 离开读者组
+    private void leaveReaderGroup(String key, String lockerId) {
+        ReaderGroup group = readerGroups.get(key);
+        if (group == null) {
+            return;
+        }
+        group.monitor.lock();
+        try {
+            if (!group.readers.remove(lockerId)) {
+                return;
+            }
+            if (group.readers.isEmpty()) {
+                group.removed = true;
+                readerGroups.remove(key);
+                server.unlockForRead(key, nodeReaderId);
+            } else if (group.readers.size() == 1 && syncManager.hasWaiters(key, WRITER_WAITER_TYPE)) {
+                // 剩下的读者可能在等待升级为写者
+                syncManager.notifyLocal(key);
+            }
+        } finally {
+            group.monitor.unlock();
+        }
+    }
+
+    // 获取加锁者在读者组中的角色
+    private ReaderGroupRole getReaderGroupRole(String key, String lockerId) {
+        ReaderGroup group = readerGroups.get(key);
+        if (group == null) {
+            return ReaderGroupRole.NONE;
+        }
+        group.monitor.lock();
+        try {
+            if (group.removed || !group.readers.contains(lockerId)) {
+                return ReaderGroupRole.NONE;
+            }
+            return group.readers.size() == 1 ? ReaderGroupRole.SOLE_MEMBER : ReaderGroupRole.MEMBER;
+        } finally {
+            group.monitor.unlock();
+        }
+    }
+
+    // 如果读者组为空则删除
+    private void removeIfEmpty(String key, ReaderGroup group) {
+        if (group.readers.isEmpty()) {
+            group.removed = true;
+            readerGroups.remove(key);
+        }
+    }
+
+    // 读者组
+    private static class ReaderGroup {
+        // 监视锁（持有期间会访问服务端，不使用synchronized以免钉住虚拟线程的载体线程）
+        private final ReentrantLock monitor = new ReentrantLock();
+        // 本地读者
+        private final Set<String> readers = new HashSet<>();
+        // 是否已被删除
+        private boolean removed = false;
+    }
+
+    // 被覆盖的读锁
+    private static class CoveredReader {
+        // 加锁者id
+        private final String lockerId;
+        // 写锁是否已解锁（等待读锁解锁后再释放）
+        private volatile boolean writeReleased = false;
+
+        CoveredReader(String lockerId) {
+            this.lockerId = lockerId;
+        }
+    }
+
+    // 在读者组中的角色
+    private enum ReaderGroupRole {
+        // 不在读者组中
+        NONE,
+        // 读者组中的读者之一
+        MEMBER,
+        // 读者组中唯一的读者
+        SOLE_MEMBER
     }
 }
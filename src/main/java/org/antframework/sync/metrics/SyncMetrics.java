@@ -0,0 +1,90 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 15:54 创建
+ */
+package org.antframework.sync.metrics;
+
+import org.antframework.sync.extension.Server;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Sync指标收集器
+ * <p>
+ * 所有方法都在加锁、解锁、获取许可、释放许可的执行路径上同步调用，实现方需保证高效且不抛出异常。
+ */
+public interface SyncMetrics {
+    /**
+     * 互斥锁类型
+     */
+    String MUTEX_LOCK = "mutex-lock";
+    /**
+     * 读锁类型
+     */
+    String READ_LOCK = "read-lock";
+    /**
+     * 写锁类型
+     */
+    String WRITE_LOCK = "write-lock";
+    /**
+     * 信号量类型
+     */
+    String SEMAPHORE = "semaphore";
+
+    /**
+     * 获取锁或许可结束（tryLock、tryAcquire执行结束）
+     *
+     * @param type     类型（mutex-lock、read-lock、write-lock、semaphore）
+     * @param key      标识
+     * @param time     耗时（纳秒）
+     * @param retries  重试次数（等待同步后再次尝试获取的次数）
+     * @param success  是否获取成功
+     */
+    void onAcquired(String type, String key, long time, int retries, boolean success);
+
+    /**
+     * 锁或许可被完全释放
+     *
+     * @param type     类型（mutex-lock、read-lock、write-lock、semaphore）
+     * @param key      标识
+     * @param holdTime 持有时长（纳秒）
+     */
+    void onReleased(String type, String key, long holdTime);
+
+    /**
+     * 等待同步结束
+     *
+     * @param syncType 同步类型
+     * @param key      标识
+     * @param notified true 被同步消息唤醒；false 等待超时
+     */
+    void onWaited(Server.SyncType syncType, String key, boolean notified);
+
+    /**
+     * redis脚本执行结束
+     *
+     * @param script  脚本名称
+     * @param time    耗时（纳秒）
+     * @param success 是否执行成功（未抛出异常）
+     */
+    void onScriptEvaluated(String script, long time, boolean success);
+
+    /**
+     * 线程池被创建
+     *
+     * @param name     线程池名称
+     * @param executor 线程池
+     */
+    void onExecutorCreated(String name, ThreadPoolExecutor executor);
+
+    /**
+     * redis消息因线程池已满而被丢弃
+     *
+     * @param executor 线程池名称
+     */
+    void onMessageDropped(String executor);
+}
@@ -0,0 +1,138 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 15:54 创建
+ */
+package org.antframework.sync.metrics.micrometer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.antframework.sync.extension.Server;
+import org.antframework.sync.metrics.SyncMetrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 基于micrometer的指标收集器
+ * <p>
+ * 指标不以key作为tag（key的取值往往没有上限），只以类型、结果、脚本名称等有限取值作为tag：
+ * <ul>
+ * <li>sync.acquire：获取锁或许可的耗时（tag：type、result）</li>
+ * <li>sync.acquire.retries：获取锁或许可的重试次数（tag：type、result）</li>
+ * <li>sync.hold：持有锁或许可的时长（tag：type）</li>
+ * <li>sync.wait：等待同步的结果（tag：sync-type、result=notified|timeout）</li>
+ * <li>sync.redis.script：redis脚本执行耗时（tag：script、result）</li>
+ * <li>sync.redis.message.dropped：因线程池已满而被丢弃的redis消息数量（tag：executor）</li>
+ * <li>executor.*：线程池的活跃线程数、排队任务数、队列剩余容量等（tag：name）</li>
+ * </ul>
+ */
+public class MicrometerSyncMetrics implements SyncMetrics {
+    // 成功
+    private static final String SUCCESS = "success";
+    // 失败
+    private static final String FAILURE = "failure";
+
+    // 指标注册中心
+    private final MeterRegistry registry;
+    // 获取耗时的缓存
+    private final Map<String, Timer> acquireTimers = new ConcurrentHashMap<>();
+    // 获取重试次数的缓存
+    private final Map<String, DistributionSummary> acquireRetries = new ConcurrentHashMap<>();
+    // 持有时长的缓存
+    private final Map<String, Timer> holdTimers = new ConcurrentHashMap<>();
+    // 等待同步结果的缓存
+    private final Map<String, Counter> waitCounters = new ConcurrentHashMap<>();
+    // 脚本执行耗时的缓存
+    private final Map<String, Timer> scriptTimers = new ConcurrentHashMap<>();
+    // 丢弃消息数量的缓存
+    private final Map<String, Counter> droppedCounters = new ConcurrentHashMap<>();
+
+    public MicrometerSyncMetrics(MeterRegistry registry) {
+        if (registry == null) {
+            throw new IllegalArgumentException("registry不能为null");
+        }
+        this.registry = registry;
+    }
+
+    @Override
+    public void onAcquired(String type, String key, long time, int retries, boolean success) {
+        String result = success ? SUCCESS : FAILURE;
+        String cacheKey = type + '|' + result;
+        getMeter(acquireTimers, cacheKey, k -> Timer.builder("sync.acquire")
+                .description("获取锁或许可的耗时")
+                .tags("type", type, "result", result)
+                .publishPercentileHistogram()
+                .register(registry))
+                .record(time, TimeUnit.NANOSECONDS);
+        getMeter(acquireRetries, cacheKey, k -> DistributionSummary.builder("sync.acquire.retries")
+                .description("获取锁或许可的重试次数")
+                .tags("type", type, "result", result)
+                .register(registry))
+                .record(retries);
+    }
+
+    @Override
+    public void onReleased(String type, String key, long holdTime) {
+        getMeter(holdTimers, type, k -> Timer.builder("sync.hold")
+                .description("持有锁或许可的时长")
+                .tags("type", type)
+                .publishPercentileHistogram()
+                .register(registry))
+                .record(holdTime, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onWaited(Server.SyncType syncType, String key, boolean notified) {
+        String result = notified ? "notified" : "timeout";
+        getMeter(waitCounters, syncType.name() + '|' + result, k -> Counter.builder("sync.wait")
+                .description("等待同步的结果（被同步消息唤醒或等待超时）")
+                .tags("sync-type", syncType.name(), "result", result)
+                .register(registry))
+                .increment();
+    }
+
+    @Override
+    public void onScriptEvaluated(String script, long time, boolean success) {
+        String result = success ? SUCCESS : FAILURE;
+        getMeter(scriptTimers, script + '|' + result, k -> Timer.builder("sync.redis.script")
+                .description("redis脚本执行耗时")
+                .tags("script", script, "result", result)
+                .publishPercentileHistogram()
+                .register(registry))
+                .record(time, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onExecutorCreated(String name, ThreadPoolExecutor executor) {
+        new ExecutorServiceMetrics(executor, "sync-" + name, Tags.empty()).bindTo(registry);
+    }
+
+    @Override
+    public void onMessageDropped(String executor) {
+        getMeter(droppedCounters, executor, k -> Counter.builder("sync.redis.message.dropped")
+                .description("因线程池已满而被丢弃的redis消息数量")
+                .tags("executor", executor)
+                .register(registry))
+                .increment();
+    }
+
+    // 获取指标（先从缓存中获取，避免每次都到注册中心查找）
+    private static <T> T getMeter(Map<String, T> cache, String cacheKey, Function<String, T> creator) {
+        T meter = cache.get(cacheKey);
+        if (meter == null) {
+            meter = cache.computeIfAbsent(cacheKey, creator);
+        }
+        return meter;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 15:54 创建
+ */
+package org.antframework.sync.metrics.support;
+
+import org.antframework.sync.extension.Server;
+import org.antframework.sync.metrics.SyncMetrics;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 不收集任何指标的指标收集器
+ */
+public final class NoopSyncMetrics implements SyncMetrics {
+    /**
+     * 实例
+     */
+    public static final NoopSyncMetrics INSTANCE = new NoopSyncMetrics();
+
+    private NoopSyncMetrics() {
+    }
+
+    @Override
+    public void onAcquired(String type, String key, long time, int retries, boolean success) {
+    }
+
+    @Override
+    public void onReleased(String type, String key, long holdTime) {
+    }
+
+    @Override
+    public void onWaited(Server.SyncType syncType, String key, boolean notified) {
+    }
+
+    @Override
+    public void onScriptEvaluated(String script, long time, boolean success) {
+    }
+
+    @Override
+    public void onExecutorCreated(String name, ThreadPoolExecutor executor) {
+    }
+
+    @Override
+    public void onMessageDropped(String executor) {
+    }
+}
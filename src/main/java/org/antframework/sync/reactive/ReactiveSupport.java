@@ -0,0 +1,150 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 16:29 创建
+ */
+package org.antframework.sync.reactive;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+/**
+ * reactor支持
+ * <p>
+ * 只有存在reactor时才能使用该类。
+ */
+public final class ReactiveSupport {
+    // 永远等待时每次异步获取的超时时间（毫秒）
+    private static final long FOREVER_ATTEMPT_TIMEOUT = TimeUnit.HOURS.toMillis(1);
+
+    private ReactiveSupport() {
+    }
+
+    /**
+     * 是否是reactor的返回类型（Mono或Flux）
+     *
+     * @param returnType 返回类型
+     * @return true 是；false 否
+     */
+    public static boolean isReactiveType(Class<?> returnType) {
+        return Mono.class.isAssignableFrom(returnType) || Flux.class.isAssignableFrom(returnType);
+    }
+
+    /**
+     * 将异步获取转换为Mono（订阅时才开始获取；取消订阅时放弃获取，已获取到的凭证会被释放）
+     *
+     * @param acquirer          异步获取器（入参为超时时间（毫秒）；future以null完成表示超时）
+     * @param timeout           超时时间（毫秒；负数表示永远等待）
+     * @param releaser          释放器
+     * @param timeoutExceptions 超时异常提供者
+     * @param handleType        凭证类型
+     * @param <H>               凭证类型
+     * @return 获取成功时发出凭证；超时时发出超时异常
+     */
+    public static <H> Mono<H> acquire(LongFunction<CompletableFuture<H>> acquirer,
+                                      long timeout,
+                                      Consumer<H> releaser,
+                                      Supplier<TimeoutException> timeoutExceptions,
+                                      Class<H> handleType) {
+        Mono<H> handle = Mono.<H>create(sink -> {
+            CompletableFuture<H> future = acquirer.apply(timeout < 0 ? FOREVER_ATTEMPT_TIMEOUT : timeout);
+            sink.onCancel(() -> future.cancel(false));
+            future.whenComplete((h, e) -> {
+                if (e == null) {
+                    sink.success(h);
+                } else if (!(e instanceof CancellationException)) {
+                    sink.error(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                }
+            });
+        }).doOnDiscard(handleType, releaser);
+        if (timeout < 0) {
+            return handle.repeatWhenEmpty(Integer.MAX_VALUE, emptyTimes -> emptyTimes);
+        }
+        return handle.switchIfEmpty(Mono.error(timeoutExceptions));
+    }
+
+    /**
+     * 在持有凭证期间执行Mono（Mono完成、出错、被取消时释放凭证）
+     *
+     * @param handle   凭证
+     * @param action   动作
+     * @param releaser 释放器（在弹性线程池中执行，避免阻塞事件循环线程）
+     * @param <H>      凭证类型
+     * @param <T>      元素类型
+     * @return Mono
+     */
+    public static <H, T> Mono<T> usingMono(Mono<H> handle, Supplier<? extends Mono<T>> action, Consumer<H> releaser) {
+        return Mono.usingWhen(
+                handle,
+                h -> action.get(),
+                h -> release(h, releaser),
+                (h, e) -> release(h, releaser),
+                h -> release(h, releaser));
+    }
+
+    /**
+     * 在持有凭证期间执行Flux（Flux完成、出错、被取消时释放凭证）
+     *
+     * @param handle   凭证
+     * @param action   动作
+     * @param releaser 释放器（在弹性线程池中执行，避免阻塞事件循环线程）
+     * @param <H>      凭证类型
+     * @param <T>      元素类型
+     * @return Flux
+     */
+    public static <H, T> Flux<T> usingFlux(Mono<H> handle, Supplier<? extends Publisher<T>> action, Consumer<H> releaser) {
+        return Flux.usingWhen(
+                handle,
+                h -> action.get(),
+                h -> release(h, releaser),
+                (h, e) -> release(h, releaser),
+                h -> release(h, releaser));
+    }
+
+    /**
+     * 在持有凭证期间执行切面方法（切面方法的返回类型必须是Mono或Flux）
+     *
+     * @param handle     凭证
+     * @param pjp        切面
+     * @param returnType 切面方法的返回类型
+     * @param releaser   释放器
+     * @param <H>        凭证类型
+     * @return 与切面方法的返回类型一致的Mono或Flux
+     */
+    public static <H> Object proceed(Mono<H> handle, ProceedingJoinPoint pjp, Class<?> returnType, Consumer<H> releaser) {
+        if (Mono.class.isAssignableFrom(returnType)) {
+            return usingMono(handle, () -> Mono.from(proceed(pjp)), releaser);
+        }
+        return usingFlux(handle, () -> Flux.from(proceed(pjp)), releaser);
+    }
+
+    // 执行切面方法（切面方法返回null时视为空的Mono）
+    private static Publisher<?> proceed(ProceedingJoinPoint pjp) {
+        try {
+            Object result = pjp.proceed();
+            return result == null ? Mono.empty() : (Publisher<?>) result;
+        } catch (Throwable e) {
+            return Mono.error(e);
+        }
+    }
+
+    // 释放凭证
+    private static <H> Mono<Void> release(H handle, Consumer<H> releaser) {
+        return Mono.<Void>fromRunnable(() -> releaser.accept(handle)).subscribeOn(Schedulers.boundedElastic());
+    }
+}
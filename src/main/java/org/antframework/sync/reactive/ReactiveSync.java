@@ -0,0 +1,154 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 16:29 创建
+ */
+package org.antframework.sync.reactive;
+
+import org.antframework.sync.SyncContext;
+import org.antframework.sync.lock.AsyncLockHandle;
+import org.antframework.sync.lock.LockContext;
+import org.antframework.sync.semaphore.AsyncSemaphoreHandle;
+import org.antframework.sync.semaphore.SemaphoreContext;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 响应式Sync（基于reactor，不阻塞线程）
+ * <p>
+ * 获取锁、许可的Mono在订阅时才开始获取，取消订阅时放弃获取；超时时发出TimeoutException。
+ * 锁、许可归属于凭证而不是线程，不可重入。
+ */
+public class ReactiveSync {
+    // 锁上下文
+    private final LockContext lockContext;
+    // 信号量上下文
+    private final SemaphoreContext semaphoreContext;
+
+    public ReactiveSync(SyncContext syncContext) {
+        this.lockContext = syncContext.getLockContext();
+        this.semaphoreContext = syncContext.getSemaphoreContext();
+    }
+
+    /**
+     * 加互斥锁
+     *
+     * @param key     锁标识
+     * @param timeout 超时时间（毫秒；负数表示永远等待）
+     * @return 锁的凭证
+     */
+    public Mono<AsyncLockHandle> lock(Object key, long timeout) {
+        return ReactiveSupport.acquire(
+                t -> lockContext.tryLockAsync(key, t, TimeUnit.MILLISECONDS),
+                timeout,
+                AsyncLockHandle::unlock,
+                () -> new TimeoutException(String.format("加锁失败：key=%s", key)),
+                AsyncLockHandle.class);
+    }
+
+    /**
+     * 加读锁
+     *
+     * @param key     锁标识
+     * @param timeout 超时时间（毫秒；负数表示永远等待）
+     * @return 锁的凭证
+     */
+    public Mono<AsyncLockHandle> readLock(Object key, long timeout) {
+        return ReactiveSupport.acquire(
+                t -> lockContext.tryReadLockAsync(key, t, TimeUnit.MILLISECONDS),
+                timeout,
+                AsyncLockHandle::unlock,
+                () -> new TimeoutException(String.format("加读锁失败：key=%s", key)),
+                AsyncLockHandle.class);
+    }
+
+    /**
+     * 加写锁
+     *
+     * @param key     锁标识
+     * @param timeout 超时时间（毫秒；负数表示永远等待）
+     * @return 锁的凭证
+     */
+    public Mono<AsyncLockHandle> writeLock(Object key, long timeout) {
+        return ReactiveSupport.acquire(
+                t -> lockContext.tryWriteLockAsync(key, t, TimeUnit.MILLISECONDS),
+                timeout,
+                AsyncLockHandle::unlock,
+                () -> new TimeoutException(String.format("加写锁失败：key=%s", key)),
+                AsyncLockHandle.class);
+    }
+
+    /**
+     * 获取信号量许可
+     *
+     * @param key          信号量标识
+     * @param totalPermits 许可总数
+     * @param permits      获取的许可数
+     * @param timeout      超时时间（毫秒；负数表示永远等待）
+     * @return 许可的凭证
+     */
+    public Mono<AsyncSemaphoreHandle> acquire(Object key, int totalPermits, int permits, long timeout) {
+        return ReactiveSupport.acquire(
+                t -> semaphoreContext.tryAcquireAsync(key, totalPermits, permits, t, TimeUnit.MILLISECONDS),
+                timeout,
+                AsyncSemaphoreHandle::release,
+                () -> new TimeoutException(String.format("获取许可失败：key=%s", key)),
+                AsyncSemaphoreHandle.class);
+    }
+
+    /**
+     * 持有锁期间执行Mono（Mono完成、出错、被取消时解锁）
+     *
+     * @param lock   锁的凭证（比如lock、readLock、writeLock的返回值）
+     * @param action 动作
+     * @param <T>    元素类型
+     * @return Mono
+     */
+    public <T> Mono<T> withLock(Mono<AsyncLockHandle> lock, Supplier<? extends Mono<T>> action) {
+        return ReactiveSupport.usingMono(lock, action, AsyncLockHandle::unlock);
+    }
+
+    /**
+     * 持有锁期间执行Flux（Flux完成、出错、被取消时解锁）
+     *
+     * @param lock   锁的凭证（比如lock、readLock、writeLock的返回值）
+     * @param action 动作
+     * @param <T>    元素类型
+     * @return Flux
+     */
+    public <T> Flux<T> withLockMany(Mono<AsyncLockHandle> lock, Supplier<? extends Publisher<T>> action) {
+        return ReactiveSupport.usingFlux(lock, action, AsyncLockHandle::unlock);
+    }
+
+    /**
+     * 持有许可期间执行Mono（Mono完成、出错、被取消时释放许可）
+     *
+     * @param permits 许可的凭证（acquire的返回值）
+     * @param action  动作
+     * @param <T>     元素类型
+     * @return Mono
+     */
+    public <T> Mono<T> withPermits(Mono<AsyncSemaphoreHandle> permits, Supplier<? extends Mono<T>> action) {
+        return ReactiveSupport.usingMono(permits, action, AsyncSemaphoreHandle::release);
+    }
+
+    /**
+     * 持有许可期间执行Flux（Flux完成、出错、被取消时释放许可）
+     *
+     * @param permits 许可的凭证（acquire的返回值）
+     * @param action  动作
+     * @param <T>     元素类型
+     * @return Flux
+     */
+    public <T> Flux<T> withPermitsMany(Mono<AsyncSemaphoreHandle> permits, Supplier<? extends Publisher<T>> action) {
+        return ReactiveSupport.usingFlux(permits, action, AsyncSemaphoreHandle::release);
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 16:26 创建
+ */
+package org.antframework.sync.semaphore;
+
+/**
+ * 异步获取的信号量许可的持有凭证
+ * <p>
+ * 许可归属于凭证而不是线程，可以在任意线程中释放。
+ */
+public interface AsyncSemaphoreHandle {
+    /**
+     * 获取信号量标识
+     *
+     * @return 信号量标识
+     */
+    String getKey();
+
+    /**
+     * 获取持有的许可数
+     *
+     * @return 许可数
+     */
+    int getPermits();
+
+    /**
+     * 释放持有的全部许可（重复释放不做任何处理）
+     */
+    void release();
+}
@@ -0,0 +1,28 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 16:56 创建
+ */
+package org.antframework.sync.semaphore;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 可延长租期的信号量
+ * <p>
+ * 以租期模式获取许可时，许可在服务端只保持租期的时长，服务端不维护（不续期），到期自动释放；持有时间可能超过租期时需调用extendLease延长租期。
+ * 以非租期模式获取许可时，许可由服务端维护直到释放，无需延长租期。
+ */
+public interface LeaseSemaphore extends Semaphore {
+    /**
+     * 延长租期（从现在开始重新计算；非租期模式的信号量由服务端维护，持有许可期间直接返回true）
+     *
+     * @param leaseTime 租期
+     * @param unit      时间单位
+     * @return true 延长成功；false 延长失败（未持有许可或许可已过期）
+     */
+    boolean extendLease(long leaseTime, TimeUnit unit);
+}
@@ -8,13 +8,20 @@
  */
 package org.antframework.sync.semaphore;
 
+import org.antframework.sync.SyncOptions;
+import org.antframework.sync.common.AsyncAcquisition;
+import org.antframework.sync.common.HandleTable;
 import org.antframework.sync.common.SyncExecutor;
-import org.antframework.sync.common.SyncUtils;
 import org.antframework.sync.extension.Server;
+import org.antframework.sync.metrics.SyncMetrics;
 import org.antframework.sync.semaphore.core.DefaultServerSemaphore;
+import org.antframework.sync.semaphore.core.ServerAsyncSemaphoreHandle;
 import org.antframework.sync.semaphore.support.SemaphoreServer;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * 信号量上下文
@@ -22,32 +29,161 @@ import java.util.function.Function;
 public class SemaphoreContext {
     // key转换器
     private final Function<Object, String> keyConverter;
+    // 线程内复用的信号量持有器（每个线程一个弱引用信号量的凭证表，未持有许可的信号量在凭证表满时被淘汰）
+    private final ThreadLocal<HandleTable<DefaultServerSemaphore>> semaphores;
     // Sync执行器
     private final SyncExecutor syncExecutor;
+    // id生成器
+    private final Supplier<String> idGenerator;
+    // 指标收集器
+    private final SyncMetrics metrics;
     // 信号量服务端
     private final SemaphoreServer semaphoreServer;
 
     public SemaphoreContext(Function<Object, String> keyConverter,
                             SyncExecutor syncExecutor,
                             Server server,
-                            long maxWaitTime) {
+                            long maxWaitTime,
+                            SyncMetrics metrics) {
+        this(keyConverter, syncExecutor, server, toOptions(maxWaitTime), metrics);
+    }
+
+    public SemaphoreContext(Function<Object, String> keyConverter,
+                            SyncExecutor syncExecutor,
+                            Server server,
+                            SyncOptions options,
+                            SyncMetrics metrics) {
         this.keyConverter = keyConverter;
         this.syncExecutor = syncExecutor;
-        this.semaphoreServer = new SemaphoreServer(server, maxWaitTime);
+        this.idGenerator = options.getIdGenerator();
+        this.metrics = metrics;
+        this.semaphoreServer = new SemaphoreServer(server, syncExecutor, options, metrics);
+        int handleTableSize = options.getHandleTableSize();
+        this.semaphores = ThreadLocal.withInitial(() -> new HandleTable<>(handleTableSize, semaphore -> semaphore.getAcquiredPermits() > 0));
     }
 
     /**
-     * 获取信号量
+     * 获取信号量（每次获取到的都是新的信号量）
      *
      * @param key          信号量标识
      * @param totalPermits 许可总数
      * @return 信号量
      */
     public Semaphore getSemaphore(Object key, int totalPermits) {
+        return newSemaphore(convertKey(key), totalPermits, 0);
+    }
+
+    /**
+     * 获取租期模式的信号量（每次获取到的都是新的信号量；许可在服务端只保持租期的时长，不自动续期，适用于很短的临界区）
+     *
+     * @param key          信号量标识
+     * @param totalPermits 许可总数
+     * @param leaseTime    租期
+     * @param unit         时间单位
+     * @return 信号量
+     */
+    public LeaseSemaphore getSemaphore(Object key, int totalPermits, long leaseTime, TimeUnit unit) {
+        return newSemaphore(convertKey(key), totalPermits, toLeaseMillis(leaseTime, unit));
+    }
+
+    /**
+     * 获取线程内复用的信号量（与锁一样归属于线程，避免每次调用都新建信号量和信号量持有者id）
+     * <p>
+     * 同一个线程对同一个信号量标识和许可总数获取到的是同一个信号量，替换规则：
+     * <ul>
+     *     <li>许可总数不同时：未持有许可的信号量被替换；已持有许可时返回一个新的不复用的信号量，持有中的信号量保留</li>
+     *     <li>租期不同时：未持有许可的信号量被替换；已持有许可时返回持有中的信号量</li>
+     * </ul>
+     * 获取许可后需一直引用返回的信号量直到释放：持有许可期间就不再被引用的信号量会被当作泄漏，被回收后强制释放。
+     *
+     * @param key          信号量标识
+     * @param totalPermits 许可总数
+     * @return 信号量
+     */
+    public Semaphore getThreadSemaphore(Object key, int totalPermits) {
+        return getThreadSemaphore(convertKey(key), totalPermits, 0);
+    }
+
+    /**
+     * 获取线程内复用的租期模式的信号量（复用和替换规则与{@link #getThreadSemaphore(Object, int)}相同）
+     *
+     * @param key          信号量标识
+     * @param totalPermits 许可总数
+     * @param leaseTime    租期
+     * @param unit         时间单位
+     * @return 信号量
+     */
+    public LeaseSemaphore getThreadSemaphore(Object key, int totalPermits, long leaseTime, TimeUnit unit) {
+        return getThreadSemaphore(convertKey(key), totalPermits, toLeaseMillis(leaseTime, unit));
+    }
+
+    // 获取线程内复用的信号量（leaseTime：租期，0表示由服务端维护；未持有许可的信号量的许可总数或租期不同时替换）
+    private DefaultServerSemaphore getThreadSemaphore(String key, int totalPermits, long leaseTime) {
+        HandleTable<DefaultServerSemaphore> table = semaphores.get();
+        DefaultServerSemaphore semaphore = table.get(key);
+        if (semaphore == null
+                || semaphore.getTotalPermits() != totalPermits
+                || (semaphore.getLeaseTime() != leaseTime && semaphore.getAcquiredPermits() <= 0)) {
+            DefaultServerSemaphore newSemaphore = newSemaphore(key, totalPermits, leaseTime);
+            if (semaphore == null || semaphore.getAcquiredPermits() <= 0) {
+                table.put(key, newSemaphore);
+            }
+            semaphore = newSemaphore;
+        }
+        return semaphore;
+    }
+
+    // 新建信号量（leaseTime：租期，0表示由服务端维护）
+    private DefaultServerSemaphore newSemaphore(String key, int totalPermits, long leaseTime) {
         if (totalPermits < 0) {
             throw new IllegalArgumentException("totalPermits不能小于0");
         }
-        return new DefaultServerSemaphore(convertKey(key), SyncUtils.newId(), totalPermits, syncExecutor, semaphoreServer);
+        return new DefaultServerSemaphore(key, idGenerator.get(), totalPermits, leaseTime, syncExecutor, semaphoreServer, metrics);
+    }
+
+    /**
+     * 异步获取信号量许可（不阻塞线程；许可归属于返回的凭证而不是线程）
+     *
+     * @param key          信号量标识
+     * @param totalPermits 许可总数
+     * @param permits      获取的许可数
+     * @param timeout      超时时间
+     * @param unit         时间单位
+     * @return 获取成功时完成为许可的凭证；超时时完成为null
+     */
+    public CompletableFuture<AsyncSemaphoreHandle> tryAcquireAsync(Object key, int totalPermits, int permits, long timeout, TimeUnit unit) {
+        if (permits <= 0 || permits > totalPermits) {
+            throw new IllegalArgumentException(String.format("获取的许可数[%s]必须大于0且不能超过许可总数[%s]", permits, totalPermits));
+        }
+        String convertedKey = convertKey(key);
+        String semaphorerId = idGenerator.get();
+        long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+        return new AsyncAcquisition<AsyncSemaphoreHandle>(
+                syncExecutor,
+                d -> semaphoreServer.acquire(convertedKey, semaphorerId, permits, totalPermits, d),
+                () -> semaphoreServer.removeWaiter(convertedKey, semaphorerId),
+                () -> new ServerAsyncSemaphoreHandle(convertedKey, semaphorerId, permits, totalPermits, semaphoreServer, syncExecutor, metrics),
+                AsyncSemaphoreHandle::release,
+                deadline,
+                SyncMetrics.SEMAPHORE,
+                convertedKey,
+                metrics).start();
+    }
+
+    // 转换为选项
+    private static SyncOptions toOptions(long maxWaitTime) {
+        SyncOptions options = new SyncOptions();
+        options.setMaxWaitTime(maxWaitTime);
+        return options;
+    }
+
+    // 转换为租期（毫秒）
+    private static long toLeaseMillis(long leaseTime, TimeUnit unit) {
+        long leaseMillis = unit.toMillis(leaseTime);
+        if (leaseMillis <= 0) {
+            throw new IllegalArgumentException(String.format("租期[%d %s]必须大于0毫秒", leaseTime, unit));
+        }
+        return leaseMillis;
     }
 
     // 转换key
@@ -10,18 +10,17 @@ package org.antframework.sync.semaphore.annotation.support;
 
 import lombok.AllArgsConstructor;
 import org.antframework.sync.common.ExpressionEvaluator;
+import org.antframework.sync.common.WaiterLimit;
+import org.antframework.sync.reactive.ReactiveSupport;
+import org.antframework.sync.semaphore.AsyncSemaphoreHandle;
 import org.antframework.sync.semaphore.Semaphore;
 import org.antframework.sync.semaphore.SemaphoreContext;
-import org.apache.commons.lang3.StringUtils;
 import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.Signature;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.reflect.MethodSignature;
-import org.springframework.aop.framework.AopProxyUtils;
-import org.springframework.context.expression.AnnotatedElementKey;
 import org.springframework.core.Ordered;
 import org.springframework.expression.EvaluationContext;
+import org.springframework.util.ClassUtils;
 
 import java.lang.reflect.Method;
 import java.util.concurrent.TimeUnit;
@@ -30,10 +29,15 @@ import java.util.function.Function;
 
 /**
  * 信号量切面
+ * <p>
+ * 方法的返回类型为Mono或Flux（存在reactor）时，不阻塞线程地异步获取许可，在Mono或Flux完成、出错、被取消时释放许可。
  */
 @Aspect
 @AllArgsConstructor
 public class SemaphoreAop implements Ordered {
+    // 是否存在reactor
+    private static final boolean REACTOR_PRESENT = ClassUtils.isPresent("reactor.core.publisher.Mono", SemaphoreAop.class.getClassLoader());
+
     // 表达式计算器
     private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
     // 信号量上下文
@@ -48,46 +52,69 @@ public class SemaphoreAop implements Ordered {
     public Object semaphore(ProceedingJoinPoint pjp, org.antframework.sync.semaphore.annotation.Semaphore semaphoreAnnotation) throws Throwable {
         return doAop(
                 pjp,
-                semaphoreAnnotation.condition(),
-                semaphoreAnnotation.key(),
+                evaluator.getPlan(pjp, semaphoreAnnotation, semaphoreAnnotation.condition(), semaphoreAnnotation.key()),
                 semaphoreAnnotation.permits(),
                 semaphoreAnnotation.timeout(),
+                semaphoreAnnotation.leaseTime(),
+                semaphoreAnnotation.maxWaiters(),
                 semaphoreAnnotation);
     }
 
     // 执行aop
     private Object doAop(ProceedingJoinPoint pjp,
-                         String conditionExpression,
-                         String keyExpression,
+                         ExpressionEvaluator.InvocationPlan plan,
                          int permits,
                          long timeout,
+                         long leaseTime,
+                         int maxWaiters,
                          Object annotation) throws Throwable {
         // 准备数据
-        Class<?> targetClass = AopProxyUtils.ultimateTargetClass(pjp.getThis());
-        Method method = getMethod(pjp, annotation);
-        EvaluationContext evalContext = evaluator.getEvalContext(
-                targetClass,
-                pjp.getThis(),
-                method,
-                pjp.getArgs());
-        AnnotatedElementKey methodKey = new AnnotatedElementKey(method, targetClass);
+        Method method = plan.getMethod();
+        Object[] args = pjp.getArgs();
+        EvaluationContext evalContext = plan.isEvalContextRequired() ? plan.newEvalContext(pjp.getThis(), args) : null;
         // 计算条件
-        if (StringUtils.isNotEmpty(conditionExpression)) {
-            boolean condition = evaluator.evalCondition(conditionExpression, evalContext, methodKey);
-            if (!condition) {
-                return pjp.proceed();
-            }
+        if (!plan.evalCondition(evalContext)) {
+            return pjp.proceed();
         }
         // 计算key
-        Object key = evaluator.evalKey(keyExpression, evalContext, methodKey);
+        Object key = plan.evalKey(evalContext, args);
+        int totalPermits = totalPermitsFunction.apply(key.toString());
+        if (REACTOR_PRESENT && ReactiveSupport.isReactiveType(method.getReturnType())) {
+            if (leaseTime >= 0) {
+                throw new IllegalArgumentException(String.format("响应式方法不支持租期模式：method=%s,信号量注解=%s", method, annotation));
+            }
+            if (maxWaiters >= 0) {
+                throw new IllegalArgumentException(String.format("响应式方法不支持指定maxWaiters：method=%s,信号量注解=%s", method, annotation));
+            }
+            // 异步获取许可
+            return ReactiveSupport.proceed(
+                    ReactiveSupport.acquire(
+                            t -> semaphoreContext.tryAcquireAsync(key, totalPermits, permits, t, TimeUnit.MILLISECONDS),
+                            timeout,
+                            AsyncSemaphoreHandle::release,
+                            () -> new TimeoutException(String.format("获取许可失败：method=%s,信号量注解=%s,key=%s", method, annotation, key)),
+                            AsyncSemaphoreHandle.class),
+                    pjp,
+                    method.getReturnType(),
+                    AsyncSemaphoreHandle::release);
+        }
         // 获取许可
-        Semaphore semaphore = semaphoreContext.getSemaphore(key, totalPermitsFunction.apply(key.toString()));
-        if (timeout < 0) {
-            semaphore.acquire(permits);
-        } else {
-            boolean success = semaphore.tryAcquire(permits, timeout, TimeUnit.MILLISECONDS);
-            if (!success) {
-                throw new TimeoutException(String.format("获取许可失败：method=%s,信号量注解=%s,key=%s", method, annotation, key));
+        Semaphore semaphore = leaseTime < 0
+                ? semaphoreContext.getThreadSemaphore(key, totalPermits)
+                : semaphoreContext.getThreadSemaphore(key, totalPermits, leaseTime, TimeUnit.MILLISECONDS);
+        Integer previousMaxWaiters = maxWaiters >= 0 ? WaiterLimit.set(maxWaiters) : null;
+        try {
+            if (timeout < 0) {
+                semaphore.acquire(permits);
+            } else {
+                boolean success = semaphore.tryAcquire(permits, timeout, TimeUnit.MILLISECONDS);
+                if (!success) {
+                    throw new TimeoutException(String.format("获取许可失败：method=%s,信号量注解=%s,key=%s", method, annotation, key));
+                }
+            }
+        } finally {
+            if (maxWaiters >= 0) {
+                WaiterLimit.restore(previousMaxWaiters);
             }
         }
         try {
@@ -98,15 +125,6 @@ public class SemaphoreAop implements Ordered {
         }
     }
 
-    // 获取方法
-    private Method getMethod(ProceedingJoinPoint pjp, Object annotation) {
-        Signature signature = pjp.getSignature();
-        if (!(signature instanceof MethodSignature)) {
-            throw new UnsupportedOperationException(String.format("注解[%s]只能在方法上使用", annotation));
-        }
-        return ((MethodSignature) signature).getMethod();
-    }
-
     @Override
     public int getOrder() {
         return order;
@@ -8,12 +8,14 @@
  */
 package org.antframework.sync.semaphore.core;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.antframework.sync.common.SyncWaiter;
 import org.antframework.sync.semaphore.Semaphore;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 抽象信号量
@@ -22,6 +24,9 @@ import java.util.concurrent.TimeUnit;
 public abstract class AbstractSemaphore implements Semaphore {
     // 获取到的许可
     private int acquiredPermits = 0;
+    // 监视锁（获取、释放许可时会访问服务端，不使用synchronized以免虚拟线程在网络I/O期间钉住载体线程）
+    @Getter(AccessLevel.NONE)
+    private final ReentrantLock monitor = new ReentrantLock();
 
     @Override
     public void acquire() throws InterruptedException {
@@ -63,27 +68,51 @@ public abstract class AbstractSemaphore implements Semaphore {
             }
             return true;
         }
+        long startTime = System.nanoTime();
         long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
-        SyncWaiter waiter = acquirePermits(permits, deadline);
-        while (waiter != null) {
-            long time = deadline - System.currentTimeMillis();
-            if (time <= 0) {
-                return false;
+        int retries = 0;
+        boolean success = false;
+        try {
+            SyncWaiter waiter = acquirePermits(permits, deadline);
+            while (waiter != null) {
+                long time = deadline - System.currentTimeMillis();
+                if (time <= 0) {
+                    return false;
+                }
+                waiter.waitSync(time);
+                retries++;
+                waiter = acquirePermits(permits, deadline);
             }
-            waiter.waitSync(time);
-            waiter = acquirePermits(permits, deadline);
+            success = true;
+            return true;
+        } finally {
+            afterTryAcquire(success, System.nanoTime() - startTime, retries);
         }
-        return true;
+    }
+
+    /**
+     * 当tryAcquire方法执行结束后执行（默认不做任何处理）
+     *
+     * @param success 是否获取成功
+     * @param time    耗时（纳秒）
+     * @param retries 重试次数
+     */
+    protected void afterTryAcquire(boolean success, long time, int retries) {
     }
 
     // 获取许可（返回null表示获取成功；否则失败）
-    private synchronized SyncWaiter acquirePermits(int permits, long deadline) {
-        int newPermits = acquiredPermits + permits;
-        SyncWaiter waiter = doAcquire(newPermits, deadline);
-        if (waiter == null) {
-            acquiredPermits = newPermits;
+    private SyncWaiter acquirePermits(int permits, long deadline) {
+        monitor.lock();
+        try {
+            int newPermits = acquiredPermits + permits;
+            SyncWaiter waiter = doAcquire(newPermits, deadline);
+            if (waiter == null) {
+                acquiredPermits = newPermits;
+            }
+            return waiter;
+        } finally {
+            monitor.unlock();
         }
-        return waiter;
     }
 
     /**
@@ -112,10 +141,15 @@ public abstract class AbstractSemaphore implements Semaphore {
     }
 
     // 释放许可
-    private synchronized void releasePermits(int permits) {
-        if (acquiredPermits > 0) {
-            acquiredPermits = Math.max(acquiredPermits - permits, 0);
-            doRelease(acquiredPermits);
+    private void releasePermits(int permits) {
+        monitor.lock();
+        try {
+            if (acquiredPermits > 0) {
+                acquiredPermits = Math.max(acquiredPermits - permits, 0);
+                doRelease(acquiredPermits);
+            }
+        } finally {
+            monitor.unlock();
         }
     }
 
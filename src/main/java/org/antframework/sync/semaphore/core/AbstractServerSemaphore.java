@@ -8,21 +8,26 @@
  */
 package org.antframework.sync.semaphore.core;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.antframework.sync.common.LeakDetector;
 import org.antframework.sync.common.SyncExecutor;
 import org.antframework.sync.common.SyncWaiter;
+import org.antframework.sync.metrics.SyncMetrics;
+import org.antframework.sync.semaphore.LeaseSemaphore;
 import org.antframework.sync.semaphore.support.SemaphoreDestroyer;
 
 import java.util.concurrent.TimeUnit;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * 抽象基于服务端的信号量
  */
-@AllArgsConstructor
+@RequiredArgsConstructor
 @Slf4j
-public abstract class AbstractServerSemaphore extends AbstractSemaphore {
+public abstract class AbstractServerSemaphore extends AbstractSemaphore implements LeaseSemaphore {
     // 信号量标识
     @Getter
     private final String key;
@@ -32,8 +37,21 @@ public abstract class AbstractServerSemaphore extends AbstractSemaphore {
     // 许可总数
     @Getter
     private final int totalPermits;
+    // 租期（毫秒，大于0表示以租期模式获取许可；否则由服务端维护）
+    @Getter
+    private final long leaseTime;
     // Sync执行器
     private final SyncExecutor syncExecutor;
+    // 指标收集器
+    private final SyncMetrics metrics;
+    // 服务端批量释放器（信号量未释放就被回收时用于强制释放；同一个服务端的信号量共用一个，不能引用信号量对象）
+    private final Consumer<List<SemaphoreDestroyer>> serverReleaser;
+    // 从未持有许可到持有许可的时间（纳秒）
+    private long acquiredTime;
+    // 销毁器
+    private SemaphoreDestroyer destroyer;
+    // 泄漏跟踪器
+    private LeakDetector.Tracker tracker;
 
     @Override
     public boolean tryAcquire(int permits, long timeout, TimeUnit unit) throws InterruptedException {
@@ -44,6 +62,11 @@ public abstract class AbstractServerSemaphore extends AbstractSemaphore {
         }
     }
 
+    @Override
+    protected void afterTryAcquire(boolean success, long time, int retries) {
+        metrics.onAcquired(SyncMetrics.SEMAPHORE, key, time, retries, success);
+    }
+
     /**
      * 当tryAcquire方法执行结束时执行
      */
@@ -57,6 +80,15 @@ public abstract class AbstractServerSemaphore extends AbstractSemaphore {
         log.debug("调用server尝试获取许可：semaphore={},newPermits={}", this, newPermits);
         SyncWaiter waiter = acquireInServer(newPermits, deadline);
         if (waiter == null) {
+            if (getAcquiredPermits() <= 0) {
+                acquiredTime = System.nanoTime();
+                if (tracker == null) {
+                    destroyer = new SemaphoreDestroyer(key, semaphorerId, totalPermits, leaseTime, serverReleaser);
+                    tracker = syncExecutor.getLeakDetector().newTracker(this, destroyer);
+                }
+                tracker.hold();
+            }
+            destroyer.setAcquiredPermits(newPermits);
             log.debug("调用server获取许可成功：semaphore={},newPermits={}", this, newPermits);
         } else {
             log.debug("调用server获取许可失败，需等待：semaphore={},waiter={}", this, waiter);
@@ -77,6 +109,11 @@ public abstract class AbstractServerSemaphore extends AbstractSemaphore {
     protected void doRelease(int newPermits) {
         log.debug("调用server尝试释放许可：semaphore={}", this);
         releaseInServer(newPermits);
+        destroyer.setAcquiredPermits(newPermits);
+        if (newPermits <= 0) {
+            tracker.unhold();
+            metrics.onReleased(SyncMetrics.SEMAPHORE, key, System.nanoTime() - acquiredTime);
+        }
         log.debug("调用server释放许可成功：semaphore={}", this);
     }
 
@@ -88,13 +125,26 @@ public abstract class AbstractServerSemaphore extends AbstractSemaphore {
     protected abstract void releaseInServer(int newPermits);
 
     @Override
-    protected void finalize() throws Throwable {
-        try {
-            if (getAcquiredPermits() > 0) {
-                syncExecutor.execute(new SemaphoreDestroyer(this));
-            }
-        } finally {
-            super.finalize();
+    public boolean extendLease(long leaseTime, TimeUnit unit) {
+        long leaseMillis = unit.toMillis(leaseTime);
+        if (leaseMillis <= 0) {
+            throw new IllegalArgumentException("leaseTime必须大于0");
+        }
+        if (getAcquiredPermits() <= 0) {
+            return false;
         }
+        if (this.leaseTime <= 0) {
+            return true;
+        }
+        log.debug("调用server延长租期：semaphore={},leaseTime={}", this, leaseMillis);
+        return extendLeaseInServer(leaseMillis);
     }
+
+    /**
+     * 在服务端延长租期
+     *
+     * @param leaseTime 租期（毫秒）
+     * @return true 延长成功；false 延长失败
+     */
+    protected abstract boolean extendLeaseInServer(long leaseTime);
 }
@@ -10,6 +10,7 @@ package org.antframework.sync.semaphore.core;
 
 import org.antframework.sync.common.SyncExecutor;
 import org.antframework.sync.common.SyncWaiter;
+import org.antframework.sync.metrics.SyncMetrics;
 import org.antframework.sync.semaphore.support.SemaphoreServer;
 
 /**
@@ -19,8 +20,12 @@ public class DefaultServerSemaphore extends AbstractServerSemaphore {
     // 服务端
     private final SemaphoreServer server;
 
-    public DefaultServerSemaphore(String key, String semaphorerId, int totalPermits, SyncExecutor syncExecutor, SemaphoreServer server) {
-        super(key, semaphorerId, totalPermits, syncExecutor);
+    public DefaultServerSemaphore(String key, String semaphorerId, int totalPermits, SyncExecutor syncExecutor, SemaphoreServer server, SyncMetrics metrics) {
+        this(key, semaphorerId, totalPermits, 0, syncExecutor, server, metrics);
+    }
+
+    public DefaultServerSemaphore(String key, String semaphorerId, int totalPermits, long leaseTime, SyncExecutor syncExecutor, SemaphoreServer server, SyncMetrics metrics) {
+        super(key, semaphorerId, totalPermits, leaseTime, syncExecutor, metrics, server.getLeakedReleaser());
         this.server = server;
     }
 
@@ -31,16 +36,28 @@ public class DefaultServerSemaphore extends AbstractServerSemaphore {
 
     @Override
     protected SyncWaiter acquireInServer(int newPermits, long deadline) {
+        if (getLeaseTime() > 0) {
+            return server.acquire(getKey(), getSemaphorerId(), newPermits, getTotalPermits(), deadline, getLeaseTime());
+        }
         return server.acquire(getKey(), getSemaphorerId(), newPermits, getTotalPermits(), deadline);
     }
 
     @Override
     protected void releaseInServer(int newPermits) {
-        server.release(getKey(), getSemaphorerId(), newPermits, getTotalPermits());
+        if (getLeaseTime() > 0) {
+            server.release(getKey(), getSemaphorerId(), newPermits, getTotalPermits(), getLeaseTime());
+        } else {
+            server.release(getKey(), getSemaphorerId(), newPermits, getTotalPermits());
+        }
+    }
+
+    @Override
+    protected boolean extendLeaseInServer(long leaseTime) {
+        return server.extendLease(getKey(), getSemaphorerId(), leaseTime);
     }
 
     @Override
     public String toString() {
-        return String.format("DefaultServerSemaphore{acquiredPermits=%d,key=%s,semaphorerId=%s,totalPermits=%d}", getAcquiredPermits(), getKey(), getSemaphorerId(), getTotalPermits());
+        return String.format("DefaultServerSemaphore{acquiredPermits=%d,key=%s,semaphorerId=%s,totalPermits=%d,leaseTime=%d}", getAcquiredPermits(), getKey(), getSemaphorerId(), getTotalPermits(), getLeaseTime());
     }
 }
@@ -0,0 +1,85 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 16:26 创建
+ */
+package org.antframework.sync.semaphore.core;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.antframework.sync.common.LeakDetector;
+import org.antframework.sync.common.SyncExecutor;
+import org.antframework.sync.metrics.SyncMetrics;
+import org.antframework.sync.semaphore.AsyncSemaphoreHandle;
+import org.antframework.sync.semaphore.support.SemaphoreDestroyer;
+import org.antframework.sync.semaphore.support.SemaphoreServer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 基于服务端的异步信号量许可的持有凭证（和同步的信号量一样在泄漏检测器中登记，凭证未释放就被回收时强制释放）
+ */
+@Slf4j
+public class ServerAsyncSemaphoreHandle implements AsyncSemaphoreHandle {
+    // 是否已释放
+    private final AtomicBoolean released = new AtomicBoolean(false);
+    // 信号量标识
+    @Getter
+    private final String key;
+    // 获取信号量许可者id
+    @Getter
+    private final String semaphorerId;
+    // 持有的许可数
+    @Getter
+    private final int permits;
+    // 许可总数
+    @Getter
+    private final int totalPermits;
+    // 服务端
+    private final SemaphoreServer server;
+    // 指标收集器
+    private final SyncMetrics metrics;
+    // 获取成功的时间（纳秒）
+    private final long acquiredTime = System.nanoTime();
+    // 泄漏跟踪器
+    private final LeakDetector.Tracker tracker;
+
+    public ServerAsyncSemaphoreHandle(String key,
+                                      String semaphorerId,
+                                      int permits,
+                                      int totalPermits,
+                                      SemaphoreServer server,
+                                      SyncExecutor syncExecutor,
+                                      SyncMetrics metrics) {
+        this.key = key;
+        this.semaphorerId = semaphorerId;
+        this.permits = permits;
+        this.totalPermits = totalPermits;
+        this.server = server;
+        this.metrics = metrics;
+        SemaphoreDestroyer destroyer = new SemaphoreDestroyer(key, semaphorerId, totalPermits, 0, server.getLeakedReleaser());
+        destroyer.setAcquiredPermits(permits);
+        this.tracker = syncExecutor.getLeakDetector().newTracker(this, destroyer);
+        this.tracker.hold();
+    }
+
+    @Override
+    public void release() {
+        if (!released.compareAndSet(false, true)) {
+            return;
+        }
+        log.debug("调用server尝试释放许可：semaphore={}", this);
+        server.release(key, semaphorerId, 0, totalPermits);
+        tracker.unhold();
+        metrics.onReleased(SyncMetrics.SEMAPHORE, key, System.nanoTime() - acquiredTime);
+        log.debug("调用server释放许可成功：semaphore={}", this);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ServerAsyncSemaphoreHandle{key=%s,semaphorerId=%s,permits=%d,totalPermits=%d,released=%s}", key, semaphorerId, permits, totalPermits, released.get());
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 16:22 创建
+ */
+package org.antframework.sync.semaphore.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.antframework.sync.common.ServerSyncManager;
+import org.antframework.sync.common.SyncExecutor;
+import org.antframework.sync.common.SyncUtils;
+import org.antframework.sync.extension.Server;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 许可租约
+ * <p>
+ * 本节点以节点id在服务端成块地获取许可（租约），本地的获取、释放许可只在租约内增减，不访问服务端：
+ * <ul>
+ * <li>扩租：租约内的许可不够用时，在服务端一次多获取一块许可；块大小随本地需求自适应（连续扩租时翻倍，空闲或被撤销而归还许可时减半）；
+ * 只获取需要的许可也失败后（有竞争）不再按块多获取，直到再次获取成功</li>
+ * <li>归还：租约内未使用的许可在空闲期过后归还给服务端；其他节点获取许可失败时会请求撤销（每个信号量在一个空闲期内最多请求一次），
+ * 收到撤销请求后立即归还，暂时没有可归还的许可时等到本地释放许可后再归还</li>
+ * </ul>
+ * 服务端的许可始终以节点id持有，由服务端的维护机制续期。
+ */
+@Slf4j
+public class PermitLease {
+    // 信号量标识与租约的对应关系
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    // 节点id（在服务端持有租约的获取信号量许可者id）
+    private final String nodeId = SyncUtils.newId();
+    // 服务端
+    private final Server server;
+    // 同步管理者
+    private final ServerSyncManager syncManager;
+    // 等待者类型
+    private final String waiterType;
+    // Sync执行器
+    private final SyncExecutor syncExecutor;
+    // 最大块大小（每次扩租时最多多获取的许可数，0表示不租约）
+    private final int maxBlockSize;
+    // 空闲时间（毫秒，租约内的许可空闲超过该时间后归还未使用的许可）
+    private final long idleTime;
+
+    public PermitLease(Server server,
+                       ServerSyncManager syncManager,
+                       String waiterType,
+                       SyncExecutor syncExecutor,
+                       int maxBlockSize,
+                       long idleTime) {
+        if (maxBlockSize < 0 || idleTime <= 0) {
+            throw new IllegalArgumentException("maxBlockSize不能小于0、idleTime必须大于0");
+        }
+        this.server = server;
+        this.syncManager = syncManager;
+        this.waiterType = waiterType;
+        this.syncExecutor = syncExecutor;
+        this.maxBlockSize = maxBlockSize;
+        this.idleTime = idleTime;
+    }
+
+    /**
+     * 是否启用
+     *
+     * @return true 启用；false 未启用（最大块大小为0）
+     */
+    public boolean isEnabled() {
+        return maxBlockSize > 0;
+    }
+
+    /**
+     * 获取许可
+     *
+     * @param key          信号量标识
+     * @param permits      获取的许可数
+     * @param totalPermits 许可总数
+     * @param deadline     截止时间
+     * @return null 获取成功；否则返回需等待的时间
+     */
+    public Long acquire(String key, int permits, int totalPermits, long deadline) {
+        while (true) {
+            Lease lease = leases.computeIfAbsent(key, k -> new Lease());
+            lease.monitor.lock();
+            try {
+                if (lease.removed) {
+                    continue;
+                }
+                long now = System.currentTimeMillis();
+                lease.totalPermits = totalPermits;
+                lease.usedTime = now;
+                int need = lease.used + permits;
+                if (need <= lease.leased) {
+                    lease.used = need;
+                    return null;
+                }
+                // 扩租（没有竞争时先按块大小多获取，失败则只获取需要的；有竞争时直接只获取需要的）
+                Long waitTime = null;
+                int target = lease.contended ? need : Math.min(need + lease.blockSize, totalPermits);
+                if (target > need) {
+                    waitTime = server.acquireForSemaphore(key, nodeId, target, totalPermits, deadline);
+                    if (waitTime == null) {
+                        lease.blockSize = Math.min(lease.blockSize * 2, maxBlockSize);
+                    } else {
+                        target = need;
+                    }
+                }
+                if (target == need) {
+                    waitTime = server.acquireForSemaphore(key, nodeId, target, totalPermits, deadline);
+                }
+                lease.contended = waitTime != null;
+                if (waitTime == null) {
+                    if (lease.revokeListener == null) {
+                        onLeased(key, lease);
+                    }
+                    lease.leased = target;
+                    lease.used = need;
+                } else {
+                    if (lease.leased <= 0) {
+                        // 保留空租约以记住竞争状态，空闲后由空闲检查删除
+                        watch(key, lease);
+                    }
+                    if (now - lease.revokeRequestedTime >= idleTime) {
+                        // 请求其他节点归还未使用的许可
+                        lease.revokeRequestedTime = now;
+                        server.requestRevoke(Server.SyncType.SEMAPHORE, key);
+                    }
+                }
+                return waitTime;
+            } finally {
+                lease.monitor.unlock();
+            }
+        }
+    }
+
+    /**
+     * 释放许可（许可留在租约内，有本地等待者时通知其获取）
+     *
+     * @param key     信号量标识
+     * @param permits 释放的许可数
+     */
+    public void release(String key, int permits) {
+        Lease lease = leases.get(key);
+        if (lease == null) {
+            return;
+        }
+        lease.monitor.lock();
+        try {
+            lease.used = Math.max(lease.used - permits, 0);
+            lease.usedTime = System.currentTimeMillis();
+            if (lease.revoked) {
+                giveBack(key, lease);
+            }
+        } finally {
+            lease.monitor.unlock();
+        }
+        if (syncManager.hasWaiters(key, waiterType)) {
+            syncManager.notifyLocal(key);
+        }
+    }
+
+    // 租约生效后执行
+    private void onLeased(String key, Lease lease) {
+        lease.revokeListener = () -> onRevoke(key, lease);
+        server.addRevokeListener(Server.SyncType.SEMAPHORE, key, lease.revokeListener);
+        watch(key, lease);
+    }
+
+    // 开始检查租约是否空闲
+    private void watch(String key, Lease lease) {
+        if (!lease.watched) {
+            lease.watched = true;
+            scheduleIdleCheck(key, lease, idleTime);
+        }
+    }
+
+    // 归还未使用的许可（没有可归还的许可时撤销请求继续有效，块大小也不变）
+    private void giveBack(String key, Lease lease) {
+        if (lease.leased > lease.used) {
+            lease.revoked = false;
+            lease.leased = lease.used;
+            lease.blockSize = Math.max(lease.blockSize / 2, 1);
+            server.releaseForSemaphore(key, nodeId, lease.leased, lease.totalPermits);
+        }
+        if (lease.leased <= 0) {
+            remove(key, lease);
+        }
+    }
+
+    // 删除租约
+    private void remove(String key, Lease lease) {
+        lease.removed = true;
+        leases.remove(key, lease);
+        if (lease.revokeListener != null) {
+            server.removeRevokeListener(Server.SyncType.SEMAPHORE, key, lease.revokeListener);
+        }
+    }
+
+    // 收到撤销请求
+    private void onRevoke(String key, Lease lease) {
+        lease.revoked = true;
+        Runnable task = () -> {
+            lease.monitor.lock();
+            try {
+                if (!lease.removed && lease.revoked) {
+                    giveBack(key, lease);
+                }
+            } finally {
+                lease.monitor.unlock();
+            }
+        };
+        try {
+            syncExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    // 安排检查租约是否空闲
+    private void scheduleIdleCheck(String key, Lease lease, long delay) {
+        syncExecutor.schedule(() -> {
+            try {
+                long nextDelay;
+                lease.monitor.lock();
+                try {
+                    if (lease.removed) {
+                        return;
+                    }
+                    long idledTime = System.currentTimeMillis() - lease.usedTime;
+                    if (idledTime >= idleTime) {
+                        giveBack(key, lease);
+                        if (lease.removed) {
+                            return;
+                        }
+                        nextDelay = idleTime;
+                    } else {
+                        nextDelay = idleTime - idledTime;
+                    }
+                } finally {
+                    lease.monitor.unlock();
+                }
+                scheduleIdleCheck(key, lease, nextDelay);
+            } catch (Throwable e) {
+                log.error("检查信号量的租约是否空闲出错：key={}", key, e);
+            }
+        }, delay);
+    }
+
+    // 租约
+    private static class Lease {
+        // 监视锁（持有期间会访问服务端，不使用synchronized以免钉住虚拟线程的载体线程）
+        private final ReentrantLock monitor = new ReentrantLock();
+        // 在服务端获取的许可数
+        private int leased = 0;
+        // 本地已使用的许可数
+        private int used = 0;
+        // 块大小（下次扩租时多获取的许可数）
+        private int blockSize = 1;
+        // 是否有竞争（上次只获取需要的许可也失败）
+        private boolean contended = false;
+        // 上次请求撤销的时间
+        private long revokeRequestedTime = 0;
+        // 是否已开始检查空闲
+        private boolean watched = false;
+        // 许可总数
+        private int totalPermits;
+        // 最近一次获取或释放许可的时间
+        private long usedTime;
+        // 是否已收到撤销请求
+        private volatile boolean revoked = false;
+        // 是否已被删除
+        private boolean removed = false;
+        // 撤销监听器
+        private Runnable revokeListener;
+    }
+}
@@ -8,27 +8,69 @@
  */
 package org.antframework.sync.semaphore.support;
 
-import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
-import org.antframework.sync.semaphore.core.AbstractSemaphore;
+import org.antframework.sync.common.LeakDetector;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * 信号量销毁器
+ * <p>
+ * 只持有销毁所需的状态（不持有信号量对象），信号量未释放就被回收时由泄漏检测器执行，强制在服务端释放许可。
+ * 服务端批量释放器相同的销毁器由泄漏检测器一起执行。
  */
-@AllArgsConstructor
 @Slf4j
-public class SemaphoreDestroyer implements Runnable {
-    // 信号量
-    private final AbstractSemaphore semaphore;
+public class SemaphoreDestroyer implements LeakDetector.BatchDestroyer {
+    // 信号量标识
+    @Getter
+    private final String key;
+    // 获取信号量许可者id
+    @Getter
+    private final String semaphorerId;
+    // 许可总数
+    @Getter
+    private final int totalPermits;
+    // 租期（毫秒，大于0表示以租期模式获取的许可；否则由服务端维护）
+    @Getter
+    private final long leaseTime;
+    // 服务端批量释放器（入参：需强制释放许可的信号量的销毁器；释放这些许可者持有的所有许可）
+    private final Consumer<List<SemaphoreDestroyer>> serverReleaser;
+    // 获取到的许可
+    @Setter
+    private volatile int acquiredPermits = 0;
+
+    public SemaphoreDestroyer(String key, String semaphorerId, int totalPermits, long leaseTime, Consumer<List<SemaphoreDestroyer>> serverReleaser) {
+        this.key = key;
+        this.semaphorerId = semaphorerId;
+        this.totalPermits = totalPermits;
+        this.leaseTime = leaseTime;
+        this.serverReleaser = serverReleaser;
+    }
+
+    @Override
+    public Object getBatchKey() {
+        return serverReleaser;
+    }
 
     @Override
-    public void run() {
-        log.error("存在未释放就被弃用的信号量（{}），请检查代码中是否有bug。现强制释放！", semaphore);
+    public void destroyAll(List<LeakDetector.BatchDestroyer> destroyers) {
+        List<SemaphoreDestroyer> semaphoreDestroyers = destroyers.stream().map(SemaphoreDestroyer.class::cast).collect(Collectors.toList());
+        for (SemaphoreDestroyer destroyer : semaphoreDestroyers) {
+            log.error("存在未释放就被弃用的信号量（{}），请检查代码中是否有bug。现强制释放！", destroyer);
+        }
         try {
-            int acquiredPermits = semaphore.getAcquiredPermits();
-            semaphore.release(acquiredPermits);
+            serverReleaser.accept(semaphoreDestroyers);
         } catch (Throwable e) {
-            log.error("强制释放信号量出错（{}）", semaphore, e);
+            log.error("强制释放信号量出错（{}）", semaphoreDestroyers, e);
         }
     }
+
+    @Override
+    public String toString() {
+        return String.format("SemaphoreDestroyer{acquiredPermits=%d,key=%s,semaphorerId=%s,totalPermits=%d,leaseTime=%d}", acquiredPermits, key, semaphorerId, totalPermits, leaseTime);
+    }
 }
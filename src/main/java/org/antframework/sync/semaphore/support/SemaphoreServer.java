@@ -8,11 +8,19 @@
  */
 package org.antframework.sync.semaphore.support;
 
+import lombok.Getter;
+import org.antframework.sync.SyncOptions;
 import org.antframework.sync.common.FiniteResource;
 import org.antframework.sync.common.ServerSyncManager;
 import org.antframework.sync.common.ServerSyncWaiter;
+import org.antframework.sync.common.SyncExecutor;
 import org.antframework.sync.common.SyncWaiter;
 import org.antframework.sync.extension.Server;
+import org.antframework.sync.metrics.SyncMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * 信号量服务端
@@ -29,11 +37,23 @@ public class SemaphoreServer {
     private final long maxWaitTime;
     // 同步管理者
     private final ServerSyncManager syncManager;
+    // 许可租约
+    private final PermitLease lease;
+    // 泄漏的许可的批量释放器（本服务端的信号量共用，泄漏检测器据此把它们合并成一批）
+    @Getter
+    private final Consumer<List<SemaphoreDestroyer>> leakedReleaser = this::releaseLeaked;
 
-    public SemaphoreServer(Server server, long maxWaitTime) {
+    public SemaphoreServer(Server server, SyncExecutor syncExecutor, SyncOptions options, SyncMetrics metrics) {
         this.server = server;
-        this.maxWaitTime = maxWaitTime;
-        this.syncManager = new ServerSyncManager(Server.SyncType.SEMAPHORE, server);
+        this.maxWaitTime = options.getMaxWaitTime();
+        this.syncManager = new ServerSyncManager(Server.SyncType.SEMAPHORE, server, syncExecutor, metrics, options);
+        this.lease = new PermitLease(
+                server,
+                syncManager,
+                WAITER_TYPE,
+                syncExecutor,
+                options.getSemaphoreLeaseBlockSize(),
+                options.getSemaphoreLeaseIdleTime());
     }
 
     /**
@@ -52,7 +72,11 @@ public class SemaphoreServer {
         boolean localSuccess = finiteResource.acquire(key, semaphorerId, newPermits, totalPermits);
         if (localSuccess) {
             try {
-                waitTime = server.acquireForSemaphore(key, semaphorerId, newPermits, totalPermits, deadline);
+                if (lease.isEnabled()) {
+                    waitTime = lease.acquire(key, newPermits - oldPermits, totalPermits, deadline);
+                } else {
+                    waitTime = server.acquireForSemaphore(key, semaphorerId, newPermits, totalPermits, deadline);
+                }
             } finally {
                 if (waitTime != null) {
                     finiteResource.release(key, semaphorerId, oldPermits);
@@ -76,10 +100,94 @@ public class SemaphoreServer {
      * @param totalPermits 许可总数
      */
     public void release(String key, String semaphorerId, int newPermits, int totalPermits) {
+        if (lease.isEnabled()) {
+            int oldPermits = finiteResource.peek(key, semaphorerId);
+            finiteResource.release(key, semaphorerId, newPermits);
+            lease.release(key, oldPermits - newPermits);
+            return;
+        }
         finiteResource.release(key, semaphorerId, newPermits);
         server.releaseForSemaphore(key, semaphorerId, newPermits, totalPermits);
     }
 
+    /**
+     * 以租期模式获取许可（不经过许可租约，以获取者自己的名义在服务端持有许可，服务端不维护，到期自动释放）
+     *
+     * @param key          信号量标识
+     * @param semaphorerId 获取信号量许可者id
+     * @param newPermits   新许可数
+     * @param totalPermits 许可总数
+     * @param deadline     截止时间
+     * @param leaseTime    租期（毫秒）
+     * @return null 获取成功；否则返回需等待的时间
+     */
+    public SyncWaiter acquire(String key, String semaphorerId, int newPermits, int totalPermits, long deadline, long leaseTime) {
+        Long waitTime = maxWaitTime;
+        int oldPermits = finiteResource.peek(key, semaphorerId);
+        boolean localSuccess = finiteResource.acquire(key, semaphorerId, newPermits, totalPermits);
+        if (localSuccess) {
+            try {
+                waitTime = server.acquireForSemaphore(key, semaphorerId, newPermits, totalPermits, deadline, leaseTime);
+            } finally {
+                if (waitTime != null) {
+                    finiteResource.release(key, semaphorerId, oldPermits);
+                }
+            }
+        }
+        SyncWaiter waiter = null;
+        if (waitTime != null) {
+            waitTime = Math.min(waitTime, maxWaitTime);
+            waiter = new ServerSyncWaiter(syncManager, key, WAITER_TYPE, semaphorerId, waitTime);
+        }
+        return waiter;
+    }
+
+    /**
+     * 以租期模式释放许可
+     *
+     * @param key          信号量标识
+     * @param semaphorerId 获取信号量许可者id
+     * @param newPermits   新许可数
+     * @param totalPermits 许可总数
+     * @param leaseTime    租期（毫秒）
+     */
+    public void release(String key, String semaphorerId, int newPermits, int totalPermits, long leaseTime) {
+        finiteResource.release(key, semaphorerId, newPermits);
+        server.releaseForSemaphore(key, semaphorerId, newPermits, totalPermits, leaseTime);
+    }
+
+    /**
+     * 延长租期
+     *
+     * @param key          信号量标识
+     * @param semaphorerId 获取信号量许可者id
+     * @param leaseTime    租期（毫秒）
+     * @return true 延长成功；false 延长失败（许可已过期）
+     */
+    public boolean extendLease(String key, String semaphorerId, long leaseTime) {
+        return server.extendLeaseForSemaphore(key, semaphorerId, leaseTime);
+    }
+
+    // 强制释放泄漏的许可（经过许可租约的在本地归还给租约；其他的逐个在本地释放，再一次性在服务端批量释放）
+    private void releaseLeaked(List<SemaphoreDestroyer> destroyers) {
+        List<String> keys = new ArrayList<>(destroyers.size());
+        List<String> semaphorerIds = new ArrayList<>(destroyers.size());
+        List<Integer> totalPermits = new ArrayList<>(destroyers.size());
+        for (SemaphoreDestroyer destroyer : destroyers) {
+            if (destroyer.getLeaseTime() <= 0 && lease.isEnabled()) {
+                release(destroyer.getKey(), destroyer.getSemaphorerId(), 0, destroyer.getTotalPermits());
+                continue;
+            }
+            finiteResource.release(destroyer.getKey(), destroyer.getSemaphorerId(), 0);
+            keys.add(destroyer.getKey());
+            semaphorerIds.add(destroyer.getSemaphorerId());
+            totalPermits.add(destroyer.getTotalPermits());
+        }
+        if (!keys.isEmpty()) {
+            server.releaseAllForSemaphore(keys, semaphorerIds, totalPermits);
+        }
+    }
+
     /**
      * 删除等待者
      *
@@ -1,23 +1,79 @@
 -- KEYS: lockKey
--- ARGV: lockerId, liveTime
+-- ARGV: lockerId, liveTime（租期模式时为租期）, sessionKeyPrefix（非会话模式时为空字符串）, queueNodeId（非排队模式时为空字符串）, currentTime, ticketTime
 -- return: nil（加锁成功）；waitTime（加锁失败，需等待的毫秒时间）
 
 -- 数据结构（hash）
 -- ${lockKey}:
 --   owner: ${lockerId}
+--   ticketSeq: ${最近分配的排队序号}
+--   ticket-${nodeId1}: ${seq1}|${ticketDeadline1}
+--   ticket-${nodeId2}: ${seq2}|${ticketDeadline2}
+--   waiters: ${有等待者的节点数量}
+--   waitersDeadline: ${waiters的存活时间}
+--   waiter-${nodeId1}: ${amount1}|${deadline1}
 
 local lockKey = KEYS[1];
 local lockerId = ARGV[1];
 local liveTime = tonumber(ARGV[2]);
+local sessionKeyPrefix = ARGV[3];
+local queueNodeId = ARGV[4];
+local currentTime = tonumber(ARGV[5]);
+local ticketTime = tonumber(ARGV[6]);
+-- 持有者所属的会话是否已失效（会话模式下持有者id格式为@${sessionId}@${id}；非会话模式的持有者不会失效）
+local function isSessionExpired(holderId)
+    if (sessionKeyPrefix == '' or string.sub(holderId, 1, 1) ~= '@') then
+        return false;
+    end
+    local separatorIndex = string.find(holderId, '@', 2, true);
+    if (separatorIndex == nil) then
+        return false;
+    end
+    return redis.call('exists', sessionKeyPrefix .. string.sub(holderId, 2, separatorIndex - 1)) == 0;
+end
+-- 查找排队的队首节点（序号最小的有效票据；同时删除已过期的票据）
+local function findQueueHead()
+    local head = nil;
+    local headSeq = nil;
+    local keys = redis.call('hkeys', lockKey);
+    for i = 1, #keys do
+        local key = keys[i];
+        if (string.find(key, 'ticket-', 1, true) == 1) then
+            local value = redis.call('hget', lockKey, key);
+            local separatorIndex = string.find(value, '|', 1, true);
+            local seq = tonumber(string.sub(value, 1, separatorIndex - 1));
+            local ticketDeadline = tonumber(string.sub(value, separatorIndex + 1));
+            if (ticketDeadline < currentTime) then
+                redis.call('hdel', lockKey, key);
+            elseif (headSeq == nil or seq < headSeq) then
+                head = string.sub(key, 8);
+                headSeq = seq;
+            end
+        end
+    end
+    return head;
+end
 -- 尝试加锁
 local owner = redis.call('hget', lockKey, 'owner');
-if (owner == false) then
+if (owner ~= false and owner ~= lockerId and isSessionExpired(owner)) then
+    -- 持有者所属的会话已失效，视为锁已释放
+    owner = false;
+    redis.call('hdel', lockKey, 'owner');
+end
+local head = nil;
+if (queueNodeId ~= '' and owner == false) then
+    head = findQueueHead();
+end
+-- 排队模式下只有队首节点（或者无人排队时）才能加锁
+if (owner == false and (head == nil or head == queueNodeId)) then
     owner = lockerId;
     redis.call('hset', lockKey, 'owner', owner);
+    if (head ~= nil) then
+        redis.call('hdel', lockKey, 'ticket-' .. queueNodeId);
+    end
 end
--- 保证锁关联了有效期（安全措施）
+-- 保证锁关联了有效期（安全措施；不缩短已有的有效期，其可能是其他持有者更长的租期）
 local ttl = tonumber(redis.call('pttl', lockKey));
-if (ttl == -1 or ttl > liveTime) then
+if (ttl == -1) then
     ttl = liveTime;
     redis.call('pexpire', lockKey, ttl);
 end
@@ -26,11 +82,27 @@ local waitTime = ttl;
 if (owner == lockerId) then
     waitTime = nil;
 end
--- 如果加锁成功，需保证锁的有效期
 if (waitTime == nil) then
+    -- 如果加锁成功，需保证锁的有效期
     if (ttl ~= liveTime) then
         ttl = liveTime;
         redis.call('pexpire', lockKey, ttl);
     end
+elseif (queueNodeId ~= '') then
+    -- 排队（已有票据时保留原序号，保证先来先得）
+    local ticketKey = 'ticket-' .. queueNodeId;
+    local ticket = redis.call('hget', lockKey, ticketKey);
+    local seq;
+    if (ticket ~= false) then
+        seq = tonumber(string.sub(ticket, 1, string.find(ticket, '|', 1, true) - 1));
+    else
+        seq = tonumber(redis.call('hget', lockKey, 'ticketSeq') or 0) + 1;
+        redis.call('hset', lockKey, 'ticketSeq', seq);
+    end
+    redis.call('hset', lockKey, ticketKey, seq .. '|' .. (currentTime + ticketTime));
+    -- 锁空闲时（被队首阻塞）需保证票据的有效期（锁被持有时不延长，以免延长租期模式的锁）
+    if (owner == false and ttl < ticketTime) then
+        redis.call('pexpire', lockKey, ticketTime);
+    end
 end
 return waitTime;
@@ -1,22 +1,73 @@
--- KEYS: lockKey
--- ARGV: lockerId, syncChannel
--- return: true（成功）；false（失败，锁不存在或已经易主）
+-- KEYS: lockKey1, lockKey2, ...
+-- ARGV: currentTime, lockerId1, syncChannel1, lockerId2, syncChannel2, ...
+-- return: 每个锁的解锁结果（1：成功；0：失败，锁不存在或已经易主）
 
 -- 数据结构（hash）
 -- ${lockKey}:
 --   owner: ${lockerId}
+--   ticketSeq: ${最近分配的排队序号}
+--   ticket-${nodeId1}: ${seq1}|${ticketDeadline1}
+--   ticket-${nodeId2}: ${seq2}|${ticketDeadline2}
+--   waiters: ${有等待者的节点数量}
+--   waitersDeadline: ${waiters的存活时间}
+--   waiter-${nodeId1}: ${amount1}|${deadline1}
 
-local lockKey = KEYS[1];
-local lockerId = ARGV[1];
-local syncChannel = ARGV[2];
--- 尝试解锁
-local success = false;
-local owner = redis.call('hget', lockKey, 'owner');
-if (owner == lockerId) then
-    -- 解锁
-    redis.call('del', lockKey);
-    success = true;
+local currentTime = tonumber(ARGV[1]);
+-- 查找排队的队首节点（序号最小的有效票据；同时删除已过期的票据）
+local function findQueueHead(lockKey)
+    local head = nil;
+    local headSeq = nil;
+    local keys = redis.call('hkeys', lockKey);
+    for i = 1, #keys do
+        local key = keys[i];
+        if (string.find(key, 'ticket-', 1, true) == 1) then
+            local value = redis.call('hget', lockKey, key);
+            local separatorIndex = string.find(value, '|', 1, true);
+            local seq = tonumber(string.sub(value, 1, separatorIndex - 1));
+            local ticketDeadline = tonumber(string.sub(value, separatorIndex + 1));
+            if (ticketDeadline < currentTime) then
+                redis.call('hdel', lockKey, key);
+            elseif (headSeq == nil or seq < headSeq) then
+                head = string.sub(key, 8);
+                headSeq = seq;
+            end
+        end
+    end
+    return head;
 end
--- 发布同步消息
-redis.call('publish', syncChannel, 0);
-return success;
+local result = {};
+for i = 1, #KEYS do
+    local lockKey = KEYS[i];
+    local lockerId = ARGV[i * 2];
+    local syncChannel = ARGV[i * 2 + 1];
+    -- 同步消息（消息内容为锁的key，便于多路复用的通道分发消息）
+    local message = lockKey;
+    -- 尝试解锁
+    local success = 0;
+    local owner = redis.call('hget', lockKey, 'owner');
+    if (owner == lockerId) then
+        local head = nil;
+        if (redis.call('hget', lockKey, 'ticketSeq') ~= false) then
+            head = findQueueHead(lockKey);
+        end
+        if (head == nil) then
+            local waiters = redis.call('hget', lockKey, 'waiters');
+            if (waiters == false or tonumber(waiters) <= 0) then
+                -- 解锁
+                redis.call('del', lockKey);
+            else
+                -- 解锁（保留等待者的统计）
+                redis.call('hdel', lockKey, 'owner');
+            end
+        else
+            -- 解锁（保留排队的票据），只通知队首节点（消息格式为#queue#${nodeId}#${lockKey}）
+            redis.call('hdel', lockKey, 'owner');
+            message = '#queue#' .. head .. '#' .. lockKey;
+        end
+        success = 1;
+    end
+    -- 发布同步消息
+    redis.call('publish', syncChannel, message);
+    result[i] = success;
+end
+return result;
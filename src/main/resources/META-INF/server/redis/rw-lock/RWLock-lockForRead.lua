@@ -1,5 +1,5 @@
 -- KEYS: lockKey
--- ARGV: lockerId, currentTime, liveTime
+-- ARGV: lockerId, currentTime, liveTime（租期模式时为租期）, sessionKeyPrefix（非会话模式时为空字符串）, sessionTime（非会话模式时为0）
 -- return: nil（加锁成功）；waitTime（加锁失败，需等待的毫秒时间）
 
 -- 数据结构（hash）
@@ -17,15 +17,42 @@ local lockKey = KEYS[1];
 local lockerId = ARGV[1];
 local currentTime = tonumber(ARGV[2]);
 local liveTime = tonumber(ARGV[3]);
+local sessionKeyPrefix = ARGV[4];
+local sessionTime = tonumber(ARGV[5]);
+-- 持有者所属的会话是否已失效（会话模式下持有者id格式为@${sessionId}@${id}；非会话模式的持有者不会失效）
+local function isSessionExpired(holderId)
+    if (sessionKeyPrefix == '' or string.sub(holderId, 1, 1) ~= '@') then
+        return false;
+    end
+    local separatorIndex = string.find(holderId, '@', 2, true);
+    if (separatorIndex == nil) then
+        return false;
+    end
+    return redis.call('exists', sessionKeyPrefix .. string.sub(holderId, 2, separatorIndex - 1)) == 0;
+end
 -- 获取owner
 local owner = redis.call('hget', lockKey, 'owner');
 if (owner == false) then
     owner = 'none';
     redis.call('hset', lockKey, 'owner', owner);
 end
--- 保证锁关联了有效期（安全措施）
+-- 如果写者所属的会话已失效，则视为写锁已释放（其同时作为读者时会在重新统计readerAmount时删除）
+if (owner == 'writer' or owner == 'reader-writer') then
+    local writer = redis.call('hget', lockKey, 'writer');
+    if (writer ~= false and writer ~= lockerId and isSessionExpired(writer)) then
+        redis.call('hdel', lockKey, 'writer');
+        if (owner == 'writer') then
+            owner = 'none';
+        else
+            owner = 'readers';
+            redis.call('hdel', lockKey, 'readerAmountDeadline');
+        end
+        redis.call('hset', lockKey, 'owner', owner);
+    end
+end
+-- 保证锁关联了有效期（安全措施；不缩短已有的有效期，其可能是其他持有者更长的租期）
 local ttl = tonumber(redis.call('pttl', lockKey));
-if (ttl == -1 or ttl > liveTime) then
+if (ttl == -1) then
     ttl = liveTime;
     redis.call('pexpire', lockKey, ttl);
 end
@@ -47,6 +74,10 @@ end
 if (readerAmount == false or readerAmountDeadline == false or readerAmountDeadline < currentTime) then
     readerAmount = 0;
     readerAmountDeadline = currentTime + liveTime;
+    if (sessionTime > 0) then
+        -- 会话模式下至少每个会话有效期重新统计一次，以发现会话已失效的读者
+        readerAmountDeadline = math.min(readerAmountDeadline, currentTime + sessionTime);
+    end
     -- 遍历所有key
     local keys = redis.call('hkeys', lockKey);
     for i = 1, #keys do
@@ -58,7 +89,7 @@ if (readerAmount == false or readerAmountDeadline == false or readerAmountDeadli
             local value = redis.call('hget', lockKey, key);
             if (value ~= false) then
                 local readerDeadline = tonumber(value);
-                if (readerDeadline >= currentTime) then
+                if (readerDeadline >= currentTime and not isSessionExpired(string.sub(key, 8))) then
                     readerAmount = readerAmount + 1;
                     readerAmountDeadline = math.min(readerAmountDeadline, readerDeadline);
                 else
@@ -126,9 +157,9 @@ else
         waitTime = nil;
     end
 end
--- 如果加锁成功，需保证锁的有效期
+-- 如果加锁成功，需保证锁的有效期（读者共享锁的有效期，只延长不缩短）
 if (waitTime == nil) then
-    if (ttl ~= liveTime) then
+    if (ttl < liveTime) then
         ttl = liveTime;
         redis.call('pexpire', lockKey, ttl);
     end
@@ -1,6 +1,6 @@
--- KEYS: lockKey
--- ARGV: lockerId, currentTime, liveTime
--- return: true（成功）；false（失败，锁不存在或已经易主）
+-- KEYS: lockKey1, lockKey2, ...
+-- ARGV: currentTime, liveTime, lockerId1, lockerId2, ...
+-- return: 每个锁的维护结果（与KEYS一一对应）：1（成功）；0（失败，锁不存在或已经易主）
 
 -- 数据结构（hash）
 -- ${lockKey}:
@@ -13,25 +13,31 @@
 --   reader-${lockerId2}: ${readerDeadline2}
 --   reader-${lockerId3}: ${readerDeadline3}
 
-local lockKey = KEYS[1];
-local lockerId = ARGV[1];
-local currentTime = tonumber(ARGV[2]);
-local liveTime = tonumber(ARGV[3]);
--- 尝试维护
-local alive = false;
-local owner = redis.call('hget', lockKey, 'owner');
-if (owner == 'readers' or owner == 'reader-writer') then
-    -- 获取reader
-    local readerKey = 'reader-' .. lockerId;
-    local readerDeadline = redis.call('hget', lockKey, readerKey);
-    if (readerDeadline ~= false) then
-        -- 维护reader
-        readerDeadline = currentTime + liveTime;
-        redis.call('hset', lockKey, readerKey, readerDeadline);
-        -- 维护锁
-        redis.call('pexpire', lockKey, liveTime);
+local currentTime = tonumber(ARGV[1]);
+local liveTime = tonumber(ARGV[2]);
+local result = {};
+for i = 1, #KEYS do
+    local lockKey = KEYS[i];
+    local lockerId = ARGV[i + 2];
+    -- 尝试维护
+    local alive = 0;
+    local owner = redis.call('hget', lockKey, 'owner');
+    if (owner == 'readers' or owner == 'reader-writer') then
+        -- 获取reader
+        local readerKey = 'reader-' .. lockerId;
+        local readerDeadline = redis.call('hget', lockKey, readerKey);
+        if (readerDeadline ~= false) then
+            -- 维护reader
+            readerDeadline = currentTime + liveTime;
+            redis.call('hset', lockKey, readerKey, readerDeadline);
+            -- 维护锁（读者共享锁的有效期，只延长不缩短）
+            if (tonumber(redis.call('pttl', lockKey)) < liveTime) then
+                redis.call('pexpire', lockKey, liveTime);
+            end
 
-        alive = true;
+            alive = 1;
+        end
     end
+    result[i] = alive;
 end
-return alive;
+return result;
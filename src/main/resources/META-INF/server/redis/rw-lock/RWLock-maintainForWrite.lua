@@ -1,6 +1,6 @@
--- KEYS: lockKey
--- ARGV: lockerId, liveTime
--- return: true（成功）；false（失败，锁不存在或已经易主）
+-- KEYS: lockKey1, lockKey2, ...
+-- ARGV: liveTime, lockerId1, lockerId2, ...
+-- return: 每个锁的维护结果（与KEYS一一对应）：1（成功）；0（失败，锁不存在或已经易主）
 
 -- 数据结构（hash）
 -- ${lockKey}:
@@ -13,18 +13,22 @@
 --   reader-${lockerId2}: ${readerDeadline2}
 --   reader-${lockerId3}: ${readerDeadline3}
 
-local lockKey = KEYS[1];
-local lockerId = ARGV[1];
-local liveTime = tonumber(ARGV[2]);
--- 尝试维护
-local alive = false;
-local owner = redis.call('hget', lockKey, 'owner');
-if (owner == 'writer' or owner == 'reader-writer') then
-    local writer = redis.call('hget', lockKey, 'writer');
-    if (lockerId == writer) then
-        -- 维护锁
-        redis.call('pexpire', lockKey, liveTime);
-        alive = true;
+local liveTime = tonumber(ARGV[1]);
+local result = {};
+for i = 1, #KEYS do
+    local lockKey = KEYS[i];
+    local lockerId = ARGV[i + 1];
+    -- 尝试维护
+    local alive = 0;
+    local owner = redis.call('hget', lockKey, 'owner');
+    if (owner == 'writer' or owner == 'reader-writer') then
+        local writer = redis.call('hget', lockKey, 'writer');
+        if (lockerId == writer) then
+            -- 维护锁
+            redis.call('pexpire', lockKey, liveTime);
+            alive = 1;
+        end
     end
+    result[i] = alive;
 end
-return alive;
+return result;
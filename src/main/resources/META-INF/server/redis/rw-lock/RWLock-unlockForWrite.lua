@@ -1,6 +1,6 @@
--- KEYS: lockKey
--- ARGV: lockerId, syncChannel
--- return: true（成功）；false（失败，锁不存在或已经易主）
+-- KEYS: lockKey1, lockKey2, ...
+-- ARGV: lockerId1, syncChannel1, lockerId2, syncChannel2, ...
+-- return: 每个锁的解锁结果（1：成功；0：失败，锁不存在或已经易主）
 
 -- 数据结构（hash）
 -- ${lockKey}:
@@ -13,34 +13,35 @@
 --   reader-${lockerId2}: ${readerDeadline2}
 --   reader-${lockerId3}: ${readerDeadline3}
 
-local lockKey = KEYS[1];
-local lockerId = ARGV[1];
-local syncChannel = ARGV[2];
--- 获取owner
-local owner = redis.call('hget', lockKey, 'owner');
-if (owner == false) then
-    return false;
-end
--- 尝试解读锁
-local success = false;
-if (owner == 'writer' or owner == 'reader-writer') then
-    -- 获取writer
-    local writer = redis.call('hget', lockKey, 'writer');
-    if (lockerId == writer) then
-        -- 删除writer
-        writer = false;
-        redis.call('hdel', lockKey, 'writer');
-        if (owner == 'writer') then
-            -- 删除锁
-            redis.call('del', lockKey);
-        else
-            -- 更新owner
-            owner = 'readers';
-            redis.call('hset', lockKey, 'owner', owner);
+local result = {};
+for i = 1, #KEYS do
+    local lockKey = KEYS[i];
+    local lockerId = ARGV[i * 2 - 1];
+    local syncChannel = ARGV[i * 2];
+    -- 尝试解写锁
+    local success = 0;
+    local owner = redis.call('hget', lockKey, 'owner');
+    if (owner == 'writer' or owner == 'reader-writer') then
+        -- 获取writer
+        local writer = redis.call('hget', lockKey, 'writer');
+        if (lockerId == writer) then
+            -- 删除writer
+            redis.call('hdel', lockKey, 'writer');
+            if (owner == 'writer') then
+                -- 删除锁
+                redis.call('del', lockKey);
+            else
+                -- 更新owner
+                owner = 'readers';
+                redis.call('hset', lockKey, 'owner', owner);
+            end
+            success = 1;
         end
-        success = true;
     end
+    -- 发布同步消息（消息内容为锁的key，便于多路复用的通道分发消息）
+    if (owner ~= false) then
+        redis.call('publish', syncChannel, lockKey);
+    end
+    result[i] = success;
 end
--- 发布同步消息
-redis.call('publish', syncChannel, 0);
-return success;
+return result;
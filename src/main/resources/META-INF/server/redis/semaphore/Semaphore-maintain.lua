@@ -1,6 +1,6 @@
--- KEYS: semaphoreKey
--- ARGV: semaphorerId, currentTime, liveTime
--- return: true（成功）；false（失败，信号量不存在或已经不持有许可）
+-- KEYS: semaphoreKey1, semaphoreKey2, ...
+-- ARGV: currentTime, liveTime, semaphorerId1, semaphorerId2, ...
+-- return: 每个信号量的维护结果（与KEYS一一对应）：1（成功）；0（失败，信号量不存在或已经不持有许可）
 
 -- 数据结构（hash）
 -- ${semaphoreKey}:
@@ -10,25 +10,31 @@
 --   semaphorer-${semaphorerId2}: ${permits2}|${deadline2}
 --   semaphorer-${semaphorerId3}: ${permits3}|${deadline3}
 
-local semaphoreKey = KEYS[1];
-local semaphorerId = ARGV[1];
-local currentTime = tonumber(ARGV[2]);
-local liveTime = tonumber(ARGV[3]);
--- 尝试维护
-local alive = false;
-local semaphorerKey = 'semaphorer-' .. semaphorerId;
-local semaphorerValue = redis.call('hget', semaphoreKey, semaphorerKey);
-if (semaphorerValue ~= false) then
-    -- 解析permits
-    local separatorIndex = string.find(semaphorerValue, '|', 1, true);
-    local permits = tonumber(string.sub(semaphorerValue, 1, separatorIndex - 1));
-    -- 维护semaphorer
-    local deadline = currentTime + liveTime;
-    semaphorerValue = permits .. '|' .. deadline;
-    redis.call('hset', semaphoreKey, semaphorerKey, semaphorerValue);
-    -- 维护信号量
-    redis.call('pexpire', semaphoreKey, liveTime);
+local currentTime = tonumber(ARGV[1]);
+local liveTime = tonumber(ARGV[2]);
+local result = {};
+for i = 1, #KEYS do
+    local semaphoreKey = KEYS[i];
+    local semaphorerId = ARGV[i + 2];
+    -- 尝试维护
+    local alive = 0;
+    local semaphorerKey = 'semaphorer-' .. semaphorerId;
+    local semaphorerValue = redis.call('hget', semaphoreKey, semaphorerKey);
+    if (semaphorerValue ~= false) then
+        -- 解析permits
+        local separatorIndex = string.find(semaphorerValue, '|', 1, true);
+        local permits = tonumber(string.sub(semaphorerValue, 1, separatorIndex - 1));
+        -- 维护semaphorer
+        local deadline = currentTime + liveTime;
+        semaphorerValue = permits .. '|' .. deadline;
+        redis.call('hset', semaphoreKey, semaphorerKey, semaphorerValue);
+        -- 维护信号量（持有者共享信号量的有效期，只延长不缩短）
+        if (tonumber(redis.call('pttl', semaphoreKey)) < liveTime) then
+            redis.call('pexpire', semaphoreKey, liveTime);
+        end
 
-    alive = true;
+        alive = 1;
+    end
+    result[i] = alive;
 end
-return alive;
+return result;
@@ -0,0 +1,75 @@
+-- KEYS: semaphoreKey1, semaphoreKey2, ...
+-- ARGV: currentTime, semaphorerId1, syncChannel1, semaphorerId2, syncChannel2, ...
+-- return: 每个信号量的释放结果（1：成功；0：失败，信号量不存在或已经不持有许可）
+
+-- 数据结构（hash）
+-- ${semaphoreKey}:
+--   allPermits: ${所有permits}
+--   allPermitsDeadline: ${allPermits的存活时间}
+--   semaphorer-${semaphorerId1}: ${permits1}|${deadline1}
+--   semaphorer-${semaphorerId2}: ${permits2}|${deadline2}
+--   semaphorer-${semaphorerId3}: ${permits3}|${deadline3}
+--   ticketSeq: ${最近分配的排队序号}
+--   ticket-${nodeId1}: ${seq1}|${ticketDeadline1}
+--   ticket-${nodeId2}: ${seq2}|${ticketDeadline2}
+--   waiters: ${有等待者的节点数量}
+--   waitersDeadline: ${waiters的存活时间}
+--   waiter-${nodeId1}: ${amount1}|${deadline1}
+
+local currentTime = tonumber(ARGV[1]);
+-- 查找排队的队首节点（序号最小的有效票据；同时删除已过期的票据）
+local function findQueueHead(semaphoreKey)
+    local head = nil;
+    local headSeq = nil;
+    local keys = redis.call('hkeys', semaphoreKey);
+    for i = 1, #keys do
+        local key = keys[i];
+        if (string.find(key, 'ticket-', 1, true) == 1) then
+            local value = redis.call('hget', semaphoreKey, key);
+            local separatorIndex = string.find(value, '|', 1, true);
+            local seq = tonumber(string.sub(value, 1, separatorIndex - 1));
+            local ticketDeadline = tonumber(string.sub(value, separatorIndex + 1));
+            if (ticketDeadline < currentTime) then
+                redis.call('hdel', semaphoreKey, key);
+            elseif (headSeq == nil or seq < headSeq) then
+                head = string.sub(key, 8);
+                headSeq = seq;
+            end
+        end
+    end
+    return head;
+end
+local result = {};
+for i = 1, #KEYS do
+    local semaphoreKey = KEYS[i];
+    local semaphorerId = ARGV[i * 2];
+    local syncChannel = ARGV[i * 2 + 1];
+    -- 尝试释放所有许可
+    local success = 0;
+    local semaphorerKey = 'semaphorer-' .. semaphorerId;
+    local semaphorerValue = redis.call('hget', semaphoreKey, semaphorerKey);
+    if (semaphorerValue ~= false) then
+        -- 解析permits
+        local separatorIndex = string.find(semaphorerValue, '|', 1, true);
+        local permits = tonumber(string.sub(semaphorerValue, 1, separatorIndex - 1));
+        -- 删除semaphorer
+        redis.call('hdel', semaphoreKey, semaphorerKey);
+        -- 更新allPermits
+        local allPermits = redis.call('hget', semaphoreKey, 'allPermits');
+        if (allPermits ~= false) then
+            redis.call('hset', semaphoreKey, 'allPermits', tonumber(allPermits) - permits);
+        end
+        -- 发送同步消息（消息内容为信号量的key，便于多路复用的通道分发消息；有节点排队时只通知队首节点）
+        local message = semaphoreKey;
+        if (redis.call('hget', semaphoreKey, 'ticketSeq') ~= false) then
+            local head = findQueueHead(semaphoreKey);
+            if (head ~= nil) then
+                message = '#queue#' .. head .. '#' .. semaphoreKey;
+            end
+        end
+        redis.call('publish', syncChannel, message);
+        success = 1;
+    end
+    result[i] = success;
+end
+return result;
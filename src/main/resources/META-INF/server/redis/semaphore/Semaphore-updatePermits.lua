@@ -1,5 +1,5 @@
 -- KEYS: semaphoreKey
--- ARGV: semaphorerId, newPermits, totalPermits, currentTime, syncChannel, liveTime, force
+-- ARGV: semaphorerId, newPermits, totalPermits, currentTime, syncChannel, liveTime（租期模式时为租期）, force, sessionKeyPrefix（非会话模式时为空字符串）, sessionTime（非会话模式时为0）, queueNodeId（非排队模式时为空字符串）, ticketTime
 -- return: nil（成功）；waitingTime（失败，需等待的时间）
 
 -- 数据结构（hash）
@@ -9,6 +9,12 @@
 --   semaphorer-${semaphorerId1}: ${permits1}|${deadline1}
 --   semaphorer-${semaphorerId2}: ${permits2}|${deadline2}
 --   semaphorer-${semaphorerId3}: ${permits3}|${deadline3}
+--   ticketSeq: ${最近分配的排队序号}
+--   ticket-${nodeId1}: ${seq1}|${ticketDeadline1}
+--   ticket-${nodeId2}: ${seq2}|${ticketDeadline2}
+--   waiters: ${有等待者的节点数量}
+--   waitersDeadline: ${waiters的存活时间}
+--   waiter-${nodeId1}: ${amount1}|${deadline1}
 
 local semaphoreKey = KEYS[1];
 local semaphorerId = ARGV[1];
@@ -18,6 +24,43 @@ local currentTime = tonumber(ARGV[4]);
 local syncChannel = ARGV[5];
 local liveTime = tonumber(ARGV[6]);
 local force = ARGV[7] == 'true';
+local sessionKeyPrefix = ARGV[8];
+local sessionTime = tonumber(ARGV[9]);
+local queueNodeId = ARGV[10];
+local ticketTime = tonumber(ARGV[11]);
+-- 持有者所属的会话是否已失效（会话模式下持有者id格式为@${sessionId}@${id}；非会话模式的持有者不会失效）
+local function isSessionExpired(holderId)
+    if (sessionKeyPrefix == '' or string.sub(holderId, 1, 1) ~= '@') then
+        return false;
+    end
+    local separatorIndex = string.find(holderId, '@', 2, true);
+    if (separatorIndex == nil) then
+        return false;
+    end
+    return redis.call('exists', sessionKeyPrefix .. string.sub(holderId, 2, separatorIndex - 1)) == 0;
+end
+-- 查找排队的队首节点（序号最小的有效票据；同时删除已过期的票据）
+local function findQueueHead()
+    local head = nil;
+    local headSeq = nil;
+    local keys = redis.call('hkeys', semaphoreKey);
+    for i = 1, #keys do
+        local key = keys[i];
+        if (string.find(key, 'ticket-', 1, true) == 1) then
+            local value = redis.call('hget', semaphoreKey, key);
+            local separatorIndex = string.find(value, '|', 1, true);
+            local seq = tonumber(string.sub(value, 1, separatorIndex - 1));
+            local ticketDeadline = tonumber(string.sub(value, separatorIndex + 1));
+            if (ticketDeadline < currentTime) then
+                redis.call('hdel', semaphoreKey, key);
+            elseif (headSeq == nil or seq < headSeq) then
+                head = string.sub(key, 8);
+                headSeq = seq;
+            end
+        end
+    end
+    return head;
+end
 -- 获取allPermits及其有效期
 local allPermits = redis.call('hget', semaphoreKey, 'allPermits');
 if (allPermits ~= false) then
@@ -31,6 +74,10 @@ end
 if (allPermits == false or allPermitsDeadline == false or allPermitsDeadline < currentTime) then
     allPermits = 0;
     allPermitsDeadline = currentTime + liveTime;
+    if (sessionTime > 0) then
+        -- 会话模式下至少每个会话有效期重新统计一次，以发现会话已失效的semaphorer
+        allPermitsDeadline = math.min(allPermitsDeadline, currentTime + sessionTime);
+    end
     -- 遍历所有key
     local keys = redis.call('hkeys', semaphoreKey);
     for i = 1, #keys do
@@ -45,7 +92,7 @@ if (allPermits == false or allPermitsDeadline == false or allPermitsDeadline < c
                 local separatorIndex = string.find(value, '|', 1, true);
                 local permits = tonumber(string.sub(value, 1, separatorIndex - 1));
                 local deadline = tonumber(string.sub(value, separatorIndex + 1));
-                if (deadline >= currentTime) then
+                if (deadline >= currentTime and not isSessionExpired(string.sub(key, 12))) then
                     allPermits = allPermits + permits;
                     allPermitsDeadline = math.min(allPermitsDeadline, deadline);
                 else
@@ -58,9 +105,9 @@ if (allPermits == false or allPermitsDeadline == false or allPermitsDeadline < c
     redis.call('hset', semaphoreKey, 'allPermits', allPermits);
     redis.call('hset', semaphoreKey, 'allPermitsDeadline', allPermitsDeadline);
 end
--- 保证信号量关联了有效期（安全措施）
+-- 保证信号量关联了有效期（安全措施；不缩短已有的有效期，其可能是其他持有者更长的租期）
 local ttl = tonumber(redis.call('pttl', semaphoreKey));
-if (ttl == -1 or ttl > liveTime) then
+if (ttl == -1) then
     ttl = liveTime;
     redis.call('pexpire', semaphoreKey, ttl);
 end
@@ -74,7 +121,13 @@ if (semaphorerValue ~= false) then
 end
 -- 尝试更新permits
 local waitTime = math.min(ttl, allPermitsDeadline - currentTime);
-if (force == true or newPermits <= oldPermits or allPermits + newPermits - oldPermits <= totalPermits) then
+local queued = queueNodeId ~= '' and force ~= true and newPermits > oldPermits;
+local head = nil;
+if (queued) then
+    head = findQueueHead();
+end
+-- 排队模式下只有队首节点（或者无人排队时）才能获取许可（减少许可、强制更新不受限制）
+if (force == true or newPermits <= oldPermits or ((head == nil or head == queueNodeId) and allPermits + newPermits - oldPermits <= totalPermits)) then
     -- 更新semahorer
     if (newPermits > 0) then
         local deadline = currentTime + liveTime;
@@ -88,16 +141,48 @@ if (force == true or newPermits <= oldPermits or allPermits + newPermits - oldPe
     redis.call('hset', semaphoreKey, 'allPermits', allPermits);
 
     waitTime = nil;
+    if (head ~= nil) then
+        -- 出队，如果还有剩余许可则通知新的队首节点（消息格式为#queue#${nodeId}#${semaphoreKey}）
+        redis.call('hdel', semaphoreKey, 'ticket-' .. queueNodeId);
+        local nextHead = findQueueHead();
+        if (nextHead ~= nil and allPermits < totalPermits) then
+            redis.call('publish', syncChannel, '#queue#' .. nextHead .. '#' .. semaphoreKey);
+        end
+    end
+elseif (queued) then
+    -- 排队（已有票据时保留原序号，保证先来先得）
+    local ticketKey = 'ticket-' .. queueNodeId;
+    local ticket = redis.call('hget', semaphoreKey, ticketKey);
+    local seq;
+    if (ticket ~= false) then
+        seq = tonumber(string.sub(ticket, 1, string.find(ticket, '|', 1, true) - 1));
+    else
+        seq = tonumber(redis.call('hget', semaphoreKey, 'ticketSeq') or 0) + 1;
+        redis.call('hset', semaphoreKey, 'ticketSeq', seq);
+    end
+    redis.call('hset', semaphoreKey, ticketKey, seq .. '|' .. (currentTime + ticketTime));
+    -- 需保证票据的有效期（只延长不缩短）
+    if (ttl < ticketTime) then
+        ttl = ticketTime;
+        redis.call('pexpire', semaphoreKey, ttl);
+    end
 end
--- 如果更新permits成功，需保证信号量的有效期
+-- 如果更新permits成功，需保证信号量的有效期（持有者共享信号量的有效期，只延长不缩短）
 if (waitTime == nil) then
-    if (ttl ~= liveTime) then
+    if (ttl < liveTime) then
         ttl = liveTime;
         redis.call('pexpire', semaphoreKey, ttl);
     end
 end
--- 如果为释放许可，则发送同步消息
+-- 如果为释放许可，则发送同步消息（消息内容为信号量的key，便于多路复用的通道分发消息；有节点排队时只通知队首节点）
 if (newPermits < oldPermits) then
-    redis.call('publish', syncChannel, 0);
+    local message = semaphoreKey;
+    if (redis.call('hget', semaphoreKey, 'ticketSeq') ~= false) then
+        local releasedHead = findQueueHead();
+        if (releasedHead ~= nil) then
+            message = '#queue#' .. releasedHead .. '#' .. semaphoreKey;
+        end
+    end
+    redis.call('publish', syncChannel, message);
 end
 return waitTime;
@@ -0,0 +1,7 @@
+-- KEYS: sessionKey
+-- ARGV:
+-- return: 1（会话存在，已删除）；0（会话不存在或已过期）
+
+local sessionKey = KEYS[1];
+-- 删除会话（持有者属于该会话的锁、信号量立即被视为已释放）
+return redis.call('del', sessionKey);
@@ -0,0 +1,15 @@
+-- KEYS: sessionKey
+-- ARGV: sessionTime
+-- return: 1（会话存活）；0（会话不存在或已过期，已重新创建）
+
+-- 数据结构（hash）
+-- ${sessionKey}:
+--   alive: 1
+
+local sessionKey = KEYS[1];
+local sessionTime = tonumber(ARGV[1]);
+-- 刷新会话
+local alive = redis.call('exists', sessionKey);
+redis.call('hset', sessionKey, 'alive', 1);
+redis.call('pexpire', sessionKey, sessionTime);
+return alive;
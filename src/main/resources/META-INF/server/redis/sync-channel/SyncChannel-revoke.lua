@@ -0,0 +1,8 @@
+-- KEYS: syncKey
+-- ARGV: syncChannel, message
+-- return: 收到撤销消息的订阅者数量
+
+local syncChannel = ARGV[1];
+local message = ARGV[2];
+-- 发布撤销消息（syncKey只用于在redis集群中定位key所在的节点）
+return redis.call('publish', syncChannel, message);
@@ -0,0 +1,67 @@
+-- KEYS: syncKey（互斥锁或信号量的key）
+-- ARGV: nodeId, maxWaiters, currentTime, waiterTime
+-- return: 1（新增成功）；0（有等待者的节点数量已达上限）
+-- 节点内的key从无等待者变为有等待者时才调用，节点内的所有等待者在服务端只算一个；同一个节点的多次登记（比如多个Sync上下文共用一个服务端）只增加登记次数
+
+-- 数据结构（hash，与互斥锁、信号量的数据在同一个hash中）
+-- ${syncKey}:
+--   waiters: ${有等待者的节点数量}
+--   waitersDeadline: ${waiters的存活时间}
+--   waiter-${nodeId1}: ${登记次数1}|${deadline1}
+--   waiter-${nodeId2}: ${登记次数2}|${deadline2}
+
+local syncKey = KEYS[1];
+local nodeId = ARGV[1];
+local maxWaiters = tonumber(ARGV[2]);
+local currentTime = tonumber(ARGV[3]);
+local waiterTime = tonumber(ARGV[4]);
+-- 获取waiters及其有效期
+local waiters = redis.call('hget', syncKey, 'waiters');
+if (waiters ~= false) then
+    waiters = tonumber(waiters);
+end
+local waitersDeadline = redis.call('hget', syncKey, 'waitersDeadline');
+if (waitersDeadline ~= false) then
+    waitersDeadline = tonumber(waitersDeadline);
+end
+-- 如果waiters不存在或已失效，则重新统计waiters（同时删除已过期的节点，宕机节点的等待者最多被统计一个等待者有效期）
+if (waiters == false or waitersDeadline == false or waitersDeadline < currentTime) then
+    waiters = 0;
+    waitersDeadline = currentTime + waiterTime;
+    local keys = redis.call('hkeys', syncKey);
+    for i = 1, #keys do
+        local key = keys[i];
+        if (string.find(key, 'waiter-', 1, true) == 1) then
+            local value = redis.call('hget', syncKey, key);
+            local deadline = tonumber(string.sub(value, string.find(value, '|', 1, true) + 1));
+            if (deadline >= currentTime) then
+                waiters = waiters + 1;
+                waitersDeadline = math.min(waitersDeadline, deadline);
+            else
+                redis.call('hdel', syncKey, key);
+            end
+        end
+    end
+    redis.call('hset', syncKey, 'waiters', waiters);
+    redis.call('hset', syncKey, 'waitersDeadline', waitersDeadline);
+end
+local waiterKey = 'waiter-' .. nodeId;
+local value = redis.call('hget', syncKey, waiterKey);
+if (value ~= false) then
+    -- 本节点已登记时只增加登记次数（同时刷新本节点的有效期），不受上限限制
+    local amount = tonumber(string.sub(value, 1, string.find(value, '|', 1, true) - 1));
+    redis.call('hset', syncKey, waiterKey, (amount + 1) .. '|' .. (currentTime + waiterTime));
+else
+    if (waiters >= maxWaiters) then
+        return 0;
+    end
+    -- 登记本节点
+    redis.call('hset', syncKey, waiterKey, '1|' .. (currentTime + waiterTime));
+    redis.call('hset', syncKey, 'waiters', waiters + 1);
+end
+-- 保证等待者的有效期（锁被持有时不延长，以免延长租期模式的锁；信号量的获取者各自带有有效期，可以延长）
+local ttl = tonumber(redis.call('pttl', syncKey));
+if (ttl == -1 or (ttl < waiterTime and redis.call('hget', syncKey, 'owner') == false)) then
+    redis.call('pexpire', syncKey, waiterTime);
+end
+return 1;
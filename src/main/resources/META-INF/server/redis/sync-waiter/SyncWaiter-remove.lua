@@ -0,0 +1,34 @@
+-- KEYS: syncKey（互斥锁或信号量的key）
+-- ARGV: nodeId, currentTime, waiterTime
+-- return: 1（删除成功）；0（本节点的登记已过期，不再被统计）
+-- 节点内的key从有等待者变为无等待者时才调用，与登记一一对应
+
+-- 数据结构（hash，与互斥锁、信号量的数据在同一个hash中）
+-- ${syncKey}:
+--   waiters: ${有等待者的节点数量}
+--   waitersDeadline: ${waiters的存活时间}
+--   waiter-${nodeId1}: ${登记次数1}|${deadline1}
+--   waiter-${nodeId2}: ${登记次数2}|${deadline2}
+
+local syncKey = KEYS[1];
+local nodeId = ARGV[1];
+local currentTime = tonumber(ARGV[2]);
+local waiterTime = tonumber(ARGV[3]);
+local waiterKey = 'waiter-' .. nodeId;
+local value = redis.call('hget', syncKey, waiterKey);
+if (value == false) then
+    return 0;
+end
+-- 减少本节点的登记次数（还有登记时同时刷新本节点的有效期，本节点仍被统计）
+local amount = tonumber(string.sub(value, 1, string.find(value, '|', 1, true) - 1)) - 1;
+if (amount > 0) then
+    redis.call('hset', syncKey, waiterKey, amount .. '|' .. (currentTime + waiterTime));
+    return 1;
+end
+redis.call('hdel', syncKey, waiterKey);
+-- 更新waiters（不存在时下次新增等待者会重新统计）
+local waiters = redis.call('hget', syncKey, 'waiters');
+if (waiters ~= false and tonumber(waiters) > 0) then
+    redis.call('hset', syncKey, 'waiters', tonumber(waiters) - 1);
+end
+return 1;
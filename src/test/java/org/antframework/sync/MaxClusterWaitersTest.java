@@ -0,0 +1,312 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 17:57 创建
+ */
+package org.antframework.sync;
+
+import org.antframework.sync.common.DefaultKeyConverter;
+import org.antframework.sync.common.DefaultKeyGenerator;
+import org.antframework.sync.extension.Server;
+import org.antframework.sync.extension.local.LocalServer;
+import org.antframework.sync.extension.redis.LuaRedisExecutor;
+import org.antframework.sync.extension.redis.RedisServer;
+import org.antframework.sync.metrics.support.NoopSyncMetrics;
+import org.antframework.sync.semaphore.Semaphore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * 有等待者的节点数量上限单元测试（分别基于本地服务端和使用进程内redis执行器的redis服务端；每个Sync上下文模拟一个节点）
+ */
+@RunWith(Parameterized.class)
+public class MaxClusterWaitersTest {
+    // 最多有等待者的节点数量
+    private static final int MAX_CLUSTER_WAITERS = 2;
+    // 等待者登记到服务端所需的时间
+    private static final long REGISTER_TIME = 300;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> serverTypes() {
+        return Arrays.asList(new Object[]{"local"}, new Object[]{"redis"});
+    }
+
+    // 服务端类型（local：本地服务端；redis：使用进程内redis执行器的redis服务端）
+    private final String serverType;
+    // 进程内redis执行器（服务端类型为redis时才有）
+    private LuaRedisExecutor redisExecutor;
+    // 所有服务端
+    private final List<Server> servers = new ArrayList<>();
+    // 所有Sync上下文
+    private final List<SyncContext> syncContexts = new ArrayList<>();
+    // 等待者线程池
+    private ExecutorService executor;
+
+    public MaxClusterWaitersTest(String serverType) {
+        this.serverType = serverType;
+    }
+
+    @Before
+    public void setup() {
+        switch (serverType) {
+            case "local":
+                break;
+            case "redis":
+                redisExecutor = new LuaRedisExecutor();
+                break;
+            default:
+                throw new IllegalArgumentException("无法识别的服务端类型：" + serverType);
+        }
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        for (SyncContext syncContext : syncContexts) {
+            syncContext.close();
+        }
+        for (Server server : servers) {
+            server.close();
+        }
+        if (redisExecutor != null) {
+            redisExecutor.close();
+        }
+    }
+
+    // 服务端统计有等待者的节点数量（解锁后仍保留统计）
+    @Test
+    public void testServerCount() {
+        Server serverA = newServer();
+        Server serverB = newServer();
+        Server serverC = newServer();
+        Assert.assertNull(serverA.lockForMutex("count", "a", Long.MAX_VALUE));
+        Assert.assertTrue(serverA.addWaiter(Server.SyncType.MUTEX_LOCK, "count", MAX_CLUSTER_WAITERS));
+        serverA.unlockForMutex("count", "a");
+        Assert.assertTrue(serverB.addWaiter(Server.SyncType.MUTEX_LOCK, "count", MAX_CLUSTER_WAITERS));
+        Assert.assertFalse(serverC.addWaiter(Server.SyncType.MUTEX_LOCK, "count", MAX_CLUSTER_WAITERS));
+        // 信号量与互斥锁分开统计
+        Assert.assertTrue(serverC.addWaiter(Server.SyncType.SEMAPHORE, "count", MAX_CLUSTER_WAITERS));
+
+        serverA.removeWaiter(Server.SyncType.MUTEX_LOCK, "count");
+        Assert.assertTrue(serverC.addWaiter(Server.SyncType.MUTEX_LOCK, "count", MAX_CLUSTER_WAITERS));
+        Assert.assertFalse(serverA.addWaiter(Server.SyncType.MUTEX_LOCK, "count", MAX_CLUSTER_WAITERS));
+    }
+
+    // redis服务端：同一个节点的多次登记（多个Sync上下文共用一个服务端）只算一个节点，全部注销后才不再被统计
+    @Test
+    public void testSameNode() {
+        Assume.assumeTrue("redis".equals(serverType));
+        Server serverA = newServer();
+        Server serverB = newServer();
+        Server serverC = newServer();
+        Assert.assertTrue(serverA.addWaiter(Server.SyncType.MUTEX_LOCK, "node", MAX_CLUSTER_WAITERS));
+        Assert.assertTrue(serverA.addWaiter(Server.SyncType.MUTEX_LOCK, "node", MAX_CLUSTER_WAITERS));
+        Assert.assertTrue(serverB.addWaiter(Server.SyncType.MUTEX_LOCK, "node", MAX_CLUSTER_WAITERS));
+        Assert.assertFalse(serverC.addWaiter(Server.SyncType.MUTEX_LOCK, "node", MAX_CLUSTER_WAITERS));
+
+        serverA.removeWaiter(Server.SyncType.MUTEX_LOCK, "node");
+        Assert.assertFalse(serverC.addWaiter(Server.SyncType.MUTEX_LOCK, "node", MAX_CLUSTER_WAITERS));
+        serverA.removeWaiter(Server.SyncType.MUTEX_LOCK, "node");
+        Assert.assertTrue(serverC.addWaiter(Server.SyncType.MUTEX_LOCK, "node", MAX_CLUSTER_WAITERS));
+    }
+
+    // 节点内的key从无等待者变为有等待者时才在服务端登记，从有变为无时注销；节点内的多个等待者只算一个，不受上限影响
+    @Test
+    public void testNodeRegistration() throws Exception {
+        SyncOptions options = new SyncOptions();
+        options.setMaxClusterWaiters(1);
+        SyncContext nodeA = newSyncContext(options);
+        Server targetServer = newServer();
+        Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+        Server server = (Server) Proxy.newProxyInstance(
+                Server.class.getClassLoader(),
+                new Class<?>[]{Server.class},
+                (proxy, method, args) -> {
+                    calls.computeIfAbsent(method.getName(), k -> new AtomicInteger()).incrementAndGet();
+                    try {
+                        return method.invoke(targetServer, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+        SyncContext nodeB = new SyncContext(new DefaultKeyConverter(), server, options, NoopSyncMetrics.INSTANCE);
+        syncContexts.add(nodeB);
+
+        Lock holder = nodeA.getLockContext().getLock("registration");
+        holder.lock();
+        List<Future<Boolean>> waiters = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            waiters.add(executor.submit(() -> tryLockAndUnlock(nodeB, "registration")));
+        }
+        Thread.sleep(REGISTER_TIME);
+        Assert.assertEquals(1, count(calls, "addWaiter"));
+        Assert.assertEquals(0, count(calls, "removeWaiter"));
+
+        holder.unlock();
+        for (Future<Boolean> waiter : waiters) {
+            Assert.assertTrue(waiter.get());
+        }
+        Assert.assertEquals(count(calls, "addWaiter"), count(calls, "removeWaiter"));
+        // 本节点注销后其他节点可以登记
+        holder.lock();
+        Assert.assertFalse(newSyncContext(options).getLockContext().getLock("registration").tryLock(100, TimeUnit.MILLISECONDS));
+        holder.unlock();
+    }
+
+    // 互斥锁：有等待者的节点已达上限时其他节点新的等待者立即失败，等待者离开后恢复
+    @Test
+    public void testMutexLock() throws Exception {
+        SyncOptions options = new SyncOptions();
+        options.setMaxClusterWaiters(MAX_CLUSTER_WAITERS);
+        SyncContext nodeA = newSyncContext(options);
+        SyncContext nodeB = newSyncContext(options);
+        SyncContext nodeC = newSyncContext(options);
+        SyncContext nodeD = newSyncContext(options);
+
+        Lock holder = nodeA.getLockContext().getLock("mutex");
+        holder.lock();
+        Future<Boolean> waiterB = executor.submit(() -> tryLockAndUnlock(nodeB, "mutex"));
+        Future<Boolean> waiterC = executor.submit(() -> tryLockAndUnlock(nodeC, "mutex"));
+        Thread.sleep(REGISTER_TIME);
+        assertWaitersExceeded(() -> nodeD.getLockContext().getLock("mutex").tryLock(1, TimeUnit.SECONDS));
+
+        holder.unlock();
+        Assert.assertTrue(waiterB.get());
+        Assert.assertTrue(waiterC.get());
+        // 等待者离开后不再被统计
+        holder.lock();
+        Assert.assertFalse(nodeD.getLockContext().getLock("mutex").tryLock(100, TimeUnit.MILLISECONDS));
+        holder.unlock();
+    }
+
+    // 信号量
+    @Test
+    public void testSemaphore() throws Exception {
+        SyncOptions options = new SyncOptions();
+        options.setMaxClusterWaiters(MAX_CLUSTER_WAITERS);
+        SyncContext nodeA = newSyncContext(options);
+        SyncContext nodeB = newSyncContext(options);
+        SyncContext nodeC = newSyncContext(options);
+        SyncContext nodeD = newSyncContext(options);
+
+        Semaphore holder = nodeA.getSemaphoreContext().getSemaphore("semaphore", 1);
+        holder.acquire();
+        Future<Boolean> waiterB = executor.submit(() -> tryAcquireAndRelease(nodeB, "semaphore"));
+        Future<Boolean> waiterC = executor.submit(() -> tryAcquireAndRelease(nodeC, "semaphore"));
+        Thread.sleep(REGISTER_TIME);
+        assertWaitersExceeded(() -> nodeD.getSemaphoreContext().getSemaphore("semaphore", 1).tryAcquire(1, TimeUnit.SECONDS));
+
+        holder.release();
+        Assert.assertTrue(waiterB.get());
+        Assert.assertTrue(waiterC.get());
+    }
+
+    // 按key指定上限（未指定的key不限制）
+    @Test
+    public void testResolver() throws Exception {
+        SyncOptions options = new SyncOptions();
+        options.setMaxClusterWaitersResolver(key -> "limited".equals(key) ? 1 : null);
+        SyncContext nodeA = newSyncContext(options);
+        SyncContext nodeB = newSyncContext(options);
+        SyncContext nodeC = newSyncContext(options);
+
+        Lock limited = nodeA.getLockContext().getLock("limited");
+        Lock unlimited = nodeA.getLockContext().getLock("unlimited");
+        limited.lock();
+        unlimited.lock();
+        Future<Boolean> waiterB = executor.submit(() -> tryLockAndUnlock(nodeB, "limited"));
+        Future<Boolean> unlimitedB = executor.submit(() -> tryLockAndUnlock(nodeB, "unlimited"));
+        Thread.sleep(REGISTER_TIME);
+        assertWaitersExceeded(() -> nodeC.getLockContext().getLock("limited").tryLock(1, TimeUnit.SECONDS));
+        Assert.assertFalse(nodeC.getLockContext().getLock("unlimited").tryLock(100, TimeUnit.MILLISECONDS));
+
+        limited.unlock();
+        unlimited.unlock();
+        Assert.assertTrue(waiterB.get());
+        Assert.assertTrue(unlimitedB.get());
+    }
+
+    // 新建服务端（本地服务端在所有节点间共享）
+    private Server newServer() {
+        if (redisExecutor == null && !servers.isEmpty()) {
+            return servers.get(0);
+        }
+        Server server = redisExecutor == null ? new LocalServer() : new RedisServer(new DefaultKeyGenerator("test"), redisExecutor, 10 * 60 * 1000);
+        servers.add(server);
+        return server;
+    }
+
+    // 新建Sync上下文（一个节点）
+    private SyncContext newSyncContext(SyncOptions options) {
+        SyncContext syncContext = new SyncContext(new DefaultKeyConverter(), newServer(), options, NoopSyncMetrics.INSTANCE);
+        syncContexts.add(syncContext);
+        return syncContext;
+    }
+
+    // 获取调用次数
+    private static int count(Map<String, AtomicInteger> calls, String methodName) {
+        AtomicInteger amount = calls.get(methodName);
+        return amount == null ? 0 : amount.get();
+    }
+
+    // 尝试加锁，成功后解锁
+    private static boolean tryLockAndUnlock(SyncContext syncContext, String key) throws InterruptedException {
+        Lock lock = syncContext.getLockContext().getLock(key);
+        boolean success = lock.tryLock(5, TimeUnit.SECONDS);
+        if (success) {
+            lock.unlock();
+        }
+        return success;
+    }
+
+    // 尝试获取许可，成功后释放
+    private static boolean tryAcquireAndRelease(SyncContext syncContext, String key) throws InterruptedException {
+        Semaphore semaphore = syncContext.getSemaphoreContext().getSemaphore(key, 1);
+        boolean success = semaphore.tryAcquire(5, TimeUnit.SECONDS);
+        if (success) {
+            semaphore.release();
+        }
+        return success;
+    }
+
+    // 断言因等待者数量已达上限而立即失败
+    private static void assertWaitersExceeded(Attempt attempt) throws InterruptedException {
+        long startTime = System.currentTimeMillis();
+        try {
+            attempt.run();
+            Assert.fail("等待者数量已达上限时应抛出WaitersExceededException");
+        } catch (WaitersExceededException e) {
+            Assert.assertTrue(System.currentTimeMillis() - startTime < 500);
+        }
+    }
+
+    // 尝试
+    @FunctionalInterface
+    private interface Attempt {
+        void run() throws InterruptedException;
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 18:55 创建
+ */
+package org.antframework.sync;
+
+import org.antframework.sync.common.DefaultKeyConverter;
+import org.antframework.sync.extension.local.LocalServer;
+import org.antframework.sync.metrics.support.NoopSyncMetrics;
+import org.antframework.sync.semaphore.Semaphore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Sync模版单元测试（两个Sync上下文共用一个本地服务端，相当于两个节点）
+ */
+public class SyncTemplateTest {
+    // 锁、信号量的标识
+    private static final String KEY = "template";
+
+    // 服务端
+    private LocalServer server;
+    // 使用模版的节点
+    private SyncContext syncContext;
+    // 另一个节点（用于持有锁、许可）
+    private SyncContext otherNode;
+    // Sync模版
+    private SyncTemplate syncTemplate;
+    // 动作执行的次数
+    private final AtomicInteger executions = new AtomicInteger(0);
+
+    @Before
+    public void setup() {
+        server = new LocalServer();
+        syncContext = new SyncContext(new DefaultKeyConverter(), server, new SyncOptions(), NoopSyncMetrics.INSTANCE);
+        otherNode = new SyncContext(new DefaultKeyConverter(), server, new SyncOptions(), NoopSyncMetrics.INSTANCE);
+        syncTemplate = new SyncTemplate(syncContext);
+    }
+
+    @After
+    public void tearDown() {
+        syncContext.close();
+        otherNode.close();
+        server.close();
+    }
+
+    // 持有互斥锁期间执行动作，执行后解锁（动作抛出异常时也解锁）
+    @Test
+    public void testLock() throws Exception {
+        Assert.assertEquals("done", syncTemplate.executeWithLock(KEY, -1, () -> {
+            Assert.assertFalse(tryLockByOtherNode(otherNode.getLockContext().getLock(KEY)));
+            return "done";
+        }));
+        Assert.assertEquals(Integer.valueOf(2), syncTemplate.executeWithLock(KEY, 0, 1, param -> param + 1));
+        try {
+            syncTemplate.executeWithLock(KEY, 100, () -> {
+                throw new IllegalStateException("动作出错");
+            });
+            Assert.fail("应该抛出动作的异常");
+        } catch (IllegalStateException e) {
+            // 符合预期
+        }
+        Assert.assertTrue(tryLockByOtherNode(otherNode.getLockContext().getLock(KEY)));
+    }
+
+    // 锁被其他节点持有时超时，不执行动作
+    @Test
+    public void testLockTimeout() throws Exception {
+        Lock lock = otherNode.getLockContext().getLock(KEY);
+        lock.lock();
+        try {
+            assertTimeout(() -> syncTemplate.executeWithLock(KEY, 0, this::execute));
+            assertTimeout(() -> syncTemplate.executeWithLock(KEY, 100, this::execute));
+        } finally {
+            lock.unlock();
+        }
+        Assert.assertEquals(0, executions.get());
+        syncTemplate.executeWithLock(KEY, 0, this::execute);
+        Assert.assertEquals(1, executions.get());
+    }
+
+    // 读锁之间共享，读锁和写锁互斥
+    @Test
+    public void testRWLock() throws Exception {
+        ReadWriteLock rwLock = otherNode.getLockContext().getRWLock(KEY);
+        rwLock.readLock().lock();
+        try {
+            syncTemplate.executeWithReadLock(KEY, 0, this::execute);
+            assertTimeout(() -> syncTemplate.executeWithWriteLock(KEY, 100, this::execute));
+        } finally {
+            rwLock.readLock().unlock();
+        }
+        syncTemplate.executeWithWriteLock(KEY, 0, () -> {
+            Assert.assertFalse(tryLockByOtherNode(rwLock.readLock()));
+            return execute();
+        });
+        Assert.assertEquals(2, executions.get());
+    }
+
+    // 持有许可期间执行动作，执行后释放许可；许可不足时超时
+    @Test
+    public void testPermits() throws Exception {
+        Semaphore semaphore = otherNode.getSemaphoreContext().getSemaphore(KEY, 3);
+        Assert.assertTrue(semaphore.tryAcquire(2));
+        try {
+            syncTemplate.executeWithPermits(KEY, 3, 1, 0, () -> {
+                Assert.assertFalse(semaphore.tryAcquire());
+                return execute();
+            });
+            assertTimeout(() -> syncTemplate.executeWithPermits(KEY, 3, 2, 100, this::execute));
+        } finally {
+            semaphore.release(2);
+        }
+        Assert.assertEquals(1, executions.get());
+        Assert.assertTrue(semaphore.tryAcquire(3));
+        semaphore.release(3);
+    }
+
+    // 等待锁、许可期间被中断时抛出InterruptedException，不执行动作
+    @Test
+    public void testInterrupted() throws Exception {
+        Lock lock = otherNode.getLockContext().getLock(KEY);
+        ReadWriteLock rwLock = otherNode.getLockContext().getRWLock(KEY);
+        Semaphore semaphore = otherNode.getSemaphoreContext().getSemaphore(KEY, 1);
+        lock.lock();
+        rwLock.writeLock().lock();
+        Assert.assertTrue(semaphore.tryAcquire());
+        try {
+            assertInterrupted(() -> syncTemplate.executeWithLock(KEY, -1, this::execute));
+            assertInterrupted(() -> syncTemplate.executeWithLock(KEY, 60 * 1000, this::execute));
+            assertInterrupted(() -> syncTemplate.executeWithReadLock(KEY, -1, this::execute));
+            assertInterrupted(() -> syncTemplate.executeWithWriteLock(KEY, 60 * 1000, this::execute));
+            assertInterrupted(() -> syncTemplate.executeWithPermits(KEY, 1, 1, -1, this::execute));
+            assertInterrupted(() -> syncTemplate.executeWithPermits(KEY, 1, 1, 60 * 1000, this::execute));
+        } finally {
+            semaphore.release();
+            rwLock.writeLock().unlock();
+            lock.unlock();
+        }
+        Assert.assertEquals(0, executions.get());
+    }
+
+    // 动作
+    private Object execute() {
+        executions.incrementAndGet();
+        return null;
+    }
+
+    // 其他节点尝试加锁（成功后立即解锁）
+    private static boolean tryLockByOtherNode(Lock lock) {
+        boolean success = lock.tryLock();
+        if (success) {
+            lock.unlock();
+        }
+        return success;
+    }
+
+    // 断言超时
+    private static void assertTimeout(Execution execution) throws Exception {
+        try {
+            execution.execute();
+            Assert.fail("应该超时");
+        } catch (TimeoutException e) {
+            // 符合预期
+        }
+    }
+
+    // 断言在另一个线程中执行时，等待期间被中断会抛出InterruptedException
+    private static void assertInterrupted(Execution execution) throws Exception {
+        CompletableFuture<Throwable> result = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                execution.execute();
+                result.complete(null);
+            } catch (Throwable e) {
+                result.complete(e);
+            }
+        });
+        thread.start();
+        Thread.sleep(200);
+        thread.interrupt();
+        Assert.assertTrue(result.get(5, TimeUnit.SECONDS) instanceof InterruptedException);
+    }
+
+    // 模版的执行
+    @FunctionalInterface
+    private interface Execution {
+        void execute() throws Exception;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 15:50 创建
+ */
+package org.antframework.sync.benchmark;
+
+import org.antframework.sync.common.SyncUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * 互斥锁基准测试
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MutexLockBenchmark {
+    // 竞争的锁标识
+    private static final String CONTENDED_KEY = "mutex-contended";
+
+    /**
+     * 线程独占的锁标识
+     */
+    @State(Scope.Thread)
+    public static class ThreadKey {
+        public String key;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            key = "mutex-" + SyncUtils.newId();
+        }
+    }
+
+    // 无竞争：每个线程使用不同的锁
+    @Benchmark
+    public void uncontended(SyncEnvironment environment, ThreadKey threadKey) {
+        Lock lock = environment.syncContext.getLockContext().getLock(threadKey.key);
+        lock.lock();
+        lock.unlock();
+    }
+
+    // 有竞争：所有线程使用同一把锁
+    @Benchmark
+    @Threads(4)
+    public void contended(SyncEnvironment environment) {
+        Lock lock = environment.syncContext.getLockContext().getLock(CONTENDED_KEY);
+        lock.lock();
+        lock.unlock();
+    }
+
+    // 重入：同一线程对同一把锁加锁多次
+    @Benchmark
+    public void reentrant(SyncEnvironment environment, ThreadKey threadKey) {
+        Lock lock = environment.syncContext.getLockContext().getLock(threadKey.key);
+        lock.lock();
+        lock.lock();
+        lock.lock();
+        lock.unlock();
+        lock.unlock();
+        lock.unlock();
+    }
+}
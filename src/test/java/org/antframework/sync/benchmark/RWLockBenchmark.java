@@ -0,0 +1,96 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 15:50 创建
+ */
+package org.antframework.sync.benchmark;
+
+import org.antframework.sync.common.SyncUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * 读写锁基准测试
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RWLockBenchmark {
+    // 竞争的锁标识
+    private static final String CONTENDED_KEY = "rw-contended";
+
+    /**
+     * 线程独占的锁标识
+     */
+    @State(Scope.Thread)
+    public static class ThreadKey {
+        public String key;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            key = "rw-" + SyncUtils.newId();
+        }
+    }
+
+    // 无竞争读锁
+    @Benchmark
+    public void uncontendedRead(SyncEnvironment environment, ThreadKey threadKey) {
+        ReadWriteLock rwLock = environment.syncContext.getLockContext().getRWLock(threadKey.key);
+        rwLock.readLock().lock();
+        rwLock.readLock().unlock();
+    }
+
+    // 无竞争写锁
+    @Benchmark
+    public void uncontendedWrite(SyncEnvironment environment, ThreadKey threadKey) {
+        ReadWriteLock rwLock = environment.syncContext.getLockContext().getRWLock(threadKey.key);
+        rwLock.writeLock().lock();
+        rwLock.writeLock().unlock();
+    }
+
+    // 多个读者共享同一把锁
+    @Benchmark
+    @Threads(4)
+    public void sharedRead(SyncEnvironment environment) {
+        ReadWriteLock rwLock = environment.syncContext.getLockContext().getRWLock(CONTENDED_KEY);
+        rwLock.readLock().lock();
+        rwLock.readLock().unlock();
+    }
+
+    // 读写竞争：读者
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(3)
+    public void contendedRead(SyncEnvironment environment) {
+        ReadWriteLock rwLock = environment.syncContext.getLockContext().getRWLock(CONTENDED_KEY);
+        rwLock.readLock().lock();
+        rwLock.readLock().unlock();
+    }
+
+    // 读写竞争：写者
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public void contendedWrite(SyncEnvironment environment) {
+        ReadWriteLock rwLock = environment.syncContext.getLockContext().getRWLock(CONTENDED_KEY);
+        rwLock.writeLock().lock();
+        rwLock.writeLock().unlock();
+    }
+
+    // 重入：持有写锁的同时加读锁
+    @Benchmark
+    public void reentrant(SyncEnvironment environment, ThreadKey threadKey) {
+        ReadWriteLock rwLock = environment.syncContext.getLockContext().getRWLock(threadKey.key);
+        rwLock.writeLock().lock();
+        rwLock.readLock().lock();
+        rwLock.readLock().unlock();
+        rwLock.writeLock().unlock();
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 15:50 创建
+ */
+package org.antframework.sync.benchmark;
+
+import org.antframework.sync.common.SyncUtils;
+import org.antframework.sync.semaphore.Semaphore;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 信号量基准测试
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SemaphoreBenchmark {
+    // 竞争的信号量标识
+    private static final String CONTENDED_KEY = "semaphore-contended";
+    // 竞争的信号量的许可总数（小于线程数，以产生竞争）
+    private static final int CONTENDED_TOTAL_PERMITS = 2;
+    // 无竞争的信号量的许可总数
+    private static final int UNCONTENDED_TOTAL_PERMITS = 100;
+
+    /**
+     * 线程独占的信号量标识
+     */
+    @State(Scope.Thread)
+    public static class ThreadKey {
+        public String key;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            key = "semaphore-" + SyncUtils.newId();
+        }
+    }
+
+    // 无竞争：每个线程使用不同的信号量
+    @Benchmark
+    public void uncontended(SyncEnvironment environment, ThreadKey threadKey) throws InterruptedException {
+        Semaphore semaphore = environment.syncContext.getSemaphoreContext().getSemaphore(threadKey.key, UNCONTENDED_TOTAL_PERMITS);
+        semaphore.acquire();
+        semaphore.release();
+    }
+
+    // 有竞争：所有线程使用同一个信号量，且许可总数小于线程数
+    @Benchmark
+    @Threads(4)
+    public void contended(SyncEnvironment environment) throws InterruptedException {
+        Semaphore semaphore = environment.syncContext.getSemaphoreContext().getSemaphore(CONTENDED_KEY, CONTENDED_TOTAL_PERMITS);
+        semaphore.acquire();
+        semaphore.release();
+    }
+
+    // 重入：同一个信号量多次获取许可
+    @Benchmark
+    public void reentrant(SyncEnvironment environment, ThreadKey threadKey) throws InterruptedException {
+        Semaphore semaphore = environment.syncContext.getSemaphoreContext().getSemaphore(threadKey.key, UNCONTENDED_TOTAL_PERMITS);
+        semaphore.acquire();
+        semaphore.acquire(2);
+        semaphore.release(2);
+        semaphore.release();
+    }
+}
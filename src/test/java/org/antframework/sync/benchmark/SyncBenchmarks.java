@@ -0,0 +1,43 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 15:50 创建
+ */
+package org.antframework.sync.benchmark;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基准测试启动器
+ * <p>
+ * 执行方式：mvn -Pbenchmark -DskipTests test（可通过-Dbenchmark=正则表达式 指定需执行的基准测试）。
+ * 先以吞吐量模式（ops/s）执行一遍，再以采样模式执行一遍以得到延迟百分位（微秒）；两遍都会通过GC分析器输出内存分配速率（gc.alloc.rate、gc.alloc.rate.norm）。
+ */
+public class SyncBenchmarks {
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : ".*Benchmark";
+        // 吞吐量
+        new Runner(new OptionsBuilder()
+                .include(include)
+                .mode(Mode.Throughput)
+                .timeUnit(TimeUnit.SECONDS)
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+        // 延迟百分位
+        new Runner(new OptionsBuilder()
+                .include(include)
+                .mode(Mode.SampleTime)
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
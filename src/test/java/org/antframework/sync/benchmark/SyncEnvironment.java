@@ -0,0 +1,74 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 15:50 创建
+ */
+package org.antframework.sync.benchmark;
+
+import org.antframework.sync.SyncContext;
+import org.antframework.sync.common.DefaultKeyConverter;
+import org.antframework.sync.common.DefaultKeyGenerator;
+import org.antframework.sync.extension.Server;
+import org.antframework.sync.extension.local.LocalServer;
+import org.antframework.sync.extension.redis.LuaRedisExecutor;
+import org.antframework.sync.extension.redis.RedisServer;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * 基准测试的Sync环境
+ */
+@State(Scope.Benchmark)
+public class SyncEnvironment {
+    /**
+     * 服务端类型（local：本地服务端；redis：使用进程内redis执行器的redis服务端）
+     */
+    @Param({"local", "redis"})
+    public String serverType;
+    /**
+     * Sync上下文
+     */
+    public SyncContext syncContext;
+    // 服务端
+    private Server server;
+    // 进程内redis执行器（服务端类型为redis时才有）
+    private LuaRedisExecutor redisExecutor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        server = buildServer();
+        syncContext = new SyncContext(new DefaultKeyConverter(), server, 10 * 1000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        // 先关闭Sync上下文和服务端（释放持有并停止维护线程），再关闭它们依赖的redis执行器
+        syncContext.close();
+        server.close();
+        // 关闭进程内redis执行器（停止消息分发线程），以免同一个fork中后续的trial受到残留线程的影响
+        if (redisExecutor != null) {
+            redisExecutor.close();
+            redisExecutor = null;
+        }
+    }
+
+    // 构建服务端
+    private Server buildServer() {
+        switch (serverType) {
+            case "local":
+                return new LocalServer();
+            case "redis":
+                redisExecutor = new LuaRedisExecutor();
+                return new RedisServer(new DefaultKeyGenerator("benchmark"), redisExecutor, 10 * 60 * 1000);
+            default:
+                throw new IllegalArgumentException("无法识别的服务端类型：" + serverType);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 18:33 创建
+ */
+package org.antframework.sync.boot;
+
+import org.antframework.sync.SyncContext;
+import org.antframework.sync.common.DefaultIdGenerator;
+import org.antframework.sync.common.DefaultKeyConverter;
+import org.antframework.sync.common.DefaultKeyGenerator;
+import org.antframework.sync.extension.Server;
+import org.antframework.sync.extension.local.LocalServer;
+import org.antframework.sync.extension.redis.LuaRedisExecutor;
+import org.antframework.sync.extension.redis.RedisServer;
+import org.antframework.sync.metrics.SyncMetrics;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.Collections;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Sync自动配置单元测试（注入的线程池被Sync执行器和redis服务端使用；直接调用配置方法，不依赖属性校验的实现）
+ */
+public class SyncAutoConfigurationTest {
+    // 执行的任务数
+    private final AtomicInteger executed = new AtomicInteger(0);
+    // 定时任务数
+    private final AtomicInteger scheduled = new AtomicInteger(0);
+    // 执行的维护任务数
+    private final AtomicInteger maintained = new AtomicInteger(0);
+    // 注入的线程池
+    private final Executor executor = task -> {
+        executed.incrementAndGet();
+        new Thread(task).start();
+    };
+    // 注入的定时任务线程池
+    private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1) {
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            scheduled.incrementAndGet();
+            return super.schedule(command, delay, unit);
+        }
+    };
+    // 注入的redis维护线程池
+    private final Executor maintainExecutor = task -> {
+        maintained.incrementAndGet();
+        task.run();
+    };
+    // 配置
+    private SyncProperties properties;
+
+    @Before
+    public void setup() {
+        properties = new SyncProperties();
+        properties.setNamespace("test");
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    // Sync执行器使用注入的线程池和定时任务线程池，关闭Sync上下文时不关闭它们
+    @Test
+    public void testSyncExecutorBeans() throws Exception {
+        LocalServer server = new LocalServer();
+        SyncContext syncContext = newSyncContext(server);
+        try {
+            Lock holder = syncContext.getLockContext().getLock("bean");
+            holder.lock();
+            try {
+                // 异步加锁在注入的线程池中执行，超时由注入的定时任务线程池触发
+                Assert.assertNull(syncContext.getLockContext().tryLockAsync("bean", 100, TimeUnit.MILLISECONDS).get(5, TimeUnit.SECONDS));
+            } finally {
+                holder.unlock();
+            }
+        } finally {
+            syncContext.close();
+            server.close();
+        }
+        Assert.assertTrue(executed.get() > 0);
+        Assert.assertTrue(scheduled.get() > 0);
+        Assert.assertFalse(scheduler.isShutdown());
+    }
+
+    // redis服务端使用注入的维护线程池续期
+    @Test
+    public void testRedisMaintainExecutorBean() throws Exception {
+        properties.getRedis().setLiveTime(500);
+        LuaRedisExecutor redisExecutor = new LuaRedisExecutor();
+        RedisServer server = new SyncAutoConfiguration.SyncContextConfiguration.ServerConfiguration.RedisServerConfiguration().server(
+                new DefaultKeyGenerator("test"),
+                redisExecutor,
+                provider(Executor.class, maintainExecutor),
+                provider(SyncMetrics.class, null),
+                properties);
+        SyncContext syncContext = newSyncContext(server);
+        try {
+            Lock lock = syncContext.getLockContext().getLock("maintain");
+            lock.lock();
+            try {
+                long deadline = System.currentTimeMillis() + 5000;
+                while (maintained.get() <= 0 && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            syncContext.close();
+            server.close();
+            redisExecutor.close();
+        }
+        Assert.assertTrue(maintained.get() > 0);
+    }
+
+    // 通过自动配置创建Sync上下文
+    private SyncContext newSyncContext(Server server) {
+        return new SyncAutoConfiguration.SyncContextConfiguration().syncContext(
+                new DefaultKeyConverter(),
+                new DefaultIdGenerator(),
+                server,
+                provider(Executor.class, executor),
+                provider(ScheduledExecutorService.class, scheduler),
+                provider(SyncMetrics.class, null),
+                properties);
+    }
+
+    // 创建bean提供者（bean为null表示不存在）
+    private static <T> ObjectProvider<T> provider(Class<T> type, T bean) {
+        StaticListableBeanFactory beanFactory = bean == null
+                ? new StaticListableBeanFactory()
+                : new StaticListableBeanFactory(Collections.singletonMap("bean", bean));
+        return beanFactory.getBeanProvider(type);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 18:28 创建
+ */
+package org.antframework.sync.common;
+
+import org.antframework.sync.SyncContext;
+import org.antframework.sync.extension.local.LocalServer;
+import org.antframework.sync.lock.AsyncLockHandle;
+import org.antframework.sync.semaphore.AsyncSemaphoreHandle;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 异步获取锁、信号量许可的单元测试（完成、超时、取消、凭证泄漏）
+ */
+public class AsyncAcquisitionTest {
+    // 锁、信号量的标识
+    private static final String KEY = "async";
+
+    // 服务端
+    private LocalServer server;
+    // Sync上下文
+    private SyncContext syncContext;
+
+    @Before
+    public void setup() {
+        server = new LocalServer();
+        syncContext = new SyncContext(new DefaultKeyConverter(), server, 10 * 1000);
+    }
+
+    @After
+    public void tearDown() {
+        syncContext.close();
+        server.close();
+    }
+
+    // 持有者解锁后，等待中的异步加锁完成
+    @Test
+    public void testCompletion() throws Exception {
+        AsyncLockHandle holder = lockAsync(5000).get(5, TimeUnit.SECONDS);
+        Assert.assertNotNull(holder);
+        CompletableFuture<AsyncLockHandle> waiting = lockAsync(5000);
+        Thread.sleep(100);
+        Assert.assertFalse(waiting.isDone());
+
+        holder.unlock();
+        AsyncLockHandle handle = waiting.get(5, TimeUnit.SECONDS);
+        Assert.assertNotNull(handle);
+        handle.unlock();
+        // 重复解锁不做任何处理
+        handle.unlock();
+        Assert.assertNotNull(lockAsync(0).get(5, TimeUnit.SECONDS));
+    }
+
+    // 超过截止时间时以null完成，等待者被删除
+    @Test
+    public void testTimeout() throws Exception {
+        AsyncLockHandle holder = lockAsync(5000).get(5, TimeUnit.SECONDS);
+        Assert.assertNull(lockAsync(100).get(5, TimeUnit.SECONDS));
+
+        AsyncSemaphoreHandle permit = syncContext.getSemaphoreContext().tryAcquireAsync(KEY, 1, 1, 0, TimeUnit.MILLISECONDS).get(5, TimeUnit.SECONDS);
+        Assert.assertNotNull(permit);
+        Assert.assertNull(syncContext.getSemaphoreContext().tryAcquireAsync(KEY, 1, 1, 100, TimeUnit.MILLISECONDS).get(5, TimeUnit.SECONDS));
+
+        permit.release();
+        holder.unlock();
+        Assert.assertNotNull(lockAsync(0).get(5, TimeUnit.SECONDS));
+    }
+
+    // future被取消后，获取到的锁、许可立即释放
+    @Test
+    public void testCancel() throws Exception {
+        AsyncLockHandle holder = lockAsync(5000).get(5, TimeUnit.SECONDS);
+        CompletableFuture<AsyncLockHandle> cancelled = lockAsync(5000);
+        Assert.assertTrue(cancelled.cancel(false));
+        holder.unlock();
+        Assert.assertNotNull(lockAsync(5000).get(5, TimeUnit.SECONDS));
+
+        AsyncSemaphoreHandle permit = syncContext.getSemaphoreContext().tryAcquireAsync(KEY, 1, 1, 5000, TimeUnit.MILLISECONDS).get(5, TimeUnit.SECONDS);
+        CompletableFuture<AsyncSemaphoreHandle> cancelledPermit = syncContext.getSemaphoreContext().tryAcquireAsync(KEY, 1, 1, 5000, TimeUnit.MILLISECONDS);
+        Assert.assertTrue(cancelledPermit.cancel(false));
+        permit.release();
+        Assert.assertNotNull(syncContext.getSemaphoreContext().tryAcquireAsync(KEY, 1, 1, 5000, TimeUnit.MILLISECONDS).get(5, TimeUnit.SECONDS));
+    }
+
+    // 凭证未解锁、未释放就被回收时，泄漏检测器强制解锁、释放
+    @Test
+    public void testLeak() throws Exception {
+        Assert.assertNotNull(lockAsync(0).get(5, TimeUnit.SECONDS));
+        Assert.assertNotNull(syncContext.getSemaphoreContext().tryAcquireAsync(KEY, 1, 1, 0, TimeUnit.MILLISECONDS).get(5, TimeUnit.SECONDS));
+
+        CompletableFuture<AsyncLockHandle> lock = lockAsync(30 * 1000);
+        CompletableFuture<AsyncSemaphoreHandle> permit = syncContext.getSemaphoreContext().tryAcquireAsync(KEY, 1, 1, 30 * 1000, TimeUnit.MILLISECONDS);
+        long deadline = System.currentTimeMillis() + 30 * 1000;
+        while (!(lock.isDone() && permit.isDone()) && System.currentTimeMillis() < deadline) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        Assert.assertNotNull(lock.get(1, TimeUnit.SECONDS));
+        Assert.assertNotNull(permit.get(1, TimeUnit.SECONDS));
+    }
+
+    // 异步加互斥锁
+    private CompletableFuture<AsyncLockHandle> lockAsync(long timeout) {
+        return syncContext.getLockContext().tryLockAsync(KEY, timeout, TimeUnit.MILLISECONDS);
+    }
+}
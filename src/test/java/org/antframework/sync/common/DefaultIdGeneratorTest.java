@@ -0,0 +1,78 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 18:36 创建
+ */
+package org.antframework.sync.common;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 默认的id生成器单元测试（格式、唯一性）
+ */
+public class DefaultIdGeneratorTest {
+    // id格式（11个字符的随机前缀+base62编码的计数器；不含会话持有者id、排队消息使用的分隔符）
+    private static final Pattern ID_PATTERN = Pattern.compile("[0-9A-Za-z]{12,22}");
+    // 随机前缀的长度
+    private static final int PREFIX_LENGTH = 11;
+
+    // 同一个生成器的id共享随机前缀，计数器按base62编码递增
+    @Test
+    public void testFormat() {
+        DefaultIdGenerator idGenerator = new DefaultIdGenerator();
+        String first = idGenerator.get();
+        Assert.assertTrue(ID_PATTERN.matcher(first).matches());
+        Assert.assertEquals(PREFIX_LENGTH + 1, first.length());
+        String prefix = first.substring(0, PREFIX_LENGTH);
+        Assert.assertEquals(prefix + "0", first);
+        for (int i = 1; i < 62; i++) {
+            Assert.assertEquals(PREFIX_LENGTH + 1, idGenerator.get().length());
+        }
+        Assert.assertEquals(prefix + "10", idGenerator.get());
+        // 不同生成器的随机前缀不同
+        Assert.assertNotEquals(prefix, new DefaultIdGenerator().get().substring(0, PREFIX_LENGTH));
+    }
+
+    // 多线程生成的id互不重复（跨越多个计数器块）
+    @Test
+    public void testUnique() throws InterruptedException {
+        int amountOfThread = 8;
+        int amountPerThread = 10000;
+        DefaultIdGenerator idGenerator = new DefaultIdGenerator();
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch latch = new CountDownLatch(amountOfThread);
+        ExecutorService executor = Executors.newFixedThreadPool(amountOfThread);
+        try {
+            for (int i = 0; i < amountOfThread; i++) {
+                executor.execute(() -> {
+                    try {
+                        for (int j = 0; j < amountPerThread; j++) {
+                            String id = idGenerator.get();
+                            if (ID_PATTERN.matcher(id).matches()) {
+                                ids.add(id);
+                            }
+                        }
+                    } finally {
+                        latch.countDown();
+                    }
+                });
+            }
+            Assert.assertTrue(latch.await(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(amountOfThread * amountPerThread, ids.size());
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 18:39 创建
+ */
+package org.antframework.sync.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.context.expression.AnnotatedElementKey;
+import org.springframework.expression.EvaluationContext;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * 表达式计算器单元测试（调用计划的快速路径与完整的SpEL计算结果一致）
+ */
+public class ExpressionEvaluatorTest {
+    // 目标对象
+    private final Service target = new Service();
+
+    // #p0、#参数名：直接取参数，无需计算上下文
+    @Test
+    public void testArg() throws NoSuchMethodException {
+        Method method = Service.class.getMethod("byId", String.class);
+        Object[] args = {"123"};
+        assertFastPath(method, "#p0", args, "123");
+        assertFastPath(method, "#a0", args, "123");
+        assertFastPath(method, "#id", args, "123");
+    }
+
+    // #参数名.属性：以编译的表达式从参数中取属性，无需计算上下文
+    @Test
+    public void testArgProperty() throws NoSuchMethodException {
+        Method method = Service.class.getMethod("byOrder", Order.class, String.class);
+        Object[] args = {new Order("order-1", new Order("parent", null)), "other"};
+        assertFastPath(method, "#order.id", args, "order-1");
+        assertFastPath(method, "#order.parent.id", args, "parent");
+        assertFastPath(method, "#p1", args, "other");
+    }
+
+    // 可变参数：不走快速路径，可变参数作为数组计算
+    @Test
+    public void testVarArgs() throws NoSuchMethodException {
+        Method method = Service.class.getMethod("byIds", String.class, String[].class);
+        Object[] args = {"first", new String[]{"second", "third"}};
+        assertFullPath(method, "#p0", args, "first");
+        assertFullPath(method, "#first", args, "first");
+        assertFullPath(method, "#p1[0]", args, "second");
+        assertFullPath(method, "#others[1]", args, "third");
+        assertFullPath(method, "#others.length", args, 2);
+    }
+
+    // #root、#this、复杂表达式、有条件：需要计算上下文
+    @Test
+    public void testFullPath() throws NoSuchMethodException {
+        Method method = Service.class.getMethod("byId", String.class);
+        Object[] args = {"123"};
+        assertFullPath(method, "#root.method.name", args, "byId");
+        assertFullPath(method, "#root.args[0]", args, "123");
+        assertFullPath(method, "'prefix-' + #id", args, "prefix-123");
+        // 超出参数个数的#p1按SpEL计算为null
+        assertFullPath(method, "#p1", args, null);
+
+        ExpressionEvaluator evaluator = new ExpressionEvaluator();
+        ExpressionEvaluator.InvocationPlan plan = evaluator.getPlan(newJoinPoint(method, args), "annotation", "#id != null", "#id");
+        Assert.assertTrue(plan.isEvalContextRequired());
+        EvaluationContext evalContext = plan.newEvalContext(target, args);
+        Assert.assertTrue(plan.evalCondition(evalContext));
+        Assert.assertEquals("123", plan.evalKey(evalContext, args));
+    }
+
+    // 调用计划按方法和目标类缓存
+    @Test
+    public void testPlanCache() throws NoSuchMethodException {
+        Method method = Service.class.getMethod("byId", String.class);
+        ExpressionEvaluator evaluator = new ExpressionEvaluator();
+        Object[] args = {"123"};
+        Assert.assertSame(
+                evaluator.getPlan(newJoinPoint(method, args), "annotation", "", "#id"),
+                evaluator.getPlan(newJoinPoint(method, args), "annotation", "", "#id"));
+    }
+
+    // 校验走快速路径且结果与完整的SpEL计算一致
+    private void assertFastPath(Method method, String keyExpression, Object[] args, Object expectedKey) {
+        ExpressionEvaluator.InvocationPlan plan = new ExpressionEvaluator().getPlan(newJoinPoint(method, args), "annotation", "", keyExpression);
+        Assert.assertFalse(plan.isEvalContextRequired());
+        Assert.assertEquals(expectedKey, plan.evalKey(null, args));
+        Assert.assertEquals(expectedKey, evalBySpel(method, keyExpression, args));
+    }
+
+    // 校验走完整的SpEL计算
+    private void assertFullPath(Method method, String keyExpression, Object[] args, Object expectedKey) {
+        ExpressionEvaluator.InvocationPlan plan = new ExpressionEvaluator().getPlan(newJoinPoint(method, args), "annotation", "", keyExpression);
+        Assert.assertTrue(plan.isEvalContextRequired());
+        Assert.assertEquals(expectedKey, plan.evalKey(plan.newEvalContext(target, args), args));
+        Assert.assertEquals(expectedKey, evalBySpel(method, keyExpression, args));
+    }
+
+    // 以完整的SpEL计算key
+    private Object evalBySpel(Method method, String keyExpression, Object[] args) {
+        ExpressionEvaluator evaluator = new ExpressionEvaluator();
+        EvaluationContext evalContext = evaluator.getEvalContext(Service.class, target, method, args);
+        return evaluator.evalKey(keyExpression, evalContext, new AnnotatedElementKey(method, Service.class));
+    }
+
+    // 创建切面
+    private ProceedingJoinPoint newJoinPoint(Method method, Object[] args) {
+        MethodSignature signature = (MethodSignature) Proxy.newProxyInstance(
+                MethodSignature.class.getClassLoader(),
+                new Class<?>[]{MethodSignature.class},
+                (proxy, m, a) -> "getMethod".equals(m.getName()) ? method : null);
+        return (ProceedingJoinPoint) Proxy.newProxyInstance(
+                ProceedingJoinPoint.class.getClassLoader(),
+                new Class<?>[]{ProceedingJoinPoint.class},
+                (proxy, m, a) -> {
+                    switch (m.getName()) {
+                        case "getSignature":
+                            return signature;
+                        case "getTarget":
+                        case "getThis":
+                            return target;
+                        case "getArgs":
+                            return args;
+                        default:
+                            throw new UnsupportedOperationException(m.getName());
+                    }
+                });
+    }
+
+    // 服务
+    public static class Service {
+        public void byId(String id) {
+        }
+
+        public void byOrder(Order order, String other) {
+        }
+
+        public void byIds(String first, String... others) {
+        }
+    }
+
+    // 订单
+    @AllArgsConstructor
+    @Getter
+    public static class Order {
+        // id
+        private final String id;
+        // 父订单
+        private final Order parent;
+    }
+}
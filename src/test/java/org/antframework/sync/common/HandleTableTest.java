@@ -0,0 +1,136 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 18:37 创建
+ */
+package org.antframework.sync.common;
+
+import org.antframework.sync.SyncContext;
+import org.antframework.sync.SyncOptions;
+import org.antframework.sync.extension.local.LocalServer;
+import org.antframework.sync.metrics.support.NoopSyncMetrics;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * 凭证表单元测试（达到上限时淘汰未持有的凭证，持有中的凭证永远不会被淘汰；凭证被弱引用）
+ */
+public class HandleTableTest {
+    // 最大凭证数量
+    private static final int MAX_SIZE = 8;
+
+    // 未持有的凭证被淘汰，凭证数量不超过上限
+    @Test
+    public void testEvictUnheld() {
+        HandleTable<String> table = new HandleTable<>(MAX_SIZE, handle -> false);
+        String last = null;
+        for (int i = 0; i < MAX_SIZE * 10; i++) {
+            last = "handle-" + i;
+            table.put("key-" + i, last);
+            Assert.assertTrue(table.size() <= MAX_SIZE);
+        }
+        // 最后放入的凭证还在
+        Assert.assertSame(last, table.get("key-" + (MAX_SIZE * 10 - 1)));
+    }
+
+    // 凭证被弱引用：不再被引用的凭证（包括持有中的）被回收后视为不存在，淘汰时被清理
+    @Test
+    public void testWeakHandles() throws InterruptedException {
+        HandleTable<Object> table = new HandleTable<>(MAX_SIZE, handle -> true);
+        Object referenced = new Object();
+        table.put("referenced", referenced);
+        table.put("abandoned", new Object());
+        long deadline = System.currentTimeMillis() + 30 * 1000;
+        while (table.get("abandoned") != null) {
+            Assert.assertTrue(System.currentTimeMillis() < deadline);
+            System.gc();
+            Thread.sleep(100);
+        }
+        Assert.assertSame(referenced, table.get("referenced"));
+        Assert.assertEquals(2, table.size());
+
+        Object[] others = new Object[MAX_SIZE - 1];
+        for (int i = 0; i < others.length; i++) {
+            others[i] = new Object();
+            table.put("key-" + i, others[i]);
+        }
+        // 达到上限时清理已被回收的凭证
+        Assert.assertEquals(MAX_SIZE, table.size());
+        Assert.assertSame(referenced, table.get("referenced"));
+        Object created = table.computeIfAbsent("abandoned", k -> new Object());
+        Assert.assertNotNull(created);
+        Assert.assertSame(created, table.get("abandoned"));
+    }
+
+    // 持有中的凭证永远不会被淘汰（全部持有时凭证数量可以超过上限）
+    @Test
+    public void testNeverEvictHeld() {
+        Set<String> holding = new HashSet<>();
+        HandleTable<String> table = new HandleTable<>(MAX_SIZE, holding::contains);
+        for (int i = 0; i < MAX_SIZE / 2; i++) {
+            holding.add("held-" + i);
+            table.put("held-key-" + i, "held-" + i);
+        }
+        for (int i = 0; i < MAX_SIZE * 10; i++) {
+            table.put("key-" + i, "handle-" + i);
+        }
+        for (int i = 0; i < MAX_SIZE / 2; i++) {
+            Assert.assertEquals("held-" + i, table.get("held-key-" + i));
+        }
+
+        for (int i = 0; i < MAX_SIZE * 2; i++) {
+            holding.add("all-" + i);
+            table.put("all-key-" + i, "all-" + i);
+        }
+        Assert.assertTrue(table.size() > MAX_SIZE);
+        for (int i = 0; i < MAX_SIZE * 2; i++) {
+            Assert.assertEquals("all-" + i, table.get("all-key-" + i));
+        }
+    }
+
+    // 替换已有的凭证不淘汰，不增加数量
+    @Test
+    public void testReplace() {
+        HandleTable<String> table = new HandleTable<>(MAX_SIZE, handle -> false);
+        table.put("key", "old");
+        table.put("key", "new");
+        Assert.assertEquals(1, table.size());
+        Assert.assertEquals("new", table.get("key"));
+        Assert.assertEquals("new", table.computeIfAbsent("key", k -> "created"));
+        Assert.assertEquals("created", table.computeIfAbsent("other", k -> "created"));
+    }
+
+    // 锁上下文中持有中的锁不会因其他key被淘汰：再次获取得到同一个锁，可重入
+    @Test
+    public void testHeldLockInLockContext() {
+        LocalServer server = new LocalServer();
+        SyncOptions options = new SyncOptions();
+        options.setHandleTableSize(MAX_SIZE);
+        SyncContext syncContext = new SyncContext(new DefaultKeyConverter(), server, options, NoopSyncMetrics.INSTANCE);
+        try {
+            Lock held = syncContext.getLockContext().getLock("held");
+            held.lock();
+            try {
+                for (int i = 0; i < MAX_SIZE * 10; i++) {
+                    syncContext.getLockContext().getLock("key-" + i);
+                }
+                Lock again = syncContext.getLockContext().getLock("held");
+                Assert.assertSame(held, again);
+                again.lock();
+                again.unlock();
+            } finally {
+                held.unlock();
+            }
+        } finally {
+            syncContext.close();
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 18:45 创建
+ */
+package org.antframework.sync.common;
+
+import org.antframework.sync.SyncContext;
+import org.antframework.sync.SyncOptions;
+import org.antframework.sync.extension.Server;
+import org.antframework.sync.extension.local.LocalServer;
+import org.antframework.sync.extension.redis.LuaRedisExecutor;
+import org.antframework.sync.extension.redis.RedisServer;
+import org.antframework.sync.metrics.support.NoopSyncMetrics;
+import org.antframework.sync.semaphore.Semaphore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 泄漏检测器单元测试（持有中就被弃用的锁、信号量在被回收后强制释放，凭证表不会钉住它们；同一批泄漏的通过服务端的批量方法释放）
+ * <p>
+ * 分别基于本地服务端和使用进程内redis执行器的redis服务端；节点A弃用持有中的锁、信号量，节点B在它们被释放后才能获取。
+ */
+@RunWith(Parameterized.class)
+public class LeakDetectorTest {
+    // 每种锁、信号量弃用的数量
+    private static final int AMOUNT = 10;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> serverTypes() {
+        return Arrays.asList(new Object[]{"local"}, new Object[]{"redis"});
+    }
+
+    // 服务端类型（local：本地服务端；redis：使用进程内redis执行器的redis服务端）
+    private final String serverType;
+    // 进程内redis执行器（服务端类型为redis时才有）
+    private LuaRedisExecutor redisExecutor;
+    // 被统计的服务端
+    private Server targetServer;
+    // 服务端方法的调用次数（方法名-次数）
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    // 节点A（使用统计调用次数的服务端）
+    private SyncContext nodeA;
+    // 节点B
+    private SyncContext nodeB;
+
+    public LeakDetectorTest(String serverType) {
+        this.serverType = serverType;
+    }
+
+    @Before
+    public void setup() {
+        switch (serverType) {
+            case "local":
+                targetServer = new LocalServer();
+                break;
+            case "redis":
+                redisExecutor = new LuaRedisExecutor();
+                targetServer = new RedisServer(new DefaultKeyGenerator("test"), redisExecutor, 10 * 60 * 1000);
+                break;
+            default:
+                throw new IllegalArgumentException("无法识别的服务端类型：" + serverType);
+        }
+        Server server = (Server) Proxy.newProxyInstance(
+                Server.class.getClassLoader(),
+                new Class<?>[]{Server.class},
+                (proxy, method, args) -> {
+                    calls.computeIfAbsent(method.getName(), k -> new AtomicInteger()).incrementAndGet();
+                    try {
+                        return method.invoke(targetServer, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+        nodeA = new SyncContext(new DefaultKeyConverter(), server, new SyncOptions(), NoopSyncMetrics.INSTANCE);
+        nodeB = new SyncContext(new DefaultKeyConverter(), targetServer, new SyncOptions(), NoopSyncMetrics.INSTANCE);
+    }
+
+    @After
+    public void tearDown() {
+        nodeA.close();
+        nodeB.close();
+        targetServer.close();
+        if (redisExecutor != null) {
+            redisExecutor.close();
+        }
+    }
+
+    // 在仍然存活的线程中弃用持有中的互斥锁、写锁，被回收后通过批量方法强制解锁；再次获取到的是新的锁
+    @Test
+    public void testAbandonedLocks() throws InterruptedException {
+        abandonLocks();
+        awaitReleased(() -> {
+            for (int i = 0; i < AMOUNT; i++) {
+                if (!isLockable(nodeB.getLockContext().getLock("mutex-" + i))
+                        || !isLockable(nodeB.getLockContext().getRWLock("rw-" + i).writeLock())) {
+                    return false;
+                }
+            }
+            return true;
+        });
+        Assert.assertEquals(0, count("unlockForMutex"));
+        Assert.assertEquals(0, count("unlockForWrite"));
+        Assert.assertTrue(count("unlockAllForMutex") >= 1);
+        Assert.assertTrue(count("unlockAllForWrite") >= 1);
+
+        Lock lock = nodeA.getLockContext().getLock("mutex-0");
+        Assert.assertTrue(lock.tryLock());
+        lock.unlock();
+    }
+
+    // 弃用持有中的读锁（读者组逐个解锁）
+    @Test
+    public void testAbandonedReadLocks() throws InterruptedException {
+        abandonReadLocks();
+        awaitReleased(() -> {
+            for (int i = 0; i < AMOUNT; i++) {
+                if (!isLockable(nodeB.getLockContext().getRWLock("rw-" + i).writeLock())) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    // 弃用持有许可的信号量（包括租期模式的），被回收后通过批量方法强制释放
+    @Test
+    public void testAbandonedSemaphores() throws InterruptedException {
+        abandonSemaphores();
+        awaitReleased(() -> {
+            for (int i = 0; i < AMOUNT; i++) {
+                Semaphore semaphore = nodeB.getSemaphoreContext().getSemaphore("semaphore-" + i, 2);
+                if (!semaphore.tryAcquire(2)) {
+                    return false;
+                }
+                semaphore.release(2);
+            }
+            return true;
+        });
+        Assert.assertEquals(0, count("releaseForSemaphore"));
+        Assert.assertTrue(count("releaseAllForSemaphore") >= 1);
+    }
+
+    // 加锁后不解锁，也不再引用
+    private void abandonLocks() {
+        for (int i = 0; i < AMOUNT; i++) {
+            Assert.assertTrue(nodeA.getLockContext().getLock("mutex-" + i).tryLock());
+            Assert.assertTrue(nodeA.getLockContext().getRWLock("rw-" + i).writeLock().tryLock());
+        }
+        Assert.assertFalse(isLockable(nodeB.getLockContext().getLock("mutex-0")));
+    }
+
+    // 加读锁后不解锁，也不再引用
+    private void abandonReadLocks() {
+        for (int i = 0; i < AMOUNT; i++) {
+            ReadWriteLock rwLock = nodeA.getLockContext().getRWLock("rw-" + i);
+            Assert.assertTrue(rwLock.readLock().tryLock());
+        }
+        Assert.assertFalse(isLockable(nodeB.getLockContext().getRWLock("rw-0").writeLock()));
+    }
+
+    // 获取许可后不释放，也不再引用
+    private void abandonSemaphores() {
+        for (int i = 0; i < AMOUNT; i++) {
+            Semaphore semaphore = i % 2 == 0
+                    ? nodeA.getSemaphoreContext().getSemaphore("semaphore-" + i, 2)
+                    : nodeA.getSemaphoreContext().getSemaphore("semaphore-" + i, 2, 10, TimeUnit.MINUTES);
+            Assert.assertTrue(semaphore.tryAcquire(2));
+        }
+        Assert.assertFalse(nodeB.getSemaphoreContext().getSemaphore("semaphore-0", 2).tryAcquire());
+    }
+
+    // 触发垃圾回收直到条件满足
+    private static void awaitReleased(BooleanSupplier released) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30 * 1000;
+        while (!released.getAsBoolean()) {
+            Assert.assertTrue("未在30秒内释放", System.currentTimeMillis() < deadline);
+            System.gc();
+            Thread.sleep(200);
+        }
+    }
+
+    // 锁是否可被加锁（加锁成功后立即解锁）
+    private static boolean isLockable(Lock lock) {
+        if (!lock.tryLock()) {
+            return false;
+        }
+        lock.unlock();
+        return true;
+    }
+
+    // 获取服务端方法的调用次数
+    private int count(String methodName) {
+        AtomicInteger counter = calls.get(methodName);
+        return counter == null ? 0 : counter.get();
+    }
+}
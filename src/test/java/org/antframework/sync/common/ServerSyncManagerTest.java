@@ -0,0 +1,103 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 18:27 创建
+ */
+package org.antframework.sync.common;
+
+import org.antframework.sync.SyncOptions;
+import org.antframework.sync.extension.Server;
+import org.antframework.sync.extension.local.LocalServer;
+import org.antframework.sync.metrics.support.NoopSyncMetrics;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务端同步管理者单元测试（同步等待者和异步等待者混合）
+ */
+public class ServerSyncManagerTest {
+    // 目标标识
+    private static final String KEY = "sync";
+    // 等待者类型
+    private static final String TYPE = "type";
+
+    // 服务端
+    private Server server;
+    // Sync执行器
+    private SyncExecutor syncExecutor;
+    // 同步管理者
+    private ServerSyncManager syncManager;
+
+    @Before
+    public void setup() {
+        server = new LocalServer();
+        syncExecutor = new SyncExecutor(NoopSyncMetrics.INSTANCE);
+        syncManager = new ServerSyncManager(Server.SyncType.MUTEX_LOCK, server, syncExecutor, NoopSyncMetrics.INSTANCE, new SyncOptions());
+    }
+
+    @After
+    public void tearDown() {
+        syncExecutor.close();
+        server.close();
+    }
+
+    // 同一个key上同时有同步和异步等待者：通知后都被唤醒，且只为同步等待者释放许可（不残留许可）
+    @Test
+    public void testMixedWaiters() throws Exception {
+        // 等待点的初始许可被第一个异步等待者占用
+        CompletableFuture<Boolean> first = new CompletableFuture<>();
+        syncManager.waitAsync(KEY, TYPE, "async", 60 * 1000, first::complete);
+        Assert.assertTrue(first.get(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Boolean> async = new CompletableFuture<>();
+        syncManager.waitAsync(KEY, TYPE, "async", 60 * 1000, async::complete);
+        CompletableFuture<Boolean> sync = CompletableFuture.supplyAsync(() -> {
+            try {
+                return syncManager.waitSync(KEY, TYPE, "sync", 60 * 1000);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (!syncManager.hasWaiter(KEY, TYPE, "sync")) {
+            Thread.sleep(10);
+        }
+        Assert.assertFalse(async.isDone());
+
+        syncManager.notifyLocal(KEY);
+        Assert.assertTrue(async.get(5, TimeUnit.SECONDS));
+        Assert.assertTrue(sync.get(5, TimeUnit.SECONDS));
+        // 异步等待者不占用许可，同步等待者再次等待时不会被残留的许可唤醒
+        Assert.assertFalse(syncManager.waitSync(KEY, TYPE, "sync", 200));
+
+        syncManager.removeWaiter(KEY, TYPE, "sync");
+        syncManager.removeWaiter(KEY, TYPE, "async");
+        Assert.assertFalse(syncManager.hasWaiters(KEY, TYPE));
+    }
+
+    // 异步等待超时后回调false，超时后的通知不再回调
+    @Test
+    public void testAsyncTimeout() throws Exception {
+        CompletableFuture<Boolean> first = new CompletableFuture<>();
+        syncManager.waitAsync(KEY, TYPE, "async", 60 * 1000, first::complete);
+        Assert.assertTrue(first.get(5, TimeUnit.SECONDS));
+
+        int[] calls = {0};
+        CompletableFuture<Boolean> timeout = new CompletableFuture<>();
+        syncManager.waitAsync(KEY, TYPE, "async", 100, notified -> {
+            calls[0]++;
+            timeout.complete(notified);
+        });
+        Assert.assertFalse(timeout.get(5, TimeUnit.SECONDS));
+        syncManager.notifyLocal(KEY);
+        Assert.assertEquals(1, calls[0]);
+        syncManager.removeWaiter(KEY, TYPE, "async");
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 18:33 创建
+ */
+package org.antframework.sync.common;
+
+import org.antframework.sync.SyncContext;
+import org.antframework.sync.SyncOptions;
+import org.antframework.sync.extension.local.LocalServer;
+import org.antframework.sync.metrics.support.NoopSyncMetrics;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 线程工具单元测试（当前JDK支持虚拟线程时创建虚拟线程，不支持时明确报错而不是静默退回平台线程）
+ */
+public class SyncThreadsTest {
+    // 支持虚拟线程的JDK版本
+    private static final int VIRTUAL_THREAD_JDK = 21;
+
+    // 是否支持虚拟线程与JDK版本一致
+    @Test
+    public void testVirtualThreadSupported() {
+        Assert.assertEquals(javaVersion() >= VIRTUAL_THREAD_JDK, SyncThreads.isVirtualThreadSupported());
+    }
+
+    // 非虚拟线程工厂创建带名称前缀的守护线程
+    @Test
+    public void testPlatformThreadFactory() {
+        ThreadFactory threadFactory = SyncThreads.newThreadFactory("test-", false);
+        Thread first = threadFactory.newThread(() -> {
+        });
+        Thread second = threadFactory.newThread(() -> {
+        });
+        Assert.assertTrue(first.isDaemon());
+        Assert.assertEquals("test-0", first.getName());
+        Assert.assertEquals("test-1", second.getName());
+    }
+
+    // 支持时创建虚拟线程池；不支持时抛出IllegalArgumentException
+    @Test
+    public void testVirtualThreadExecutor() throws Exception {
+        if (!SyncThreads.isVirtualThreadSupported()) {
+            try {
+                SyncThreads.newVirtualThreadExecutor("test-");
+                Assert.fail("不支持虚拟线程时应抛出异常");
+            } catch (IllegalArgumentException e) {
+                // 预期的异常
+            }
+            return;
+        }
+        ExecutorService executor = SyncThreads.newVirtualThreadExecutor("test-");
+        try {
+            CompletableFuture<String> name = CompletableFuture.supplyAsync(() -> Thread.currentThread().getName(), executor);
+            Assert.assertEquals("test-0", name.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // Sync上下文使用虚拟线程：支持时异步加锁在虚拟线程中执行；不支持时创建上下文失败；外部提供了线程池时不使用虚拟线程
+    @Test
+    public void testSyncContextVirtualThreads() throws Exception {
+        LocalServer server = new LocalServer();
+        try {
+            SyncOptions options = new SyncOptions();
+            options.setVirtualThreads(true);
+            if (!SyncThreads.isVirtualThreadSupported()) {
+                try {
+                    new SyncContext(new DefaultKeyConverter(), server, options, NoopSyncMetrics.INSTANCE);
+                    Assert.fail("不支持虚拟线程时应抛出异常");
+                } catch (IllegalArgumentException e) {
+                    // 预期的异常
+                }
+                options.setExecutor(Runnable::run);
+            }
+            SyncContext syncContext = new SyncContext(new DefaultKeyConverter(), server, options, NoopSyncMetrics.INSTANCE);
+            try {
+                Assert.assertNotNull(syncContext.getLockContext().tryLockAsync("virtual", 1000, TimeUnit.MILLISECONDS).get(5, TimeUnit.SECONDS));
+            } finally {
+                syncContext.close();
+            }
+        } finally {
+            server.close();
+        }
+    }
+
+    // 获取JDK主版本号
+    private static int javaVersion() {
+        String version = System.getProperty("java.specification.version");
+        return version.startsWith("1.") ? Integer.parseInt(version.substring(2)) : Integer.parseInt(version);
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 19:05 创建
+ */
+package org.antframework.sync.extension;
+
+import org.antframework.sync.SyncContext;
+import org.antframework.sync.SyncOptions;
+import org.antframework.sync.common.DefaultKeyConverter;
+import org.antframework.sync.common.DefaultKeyGenerator;
+import org.antframework.sync.extension.local.LocalServer;
+import org.antframework.sync.extension.redis.LuaRedisExecutor;
+import org.antframework.sync.extension.redis.RedisServer;
+import org.antframework.sync.lock.LeaseReadWriteLock;
+import org.antframework.sync.metrics.support.NoopSyncMetrics;
+import org.antframework.sync.semaphore.LeaseSemaphore;
+import org.antframework.sync.semaphore.Semaphore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * 服务端关闭的单元测试（关闭时唤醒被阻塞的等待者；redis服务端关闭时释放所有持有，包括租期模式的持有）
+ * <p>
+ * 节点A和节点B是两个Sync上下文：本地服务端时共用一个服务端；redis服务端时各自一个服务端，共用一个进程内redis执行器。
+ */
+@RunWith(Parameterized.class)
+public class ServerCloseTest {
+    // 存活时间（很长，持有只可能因关闭而释放）
+    private static final long LIVE_TIME = 10 * 60 * 1000;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> serverTypes() {
+        return Arrays.asList(new Object[]{"local"}, new Object[]{"redis"});
+    }
+
+    // 服务端类型（local：本地服务端；redis：使用进程内redis执行器的redis服务端）
+    private final String serverType;
+    // 进程内redis执行器（服务端类型为redis时才有）
+    private LuaRedisExecutor redisExecutor;
+    // 节点A的服务端
+    private Server serverA;
+    // 节点B的服务端
+    private Server serverB;
+    // 节点A
+    private SyncContext nodeA;
+    // 节点B
+    private SyncContext nodeB;
+
+    public ServerCloseTest(String serverType) {
+        this.serverType = serverType;
+    }
+
+    @Before
+    public void setup() {
+        switch (serverType) {
+            case "local":
+                serverA = new LocalServer();
+                serverB = serverA;
+                break;
+            case "redis":
+                redisExecutor = new LuaRedisExecutor();
+                serverA = new RedisServer(new DefaultKeyGenerator("test"), redisExecutor, LIVE_TIME);
+                serverB = new RedisServer(new DefaultKeyGenerator("test"), redisExecutor, LIVE_TIME);
+                break;
+            default:
+                throw new IllegalArgumentException("无法识别的服务端类型：" + serverType);
+        }
+        nodeA = new SyncContext(new DefaultKeyConverter(), serverA, new SyncOptions(), NoopSyncMetrics.INSTANCE);
+        nodeB = new SyncContext(new DefaultKeyConverter(), serverB, new SyncOptions(), NoopSyncMetrics.INSTANCE);
+    }
+
+    @After
+    public void tearDown() {
+        nodeA.close();
+        nodeB.close();
+        serverA.close();
+        serverB.close();
+        if (redisExecutor != null) {
+            redisExecutor.close();
+        }
+    }
+
+    // 关闭时唤醒被阻塞的等待者，等待者重试时失败；关闭后不能再加锁、获取许可
+    @Test
+    public void testWakeWaiters() throws Exception {
+        Lock lockOfB = nodeB.getLockContext().getLock("mutex");
+        Semaphore semaphoreOfB = nodeB.getSemaphoreContext().getSemaphore("semaphore", 1);
+        lockOfB.lock();
+        Assert.assertTrue(semaphoreOfB.tryAcquire());
+        try {
+            CompletableFuture<Throwable> lockWaiter = startWaiter(() -> nodeA.getLockContext().getLock("mutex").lock());
+            CompletableFuture<Throwable> semaphoreWaiter = startWaiter(() -> nodeA.getSemaphoreContext().getSemaphore("semaphore", 1).acquire());
+            Thread.sleep(300);
+            Assert.assertFalse(lockWaiter.isDone());
+            Assert.assertFalse(semaphoreWaiter.isDone());
+
+            serverA.close();
+            Assert.assertTrue(lockWaiter.get(5, TimeUnit.SECONDS) instanceof IllegalStateException);
+            Assert.assertTrue(semaphoreWaiter.get(5, TimeUnit.SECONDS) instanceof IllegalStateException);
+            try {
+                nodeA.getLockContext().getLock("other").tryLock();
+                Assert.fail("关闭后应该不能再加锁");
+            } catch (IllegalStateException e) {
+                // 符合预期
+            }
+        } finally {
+            semaphoreOfB.release();
+            lockOfB.unlock();
+        }
+    }
+
+    // redis服务端关闭时释放所有持有（包括租期模式的持有），其他节点无需等到它们在redis中过期
+    @Test
+    public void testReleaseHoldsOnClose() throws InterruptedException {
+        Assume.assumeTrue("redis".equals(serverType));
+        Lock lock = nodeA.getLockContext().getLock("mutex");
+        Lock leaseLock = nodeA.getLockContext().getLock("lease-mutex", LIVE_TIME, TimeUnit.MILLISECONDS);
+        ReadWriteLock rwLock = nodeA.getLockContext().getRWLock("rw");
+        LeaseReadWriteLock leaseRWLock = nodeA.getLockContext().getRWLock("lease-rw", LIVE_TIME, TimeUnit.MILLISECONDS);
+        Semaphore semaphore = nodeA.getSemaphoreContext().getSemaphore("semaphore", 2);
+        LeaseSemaphore leaseSemaphore = nodeA.getSemaphoreContext().getSemaphore("lease-semaphore", 2, LIVE_TIME, TimeUnit.MILLISECONDS);
+        lock.lock();
+        leaseLock.lock();
+        rwLock.writeLock().lock();
+        leaseRWLock.writeLock().lock();
+        semaphore.acquire(2);
+        leaseSemaphore.acquire(2);
+        Assert.assertFalse(tryLockByB("lease-mutex"));
+        Assert.assertFalse(tryAcquireByB("lease-semaphore"));
+
+        nodeA.close();
+        serverA.close();
+        Assert.assertTrue(tryLockByB("mutex"));
+        Assert.assertTrue(tryLockByB("lease-mutex"));
+        Assert.assertTrue(tryWriteLockByB("rw"));
+        Assert.assertTrue(tryWriteLockByB("lease-rw"));
+        Assert.assertTrue(tryAcquireByB("semaphore"));
+        Assert.assertTrue(tryAcquireByB("lease-semaphore"));
+
+        // 关闭后解锁、释放许可不做任何处理
+        leaseSemaphore.release(2);
+        semaphore.release(2);
+        leaseRWLock.writeLock().unlock();
+        rwLock.writeLock().unlock();
+        leaseLock.unlock();
+        lock.unlock();
+    }
+
+    // 在另一个线程中等待（完成为等待结束时抛出的异常；正常结束时完成为null）
+    private static CompletableFuture<Throwable> startWaiter(Waiting waiting) {
+        CompletableFuture<Throwable> result = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                waiting.await();
+                result.complete(null);
+            } catch (Throwable e) {
+                result.complete(e);
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return result;
+    }
+
+    // 节点B尝试加互斥锁（成功后立即解锁）
+    private boolean tryLockByB(String key) {
+        Lock lock = nodeB.getLockContext().getLock(key);
+        boolean success = lock.tryLock();
+        if (success) {
+            lock.unlock();
+        }
+        return success;
+    }
+
+    // 节点B尝试加写锁（成功后立即解锁）
+    private boolean tryWriteLockByB(String key) {
+        ReadWriteLock rwLock = nodeB.getLockContext().getRWLock(key);
+        boolean success = rwLock.writeLock().tryLock();
+        if (success) {
+            rwLock.writeLock().unlock();
+        }
+        return success;
+    }
+
+    // 节点B尝试获取所有许可（成功后立即释放）
+    private boolean tryAcquireByB(String key) throws InterruptedException {
+        Semaphore semaphore = nodeB.getSemaphoreContext().getSemaphore(key, 2);
+        boolean success = semaphore.tryAcquire(2);
+        if (success) {
+            semaphore.release(2);
+        }
+        return success;
+    }
+
+    // 等待
+    @FunctionalInterface
+    private interface Waiting {
+        void await() throws Exception;
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 18:38 创建
+ */
+package org.antframework.sync.extension.redis;
+
+import org.antframework.sync.SyncContext;
+import org.antframework.sync.SyncOptions;
+import org.antframework.sync.common.DefaultKeyConverter;
+import org.antframework.sync.common.DefaultKeyGenerator;
+import org.antframework.sync.lock.LeaseLock;
+import org.antframework.sync.lock.LeaseReadWriteLock;
+import org.antframework.sync.metrics.support.NoopSyncMetrics;
+import org.antframework.sync.semaphore.LeaseSemaphore;
+import org.antframework.sync.semaphore.Semaphore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * 租期模式单元测试（租期模式的持有不被维护，到期后其他节点可获取；extendLease延长租期）
+ * <p>
+ * 服务端的存活时间很短（续期间隔为其1/10），由服务端维护的持有在多个存活时间后仍然有效，以此区分租期模式和维护模式。
+ */
+public class LeaseTimeTest {
+    // 服务端的存活时间
+    private static final long LIVE_TIME = 300;
+    // 租期
+    private static final long LEASE_TIME = 200;
+
+    // 进程内redis执行器
+    private LuaRedisExecutor redisExecutor;
+    // 节点A的服务端
+    private RedisServer serverA;
+    // 节点B的服务端
+    private RedisServer serverB;
+    // 节点A
+    private SyncContext nodeA;
+    // 节点B
+    private SyncContext nodeB;
+
+    @Before
+    public void setup() {
+        redisExecutor = new LuaRedisExecutor();
+        serverA = new RedisServer(new DefaultKeyGenerator("test"), redisExecutor, LIVE_TIME);
+        serverB = new RedisServer(new DefaultKeyGenerator("test"), redisExecutor, LIVE_TIME);
+        nodeA = new SyncContext(new DefaultKeyConverter(), serverA, new SyncOptions(), NoopSyncMetrics.INSTANCE);
+        nodeB = new SyncContext(new DefaultKeyConverter(), serverB, new SyncOptions(), NoopSyncMetrics.INSTANCE);
+    }
+
+    @After
+    public void tearDown() {
+        nodeA.close();
+        nodeB.close();
+        serverA.close();
+        serverB.close();
+        redisExecutor.close();
+    }
+
+    // 租期模式的互斥锁到期后其他节点可加锁，原持有者无法再延长租期
+    @Test
+    public void testMutexLockExpired() throws InterruptedException {
+        LeaseLock lock = nodeA.getLockContext().getLock("mutex", LEASE_TIME, TimeUnit.MILLISECONDS);
+        Lock lockOfB = nodeB.getLockContext().getLock("mutex");
+        lock.lock();
+        try {
+            Assert.assertFalse(lockOfB.tryLock());
+            Thread.sleep(LEASE_TIME * 2);
+            Assert.assertTrue(lockOfB.tryLock());
+            Assert.assertFalse(lock.extendLease(LEASE_TIME, TimeUnit.MILLISECONDS));
+        } finally {
+            lock.unlock();
+        }
+        // 原持有者解锁不影响新持有者
+        Assert.assertFalse(nodeA.getLockContext().getLock("mutex").tryLock());
+        lockOfB.unlock();
+    }
+
+    // 延长租期后持有到新的租期结束
+    @Test
+    public void testMutexLockExtended() throws InterruptedException {
+        LeaseLock lock = nodeA.getLockContext().getLock("mutex", LEASE_TIME, TimeUnit.MILLISECONDS);
+        lock.lock();
+        try {
+            Thread.sleep(LEASE_TIME / 2);
+            Assert.assertTrue(lock.extendLease(LEASE_TIME * 5, TimeUnit.MILLISECONDS));
+            Thread.sleep(LEASE_TIME * 2);
+            Assert.assertFalse(nodeB.getLockContext().getLock("mutex").tryLock());
+        } finally {
+            lock.unlock();
+        }
+        assertLockable(nodeB.getLockContext().getLock("mutex"));
+        // 未持有时无法延长租期
+        Assert.assertFalse(lock.extendLease(LEASE_TIME, TimeUnit.MILLISECONDS));
+    }
+
+    // 维护模式的互斥锁在多个存活时间后仍然有效，extendLease在持有期间直接返回true
+    @Test
+    public void testMutexLockMaintained() throws InterruptedException {
+        Lock lock = nodeA.getLockContext().getLock("mutex");
+        lock.lock();
+        try {
+            Thread.sleep(LIVE_TIME * 3);
+            Assert.assertFalse(nodeB.getLockContext().getLock("mutex").tryLock());
+            Assert.assertTrue(nodeA.getLockContext().getLock("mutex", LEASE_TIME, TimeUnit.MILLISECONDS).extendLease(LEASE_TIME, TimeUnit.MILLISECONDS));
+        } finally {
+            lock.unlock();
+        }
+        assertLockable(nodeB.getLockContext().getLock("mutex"));
+    }
+
+    // 租期模式的读锁和写锁到期后其他节点可加锁
+    @Test
+    public void testRWLock() throws InterruptedException {
+        LeaseReadWriteLock rwLock = nodeA.getLockContext().getRWLock("rw", LEASE_TIME, TimeUnit.MILLISECONDS);
+        rwLock.writeLock().lock();
+        try {
+            Assert.assertFalse(nodeB.getLockContext().getRWLock("rw").readLock().tryLock());
+            Thread.sleep(LEASE_TIME / 2);
+            Assert.assertTrue(rwLock.writeLock().extendLease(LEASE_TIME, TimeUnit.MILLISECONDS));
+            Thread.sleep(LEASE_TIME * 2);
+            assertLockable(nodeB.getLockContext().getRWLock("rw").writeLock());
+        } finally {
+            rwLock.writeLock().unlock();
+        }
+
+        rwLock.readLock().lock();
+        try {
+            Assert.assertFalse(nodeB.getLockContext().getRWLock("rw").writeLock().tryLock());
+            Thread.sleep(LEASE_TIME * 2);
+            Assert.assertFalse(rwLock.readLock().extendLease(LEASE_TIME, TimeUnit.MILLISECONDS));
+            assertLockable(nodeB.getLockContext().getRWLock("rw").writeLock());
+        } finally {
+            rwLock.readLock().unlock();
+        }
+    }
+
+    // 租期模式的许可到期后归还，延长租期后持有到新的租期结束
+    @Test
+    public void testSemaphore() throws InterruptedException {
+        LeaseSemaphore semaphore = nodeA.getSemaphoreContext().getSemaphore("semaphore", 2, LEASE_TIME, TimeUnit.MILLISECONDS);
+        semaphore.acquire(2);
+        try {
+            Assert.assertFalse(nodeB.getSemaphoreContext().getSemaphore("semaphore", 2).tryAcquire());
+            Thread.sleep(LEASE_TIME / 2);
+            Assert.assertTrue(semaphore.extendLease(LEASE_TIME * 5, TimeUnit.MILLISECONDS));
+            Thread.sleep(LEASE_TIME * 2);
+            Assert.assertFalse(nodeB.getSemaphoreContext().getSemaphore("semaphore", 2).tryAcquire());
+            Thread.sleep(LEASE_TIME * 5);
+            Assert.assertFalse(semaphore.extendLease(LEASE_TIME, TimeUnit.MILLISECONDS));
+            assertAcquirable(nodeB.getSemaphoreContext().getSemaphore("semaphore", 2), 2);
+        } finally {
+            semaphore.release(2);
+        }
+        Assert.assertFalse(semaphore.extendLease(LEASE_TIME, TimeUnit.MILLISECONDS));
+    }
+
+    // 租期必须大于0毫秒
+    @Test
+    public void testIllegalLeaseTime() {
+        try {
+            nodeA.getLockContext().getLock("mutex", 0, TimeUnit.MILLISECONDS);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // 符合预期
+        }
+        try {
+            nodeA.getSemaphoreContext().getSemaphore("semaphore", 1, 100, TimeUnit.MICROSECONDS);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // 符合预期
+        }
+        LeaseLock lock = nodeA.getLockContext().getLock("mutex", LEASE_TIME, TimeUnit.MILLISECONDS);
+        lock.lock();
+        try {
+            lock.extendLease(0, TimeUnit.MILLISECONDS);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // 符合预期
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 校验信号量的许可可被获取（获取后立即释放）
+    private static void assertAcquirable(Semaphore semaphore, int permits) {
+        Assert.assertTrue(semaphore.tryAcquire(permits));
+        semaphore.release(permits);
+    }
+
+    // 校验锁可被加锁（加锁后立即解锁）
+    private static void assertLockable(Lock lock) {
+        Assert.assertTrue(lock.tryLock());
+        lock.unlock();
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 15:50 创建
+ */
+package org.antframework.sync.extension.redis;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.antframework.sync.extension.redis.extension.MessageListenerAdapter;
+import org.antframework.sync.extension.redis.extension.RedisExecutor;
+import org.luaj.vm2.Globals;
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+import org.luaj.vm2.lib.VarArgFunction;
+import org.luaj.vm2.lib.jse.JsePlatform;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * 基于Lua解释器的进程内redis执行器
+ * <p>
+ * 在内存中模拟redis（单线程执行脚本、惰性过期、异步发布消息），只实现了sync的脚本用到的命令。用于在没有redis的环境中执行基准测试和单元测试。
+ */
+@Slf4j
+public class LuaRedisExecutor implements RedisExecutor {
+    // 数据
+    private final Map<String, Entry> data = new HashMap<>();
+    // 通道与监听器的对应关系
+    private final Map<String, Set<Consumer<String>>> channelListeners = new ConcurrentHashMap<>();
+    // 消息分发器（模拟redis客户端的订阅线程）
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "LuaRedisExecutor-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Lua全局环境
+    private final Globals globals = JsePlatform.standardGlobals();
+
+    public LuaRedisExecutor() {
+        LuaTable redis = new LuaTable();
+        redis.set("call", new RedisCall());
+        globals.set("redis", redis);
+    }
+
+    @Override
+    public synchronized Object encodeScript(String script, Class<?> resultType) {
+        return new EncodedScript(globals.load(script, "script"), resultType);
+    }
+
+    @Override
+    public synchronized <T> T eval(Object encodedScript, List<String> keys, List<Object> args) {
+        EncodedScript script = (EncodedScript) encodedScript;
+        globals.set("KEYS", toLuaTable(keys));
+        globals.set("ARGV", toLuaTable(args));
+        Object reply = toReply(script.chunk.call());
+        return (T) convertReply(reply, script.resultType);
+    }
+
+    @Override
+    public void addMessageListener(String channel, Runnable listener) {
+        addMessageListener(channel, MessageListenerAdapter.toConsumer(listener));
+    }
+
+    @Override
+    public void removeMessageListener(String channel, Runnable listener) {
+        removeMessageListener(channel, MessageListenerAdapter.toConsumer(listener));
+    }
+
+    @Override
+    public void addMessageListener(String channel, Consumer<String> listener) {
+        channelListeners.compute(channel, (k, v) -> {
+            if (v == null) {
+                v = ConcurrentHashMap.newKeySet();
+            }
+            v.add(listener);
+            return v;
+        });
+    }
+
+    @Override
+    public void removeMessageListener(String channel, Consumer<String> listener) {
+        channelListeners.computeIfPresent(channel, (k, v) -> {
+            v.remove(listener);
+            if (v.isEmpty()) {
+                v = null;
+            }
+            return v;
+        });
+    }
+
+    /**
+     * 关闭（停止消息分发器）
+     */
+    public void close() {
+        dispatcher.shutdown();
+    }
+
+    /**
+     * 获取key的数量（不包括已过期的key）
+     */
+    public synchronized int size() {
+        data.keySet().removeIf(key -> getEntry(key) == null);
+        return data.size();
+    }
+
+    // 发布消息
+    private int publish(String channel, String message) {
+        Set<Consumer<String>> listeners = channelListeners.get(channel);
+        if (listeners == null) {
+            return 0;
+        }
+        List<Consumer<String>> targets = new ArrayList<>(listeners);
+        dispatcher.execute(() -> {
+            for (Consumer<String> target : targets) {
+                try {
+                    target.accept(message);
+                } catch (Throwable e) {
+                    log.error("处理Redis消息失败", e);
+                }
+            }
+        });
+        return targets.size();
+    }
+
+    // 获取未过期的数据
+    private Entry getEntry(String key) {
+        Entry entry = data.get(key);
+        if (entry != null && entry.expireAt >= 0 && entry.expireAt <= System.currentTimeMillis()) {
+            data.remove(key);
+            entry = null;
+        }
+        return entry;
+    }
+
+    // 转换为Lua的table
+    private static LuaTable toLuaTable(List<?> values) {
+        LuaTable table = new LuaTable();
+        for (int i = 0; i < values.size(); i++) {
+            table.set(i + 1, LuaValue.valueOf(String.valueOf(values.get(i))));
+        }
+        return table;
+    }
+
+    // 将Lua的值转换为redis的应答（与redis的转换规则保持一致）
+    private static Object toReply(LuaValue value) {
+        if (value.isnil() || (value.isboolean() && !value.toboolean())) {
+            return null;
+        }
+        if (value.isboolean()) {
+            return 1L;
+        }
+        if (value.type() == LuaValue.TNUMBER) {
+            return value.tolong();
+        }
+        if (value.istable()) {
+            List<Object> list = new ArrayList<>();
+            for (int i = 1; ; i++) {
+                Object element = toReply(value.get(i));
+                if (element == null) {
+                    break;
+                }
+                list.add(element);
+            }
+            return list;
+        }
+        return value.tojstring();
+    }
+
+    // 将redis的应答转换为期望的类型
+    private static Object convertReply(Object reply, Class<?> resultType) {
+        if (resultType == Boolean.class) {
+            return reply != null && Objects.equals(reply, 1L);
+        }
+        return reply;
+    }
+
+    /**
+     * 编码后的脚本
+     */
+    @AllArgsConstructor
+    private static class EncodedScript {
+        // 编译后的脚本
+        private final LuaValue chunk;
+        // 返回值类型
+        private final Class<?> resultType;
+    }
+
+    // 数据项
+    private static class Entry {
+        // hash结构的数据
+        private final Map<String, String> hash = new HashMap<>();
+        // 过期时间（负数表示不过期）
+        private long expireAt = -1;
+    }
+
+    // redis.call函数
+    private class RedisCall extends VarArgFunction {
+        @Override
+        public Varargs invoke(Varargs args) {
+            String command = args.checkjstring(1).toLowerCase();
+            String key = args.checkjstring(2);
+            Entry entry = getEntry(key);
+            switch (command) {
+                case "hget": {
+                    String value = entry == null ? null : entry.hash.get(args.checkjstring(3));
+                    return value == null ? LuaValue.FALSE : LuaValue.valueOf(value);
+                }
+                case "hset": {
+                    if (entry == null) {
+                        entry = new Entry();
+                        data.put(key, entry);
+                    }
+                    String old = entry.hash.put(args.checkjstring(3), args.checkjstring(4));
+                    return LuaValue.valueOf(old == null ? 1 : 0);
+                }
+                case "hdel": {
+                    int amount = 0;
+                    if (entry != null && entry.hash.remove(args.checkjstring(3)) != null) {
+                        amount = 1;
+                        if (entry.hash.isEmpty()) {
+                            data.remove(key);
+                        }
+                    }
+                    return LuaValue.valueOf(amount);
+                }
+                case "hkeys": {
+                    LuaTable table = new LuaTable();
+                    if (entry != null) {
+                        int i = 1;
+                        for (String field : entry.hash.keySet()) {
+                            table.set(i++, LuaValue.valueOf(field));
+                        }
+                    }
+                    return table;
+                }
+                case "del":
+                    return LuaValue.valueOf(data.remove(key) == null || entry == null ? 0 : 1);
+                case "exists":
+                    return LuaValue.valueOf(entry == null ? 0 : 1);
+                case "pttl": {
+                    if (entry == null) {
+                        return LuaValue.valueOf(-2);
+                    }
+                    if (entry.expireAt < 0) {
+                        return LuaValue.valueOf(-1);
+                    }
+                    return LuaValue.valueOf((double) (entry.expireAt - System.currentTimeMillis()));
+                }
+                case "pexpire": {
+                    if (entry == null) {
+                        return LuaValue.valueOf(0);
+                    }
+                    entry.expireAt = System.currentTimeMillis() + args.checklong(3);
+                    return LuaValue.valueOf(1);
+                }
+                case "publish":
+                    return LuaValue.valueOf(publish(key, args.checkjstring(3)));
+                default:
+                    throw new UnsupportedOperationException("LuaRedisExecutor不支持的命令：" + command);
+            }
+        }
+    }
+}
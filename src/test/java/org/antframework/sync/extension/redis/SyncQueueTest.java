@@ -0,0 +1,155 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 17:50 创建
+ */
+package org.antframework.sync.extension.redis;
+
+import org.antframework.sync.common.DefaultKeyGenerator;
+import org.antframework.sync.extension.Server;
+import org.antframework.sync.metrics.support.NoopSyncMetrics;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 排队模式单元测试（先来先得、跳过过期的队首、只通知队首节点、信号量链式唤醒）
+ */
+public class SyncQueueTest {
+    // 票据有效期
+    private static final long TICKET_TIME = 400;
+    // 截止时间
+    private static final long DEADLINE = Long.MAX_VALUE;
+    // 等待同步消息的时间
+    private static final long MESSAGE_WAIT_TIME = 1000;
+
+    // 进程内redis执行器
+    private LuaRedisExecutor redisExecutor;
+    // 节点A
+    private RedisServer nodeA;
+    // 节点B
+    private RedisServer nodeB;
+    // 节点C
+    private RedisServer nodeC;
+
+    @Before
+    public void setup() {
+        redisExecutor = new LuaRedisExecutor();
+        nodeA = newServer();
+        nodeB = newServer();
+        nodeC = newServer();
+    }
+
+    @After
+    public void tearDown() {
+        nodeA.close();
+        nodeB.close();
+        nodeC.close();
+        redisExecutor.close();
+    }
+
+    // 按到达顺序加锁
+    @Test
+    public void testFifo() {
+        Assert.assertNull(nodeA.lockForMutex("mutex", "a", DEADLINE));
+        Assert.assertNotNull(nodeB.lockForMutex("mutex", "b", DEADLINE));
+        Assert.assertNotNull(nodeC.lockForMutex("mutex", "c", DEADLINE));
+        nodeA.unlockForMutex("mutex", "a");
+
+        // 锁空闲但节点C不是队首
+        Assert.assertNotNull(nodeC.lockForMutex("mutex", "c", DEADLINE));
+        // 没有排队的节点也不能插队
+        Assert.assertNotNull(nodeA.lockForMutex("mutex", "a", DEADLINE));
+        Assert.assertNull(nodeB.lockForMutex("mutex", "b", DEADLINE));
+        nodeB.unlockForMutex("mutex", "b");
+        Assert.assertNull(nodeC.lockForMutex("mutex", "c", DEADLINE));
+        nodeC.unlockForMutex("mutex", "c");
+        Assert.assertNull(nodeA.lockForMutex("mutex", "a", DEADLINE));
+    }
+
+    // 队首的票据过期后被跳过
+    @Test
+    public void testExpiredHeadSkipped() throws InterruptedException {
+        Assert.assertNull(nodeA.lockForMutex("mutex", "a", DEADLINE));
+        Assert.assertNotNull(nodeB.lockForMutex("mutex", "b", DEADLINE));
+        Assert.assertNotNull(nodeC.lockForMutex("mutex", "c", DEADLINE));
+        nodeA.unlockForMutex("mutex", "a");
+
+        // 节点B不再重试，节点C重试时刷新票据
+        Thread.sleep(TICKET_TIME * 5 / 8);
+        Assert.assertNotNull(nodeC.lockForMutex("mutex", "c", DEADLINE));
+        Thread.sleep(TICKET_TIME * 5 / 8);
+        Assert.assertNull(nodeC.lockForMutex("mutex", "c", DEADLINE));
+        nodeC.unlockForMutex("mutex", "c");
+    }
+
+    // 解锁时只通知队首节点
+    @Test
+    public void testOnlyHeadNotified() throws InterruptedException {
+        AtomicInteger notifiedB = new AtomicInteger();
+        AtomicInteger notifiedC = new AtomicInteger();
+        nodeB.addSyncListener(Server.SyncType.MUTEX_LOCK, "mutex", notifiedB::incrementAndGet);
+        nodeC.addSyncListener(Server.SyncType.MUTEX_LOCK, "mutex", notifiedC::incrementAndGet);
+
+        Assert.assertNull(nodeA.lockForMutex("mutex", "a", DEADLINE));
+        Assert.assertNotNull(nodeB.lockForMutex("mutex", "b", DEADLINE));
+        Assert.assertNotNull(nodeC.lockForMutex("mutex", "c", DEADLINE));
+        nodeA.unlockForMutex("mutex", "a");
+        awaitNotified(notifiedB, 1);
+        // 留出时间让可能发给节点C的消息到达
+        Thread.sleep(100);
+        Assert.assertEquals(0, notifiedC.get());
+
+        Assert.assertNull(nodeB.lockForMutex("mutex", "b", DEADLINE));
+        nodeB.unlockForMutex("mutex", "b");
+        awaitNotified(notifiedC, 1);
+        Assert.assertEquals(1, notifiedB.get());
+    }
+
+    // 信号量获取许可后还有剩余许可时通知下一个队首节点
+    @Test
+    public void testSemaphoreChainedWakeUp() throws InterruptedException {
+        AtomicInteger notifiedB = new AtomicInteger();
+        AtomicInteger notifiedC = new AtomicInteger();
+        nodeB.addSyncListener(Server.SyncType.SEMAPHORE, "semaphore", notifiedB::incrementAndGet);
+        nodeC.addSyncListener(Server.SyncType.SEMAPHORE, "semaphore", notifiedC::incrementAndGet);
+
+        Assert.assertNull(nodeA.acquireForSemaphore("semaphore", "a", 2, 2, DEADLINE));
+        Assert.assertNotNull(nodeB.acquireForSemaphore("semaphore", "b", 1, 2, DEADLINE));
+        Assert.assertNotNull(nodeC.acquireForSemaphore("semaphore", "c", 1, 2, DEADLINE));
+        nodeA.releaseForSemaphore("semaphore", "a", 0, 2);
+        awaitNotified(notifiedB, 1);
+        // 留出时间让可能发给节点C的消息到达
+        Thread.sleep(100);
+        Assert.assertEquals(0, notifiedC.get());
+
+        // 节点B获取后还有剩余许可，由其脚本通知节点C，无需再有释放
+        Assert.assertNull(nodeB.acquireForSemaphore("semaphore", "b", 1, 2, DEADLINE));
+        awaitNotified(notifiedC, 1);
+        Assert.assertNull(nodeC.acquireForSemaphore("semaphore", "c", 1, 2, DEADLINE));
+        Assert.assertEquals(1, notifiedB.get());
+    }
+
+    // 新建排队模式的redis服务端
+    private RedisServer newServer() {
+        RedisServerOptions options = new RedisServerOptions();
+        options.setQueued(true);
+        options.setQueueTicketTime(TICKET_TIME);
+        return new RedisServer(new DefaultKeyGenerator("test"), redisExecutor, options, NoopSyncMetrics.INSTANCE);
+    }
+
+    // 等待被通知指定的次数
+    private void awaitNotified(AtomicInteger notified, int times) throws InterruptedException {
+        long endTime = System.currentTimeMillis() + MESSAGE_WAIT_TIME;
+        while (notified.get() < times && System.currentTimeMillis() < endTime) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(times, notified.get());
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 17:48 创建
+ */
+package org.antframework.sync.extension.redis;
+
+import org.antframework.sync.common.DefaultKeyGenerator;
+import org.antframework.sync.extension.redis.extension.RedisExecutor;
+import org.antframework.sync.extension.redis.support.SyncSessionManager;
+import org.antframework.sync.metrics.support.NoopSyncMetrics;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 会话模式单元测试（持有者的会话失效后其他节点可获取，会话有效时不会被获取）
+ * <p>
+ * 节点A宕机通过断开其redis执行器模拟：会话不再刷新，会话key在会话有效期后过期。
+ */
+public class SyncSessionTest {
+    // 会话有效期
+    private static final long SESSION_TIME = 500;
+    // 截止时间
+    private static final long DEADLINE = Long.MAX_VALUE;
+
+    // 进程内redis执行器
+    private LuaRedisExecutor redisExecutor;
+    // 节点A的redis执行器（可断开）
+    private CrashableRedisExecutor redisExecutorOfA;
+    // 节点A（持有者id中带有会话id的分隔符，校验会话id的解析）
+    private RedisServer nodeA;
+    // 节点B
+    private RedisServer nodeB;
+
+    @Before
+    public void setup() {
+        redisExecutor = new LuaRedisExecutor();
+        redisExecutorOfA = new CrashableRedisExecutor(redisExecutor);
+        nodeA = newServer(redisExecutorOfA);
+        nodeB = newServer(redisExecutor);
+    }
+
+    @After
+    public void tearDown() {
+        redisExecutorOfA.crashed = false;
+        nodeA.close();
+        nodeB.close();
+        redisExecutor.close();
+    }
+
+    // 互斥锁
+    @Test
+    public void testMutexLock() throws InterruptedException {
+        Assert.assertNull(nodeA.lockForMutex("mutex", "a@1", DEADLINE));
+        assertNeverAcquired(() -> nodeB.lockForMutex("mutex", "b@1", DEADLINE));
+
+        redisExecutorOfA.crashed = true;
+        awaitAcquired(() -> nodeB.lockForMutex("mutex", "b@1", DEADLINE));
+        Assert.assertNotNull(nodeB.lockForMutex("mutex", "b@2", DEADLINE));
+    }
+
+    // 写锁
+    @Test
+    public void testWriteLock() throws InterruptedException {
+        Assert.assertNull(nodeA.lockForWrite("rw", "a@1", DEADLINE));
+        assertNeverAcquired(() -> nodeB.lockForRead("rw", "b@1", DEADLINE));
+
+        redisExecutorOfA.crashed = true;
+        awaitAcquired(() -> nodeB.lockForRead("rw", "b@1", DEADLINE));
+        nodeB.unlockForRead("rw", "b@1");
+        Assert.assertNull(nodeB.lockForWrite("rw", "b@2", DEADLINE));
+    }
+
+    // 读锁（重新统计读者数量时只去掉会话失效的读者）
+    @Test
+    public void testReadLock() throws InterruptedException {
+        Assert.assertNull(nodeA.lockForRead("rw", "a@1", DEADLINE));
+        Assert.assertNull(nodeA.lockForRead("rw", "a@2", DEADLINE));
+        Assert.assertNull(nodeB.lockForRead("rw", "b@1", DEADLINE));
+        assertNeverAcquired(() -> nodeB.lockForWrite("rw", "b@2", DEADLINE));
+
+        redisExecutorOfA.crashed = true;
+        // 节点B的读者仍然有效
+        assertNeverAcquired(() -> nodeB.lockForWrite("rw", "b@2", DEADLINE));
+        nodeB.unlockForRead("rw", "b@1");
+        awaitAcquired(() -> nodeB.lockForWrite("rw", "b@2", DEADLINE));
+    }
+
+    // 信号量（重新统计已获取的许可数时只去掉会话失效的获取者）
+    @Test
+    public void testSemaphore() throws InterruptedException {
+        Assert.assertNull(nodeA.acquireForSemaphore("semaphore", "a@1", 2, 3, DEADLINE));
+        Assert.assertNull(nodeB.acquireForSemaphore("semaphore", "b@1", 1, 3, DEADLINE));
+        assertNeverAcquired(() -> nodeB.acquireForSemaphore("semaphore", "b@2", 1, 3, DEADLINE));
+
+        redisExecutorOfA.crashed = true;
+        awaitAcquired(() -> nodeB.acquireForSemaphore("semaphore", "b@2", 2, 3, DEADLINE));
+        // 节点B已获取的许可仍然有效
+        Assert.assertNotNull(nodeB.acquireForSemaphore("semaphore", "b@3", 1, 3, DEADLINE));
+    }
+
+    // 需等待的时间不超过会话有效期
+    @Test
+    public void testLimitWaitTime() {
+        SyncSessionManager sessionManager = new SyncSessionManager(redisExecutor, 1000);
+        Assert.assertNull(sessionManager.limitWaitTime(null));
+        Assert.assertEquals(Long.valueOf(500), sessionManager.limitWaitTime(500L));
+        Assert.assertEquals(Long.valueOf(1000), sessionManager.limitWaitTime(5000L));
+
+        SyncSessionManager disabled = new SyncSessionManager(redisExecutor, 0);
+        Assert.assertEquals(Long.valueOf(5000), disabled.limitWaitTime(5000L));
+    }
+
+    // 刷新提交到执行器中执行（不在调用线程中访问redis），刷新结束前不重复提交，执行器拒绝时稍后重试
+    @Test
+    public void testRefreshInExecutor() throws InterruptedException {
+        SyncSessionManager sessionManager = new SyncSessionManager(redisExecutor, SESSION_TIME);
+        sessionManager.getSessionKeyPrefix("refresh");
+        List<Runnable> tasks = new ArrayList<>();
+        sessionManager.refresh(tasks::add);
+        Assert.assertTrue(tasks.isEmpty());
+
+        sleepUntil(sessionManager.getNextRefreshTime());
+        sessionManager.refresh(tasks::add);
+        Assert.assertEquals(1, tasks.size());
+        sleepUntil(sessionManager.getNextRefreshTime());
+        sessionManager.refresh(tasks::add);
+        Assert.assertEquals(1, tasks.size());
+        long startTime = System.currentTimeMillis();
+        tasks.get(0).run();
+        Assert.assertTrue(sessionManager.getNextRefreshTime() > startTime);
+
+        sleepUntil(sessionManager.getNextRefreshTime());
+        sessionManager.refresh(task -> {
+            throw new RejectedExecutionException();
+        });
+        sleepUntil(sessionManager.getNextRefreshTime());
+        sessionManager.refresh(tasks::add);
+        Assert.assertEquals(2, tasks.size());
+        sessionManager.close();
+    }
+
+    // 睡眠到指定时间之后
+    private static void sleepUntil(long time) throws InterruptedException {
+        Thread.sleep(Math.max(time - System.currentTimeMillis() + 1, 0));
+    }
+
+    // 新建会话模式的redis服务端
+    private RedisServer newServer(RedisExecutor executor) {
+        RedisServerOptions options = new RedisServerOptions();
+        options.setSessionTime(SESSION_TIME);
+        return new RedisServer(new DefaultKeyGenerator("test"), executor, options, NoopSyncMetrics.INSTANCE);
+    }
+
+    // 断言持有者的会话有效时始终获取不到（持续几个会话有效期，期间会多次重新统计），且需等待的时间不超过会话有效期
+    private void assertNeverAcquired(Supplier<Long> acquirer) throws InterruptedException {
+        long endTime = System.currentTimeMillis() + SESSION_TIME * 3;
+        while (System.currentTimeMillis() < endTime) {
+            Long waitTime = acquirer.get();
+            Assert.assertNotNull(waitTime);
+            Assert.assertTrue(waitTime <= SESSION_TIME);
+            Thread.sleep(SESSION_TIME / 5);
+        }
+    }
+
+    // 等待直到获取成功（持有者的会话失效后最多一个会话有效期就能获取到）
+    private void awaitAcquired(Supplier<Long> acquirer) throws InterruptedException {
+        long endTime = System.currentTimeMillis() + SESSION_TIME * 4;
+        Long waitTime = acquirer.get();
+        while (waitTime != null) {
+            Assert.assertTrue(waitTime <= SESSION_TIME);
+            Assert.assertTrue(System.currentTimeMillis() < endTime);
+            Thread.sleep(Math.min(waitTime, SESSION_TIME / 5));
+            waitTime = acquirer.get();
+        }
+    }
+
+    // 可断开的redis执行器（断开后执行脚本都抛出异常，模拟节点宕机）
+    private static class CrashableRedisExecutor implements RedisExecutor {
+        // 目标执行器
+        private final RedisExecutor target;
+        // 是否已断开
+        private volatile boolean crashed = false;
+
+        CrashableRedisExecutor(RedisExecutor target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object encodeScript(String script, Class<?> resultType) {
+            return target.encodeScript(script, resultType);
+        }
+
+        @Override
+        public <T> T eval(Object encodedScript, List<String> keys, List<Object> args) {
+            if (crashed) {
+                throw new IllegalStateException("节点已宕机");
+            }
+            return target.eval(encodedScript, keys, args);
+        }
+
+        @Override
+        public void addMessageListener(String channel, Runnable listener) {
+            target.addMessageListener(channel, listener);
+        }
+
+        @Override
+        public void removeMessageListener(String channel, Runnable listener) {
+            target.removeMessageListener(channel, listener);
+        }
+
+        @Override
+        public void addMessageListener(String channel, Consumer<String> listener) {
+            target.addMessageListener(channel, listener);
+        }
+
+        @Override
+        public void removeMessageListener(String channel, Consumer<String> listener) {
+            target.removeMessageListener(channel, listener);
+        }
+    }
+}
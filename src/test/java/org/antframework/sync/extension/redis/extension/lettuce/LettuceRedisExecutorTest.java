@@ -0,0 +1,340 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 18:09 创建
+ */
+package org.antframework.sync.extension.redis.extension.lettuce;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.pubsub.RedisPubSubListener;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import io.lettuce.core.pubsub.api.async.RedisPubSubAsyncCommands;
+import org.antframework.sync.extension.redis.LuaRedisExecutor;
+import org.antframework.sync.extension.redis.extension.lettuce.support.DiscardOldestMessagePolicy;
+import org.antframework.sync.metrics.support.NoopSyncMetrics;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 基于lettuce的redis执行器单元测试（使用模拟的redis客户端：脚本由进程内redis执行器执行，按sha1缓存）
+ */
+public class LettuceRedisExecutorTest {
+    // 返回布尔值的脚本（参数为1时返回true，否则返回false；redis会把false转换为nil）
+    private static final String BOOLEAN_SCRIPT = "if (ARGV[1] == '1') then return true; end return false;";
+    // 返回整数的脚本
+    private static final String LONG_SCRIPT = "return redis.call('hset', KEYS[1], 'field', ARGV[1]);";
+
+    // 模拟的redis客户端
+    private FakeRedisClient redisClient;
+    // redis执行器
+    private LettuceRedisExecutor redisExecutor;
+
+    @Before
+    public void setup() {
+        redisClient = new FakeRedisClient();
+        redisExecutor = new LettuceRedisExecutor(redisClient, (Executor) Runnable::run, NoopSyncMetrics.INSTANCE);
+    }
+
+    @After
+    public void tearDown() {
+        redisExecutor.close();
+        redisClient.shutdown();
+        redisClient.luaRedisExecutor.close();
+    }
+
+    // 编码脚本时加载脚本，执行时使用EVALSHA
+    @Test
+    public void testEvalsha() {
+        Object script = redisExecutor.encodeScript(LONG_SCRIPT, Long.class);
+        Assert.assertEquals(1, redisClient.loads.get());
+
+        Long result = redisExecutor.eval(script, Collections.singletonList("key"), Collections.singletonList("a"));
+        Assert.assertEquals(Long.valueOf(1), result);
+        result = redisExecutor.eval(script, Collections.singletonList("key"), Collections.singletonList("b"));
+        Assert.assertEquals(Long.valueOf(0), result);
+        Assert.assertEquals(2, redisClient.evalshas.get());
+        Assert.assertEquals(1, redisClient.loads.get());
+    }
+
+    // redis中的脚本丢失后重新加载并执行
+    @Test
+    public void testNoScriptReload() {
+        Object script = redisExecutor.encodeScript(LONG_SCRIPT, Long.class);
+        redisClient.scripts.clear();
+
+        Long result = redisExecutor.eval(script, Collections.singletonList("key"), Collections.singletonList("a"));
+        Assert.assertEquals(Long.valueOf(1), result);
+        Assert.assertEquals(2, redisClient.loads.get());
+        Assert.assertEquals(2, redisClient.evalshas.get());
+        // 重新加载后不再重复加载
+        redisExecutor.eval(script, Collections.singletonList("key"), Collections.singletonList("b"));
+        Assert.assertEquals(2, redisClient.loads.get());
+    }
+
+    // 脚本返回false时redis返回nil，转换为Boolean.FALSE
+    @Test
+    public void testBooleanNil() {
+        Object script = redisExecutor.encodeScript(BOOLEAN_SCRIPT, Boolean.class);
+
+        Boolean result = redisExecutor.eval(script, Collections.emptyList(), Collections.singletonList(1));
+        Assert.assertEquals(Boolean.TRUE, result);
+        result = redisExecutor.eval(script, Collections.emptyList(), Collections.singletonList(0));
+        Assert.assertEquals(Boolean.FALSE, result);
+    }
+
+    // 同一个通道只订阅一次，最后一个监听器删除时退订
+    @Test
+    public void testMessageListener() {
+        List<String> messages = new ArrayList<>();
+        Runnable listener1 = () -> messages.add("listener1");
+        Runnable listener2 = () -> messages.add("listener2");
+        redisExecutor.addMessageListener("channel", listener1);
+        redisExecutor.addMessageListener("channel", listener2);
+        Assert.assertEquals(Collections.singletonList("channel"), redisClient.subscribes);
+
+        redisClient.publish("channel", "message");
+        Assert.assertEquals(2, messages.size());
+
+        redisExecutor.removeMessageListener("channel", listener1);
+        Assert.assertTrue(redisClient.unsubscribes.isEmpty());
+        redisExecutor.removeMessageListener("channel", listener2);
+        Assert.assertEquals(Collections.singletonList("channel"), redisClient.unsubscribes);
+        redisClient.publish("channel", "message");
+        Assert.assertEquals(2, messages.size());
+    }
+
+    // 线程池已满时丢弃最早的消息并计数
+    @Test
+    public void testDiscardOldestMessagePolicy() throws InterruptedException {
+        DiscardOldestMessagePolicy policy = new DiscardOldestMessagePolicy("test-executor", NoopSyncMetrics.INSTANCE);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 5, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1), policy);
+        try {
+            CountDownLatch blocker = new CountDownLatch(1);
+            List<String> handled = Collections.synchronizedList(new ArrayList<>());
+            executor.execute(() -> {
+                try {
+                    blocker.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            executor.execute(() -> handled.add("oldest"));
+            executor.execute(() -> handled.add("newest"));
+            Assert.assertEquals(1, policy.getDroppedAmount());
+
+            blocker.countDown();
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+            Assert.assertEquals(Collections.singletonList("newest"), handled);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 模拟的redis客户端
+     */
+    private static class FakeRedisClient extends RedisClient {
+        // 执行脚本的进程内redis执行器
+        private final LuaRedisExecutor luaRedisExecutor = new LuaRedisExecutor();
+        // redis中已加载的脚本（sha1 -> 脚本）
+        private final Map<String, String> scripts = new ConcurrentHashMap<>();
+        // 加载脚本的次数
+        private final AtomicInteger loads = new AtomicInteger(0);
+        // 执行EVALSHA的次数
+        private final AtomicInteger evalshas = new AtomicInteger(0);
+        // 订阅的通道
+        private final List<String> subscribes = new ArrayList<>();
+        // 退订的通道
+        private final List<String> unsubscribes = new ArrayList<>();
+        // 当前已订阅的通道
+        private final Set<String> subscribed = ConcurrentHashMap.newKeySet();
+        // 订阅连接的监听器
+        private final Set<RedisPubSubListener<String, Object>> listeners = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public <K, V> StatefulRedisConnection<K, V> connect(RedisCodec<K, V> codec) {
+            Object commands = proxy(RedisAsyncCommands.class, (method, args) -> {
+                switch (method) {
+                    case "scriptLoad":
+                        return scriptLoad((String) args[0]);
+                    case "evalsha":
+                        return evalsha((String) args[0], (ScriptOutputType) args[1], (Object[]) args[2], (Object[]) args[3]);
+                    default:
+                        throw new UnsupportedOperationException(method);
+                }
+            });
+            return cast(proxy(StatefulRedisConnection.class, (method, args) -> {
+                switch (method) {
+                    case "async":
+                        return commands;
+                    case "getTimeout":
+                        return Duration.ofSeconds(5);
+                    case "close":
+                        return null;
+                    default:
+                        throw new UnsupportedOperationException(method);
+                }
+            }));
+        }
+
+        @Override
+        public <K, V> StatefulRedisPubSubConnection<K, V> connectPubSub(RedisCodec<K, V> codec) {
+            Object commands = proxy(RedisPubSubAsyncCommands.class, (method, args) -> {
+                List<String> channels = Arrays.asList((String[]) args[0]);
+                switch (method) {
+                    case "subscribe":
+                        subscribes.addAll(channels);
+                        subscribed.addAll(channels);
+                        return completed(null);
+                    case "unsubscribe":
+                        unsubscribes.addAll(channels);
+                        subscribed.removeAll(channels);
+                        return completed(null);
+                    default:
+                        throw new UnsupportedOperationException(method);
+                }
+            });
+            return cast(proxy(StatefulRedisPubSubConnection.class, (method, args) -> {
+                switch (method) {
+                    case "async":
+                        return commands;
+                    case "addListener":
+                        listeners.add(cast(args[0]));
+                        return null;
+                    case "close":
+                        return null;
+                    default:
+                        throw new UnsupportedOperationException(method);
+                }
+            }));
+        }
+
+        // 发布消息（只发给已订阅的通道）
+        void publish(String channel, String message) {
+            if (!subscribed.contains(channel)) {
+                return;
+            }
+            for (RedisPubSubListener<String, Object> listener : listeners) {
+                listener.message(channel, message);
+            }
+        }
+
+        // 加载脚本
+        private RedisFuture<String> scriptLoad(String script) {
+            loads.incrementAndGet();
+            String sha1 = sha1(script);
+            scripts.put(sha1, script);
+            return completed(sha1);
+        }
+
+        // 执行脚本（与redis一样：BOOLEAN类型时nil转换为null）
+        private RedisFuture<Object> evalsha(String sha1, ScriptOutputType outputType, Object[] keys, Object[] args) {
+            evalshas.incrementAndGet();
+            String script = scripts.get(sha1);
+            if (script == null) {
+                CompletedFuture<Object> future = new CompletedFuture<>();
+                future.completeExceptionally(new RedisNoScriptException("NOSCRIPT No matching script. Please use EVAL."));
+                return future;
+            }
+            List<String> keyList = new ArrayList<>();
+            for (Object key : keys) {
+                keyList.add((String) key);
+            }
+            Object reply = luaRedisExecutor.eval(luaRedisExecutor.encodeScript(script, Object.class), keyList, Arrays.asList(args));
+            if (outputType == ScriptOutputType.BOOLEAN && reply != null) {
+                reply = Long.valueOf(1).equals(reply);
+            }
+            return completed(reply);
+        }
+    }
+
+    /**
+     * 已完成的redis异步结果
+     */
+    private static class CompletedFuture<T> extends CompletableFuture<T> implements RedisFuture<T> {
+        @Override
+        public String getError() {
+            return null;
+        }
+
+        @Override
+        public boolean await(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+
+    /**
+     * 方法处理器
+     */
+    @FunctionalInterface
+    private interface MethodHandler {
+        Object handle(String method, Object[] args);
+    }
+
+    // 创建代理（只按方法名称进行处理）
+    private static Object proxy(Class<?> type, MethodHandler handler) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return method.invoke(handler, args);
+            }
+            return handler.handle(method.getName(), args);
+        });
+    }
+
+    // 已完成的异步结果
+    private static <T> RedisFuture<T> completed(T result) {
+        CompletedFuture<T> future = new CompletedFuture<>();
+        future.complete(result);
+        return future;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object obj) {
+        return (T) obj;
+    }
+
+    // 计算sha1
+    private static String sha1(String script) {
+        try {
+            StringBuilder builder = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-1").digest(script.getBytes(StandardCharsets.UTF_8))) {
+                builder.append(String.format("%02x", b));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
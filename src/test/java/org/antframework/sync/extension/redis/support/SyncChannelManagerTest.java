@@ -0,0 +1,162 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 18:15 创建
+ */
+package org.antframework.sync.extension.redis.support;
+
+import org.antframework.sync.common.DefaultKeyGenerator;
+import org.antframework.sync.extension.Server;
+import org.antframework.sync.extension.redis.LuaRedisExecutor;
+import org.antframework.sync.extension.redis.extension.MessageListenerAdapter;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 同步通道管理器单元测试（多路复用的通道；使用进程内redis执行器发布消息，消息按发布顺序分发）
+ */
+public class SyncChannelManagerTest {
+    // 每种类型的通道数量
+    private static final int CHANNEL_AMOUNT = 2;
+    // 同步类型
+    private static final Server.SyncType SYNC_TYPE = Server.SyncType.MUTEX_LOCK;
+
+    // 进程内redis执行器
+    private LuaRedisExecutor redisExecutor;
+    // 同步通道管理器
+    private SyncChannelManager channelManager;
+    // 发布消息的脚本
+    private Object publishScript;
+
+    @Before
+    public void setup() {
+        redisExecutor = new LuaRedisExecutor();
+        channelManager = new SyncChannelManager(new DefaultKeyGenerator("test"), redisExecutor, CHANNEL_AMOUNT, "node");
+        publishScript = redisExecutor.encodeScript("return redis.call('publish', KEYS[1], ARGV[1]);", Long.class);
+    }
+
+    @After
+    public void tearDown() {
+        channelManager.close();
+        redisExecutor.close();
+    }
+
+    // 所有key共享固定数量的通道
+    @Test
+    public void testChannelAmount() {
+        Set<String> channels = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            channels.add(channelManager.computeSyncChannel(SYNC_TYPE, "key-" + i));
+        }
+        Assert.assertEquals(CHANNEL_AMOUNT, channels.size());
+        Assert.assertEquals(channelManager.computeSyncChannel(SYNC_TYPE, "key-0"), channelManager.computeSyncChannel(SYNC_TYPE, "key-0"));
+    }
+
+    // 同一个通道上只唤醒消息对应的key的监听器
+    @Test
+    public void testDispatchByKey() throws InterruptedException {
+        String[] keys = findKeysOfSameChannel();
+        String channel = channelManager.computeSyncChannel(SYNC_TYPE, keys[0]);
+        AtomicInteger calls0 = new AtomicInteger(0);
+        CountDownLatch latch1 = new CountDownLatch(1);
+        channelManager.addSyncListener(SYNC_TYPE, keys[0], calls0::incrementAndGet);
+        channelManager.addSyncListener(SYNC_TYPE, keys[1], latch1::countDown);
+        // 同一个通道只订阅一次
+        Assert.assertEquals(1, publish(channel, "unknown-key"));
+
+        publish(channel, keys[1]);
+        Assert.assertTrue(latch1.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(0, calls0.get());
+
+        CountDownLatch latch0 = new CountDownLatch(1);
+        channelManager.addSyncListener(SYNC_TYPE, keys[0], latch0::countDown);
+        publish(channel, keys[0]);
+        Assert.assertTrue(latch0.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(1, calls0.get());
+    }
+
+    // 撤销消息只唤醒撤销监听器，排队消息只处理通知本节点的
+    @Test
+    public void testRevokeAndQueueMessage() throws InterruptedException {
+        String[] keys = findKeysOfSameChannel();
+        String channel = channelManager.computeSyncChannel(SYNC_TYPE, keys[0]);
+        AtomicInteger syncCalls = new AtomicInteger(0);
+        CountDownLatch revokeLatch = new CountDownLatch(1);
+        CountDownLatch queueLatch = new CountDownLatch(1);
+        channelManager.addSyncListener(SYNC_TYPE, keys[0], syncCalls::incrementAndGet);
+        channelManager.addRevokeListener(SYNC_TYPE, keys[0], revokeLatch::countDown);
+        channelManager.addSyncListener(SYNC_TYPE, keys[1], queueLatch::countDown);
+
+        channelManager.publishRevoke(SYNC_TYPE, keys[0]);
+        Assert.assertTrue(revokeLatch.await(5, TimeUnit.SECONDS));
+        publish(channel, "#queue#other#" + keys[0]);
+        publish(channel, "#queue#node#" + keys[1]);
+        Assert.assertTrue(queueLatch.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(0, syncCalls.get());
+    }
+
+    // 通道上的监听器都删除后退订通道
+    @Test
+    public void testUnsubscribe() {
+        String[] keys = findKeysOfSameChannel();
+        String channel = channelManager.computeSyncChannel(SYNC_TYPE, keys[0]);
+        Runnable listener0 = () -> {
+        };
+        Runnable listener1 = () -> {
+        };
+        channelManager.addSyncListener(SYNC_TYPE, keys[0], listener0);
+        channelManager.addSyncListener(SYNC_TYPE, keys[1], listener1);
+
+        channelManager.removeSyncListener(SYNC_TYPE, keys[0], listener0);
+        Assert.assertEquals(1, publish(channel, keys[0]));
+        channelManager.removeSyncListener(SYNC_TYPE, keys[1], listener1);
+        Assert.assertEquals(0, publish(channel, keys[1]));
+    }
+
+    // 适配器的相等性由被适配的监听器决定，删除时新建的适配器能删除新增时的适配器
+    @Test
+    public void testMessageListenerAdapter() {
+        Runnable runnable = () -> {
+        };
+        Assert.assertEquals(MessageListenerAdapter.toConsumer(runnable), MessageListenerAdapter.toConsumer(runnable));
+        Assert.assertEquals(MessageListenerAdapter.toConsumer(runnable).hashCode(), runnable.hashCode());
+        Assert.assertNotEquals(MessageListenerAdapter.toConsumer(runnable), MessageListenerAdapter.toConsumer(() -> {
+        }));
+
+        String[] received = new String[]{"init"};
+        Runnable adapted = MessageListenerAdapter.toRunnable(message -> received[0] = message);
+        adapted.run();
+        Assert.assertNull(received[0]);
+        ((MessageListenerAdapter) adapted).accept("message");
+        Assert.assertEquals("message", received[0]);
+    }
+
+    // 查找共享同一个通道的两个key
+    private String[] findKeysOfSameChannel() {
+        String channel = channelManager.computeSyncChannel(SYNC_TYPE, "key-0");
+        for (int i = 1; ; i++) {
+            String key = "key-" + i;
+            if (channelManager.computeSyncChannel(SYNC_TYPE, key).equals(channel)) {
+                return new String[]{"key-0", key};
+            }
+        }
+    }
+
+    // 发布消息（返回收到消息的监听器数量）
+    private long publish(String channel, String message) {
+        Long receivers = redisExecutor.eval(publishScript, Collections.singletonList(channel), Collections.singletonList(message));
+        return receivers;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 18:12 创建
+ */
+package org.antframework.sync.extension.redis.support;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sync维护器单元测试（维护执行器在当前线程中执行，批量维护者记录收到的批次）
+ */
+public class SyncMaintainerTest {
+    // 存活时间（毫秒；续期间隔为其1/10）
+    private static final long LIVE_TIME = 1000;
+    // 续期间隔（毫秒）
+    private static final long RENEW_INTERVAL = LIVE_TIME / 10;
+
+    // 按分组划分批次（同一分组的租约才在同一批次中，每批次最多MAX_BATCH_SIZE个）
+    @Test
+    public void testGroup() throws InterruptedException {
+        SyncMaintainer maintainer = new SyncMaintainer(LIVE_TIME);
+        for (int i = 0; i < SyncMaintainer.MAX_BATCH_SIZE + 10; i++) {
+            maintainer.add("a-" + i, "owner");
+        }
+        maintainer.add("b-0", "owner");
+        maintainer.add("b-1", "owner");
+        Thread.sleep(RENEW_INTERVAL * 2);
+
+        List<List<SyncMaintainer.Lease>> batches = new ArrayList<>();
+        maintainer.maintain(key -> key.charAt(0), Runnable::run, alive(batches));
+        Assert.assertEquals(3, batches.size());
+        Assert.assertEquals(SyncMaintainer.MAX_BATCH_SIZE, batches.get(0).size());
+        Assert.assertEquals(10, batches.get(1).size());
+        Assert.assertEquals(2, batches.get(2).size());
+        for (List<SyncMaintainer.Lease> batch : batches) {
+            char group = batch.get(0).getKey().charAt(0);
+            Assert.assertTrue(batch.stream().allMatch(lease -> lease.getKey().charAt(0) == group));
+        }
+    }
+
+    // 只续期已到期的租约，越接近过期的越先续期；续期后按续期间隔重新安排
+    @Test
+    public void testDeadlineOrder() throws InterruptedException {
+        SyncMaintainer maintainer = new SyncMaintainer(LIVE_TIME);
+        maintainer.add("first", "owner");
+        Thread.sleep(RENEW_INTERVAL / 2);
+        maintainer.add("second", "owner");
+        Thread.sleep(RENEW_INTERVAL * 2);
+        maintainer.add("later", "owner");
+        long nextMaintainTime = maintainer.getNextMaintainTime();
+        Assert.assertTrue(nextMaintainTime <= System.currentTimeMillis());
+
+        List<List<SyncMaintainer.Lease>> batches = new ArrayList<>();
+        long maintainTime = System.currentTimeMillis();
+        maintainer.maintain(key -> 0, Runnable::run, alive(batches));
+        Assert.assertEquals(1, batches.size());
+        Assert.assertEquals(Arrays.asList("first", "second"), keys(batches.get(0)));
+        // 未到期的租约成为最早需要维护的
+        Assert.assertTrue(maintainer.getNextMaintainTime() > maintainTime);
+        Assert.assertTrue(maintainer.getNextMaintainTime() <= maintainTime + RENEW_INTERVAL);
+        Assert.assertTrue(batches.get(0).stream().allMatch(maintainer::isValid));
+    }
+
+    // 维护执行器拒绝时租约按重试间隔重新安排，不会丢失
+    @Test
+    public void testRejected() throws InterruptedException {
+        SyncMaintainer maintainer = new SyncMaintainer(LIVE_TIME);
+        maintainer.add("rejected", "owner");
+        Thread.sleep(RENEW_INTERVAL * 2);
+
+        long maintainTime = System.currentTimeMillis();
+        maintainer.maintain(key -> 0, task -> {
+            throw new RejectedExecutionException();
+        }, batch -> {
+            throw new AssertionError("被拒绝的批次不应被执行");
+        });
+        Assert.assertTrue(maintainer.getNextMaintainTime() >= maintainTime + RENEW_INTERVAL);
+
+        Thread.sleep(RENEW_INTERVAL * 2);
+        List<List<SyncMaintainer.Lease>> batches = new ArrayList<>();
+        maintainer.maintain(key -> 0, Runnable::run, alive(batches));
+        Assert.assertEquals(Collections.singletonList("rejected"), keys(batches.get(0)));
+    }
+
+    // 续期出错（返回null或抛出异常）时稍后重试，异常不会抛给执行器；租约已不存活时删除持有关系
+    @Test
+    public void testRetryAfterFailure() throws InterruptedException {
+        SyncMaintainer maintainer = new SyncMaintainer(LIVE_TIME);
+        maintainer.add("failed", "owner");
+        Thread.sleep(RENEW_INTERVAL * 2);
+        maintainer.maintain(key -> 0, Runnable::run, batch -> null);
+        Assert.assertNotEquals(Long.MAX_VALUE, maintainer.getNextMaintainTime());
+
+        Thread.sleep(RENEW_INTERVAL * 2);
+        maintainer.maintain(key -> 0, Runnable::run, batch -> {
+            throw new IllegalStateException("redis出错");
+        });
+        Assert.assertNotEquals(Long.MAX_VALUE, maintainer.getNextMaintainTime());
+
+        Thread.sleep(RENEW_INTERVAL * 2);
+        List<List<SyncMaintainer.Lease>> batches = new ArrayList<>();
+        maintainer.maintain(key -> 0, Runnable::run, batch -> {
+            batches.add(new ArrayList<>(batch));
+            return Collections.singletonList(Boolean.FALSE);
+        });
+        Assert.assertEquals(Collections.singletonList("failed"), keys(batches.get(0)));
+        Assert.assertFalse(maintainer.isValid(batches.get(0).get(0)));
+        Assert.assertEquals(Long.MAX_VALUE, maintainer.getNextMaintainTime());
+    }
+
+    // 删除所有持有关系时同样按分组划分批次
+    @Test
+    public void testRemoveAll() {
+        SyncMaintainer maintainer = new SyncMaintainer(LIVE_TIME);
+        maintainer.add("a-0", "owner");
+        maintainer.add("b-0", "owner");
+        maintainer.add("a-1", "owner");
+
+        List<List<SyncMaintainer.Lease>> batches = new ArrayList<>();
+        maintainer.removeAll(key -> key.charAt(0), batches::add);
+        Assert.assertEquals(2, batches.size());
+        List<String> keys = batches.stream().map(SyncMaintainerTest::keys).flatMap(List::stream).sorted().collect(Collectors.toList());
+        Assert.assertEquals(Arrays.asList("a-0", "a-1", "b-0"), keys);
+        Assert.assertEquals(Long.MAX_VALUE, maintainer.getNextMaintainTime());
+    }
+
+    // 租期模式的持有关系不续期；删除所有持有关系时只交出租期未到期的；延长租期失败时删除持有关系
+    @Test
+    public void testLeased() throws InterruptedException {
+        SyncMaintainer maintainer = new SyncMaintainer(LIVE_TIME);
+        maintainer.addLeased("expiring", "owner", RENEW_INTERVAL);
+        maintainer.addLeased("leased", "owner", LIVE_TIME * 10);
+        maintainer.addLeased("lost", "owner", LIVE_TIME * 10);
+        Assert.assertEquals(Long.MAX_VALUE, maintainer.getNextMaintainTime());
+        Assert.assertTrue(maintainer.onLeaseExtended("expiring", "owner", RENEW_INTERVAL, true));
+        Assert.assertFalse(maintainer.onLeaseExtended("lost", "owner", LIVE_TIME * 10, false));
+        Thread.sleep(RENEW_INTERVAL * 2);
+
+        List<List<SyncMaintainer.Lease>> batches = new ArrayList<>();
+        maintainer.maintain(key -> 0, Runnable::run, alive(batches));
+        Assert.assertTrue(batches.isEmpty());
+        maintainer.removeAll(key -> 0, batches::add);
+        Assert.assertEquals(1, batches.size());
+        Assert.assertEquals(Collections.singletonList("leased"), keys(batches.get(0)));
+    }
+
+    // 记录批次，所有租约都还存活
+    private static Function<List<SyncMaintainer.Lease>, List<Boolean>> alive(List<List<SyncMaintainer.Lease>> batches) {
+        return batch -> {
+            batches.add(new ArrayList<>(batch));
+            return new ArrayList<>(Collections.nCopies(batch.size(), Boolean.TRUE));
+        };
+    }
+
+    // 获取批次中的Sync标识
+    private static List<String> keys(List<SyncMaintainer.Lease> batch) {
+        return batch.stream().map(SyncMaintainer.Lease::getKey).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,358 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 17:39 创建
+ */
+package org.antframework.sync.lock;
+
+import org.antframework.sync.SyncContext;
+import org.antframework.sync.SyncOptions;
+import org.antframework.sync.common.DefaultKeyConverter;
+import org.antframework.sync.common.DefaultKeyGenerator;
+import org.antframework.sync.common.SyncExecutor;
+import org.antframework.sync.common.SyncWaiter;
+import org.antframework.sync.extension.Server;
+import org.antframework.sync.extension.local.LocalServer;
+import org.antframework.sync.extension.redis.LuaRedisExecutor;
+import org.antframework.sync.extension.redis.RedisServer;
+import org.antframework.sync.lock.support.MutexLockServer;
+import org.antframework.sync.lock.support.RWLockServer;
+import org.antframework.sync.metrics.support.NoopSyncMetrics;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * 本地锁队列（移交、收回、写锁中再加读锁）单元测试（分别基于本地服务端和使用进程内redis执行器的redis服务端）
+ */
+@RunWith(Parameterized.class)
+public class LockCohortTest {
+    // 锁的标识
+    private static final String KEY = "cohort";
+    // 截止时间
+    private static final long DEADLINE = Long.MAX_VALUE;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> serverTypes() {
+        return Arrays.asList(new Object[]{"local"}, new Object[]{"redis"});
+    }
+
+    // 服务端类型（local：本地服务端；redis：使用进程内redis执行器的redis服务端）
+    private final String serverType;
+    // 进程内redis执行器（服务端类型为redis时才有）
+    private LuaRedisExecutor redisExecutor;
+    // 被统计的服务端
+    private Server targetServer;
+    // 统计调用次数的服务端
+    private Server server;
+    // 服务端方法成功调用的次数（方法名-次数；加锁方法只统计加锁成功的）
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    // Sync执行器
+    private SyncExecutor syncExecutor;
+
+    public LockCohortTest(String serverType) {
+        this.serverType = serverType;
+    }
+
+    @Before
+    public void setup() {
+        switch (serverType) {
+            case "local":
+                targetServer = new LocalServer();
+                break;
+            case "redis":
+                redisExecutor = new LuaRedisExecutor();
+                targetServer = new RedisServer(new DefaultKeyGenerator("test"), redisExecutor, 10 * 60 * 1000);
+                break;
+            default:
+                throw new IllegalArgumentException("无法识别的服务端类型：" + serverType);
+        }
+        server = (Server) Proxy.newProxyInstance(
+                Server.class.getClassLoader(),
+                new Class<?>[]{Server.class},
+                (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(targetServer, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                    if (!method.getName().startsWith("lock") || result == null) {
+                        calls.computeIfAbsent(method.getName(), k -> new AtomicInteger()).incrementAndGet();
+                    }
+                    return result;
+                });
+        syncExecutor = new SyncExecutor(NoopSyncMetrics.INSTANCE);
+    }
+
+    @After
+    public void tearDown() {
+        syncExecutor.close();
+        targetServer.close();
+        if (redisExecutor != null) {
+            redisExecutor.close();
+        }
+    }
+
+    // 移交预算内：服务端的锁只加一次，由本地等待者依次接手，最后一个解锁者释放
+    @Test
+    public void testHandoffWithinBudget() throws InterruptedException {
+        RWLockServer rwLockServer = newRWLockServer(2);
+
+        Assert.assertNull(rwLockServer.lockForWrite(KEY, "a", DEADLINE));
+        waitForWrite(rwLockServer, "b");
+        rwLockServer.unlockForWrite(KEY, "a");
+        Assert.assertEquals(0, count("unlockForWrite"));
+        Assert.assertNull(rwLockServer.lockForWrite(KEY, "b", DEADLINE));
+        rwLockServer.removeWriterWaiter(KEY, "b");
+
+        waitForWrite(rwLockServer, "c");
+        rwLockServer.unlockForWrite(KEY, "b");
+        Assert.assertEquals(0, count("unlockForWrite"));
+        Assert.assertNull(rwLockServer.lockForWrite(KEY, "c", DEADLINE));
+        rwLockServer.removeWriterWaiter(KEY, "c");
+        // 没有本地等待者，不再停放
+        rwLockServer.unlockForWrite(KEY, "c");
+
+        Assert.assertEquals(1, count("lockForWrite"));
+        Assert.assertEquals(1, count("unlockForWrite"));
+    }
+
+    // 移交预算用完：即使还有本地等待者也要释放服务端的锁，等待者需重新在服务端加锁
+    @Test
+    public void testHandoffBudgetExhausted() throws InterruptedException {
+        RWLockServer rwLockServer = newRWLockServer(1);
+
+        Assert.assertNull(rwLockServer.lockForWrite(KEY, "a", DEADLINE));
+        waitForWrite(rwLockServer, "b");
+        rwLockServer.unlockForWrite(KEY, "a");
+        Assert.assertNull(rwLockServer.lockForWrite(KEY, "b", DEADLINE));
+        rwLockServer.removeWriterWaiter(KEY, "b");
+
+        waitForWrite(rwLockServer, "c");
+        rwLockServer.unlockForWrite(KEY, "b");
+        Assert.assertEquals(1, count("unlockForWrite"));
+        // 其他节点此时能加锁
+        RWLockServer otherNode = newRWLockServer(1);
+        Assert.assertNull(otherNode.lockForWrite(KEY, "x", DEADLINE));
+        Assert.assertNotNull(rwLockServer.lockForWrite(KEY, "c", DEADLINE));
+        otherNode.unlockForWrite(KEY, "x");
+
+        Assert.assertNull(rwLockServer.lockForWrite(KEY, "c", DEADLINE));
+        rwLockServer.removeWriterWaiter(KEY, "c");
+        rwLockServer.unlockForWrite(KEY, "c");
+
+        Assert.assertEquals(3, count("lockForWrite"));
+        Assert.assertEquals(3, count("unlockForWrite"));
+    }
+
+    // 停放在本地的锁的最后一个等待者超时离开：收回锁（在服务端解锁）
+    @Test
+    public void testReclaimWhenLastWaiterTimesOut() throws InterruptedException {
+        RWLockServer rwLockServer = newRWLockServer(2);
+
+        Assert.assertNull(rwLockServer.lockForWrite(KEY, "a", DEADLINE));
+        waitForWrite(rwLockServer, "b");
+        waitForWrite(rwLockServer, "c");
+        rwLockServer.unlockForWrite(KEY, "a");
+        Assert.assertEquals(0, count("unlockForWrite"));
+        // 还有等待者时不收回
+        rwLockServer.removeWriterWaiter(KEY, "b");
+        Assert.assertEquals(0, count("unlockForWrite"));
+        rwLockServer.removeWriterWaiter(KEY, "c");
+        Assert.assertEquals(1, count("unlockForWrite"));
+
+        // 收回后新的加锁者需在服务端加锁
+        Assert.assertNull(rwLockServer.lockForWrite(KEY, "d", DEADLINE));
+        rwLockServer.unlockForWrite(KEY, "d");
+        Assert.assertEquals(2, count("lockForWrite"));
+        Assert.assertEquals(2, count("unlockForWrite"));
+    }
+
+    // 接手的写锁中再加读锁：读锁只在本地加，写锁等到读锁解锁后才释放
+    @Test
+    public void testReadInTakenOverWrite() throws InterruptedException {
+        RWLockServer rwLockServer = newRWLockServer(2);
+
+        Assert.assertNull(rwLockServer.lockForWrite(KEY, "a", DEADLINE));
+        waitForWrite(rwLockServer, "b");
+        rwLockServer.unlockForWrite(KEY, "a");
+        Assert.assertNull(rwLockServer.lockForWrite(KEY, "b", DEADLINE));
+        rwLockServer.removeWriterWaiter(KEY, "b");
+
+        Assert.assertNull(rwLockServer.lockForRead(KEY, "b", DEADLINE));
+        Assert.assertEquals(0, count("lockForRead"));
+        rwLockServer.unlockForWrite(KEY, "b");
+        // 写锁被推迟释放，其他加锁者仍需等待
+        Assert.assertEquals(0, count("unlockForWrite"));
+        Assert.assertNotNull(rwLockServer.lockForWrite(KEY, "c", DEADLINE));
+        Assert.assertNotNull(rwLockServer.lockForRead(KEY, "d", DEADLINE));
+
+        rwLockServer.unlockForRead(KEY, "b");
+        Assert.assertEquals(1, count("unlockForWrite"));
+        Assert.assertEquals(0, count("unlockForRead"));
+
+        Assert.assertNull(rwLockServer.lockForRead(KEY, "d", DEADLINE));
+        rwLockServer.unlockForRead(KEY, "d");
+        Assert.assertEquals(1, count("lockForRead"));
+        Assert.assertEquals(1, count("unlockForRead"));
+    }
+
+    // 以自己的名义持有写锁的线程再加读锁：读锁在服务端加，写锁解锁时即使有本地等待者也不能停放
+    @Test
+    public void testReadInServerWrite() throws InterruptedException {
+        RWLockServer rwLockServer = newRWLockServer(2);
+
+        Assert.assertNull(rwLockServer.lockForWrite(KEY, "a", DEADLINE));
+        Assert.assertNull(rwLockServer.lockForRead(KEY, "a", DEADLINE));
+        Assert.assertEquals(1, count("lockForRead"));
+
+        waitForWrite(rwLockServer, "b");
+        rwLockServer.unlockForWrite(KEY, "a");
+        Assert.assertEquals(1, count("unlockForWrite"));
+        // 读锁仍在服务端持有
+        Assert.assertNotNull(rwLockServer.lockForWrite(KEY, "b", DEADLINE));
+        rwLockServer.unlockForRead(KEY, "a");
+        Assert.assertEquals(1, count("unlockForRead"));
+
+        Assert.assertNull(rwLockServer.lockForWrite(KEY, "b", DEADLINE));
+        rwLockServer.removeWriterWaiter(KEY, "b");
+        rwLockServer.unlockForWrite(KEY, "b");
+        Assert.assertEquals(2, count("lockForWrite"));
+        Assert.assertEquals(2, count("unlockForWrite"));
+    }
+
+    // 偏向时只在服务端加锁失败后请求撤销，且每轮等待只请求一次
+    @Test
+    public void testRevokeRequestedOncePerWait() throws InterruptedException {
+        RWLockServer rwLockServer = newRWLockServer(0, 60 * 1000);
+        RWLockServer otherNode = newRWLockServer(0, 60 * 1000);
+
+        Assert.assertNull(rwLockServer.lockForWrite(KEY, "a", DEADLINE));
+        // 被本地写者阻塞的读者和写者不访问服务端，也不请求撤销
+        Assert.assertNotNull(rwLockServer.lockForRead(KEY, "r", DEADLINE));
+        Assert.assertNotNull(rwLockServer.lockForWrite(KEY, "w", DEADLINE));
+        Assert.assertEquals(0, count("requestRevoke"));
+
+        // 其他节点第一次失败时请求撤销，成为等待者后重试不再请求
+        waitForWrite(otherNode, "x");
+        Assert.assertEquals(1, count("requestRevoke"));
+        Assert.assertNotNull(otherNode.lockForWrite(KEY, "x", DEADLINE));
+        Assert.assertNotNull(otherNode.lockForRead(KEY, "y", DEADLINE));
+        Assert.assertEquals(2, count("requestRevoke"));
+        otherNode.removeWriterWaiter(KEY, "x");
+        Assert.assertNotNull(otherNode.lockForWrite(KEY, "x", DEADLINE));
+        Assert.assertEquals(3, count("requestRevoke"));
+        rwLockServer.unlockForWrite(KEY, "a");
+    }
+
+    // 互斥锁的移交
+    @Test
+    public void testMutexHandoff() throws InterruptedException {
+        MutexLockServer mutexLockServer = new MutexLockServer(server, syncExecutor, newOptions(1), NoopSyncMetrics.INSTANCE);
+
+        Assert.assertNull(mutexLockServer.lock(KEY, "a", DEADLINE));
+        SyncWaiter waiter = mutexLockServer.lock(KEY, "b", DEADLINE);
+        Assert.assertNotNull(waiter);
+        waiter.waitSync(1);
+        mutexLockServer.unlock(KEY, "a");
+        Assert.assertEquals(0, count("unlockForMutex"));
+        Assert.assertNull(mutexLockServer.lock(KEY, "b", DEADLINE));
+        mutexLockServer.removeWaiter(KEY, "b");
+        mutexLockServer.unlock(KEY, "b");
+
+        Assert.assertEquals(1, count("lockForMutex"));
+        Assert.assertEquals(1, count("unlockForMutex"));
+    }
+
+    // 多线程竞争：移交不破坏互斥，服务端的加锁和解锁次数一致
+    @Test
+    public void testConcurrentHandoff() throws InterruptedException {
+        int amountOfThread = 8;
+        int loop = 200;
+        SyncContext syncContext = new SyncContext(new DefaultKeyConverter(), server, newOptions(3), NoopSyncMetrics.INSTANCE);
+        ExecutorService executor = Executors.newFixedThreadPool(amountOfThread);
+        int[] amount = {0};
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(amountOfThread);
+        try {
+            for (int i = 0; i < amountOfThread; i++) {
+                executor.execute(() -> {
+                    try {
+                        for (int j = 0; j < loop; j++) {
+                            Lock lock = syncContext.getLockContext().getRWLock(KEY).writeLock();
+                            lock.lock();
+                            try {
+                                amount[0]++;
+                            } finally {
+                                lock.unlock();
+                            }
+                        }
+                    } catch (Throwable e) {
+                        errors.incrementAndGet();
+                    } finally {
+                        latch.countDown();
+                    }
+                });
+            }
+            Assert.assertTrue(latch.await(60, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+            syncContext.close();
+        }
+        Assert.assertEquals(0, errors.get());
+        Assert.assertEquals(amountOfThread * loop, amount[0]);
+        Assert.assertEquals(count("lockForWrite"), count("unlockForWrite"));
+    }
+
+    // 新建读写锁服务端（不偏向）
+    private RWLockServer newRWLockServer(int handoffBudget) {
+        return newRWLockServer(handoffBudget, 0);
+    }
+
+    // 新建读写锁服务端
+    private RWLockServer newRWLockServer(int handoffBudget, long biasedGracePeriod) {
+        SyncOptions options = newOptions(handoffBudget);
+        options.setBiasedGracePeriod(biasedGracePeriod);
+        return new RWLockServer(server, syncExecutor, options, NoopSyncMetrics.INSTANCE);
+    }
+
+    // 新建选项
+    private SyncOptions newOptions(int handoffBudget) {
+        SyncOptions options = new SyncOptions();
+        options.setCohortHandoffBudget(handoffBudget);
+        return options;
+    }
+
+    // 加写锁失败后成为本地等待者（和AbstractReentrantLock一样，等待者直到加锁结束才删除）
+    private void waitForWrite(RWLockServer rwLockServer, String lockerId) throws InterruptedException {
+        SyncWaiter waiter = rwLockServer.lockForWrite(KEY, lockerId, DEADLINE);
+        Assert.assertNotNull(waiter);
+        waiter.waitSync(1);
+    }
+
+    // 获取服务端方法成功调用的次数
+    private int count(String methodName) {
+        AtomicInteger counter = calls.get(methodName);
+        return counter == null ? 0 : counter.get();
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 18:24 创建
+ */
+package org.antframework.sync.lock;
+
+import org.antframework.sync.SyncContext;
+import org.antframework.sync.SyncOptions;
+import org.antframework.sync.common.DefaultKeyConverter;
+import org.antframework.sync.common.DefaultKeyGenerator;
+import org.antframework.sync.common.SyncExecutor;
+import org.antframework.sync.common.SyncWaiter;
+import org.antframework.sync.extension.Server;
+import org.antframework.sync.extension.local.LocalServer;
+import org.antframework.sync.extension.redis.LuaRedisExecutor;
+import org.antframework.sync.extension.redis.RedisServer;
+import org.antframework.sync.lock.support.RWLockServer;
+import org.antframework.sync.metrics.support.NoopSyncMetrics;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * 本地读者组（节点级别的读者只在第一个读者加锁和最后一个读者解锁时访问服务端）和读写交错的单元测试（分别基于本地服务端和使用进程内redis执行器的redis服务端）
+ */
+@RunWith(Parameterized.class)
+public class ReaderGroupTest {
+    // 锁的标识
+    private static final String KEY = "reader-group";
+    // 截止时间
+    private static final long DEADLINE = Long.MAX_VALUE;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> serverTypes() {
+        return Arrays.asList(new Object[]{"local"}, new Object[]{"redis"});
+    }
+
+    // 服务端类型（local：本地服务端；redis：使用进程内redis执行器的redis服务端）
+    private final String serverType;
+    // 进程内redis执行器（服务端类型为redis时才有）
+    private LuaRedisExecutor redisExecutor;
+    // 被统计的服务端
+    private Server targetServer;
+    // 统计调用次数的服务端
+    private Server server;
+    // 服务端方法成功调用的次数（方法名-次数；加锁方法只统计加锁成功的）
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    // Sync执行器
+    private SyncExecutor syncExecutor;
+
+    public ReaderGroupTest(String serverType) {
+        this.serverType = serverType;
+    }
+
+    @Before
+    public void setup() {
+        switch (serverType) {
+            case "local":
+                targetServer = new LocalServer();
+                break;
+            case "redis":
+                redisExecutor = new LuaRedisExecutor();
+                targetServer = new RedisServer(new DefaultKeyGenerator("test"), redisExecutor, 10 * 60 * 1000);
+                break;
+            default:
+                throw new IllegalArgumentException("无法识别的服务端类型：" + serverType);
+        }
+        server = (Server) Proxy.newProxyInstance(
+                Server.class.getClassLoader(),
+                new Class<?>[]{Server.class},
+                (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(targetServer, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                    if (!method.getName().startsWith("lock") || result == null) {
+                        calls.computeIfAbsent(method.getName(), k -> new AtomicInteger()).incrementAndGet();
+                    }
+                    return result;
+                });
+        syncExecutor = new SyncExecutor(NoopSyncMetrics.INSTANCE);
+    }
+
+    @After
+    public void tearDown() {
+        syncExecutor.close();
+        targetServer.close();
+        if (redisExecutor != null) {
+            redisExecutor.close();
+        }
+    }
+
+    // 只有第一个本地读者加锁（0→1）和最后一个本地读者解锁（1→0）时访问服务端
+    @Test
+    public void testEdgeTriggered() {
+        RWLockServer rwLockServer = newRWLockServer();
+
+        for (int round = 1; round <= 2; round++) {
+            Assert.assertNull(rwLockServer.lockForRead(KEY, "a", DEADLINE));
+            Assert.assertNull(rwLockServer.lockForRead(KEY, "b", DEADLINE));
+            rwLockServer.unlockForRead(KEY, "a");
+            Assert.assertNull(rwLockServer.lockForRead(KEY, "c", DEADLINE));
+            Assert.assertEquals(round, count("lockForRead"));
+            rwLockServer.unlockForRead(KEY, "b");
+            Assert.assertEquals(round - 1, count("unlockForRead"));
+            rwLockServer.unlockForRead(KEY, "c");
+            Assert.assertEquals(round, count("unlockForRead"));
+        }
+    }
+
+    // 有本地写者在等待时新的本地读者不再加入读者组，读者组解散后写者加锁，写者解锁后读者才能加锁
+    @Test
+    public void testLocalWriterWaiting() throws InterruptedException {
+        RWLockServer rwLockServer = newRWLockServer();
+
+        Assert.assertNull(rwLockServer.lockForRead(KEY, "a", DEADLINE));
+        waitForWrite(rwLockServer, "w");
+        Assert.assertNotNull(rwLockServer.lockForRead(KEY, "b", DEADLINE));
+        Assert.assertEquals(1, count("lockForRead"));
+
+        rwLockServer.unlockForRead(KEY, "a");
+        Assert.assertEquals(1, count("unlockForRead"));
+        Assert.assertNull(rwLockServer.lockForWrite(KEY, "w", DEADLINE));
+        rwLockServer.removeWriterWaiter(KEY, "w");
+        Assert.assertNotNull(rwLockServer.lockForRead(KEY, "b", DEADLINE));
+
+        rwLockServer.unlockForWrite(KEY, "w");
+        Assert.assertNull(rwLockServer.lockForRead(KEY, "b", DEADLINE));
+        rwLockServer.unlockForRead(KEY, "b");
+        Assert.assertEquals(2, count("lockForRead"));
+        Assert.assertEquals(2, count("unlockForRead"));
+        Assert.assertEquals(1, count("lockForWrite"));
+        Assert.assertEquals(1, count("unlockForWrite"));
+    }
+
+    // 等待的本地写者都放弃后唤醒被阻塞的本地读者
+    @Test
+    public void testWriterGivesUp() throws Exception {
+        RWLockServer rwLockServer = newRWLockServer();
+
+        Assert.assertNull(rwLockServer.lockForRead(KEY, "a", DEADLINE));
+        waitForWrite(rwLockServer, "w");
+        SyncWaiter waiter = rwLockServer.lockForRead(KEY, "b", DEADLINE);
+        Assert.assertNotNull(waiter);
+        CompletableFuture<Boolean> notified = new CompletableFuture<>();
+        waiter.waitAsync(60 * 1000, notified::complete);
+
+        rwLockServer.removeWriterWaiter(KEY, "w");
+        Assert.assertTrue(notified.get(5, TimeUnit.SECONDS));
+        rwLockServer.removeReaderWaiter(KEY, "b");
+        Assert.assertNull(rwLockServer.lockForRead(KEY, "b", DEADLINE));
+        Assert.assertEquals(1, count("lockForRead"));
+
+        rwLockServer.unlockForRead(KEY, "a");
+        rwLockServer.unlockForRead(KEY, "b");
+        Assert.assertEquals(1, count("unlockForRead"));
+    }
+
+    // 其他节点的写者预订在读者组下次在服务端加锁时生效；服务端已有的读者再次加读锁不受预订影响
+    @Test
+    public void testRemoteWriterBooking() throws InterruptedException {
+        RWLockServer rwLockServer = newRWLockServer();
+        RWLockServer otherNode = newRWLockServer();
+
+        Assert.assertNull(rwLockServer.lockForRead(KEY, "a", DEADLINE));
+        waitForWrite(otherNode, "x");
+        Assert.assertNull(rwLockServer.lockForRead(KEY, "b", DEADLINE));
+        rwLockServer.unlockForRead(KEY, "a");
+        rwLockServer.unlockForRead(KEY, "b");
+
+        Assert.assertNotNull(rwLockServer.lockForRead(KEY, "c", DEADLINE));
+        Assert.assertNull(otherNode.lockForWrite(KEY, "x", DEADLINE));
+        otherNode.removeWriterWaiter(KEY, "x");
+        otherNode.unlockForWrite(KEY, "x");
+        Assert.assertNull(rwLockServer.lockForRead(KEY, "c", DEADLINE));
+        rwLockServer.unlockForRead(KEY, "c");
+
+        Assert.assertNull(server.lockForRead(KEY, "reader", DEADLINE));
+        Assert.assertNotNull(server.lockForWrite(KEY, "writer", DEADLINE));
+        Assert.assertNull(server.lockForRead(KEY, "reader", DEADLINE));
+        server.unlockForRead(KEY, "reader");
+        Assert.assertNull(server.lockForWrite(KEY, "writer", DEADLINE));
+        server.unlockForWrite(KEY, "writer");
+    }
+
+    // 两个节点的读者和写者交错：写者之间互斥、读者读不到写了一半的数据，服务端的加锁和解锁次数一致
+    @Test
+    public void testInterleaving() throws InterruptedException {
+        int amountOfThread = 8;
+        int loop = 200;
+        SyncContext[] syncContexts = {newSyncContext(), newSyncContext()};
+        ExecutorService executor = Executors.newFixedThreadPool(amountOfThread);
+        int[] left = {0};
+        int[] right = {0};
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(amountOfThread);
+        try {
+            for (int i = 0; i < amountOfThread; i++) {
+                SyncContext syncContext = syncContexts[i % 2];
+                boolean writer = i % 4 == 0;
+                executor.execute(() -> {
+                    try {
+                        for (int j = 0; j < loop; j++) {
+                            ReadWriteLock rwLock = syncContext.getLockContext().getRWLock(KEY);
+                            if (writer) {
+                                rwLock.writeLock().lock();
+                                try {
+                                    left[0]++;
+                                    right[0]++;
+                                } finally {
+                                    rwLock.writeLock().unlock();
+                                }
+                            } else {
+                                rwLock.readLock().lock();
+                                try {
+                                    if (left[0] != right[0]) {
+                                        errors.incrementAndGet();
+                                    }
+                                } finally {
+                                    rwLock.readLock().unlock();
+                                }
+                            }
+                        }
+                    } catch (Throwable e) {
+                        errors.incrementAndGet();
+                    } finally {
+                        latch.countDown();
+                    }
+                });
+            }
+            Assert.assertTrue(latch.await(60, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+            for (SyncContext syncContext : syncContexts) {
+                syncContext.close();
+            }
+        }
+        Assert.assertEquals(0, errors.get());
+        Assert.assertEquals(loop * 2, left[0]);
+        Assert.assertEquals(left[0], right[0]);
+        Assert.assertEquals(count("lockForRead"), count("unlockForRead"));
+        Assert.assertEquals(count("lockForWrite"), count("unlockForWrite"));
+    }
+
+    // 新建读写锁服务端
+    private RWLockServer newRWLockServer() {
+        return new RWLockServer(server, syncExecutor, new SyncOptions(), NoopSyncMetrics.INSTANCE);
+    }
+
+    // 新建Sync上下文（相当于一个节点）
+    private SyncContext newSyncContext() {
+        return new SyncContext(new DefaultKeyConverter(), server, new SyncOptions(), NoopSyncMetrics.INSTANCE);
+    }
+
+    // 加写锁失败后成为本地等待者（和AbstractReentrantLock一样，等待者直到加锁结束才删除）
+    private void waitForWrite(RWLockServer rwLockServer, String lockerId) throws InterruptedException {
+        SyncWaiter waiter = rwLockServer.lockForWrite(KEY, lockerId, DEADLINE);
+        Assert.assertNotNull(waiter);
+        waiter.waitSync(1);
+    }
+
+    // 获取服务端方法成功调用的次数
+    private int count(String methodName) {
+        AtomicInteger counter = calls.get(methodName);
+        return counter == null ? 0 : counter.get();
+    }
+}
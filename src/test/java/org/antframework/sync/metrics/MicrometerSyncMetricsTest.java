@@ -0,0 +1,120 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 18:06 创建
+ */
+package org.antframework.sync.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.antframework.sync.SyncContext;
+import org.antframework.sync.common.DefaultKeyConverter;
+import org.antframework.sync.common.DefaultKeyGenerator;
+import org.antframework.sync.extension.redis.LuaRedisExecutor;
+import org.antframework.sync.extension.redis.RedisServer;
+import org.antframework.sync.extension.redis.support.MetricsRedisExecutor;
+import org.antframework.sync.metrics.micrometer.MicrometerSyncMetrics;
+import org.antframework.sync.semaphore.Semaphore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * 基于micrometer的指标收集器单元测试（校验加锁、获取许可、等待同步、执行脚本、线程池记录的指标）
+ */
+public class MicrometerSyncMetricsTest {
+    // 指标注册中心
+    private SimpleMeterRegistry registry;
+    // 指标收集器
+    private MicrometerSyncMetrics metrics;
+    // 进程内redis执行器
+    private LuaRedisExecutor redisExecutor;
+    // redis服务端
+    private RedisServer server;
+    // Sync上下文
+    private SyncContext syncContext;
+
+    @Before
+    public void setup() {
+        registry = new SimpleMeterRegistry();
+        metrics = new MicrometerSyncMetrics(registry);
+        redisExecutor = new LuaRedisExecutor();
+        server = new RedisServer(new DefaultKeyGenerator("test"), redisExecutor, 10 * 60 * 1000, metrics);
+        syncContext = new SyncContext(new DefaultKeyConverter(), server, 10 * 1000, metrics);
+    }
+
+    @After
+    public void tearDown() {
+        syncContext.close();
+        server.close();
+        redisExecutor.close();
+    }
+
+    // 加锁成功、持有时长、执行的脚本
+    @Test
+    public void testLock() {
+        Lock lock = syncContext.getLockContext().getLock("lock");
+        lock.lock();
+        lock.unlock();
+
+        Assert.assertEquals(1, registry.get("sync.acquire").tags("type", SyncMetrics.MUTEX_LOCK, "result", "success").timer().count());
+        Assert.assertEquals(1, registry.get("sync.acquire.retries").tags("type", SyncMetrics.MUTEX_LOCK, "result", "success").summary().count());
+        Assert.assertEquals(0, registry.get("sync.acquire.retries").tags("type", SyncMetrics.MUTEX_LOCK, "result", "success").summary().totalAmount(), 0);
+        Assert.assertEquals(1, registry.get("sync.hold").tag("type", SyncMetrics.MUTEX_LOCK).timer().count());
+        Assert.assertEquals(1, registry.get("sync.redis.script").tags("script", "MutexLock-lock", "result", "success").timer().count());
+        Assert.assertEquals(1, registry.get("sync.redis.script").tags("script", "MutexLock-unlock", "result", "success").timer().count());
+    }
+
+    // 获取失败时记录失败结果和等待同步的结果
+    @Test
+    public void testAcquireFailed() throws InterruptedException {
+        SyncContext other = new SyncContext(new DefaultKeyConverter(), server, 10 * 1000, metrics);
+        try {
+            Semaphore holder = syncContext.getSemaphoreContext().getSemaphore("semaphore", 1);
+            holder.acquire();
+            Assert.assertFalse(other.getSemaphoreContext().getSemaphore("semaphore", 1).tryAcquire(200, TimeUnit.MILLISECONDS));
+            holder.release();
+        } finally {
+            other.close();
+        }
+
+        Assert.assertEquals(1, registry.get("sync.acquire").tags("type", SyncMetrics.SEMAPHORE, "result", "success").timer().count());
+        Assert.assertEquals(1, registry.get("sync.acquire").tags("type", SyncMetrics.SEMAPHORE, "result", "failure").timer().count());
+        Assert.assertTrue(registry.get("sync.acquire.retries").tags("type", SyncMetrics.SEMAPHORE, "result", "failure").summary().totalAmount() >= 1);
+        double waited = 0;
+        for (Counter counter : registry.get("sync.wait").tag("sync-type", "SEMAPHORE").counters()) {
+            waited += counter.count();
+        }
+        Assert.assertTrue(waited >= 1);
+        Assert.assertEquals(1, registry.get("sync.hold").tag("type", SyncMetrics.SEMAPHORE).timer().count());
+    }
+
+    // 脚本执行出错时记录失败结果
+    @Test
+    public void testScriptFailed() {
+        MetricsRedisExecutor executor = new MetricsRedisExecutor(redisExecutor, metrics);
+        Object script = executor.encodeScript("Test-bad", "return redis.call('unknown', KEYS[1]);", Long.class);
+        try {
+            executor.eval(script, Collections.singletonList("bad"), Collections.emptyList());
+            Assert.fail("执行不支持的命令应抛出异常");
+        } catch (RuntimeException e) {
+            // 预期的异常
+        }
+        Assert.assertEquals(1, registry.get("sync.redis.script").tags("script", "Test-bad", "result", "failure").timer().count());
+        Assert.assertNull(registry.find("sync.redis.script").tags("script", "Test-bad", "result", "success").timer());
+    }
+
+    // 线程池指标（redis服务端的维护线程池）
+    @Test
+    public void testExecutor() {
+        Assert.assertNotNull(registry.find("executor.pool.size").tag("name", "sync-redis-maintain-executor").gauge());
+    }
+}
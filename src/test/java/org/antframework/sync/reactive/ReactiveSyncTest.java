@@ -0,0 +1,176 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 18:33 创建
+ */
+package org.antframework.sync.reactive;
+
+import org.antframework.sync.SyncContext;
+import org.antframework.sync.common.DefaultKeyConverter;
+import org.antframework.sync.extension.local.LocalServer;
+import org.antframework.sync.lock.AsyncLockHandle;
+import org.antframework.sync.lock.annotation.Lock;
+import org.antframework.sync.lock.annotation.support.LockAop;
+import org.antframework.sync.semaphore.AsyncSemaphoreHandle;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 响应式Sync单元测试（Mono、Flux在完成、出错、被取消时释放锁和许可；切面中的响应式方法）
+ */
+public class ReactiveSyncTest {
+    // 锁、信号量的标识
+    private static final String KEY = "reactive";
+    // 阻塞等待结果的时间
+    private static final Duration BLOCK_TIME = Duration.ofSeconds(5);
+
+    // 服务端
+    private LocalServer server;
+    // Sync上下文
+    private SyncContext syncContext;
+    // 响应式Sync
+    private ReactiveSync reactiveSync;
+
+    @Before
+    public void setup() {
+        server = new LocalServer();
+        syncContext = new SyncContext(new DefaultKeyConverter(), server, 10 * 1000);
+        reactiveSync = new ReactiveSync(syncContext);
+    }
+
+    @After
+    public void tearDown() {
+        syncContext.close();
+        server.close();
+    }
+
+    // Mono完成、出错后解锁
+    @Test
+    public void testMono() throws Exception {
+        String result = reactiveSync.withLock(reactiveSync.lock(KEY, 1000), () -> Mono.fromCallable(() -> {
+            Assert.assertFalse(isLockFree());
+            return "ok";
+        })).block(BLOCK_TIME);
+        Assert.assertEquals("ok", result);
+        awaitLockFree();
+
+        try {
+            reactiveSync.withLock(reactiveSync.lock(KEY, 1000), () -> Mono.error(new IllegalStateException("出错"))).block(BLOCK_TIME);
+            Assert.fail("应抛出动作的异常");
+        } catch (IllegalStateException e) {
+            // 预期的异常
+        }
+        awaitLockFree();
+    }
+
+    // Flux发出所有元素后释放许可
+    @Test
+    public void testFlux() throws Exception {
+        List<Integer> result = reactiveSync.withPermitsMany(reactiveSync.acquire(KEY, 1, 1, 1000), () -> Flux.just(1, 2, 3))
+                .collectList()
+                .block(BLOCK_TIME);
+        Assert.assertEquals(Arrays.asList(1, 2, 3), result);
+        AsyncSemaphoreHandle permit = syncContext.getSemaphoreContext().tryAcquireAsync(KEY, 1, 1, 1000, TimeUnit.MILLISECONDS).get(5, TimeUnit.SECONDS);
+        Assert.assertNotNull(permit);
+        permit.release();
+    }
+
+    // 超时时发出TimeoutException
+    @Test
+    public void testTimeout() throws Exception {
+        AsyncLockHandle holder = reactiveSync.lock(KEY, 0).block(BLOCK_TIME);
+        Assert.assertNotNull(holder);
+        try {
+            reactiveSync.lock(KEY, 100).block(BLOCK_TIME);
+            Assert.fail("应超时");
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        holder.unlock();
+        awaitLockFree();
+    }
+
+    // 取消订阅时解锁
+    @Test
+    public void testCancel() throws Exception {
+        Disposable disposable = reactiveSync.withLockMany(reactiveSync.lock(KEY, 1000), Flux::never).subscribe();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (isLockFree() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertFalse(isLockFree());
+        disposable.dispose();
+        awaitLockFree();
+    }
+
+    // 切面中返回Mono、Flux的方法：订阅时才加锁，结束后解锁
+    @Test
+    public void testAop() throws Exception {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new ReactiveService());
+        factory.addAspect(new LockAop(syncContext.getLockContext(), 0));
+        ReactiveService service = factory.getProxy();
+
+        Mono<String> mono = service.mono(KEY);
+        Assert.assertTrue(isLockFree());
+        Assert.assertEquals("locked", mono.block(BLOCK_TIME));
+        awaitLockFree();
+
+        Assert.assertEquals(Arrays.asList("locked", "locked"), service.flux(KEY).collectList().block(BLOCK_TIME));
+        awaitLockFree();
+
+        Assert.assertNull(service.nullMono(KEY).block(BLOCK_TIME));
+        awaitLockFree();
+    }
+
+    // 锁是否空闲（可能在Sync执行器的线程中执行，使用不依赖Sync执行器的同步锁检查）
+    private boolean isLockFree() {
+        java.util.concurrent.locks.Lock lock = syncContext.getLockContext().getLock(KEY);
+        if (!lock.tryLock()) {
+            return false;
+        }
+        lock.unlock();
+        return true;
+    }
+
+    // 等待锁被释放（释放在弹性线程池中异步执行）
+    private void awaitLockFree() throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!isLockFree()) {
+            Assert.assertTrue("锁未被释放", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    // 响应式服务
+    public class ReactiveService {
+        @Lock(key = "#p0")
+        public Mono<String> mono(String key) {
+            return Mono.fromCallable(() -> isLockFree() ? "free" : "locked");
+        }
+
+        @Lock(key = "#p0")
+        public Flux<String> flux(String key) {
+            return Flux.range(0, 2).map(i -> isLockFree() ? "free" : "locked");
+        }
+
+        @Lock(key = "#p0")
+        public Mono<String> nullMono(String key) {
+            return null;
+        }
+    }
+}
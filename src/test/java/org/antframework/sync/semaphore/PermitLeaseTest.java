@@ -0,0 +1,148 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 17:43 创建
+ */
+package org.antframework.sync.semaphore;
+
+import org.antframework.sync.SyncOptions;
+import org.antframework.sync.common.DefaultKeyGenerator;
+import org.antframework.sync.common.SyncExecutor;
+import org.antframework.sync.extension.Server;
+import org.antframework.sync.extension.local.LocalServer;
+import org.antframework.sync.extension.redis.LuaRedisExecutor;
+import org.antframework.sync.extension.redis.RedisServer;
+import org.antframework.sync.metrics.support.NoopSyncMetrics;
+import org.antframework.sync.semaphore.support.SemaphoreServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 许可租约（扩租、请求撤销）单元测试（分别基于本地服务端和使用进程内redis执行器的redis服务端）
+ */
+@RunWith(Parameterized.class)
+public class PermitLeaseTest {
+    // 信号量标识
+    private static final String KEY = "lease";
+    // 许可总数
+    private static final int TOTAL_PERMITS = 2;
+    // 截止时间
+    private static final long DEADLINE = Long.MAX_VALUE;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> serverTypes() {
+        return Arrays.asList(new Object[]{"local"}, new Object[]{"redis"});
+    }
+
+    // 服务端类型（local：本地服务端；redis：使用进程内redis执行器的redis服务端）
+    private final String serverType;
+    // 进程内redis执行器（服务端类型为redis时才有）
+    private LuaRedisExecutor redisExecutor;
+    // 被统计的服务端
+    private Server targetServer;
+    // 统计调用次数的服务端
+    private Server server;
+    // 服务端方法调用的次数（方法名-次数）
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    // Sync执行器
+    private SyncExecutor syncExecutor;
+
+    public PermitLeaseTest(String serverType) {
+        this.serverType = serverType;
+    }
+
+    @Before
+    public void setup() {
+        switch (serverType) {
+            case "local":
+                targetServer = new LocalServer();
+                break;
+            case "redis":
+                redisExecutor = new LuaRedisExecutor();
+                targetServer = new RedisServer(new DefaultKeyGenerator("test"), redisExecutor, 10 * 60 * 1000);
+                break;
+            default:
+                throw new IllegalArgumentException("无法识别的服务端类型：" + serverType);
+        }
+        server = (Server) Proxy.newProxyInstance(
+                Server.class.getClassLoader(),
+                new Class<?>[]{Server.class},
+                (proxy, method, args) -> {
+                    calls.computeIfAbsent(method.getName(), k -> new AtomicInteger()).incrementAndGet();
+                    try {
+                        return method.invoke(targetServer, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+        syncExecutor = new SyncExecutor(NoopSyncMetrics.INSTANCE);
+    }
+
+    @After
+    public void tearDown() {
+        syncExecutor.close();
+        targetServer.close();
+        if (redisExecutor != null) {
+            redisExecutor.close();
+        }
+    }
+
+    // 有竞争时：第一次失败按块获取和只获取需要的各一次，之后只获取需要的；一个空闲期内只请求一次撤销
+    @Test
+    public void testContendedAcquire() {
+        SemaphoreServer semaphoreServer = newSemaphoreServer();
+        // 其他节点持有所有许可
+        Assert.assertNull(targetServer.acquireForSemaphore(KEY, "other", TOTAL_PERMITS, TOTAL_PERMITS, DEADLINE));
+
+        Assert.assertNotNull(semaphoreServer.acquire(KEY, "a", 1, TOTAL_PERMITS, DEADLINE));
+        Assert.assertEquals(2, count("acquireForSemaphore"));
+        Assert.assertEquals(1, count("requestRevoke"));
+        Assert.assertNotNull(semaphoreServer.acquire(KEY, "a", 1, TOTAL_PERMITS, DEADLINE));
+        Assert.assertNotNull(semaphoreServer.acquire(KEY, "a", 1, TOTAL_PERMITS, DEADLINE));
+        Assert.assertEquals(4, count("acquireForSemaphore"));
+        Assert.assertEquals(1, count("requestRevoke"));
+
+        targetServer.releaseForSemaphore(KEY, "other", 0, TOTAL_PERMITS);
+        Assert.assertNull(semaphoreServer.acquire(KEY, "a", 1, TOTAL_PERMITS, DEADLINE));
+        Assert.assertEquals(5, count("acquireForSemaphore"));
+        // 竞争解除后恢复按块获取
+        Assert.assertNull(semaphoreServer.acquire(KEY, "b", 1, TOTAL_PERMITS, DEADLINE));
+        Assert.assertEquals(6, count("acquireForSemaphore"));
+
+        // 许可留在租约内
+        semaphoreServer.release(KEY, "a", 0, TOTAL_PERMITS);
+        semaphoreServer.release(KEY, "b", 0, TOTAL_PERMITS);
+        Assert.assertNull(semaphoreServer.acquire(KEY, "c", 2, TOTAL_PERMITS, DEADLINE));
+        Assert.assertEquals(6, count("acquireForSemaphore"));
+        Assert.assertEquals(0, count("releaseForSemaphore"));
+    }
+
+    // 新建信号量服务端
+    private SemaphoreServer newSemaphoreServer() {
+        SyncOptions options = new SyncOptions();
+        options.setSemaphoreLeaseBlockSize(4);
+        options.setSemaphoreLeaseIdleTime(60 * 1000);
+        return new SemaphoreServer(server, syncExecutor, options, NoopSyncMetrics.INSTANCE);
+    }
+
+    // 获取服务端方法调用的次数
+    private int count(String methodName) {
+        AtomicInteger counter = calls.get(methodName);
+        return counter == null ? 0 : counter.get();
+    }
+}
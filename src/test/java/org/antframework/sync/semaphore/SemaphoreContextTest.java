@@ -0,0 +1,147 @@
+/*
+ * 作者：钟勋 (email:zhongxunking@163.com)
+ */
+
+/*
+ * 修订记录:
+ * @author agent 2026-10-18 18:48 创建
+ */
+package org.antframework.sync.semaphore;
+
+import org.antframework.sync.SyncContext;
+import org.antframework.sync.SyncOptions;
+import org.antframework.sync.common.DefaultKeyConverter;
+import org.antframework.sync.extension.local.LocalServer;
+import org.antframework.sync.metrics.support.NoopSyncMetrics;
+import org.antframework.sync.semaphore.core.AbstractServerSemaphore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 信号量上下文单元测试（getSemaphore每次新建信号量；getThreadSemaphore线程内复用信号量及其替换规则）
+ */
+public class SemaphoreContextTest {
+    // 信号量标识
+    private static final String KEY = "semaphore";
+
+    // 服务端
+    private LocalServer server;
+    // Sync上下文
+    private SyncContext syncContext;
+    // 信号量上下文
+    private SemaphoreContext semaphoreContext;
+
+    @Before
+    public void setup() {
+        server = new LocalServer();
+        syncContext = new SyncContext(new DefaultKeyConverter(), server, new SyncOptions(), NoopSyncMetrics.INSTANCE);
+        semaphoreContext = syncContext.getSemaphoreContext();
+    }
+
+    @After
+    public void tearDown() {
+        syncContext.close();
+        server.close();
+    }
+
+    // getSemaphore每次获取到的都是新的信号量（信号量持有者id不同）
+    @Test
+    public void testGetSemaphore() {
+        Semaphore first = semaphoreContext.getSemaphore(KEY, 2);
+        Semaphore second = semaphoreContext.getSemaphore(KEY, 2);
+        Assert.assertNotSame(first, second);
+        Assert.assertNotEquals(semaphorerId(first), semaphorerId(second));
+        Assert.assertNotSame(semaphoreContext.getSemaphore(KEY, 2, 1, TimeUnit.SECONDS), semaphoreContext.getSemaphore(KEY, 2, 1, TimeUnit.SECONDS));
+        Assert.assertNotSame(semaphoreContext.getThreadSemaphore(KEY, 2), semaphoreContext.getSemaphore(KEY, 2));
+    }
+
+    // 同一个线程对同一个信号量标识和许可总数获取到的是同一个信号量；不同线程获取到的不同
+    @Test
+    public void testThreadSemaphore() throws InterruptedException {
+        Semaphore semaphore = semaphoreContext.getThreadSemaphore(KEY, 2);
+        Assert.assertSame(semaphore, semaphoreContext.getThreadSemaphore(KEY, 2));
+        Assert.assertNotSame(semaphore, semaphoreContext.getThreadSemaphore("other", 2));
+
+        Semaphore[] ofOtherThread = new Semaphore[1];
+        Thread thread = new Thread(() -> ofOtherThread[0] = semaphoreContext.getThreadSemaphore(KEY, 2));
+        thread.start();
+        thread.join();
+        Assert.assertNotSame(semaphore, ofOtherThread[0]);
+    }
+
+    // 许可总数不同时：未持有许可的信号量被替换；已持有许可时返回不复用的新信号量，持有中的信号量保留
+    @Test
+    public void testTotalPermitsReplacement() throws InterruptedException {
+        Semaphore semaphore = semaphoreContext.getThreadSemaphore(KEY, 2);
+        Semaphore replaced = semaphoreContext.getThreadSemaphore(KEY, 3);
+        Assert.assertNotSame(semaphore, replaced);
+        Assert.assertEquals(3, ((AbstractServerSemaphore) replaced).getTotalPermits());
+        Assert.assertSame(replaced, semaphoreContext.getThreadSemaphore(KEY, 3));
+
+        Assert.assertTrue(replaced.tryAcquire());
+        try {
+            Semaphore uncached = semaphoreContext.getThreadSemaphore(KEY, 4);
+            Assert.assertNotSame(replaced, uncached);
+            Assert.assertEquals(4, ((AbstractServerSemaphore) uncached).getTotalPermits());
+            Assert.assertNotSame(uncached, semaphoreContext.getThreadSemaphore(KEY, 4));
+            Assert.assertSame(replaced, semaphoreContext.getThreadSemaphore(KEY, 3));
+        } finally {
+            replaced.release();
+        }
+        // 释放后可被替换
+        Semaphore afterRelease = semaphoreContext.getThreadSemaphore(KEY, 4);
+        Assert.assertSame(afterRelease, semaphoreContext.getThreadSemaphore(KEY, 4));
+    }
+
+    // 租期不同时：未持有许可的信号量被替换；已持有许可时返回持有中的信号量（租期以首次获取许可时为准）
+    @Test
+    public void testLeaseTimeReplacement() throws InterruptedException {
+        Semaphore maintained = semaphoreContext.getThreadSemaphore(KEY, 2);
+        LeaseSemaphore leased = semaphoreContext.getThreadSemaphore(KEY, 2, 1, TimeUnit.SECONDS);
+        Assert.assertNotSame(maintained, leased);
+        Assert.assertEquals(1000, ((AbstractServerSemaphore) leased).getLeaseTime());
+        Assert.assertSame(leased, semaphoreContext.getThreadSemaphore(KEY, 2, 1000, TimeUnit.MILLISECONDS));
+
+        LeaseSemaphore otherLease = semaphoreContext.getThreadSemaphore(KEY, 2, 2, TimeUnit.SECONDS);
+        Assert.assertNotSame(leased, otherLease);
+        Assert.assertEquals(2000, ((AbstractServerSemaphore) otherLease).getLeaseTime());
+
+        Assert.assertTrue(otherLease.tryAcquire());
+        try {
+            Assert.assertSame(otherLease, semaphoreContext.getThreadSemaphore(KEY, 2));
+            Assert.assertSame(otherLease, semaphoreContext.getThreadSemaphore(KEY, 2, 1, TimeUnit.SECONDS));
+        } finally {
+            otherLease.release();
+        }
+        Semaphore afterRelease = semaphoreContext.getThreadSemaphore(KEY, 2);
+        Assert.assertNotSame(otherLease, afterRelease);
+        Assert.assertEquals(0, ((AbstractServerSemaphore) afterRelease).getLeaseTime());
+    }
+
+    // 非法参数
+    @Test
+    public void testIllegalArguments() {
+        assertIllegal(() -> semaphoreContext.getThreadSemaphore(KEY, -1));
+        assertIllegal(() -> semaphoreContext.getThreadSemaphore(KEY, 1, 100, TimeUnit.MICROSECONDS));
+        assertIllegal(() -> semaphoreContext.getSemaphore(KEY, -1));
+    }
+
+    // 获取信号量持有者id
+    private static String semaphorerId(Semaphore semaphore) {
+        return ((AbstractServerSemaphore) semaphore).getSemaphorerId();
+    }
+
+    // 断言抛出IllegalArgumentException
+    private static void assertIllegal(Runnable runnable) {
+        try {
+            runnable.run();
+            Assert.fail("应该抛出IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // 符合预期
+        }
+    }
+}